@@ -0,0 +1,43 @@
+#!/bin/sh
+#    Copyright 2023-2023 the original author or authors.
+#
+#    Licensed under the Apache License, Version 2.0 (the "License");
+#    you may not use this file except in compliance with the License.
+#    You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+#    Unless required by applicable law or agreed to in writing, software
+#    distributed under the License is distributed on an "AS IS" BASIS,
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+#    See the License for the specific language governing permissions and
+#    limitations under the License.
+#
+#
+#
+# Checks that the plugin JAR built in the given directory, target by default, is a multi-release JAR:
+# its base classes run on Java 11, and the classes of src/main/java21 are under META-INF/versions/21.
+# The multi-release profile is only active on Java 21 or later, so a JAR built on an older JDK fails this check.
+
+set -e
+
+directory="${1:-target}"
+# the main JAR is the one whose name ends with the version, not with a classifier as -sources or -tests
+jar=$(ls "$directory"/pom-editor-maven-plugin-*[0-9T].jar 2> /dev/null | head -n 1)
+versioned=META-INF/versions/21/br/org/soujava/pomeditor/api/VirtualThreads.class
+base=br/org/soujava/pomeditor/api/VirtualThreads.class
+
+fail() {
+  echo "$jar: $1" >&2
+  exit 1
+}
+
+[ -n "$jar" ] || fail "no plugin JAR found in $directory"
+unzip -p "$jar" META-INF/MANIFEST.MF | tr -d '\r' | grep -q '^Multi-Release: true$' \
+  || fail "the manifest has no 'Multi-Release: true' entry: build it on JDK 21 or later"
+unzip -l "$jar" "$versioned" > /dev/null 2>&1 \
+  || fail "$versioned is missing: build it on JDK 21 or later"
+# the major version of a class file is the big-endian unsigned short at offset 6: 55 is Java 11
+major=$(unzip -p "$jar" "$base" | od -An -j6 -N2 -tu1 | awk '{ print $1 * 256 + $2 }')
+[ "$major" = 55 ] || fail "$base has the class file version $major instead of 55: the base classes must run on Java 11"
+echo "$jar is a multi-release JAR"
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar.
+ * <p>
+ * It accepts the JMH command line options, always enables the GC profiler in order to report
+ * the allocation rates, and works as a regression gate if a baseline is given:
+ * <pre>
+ * java -jar benchmarks.jar -rf csv -rff baseline.csv
+ * java -Dbaseline=baseline.csv -Dtolerance=0.10 -jar benchmarks.jar
+ * </pre>
+ * The second run exits with {@code 1} if any score is worse than the baseline by more than the tolerance.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Options options;
+        try {
+            CommandLineOptions commandLine = new CommandLineOptions(args);
+            if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                    || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+                org.openjdk.jmh.Main.main(args);
+                return;
+            }
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.parent(commandLine);
+            if (commandLine.getProfilers().stream().noneMatch(profiler -> "gc".equals(profiler.getKlass())
+                    || GCProfiler.class.getName().equals(profiler.getKlass()))) {
+                builder.addProfiler(GCProfiler.class);
+            }
+            options = builder.build();
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        String baseline = System.getProperty("baseline");
+        if (baseline == null) {
+            return;
+        }
+        double tolerance = Double.parseDouble(System.getProperty("tolerance", "0.10"));
+        Path baselineFile = Paths.get(baseline);
+        List<String> regressions = RegressionGate.of(baselineFile, tolerance).check(results);
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d regression(s) found against the \"%s\" baseline:%n", regressions.size(), baselineFile);
+            regressions.forEach(regression -> System.err.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.printf("no regression found against the \"%s\" baseline.%n", baselineFile);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.benchmarks;
+
+import br.org.soujava.pomeditor.api.AddDependency;
+import br.org.soujava.pomeditor.api.ChangeProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold benchmarks of the edit pipeline: every measurement is the first edit performed by a fresh JVM,
+ * including the class loading and the XML factories lookup, as it happens on every plugin goal execution.
+ * Every fork pays for a JVM startup, so it could be narrowed with {@code -p size=1,5000}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class ColdEditBenchmark {
+
+    @Benchmark
+    public void addDependency(PomWorkspace workspace) {
+        AddDependency.execute(workspace.pom, workspace.nextDependency());
+    }
+
+    @Benchmark
+    public void changeProperty(PomWorkspace workspace) {
+        ChangeProperty.execute(PomWorkspace.LOG, workspace.pom, workspace.nextProperty());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.benchmarks;
+
+import br.org.soujava.pomeditor.api.AddDependency;
+import br.org.soujava.pomeditor.api.ChangeProperty;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.PomChange;
+import br.org.soujava.pomeditor.api.PomCommit;
+import br.org.soujava.pomeditor.api.PomRollback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm benchmarks of the edit pipeline: the JIT has already compiled the hot paths,
+ * so they measure the steady state cost of parsing, transforming and writing the POM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EditBenchmark {
+
+    /**
+     * A workspace whose POM has a fresh backup POM file before every invocation
+     */
+    @State(Scope.Thread)
+    public static class WithBackup extends PomWorkspace {
+
+        @Setup(Level.Invocation)
+        public void createBackup() throws IOException {
+            Files.copy(pom, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A workspace whose edits are performed by every {@link EditEngine}
+     */
+    @State(Scope.Thread)
+    public static class WithEngine extends PomWorkspace {
+
+        @Param({"DOM", "STREAM"})
+        public EditEngine engine;
+    }
+
+    @Benchmark
+    public void addDependency(WithEngine workspace) {
+        AddDependency.execute(workspace.pom, workspace.nextDependency(), workspace.engine);
+    }
+
+    @Benchmark
+    public void changeProperty(WithEngine workspace) {
+        ChangeProperty.execute(PomWorkspace.LOG, workspace.pom, workspace.nextProperty(), workspace.engine);
+    }
+
+    /**
+     * Backup, add a dependency and commit: it's what the add-dep goal followed by the commit goal does
+     */
+    @Benchmark
+    public void pomChange(PomWorkspace workspace) throws Throwable {
+        PomChange.builder()
+                .withPom(workspace.pom)
+                .withLogger(PomWorkspace.NO_LOGGER)
+                .build()
+                .execute(() -> AddDependency.execute(workspace.pom, workspace.nextDependency()));
+        PomCommit.execute(workspace.pom);
+    }
+
+    @Benchmark
+    public void commit(WithBackup workspace) {
+        PomCommit.execute(workspace.pom);
+    }
+
+    @Benchmark
+    public void rollback(WithBackup workspace) {
+        PomRollback.execute(workspace.pom);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.benchmarks;
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.PomChange;
+import br.org.soujava.pomeditor.api.Property;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * A temporary folder holding a {@link SyntheticPom} of the given size, one per benchmark thread.
+ * <p>
+ * Every edit alternates between two values, so it always changes the POM
+ * while keeping its size stable across the iterations.
+ */
+@State(Scope.Thread)
+public class PomWorkspace {
+
+    static final Log LOG = new SystemStreamLog();
+    static final Consumer<String> NO_LOGGER = message -> {
+    };
+
+    @Param({"1", "100", "1000", "5000"})
+    public int size;
+
+    Path dir;
+    Path pom;
+    Path backup;
+
+    private final Dependency[] dependencies = {
+            Dependency.ofGav(SyntheticPom.GROUP_ID + ":" + SyntheticPom.ARTIFACT_ID + ":2.0.0").build(),
+            Dependency.ofGav(SyntheticPom.GROUP_ID + ":" + SyntheticPom.ARTIFACT_ID + ":3.0.0").build()
+    };
+    private final Property[] properties = {
+            Property.of(SyntheticPom.PROPERTY, "1").build(),
+            Property.of(SyntheticPom.PROPERTY, "2").build()
+    };
+    private int round;
+
+    @Setup(Level.Trial)
+    public void createPom() throws IOException {
+        this.dir = Files.createTempDirectory("pom-editor-bench");
+        this.pom = SyntheticPom.write(dir.resolve("pom.xml"), size);
+        this.backup = PomChange.backupFileOf(pom);
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePom() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    Dependency nextDependency() {
+        return dependencies[round++ & 1];
+    }
+
+    Property nextProperty() {
+        return properties[round++ & 1];
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Compares the results of a benchmark run against a baseline, written by a previous run
+ * with the {@code -rf csv} JMH option.
+ * <p>
+ * The primary score and the normalized allocation rate ({@code gc.alloc.rate.norm}) of every benchmark are checked,
+ * benchmarks that are missing from the baseline are ignored.
+ */
+final class RegressionGate {
+
+    static final String ALLOCATION_RATE = "gc.alloc.rate.norm";
+    private static final String THROUGHPUT = "thrpt";
+
+    private final Map<String, Double> baseline;
+    private final double tolerance;
+
+    private RegressionGate(Map<String, Double> baseline, double tolerance) {
+        this.baseline = baseline;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @param csv       the baseline, as written by {@code -rf csv}
+     * @param tolerance the accepted relative regression, e.g. {@code 0.10} for 10%
+     * @return a {@link RegressionGate} instance
+     * @throws IOException if the baseline cannot be read
+     */
+    static RegressionGate of(Path csv, double tolerance) throws IOException {
+        Objects.requireNonNull(csv, "csv cannot be null");
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance cannot be negative");
+        }
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException(String.format("the \"%s\" baseline is empty", csv));
+        }
+        List<String> header = split(lines.get(0));
+        int benchmarkColumn = header.indexOf("Benchmark");
+        int modeColumn = header.indexOf("Mode");
+        int scoreColumn = header.indexOf("Score");
+        if (benchmarkColumn < 0 || modeColumn < 0 || scoreColumn < 0) {
+            throw new IllegalArgumentException(String.format("the \"%s\" baseline is not a JMH CSV result", csv));
+        }
+        Map<String, Double> scores = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> row = split(line);
+            Map<String, String> params = new TreeMap<>();
+            for (int column = 0; column < header.size(); column++) {
+                String name = header.get(column);
+                if (name.startsWith("Param: ") && column < row.size() && !row.get(column).isEmpty()) {
+                    params.put(name.substring("Param: ".length()), row.get(column));
+                }
+            }
+            String benchmark = row.get(benchmarkColumn).replace("·", "");
+            scores.put(key(benchmark, row.get(modeColumn), params), Double.parseDouble(row.get(scoreColumn)));
+        }
+        return new RegressionGate(scores, tolerance);
+    }
+
+    /**
+     * @param results the results of the current run
+     * @return a description of every regression found, empty if there's none
+     */
+    List<String> check(Collection<RunResult> results) {
+        List<String> regressions = new ArrayList<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String mode = params.getMode().shortLabel();
+            Map<String, String> values = new TreeMap<>();
+            params.getParamsKeys().forEach(name -> values.put(name, params.getParam(name)));
+
+            check(key(params.getBenchmark(), mode, values), result.getPrimaryResult(), THROUGHPUT.equals(mode))
+                    .ifPresent(regressions::add);
+            Result<?> allocationRate = result.getSecondaryResults().get(ALLOCATION_RATE);
+            if (allocationRate != null) {
+                check(key(params.getBenchmark() + ":" + ALLOCATION_RATE, mode, values), allocationRate, false)
+                        .ifPresent(regressions::add);
+            }
+        }
+        return regressions;
+    }
+
+    private Optional<String> check(String key, Result<?> result, boolean higherIsBetter) {
+        Double expected = baseline.get(key);
+        if (expected == null || expected == 0 || Double.isNaN(result.getScore())) {
+            return Optional.empty();
+        }
+        double actual = result.getScore();
+        double change = (actual - expected) / expected;
+        double regression = higherIsBetter ? -change : change;
+        if (regression <= tolerance) {
+            return Optional.empty();
+        }
+        return Optional.of(String.format("%s: %.3f -> %.3f %s (%+.1f%%)",
+                key, expected, actual, result.getScoreUnit(), change * 100));
+    }
+
+    private static String key(String benchmark, String mode, Map<String, String> params) {
+        return benchmark + " [" + mode + "] " + params;
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append(c);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates synthetic POM files used by the benchmarks
+ */
+final class SyntheticPom {
+
+    /**
+     * Dependency that every benchmark adds or updates, it's always the last declared one
+     */
+    static final String GROUP_ID = "org.example.bench";
+    static final String ARTIFACT_ID = "target-artifact";
+    /**
+     * Property that every benchmark changes, it's always the last declared one
+     */
+    static final String PROPERTY = "target.property";
+
+    private SyntheticPom() {
+    }
+
+    /**
+     * Writes a POM declaring the given number of dependencies and properties
+     *
+     * @param pom  the POM file to be written
+     * @param size the number of dependencies and the number of properties
+     * @return the given POM file
+     * @throws IOException if the POM cannot be written
+     */
+    static Path write(Path pom, int size) throws IOException {
+        StringBuilder xml = new StringBuilder(256 + size * 256);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\"")
+                .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"")
+                .append(" xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n")
+                .append("    <modelVersion>4.0.0</modelVersion>\n")
+                .append("    <groupId>org.example.bench</groupId>\n")
+                .append("    <artifactId>synthetic-").append(size).append("</artifactId>\n")
+                .append("    <version>1.0.0-SNAPSHOT</version>\n")
+                .append("    <properties>\n");
+        for (int i = 1; i < size; i++) {
+            xml.append("        <property.").append(i).append(">").append(i).append("</property.").append(i).append(">\n");
+        }
+        xml.append("        <").append(PROPERTY).append(">0</").append(PROPERTY).append(">\n")
+                .append("    </properties>\n")
+                .append("    <dependencies>\n");
+        for (int i = 1; i < size; i++) {
+            appendDependency(xml, "org.example.generated", "artifact-" + i, "1.0." + i);
+        }
+        appendDependency(xml, GROUP_ID, ARTIFACT_ID, "1.0.0");
+        xml.append("    </dependencies>\n")
+                .append("</project>\n");
+        return Files.write(pom, xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendDependency(StringBuilder xml, String groupId, String artifactId, String version) {
+        xml.append("        <dependency>\n")
+                .append("            <groupId>").append(groupId).append("</groupId>\n")
+                .append("            <artifactId>").append(artifactId).append("</artifactId>\n")
+                .append("            <version>").append(version).append("</version>\n")
+                .append("        </dependency>\n");
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.cli;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Training run of the class-data sharing archive: it runs every goal of the {@link PomEditorCli} against a throwaway POM,
+ * with the common parameter values, so the classes they load are the ones listed for the archive
+ */
+public final class CdsTraining {
+
+    private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"\n" +
+            "         xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
+            "         xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n" +
+            "    <modelVersion>4.0.0</modelVersion>\n" +
+            "    <groupId>org.example</groupId>\n" +
+            "    <artifactId>training</artifactId>\n" +
+            "    <version>1.0.0</version>\n" +
+            "    <properties>\n" +
+            "        <java.version>11</java.version>\n" +
+            "    </properties>\n" +
+            "    <dependencies>\n" +
+            "        <dependency>\n" +
+            "            <groupId>org.slf4j</groupId>\n" +
+            "            <artifactId>slf4j-api</artifactId>\n" +
+            "            <version>2.0.0</version>\n" +
+            "        </dependency>\n" +
+            "    </dependencies>\n" +
+            "</project>\n";
+
+    private CdsTraining() {
+    }
+
+    /**
+     * @param args the directory of the throwaway POM
+     * @throws IOException if the throwaway POM cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createDirectories(Paths.get(args.length > 0 ? args[0] : "cds-training"));
+        Path pom = directory.resolve("pom.xml");
+        Files.writeString(pom, POM);
+        String target = "pom=" + pom;
+        String journal = "journalDirectory=" + directory.resolve("journal");
+        String store = "backupDirectory=" + directory.resolve("backups");
+        PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+
+        run(quiet, "--help");
+        run(quiet, "add-dep", target, "gav=junit:junit:4.13", "scope=test");
+        run(quiet, "add-dep", target, "gav=junit:junit:4.13", "scope=test");
+        run(quiet, "change-prop", target, "property=java.version", "value=17");
+        run(quiet, "commit", target);
+        run(quiet, "remove-dep", target, "gav=junit:junit", "backup=link");
+        run(quiet, "add-plugin", target, "gav=org.apache.maven.plugins:maven-jar-plugin:3.3.0", "backup=memory");
+        run(quiet, "remove-plugin", target, "gav=org.apache.maven.plugins:maven-jar-plugin", "managed");
+        run(quiet, "rollback", target);
+        run(quiet, "batch", target, "gavs=org.mockito:mockito-core:5.0.0", "properties=java.version=21", "engine=stream");
+        run(quiet, "rollback", target);
+        run(quiet, "add-dep", target, "gav=org.slf4j:slf4j-api:2.0.9");
+        run(quiet, "rollback-all", "root=" + directory);
+        run(quiet, "change-prop", target, "property=java.version", "value=21", "backup=store", store);
+        run(quiet, "rollback", "backup=store", store);
+        run(quiet, "change-prop", target, "property=java.version", "value=25", "changeset=training", journal);
+        run(quiet, "rollback", "changeset=training", journal);
+        run(quiet, "recover", journal);
+    }
+
+    private static void run(PrintStream quiet, String... args) {
+        int status = PomEditorCli.run(args, quiet, System.err);
+        if (status != 0) {
+            throw new IllegalStateException(String.format("the training run of %s failed with the %d status", String.join(" ", args), status));
+        }
+    }
+}
@@ -20,12 +20,8 @@ package br.org.soujava.pomeditor.api;
 import org.l2x6.pom.tuner.PomTransformer;
 import org.l2x6.pom.tuner.model.Gavtcs;
 
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 /**
  * Command responsible for adding a dependency to a given pom
@@ -40,37 +36,83 @@ public interface AddDependency {
      * @param dependency it's an {@link Dependency} instance
      */
     static void execute(Path pom, Dependency dependency) {
-        new PomTransformer(
-                pom,
-                StandardCharsets.UTF_8,
-                PomTransformer.SimpleElementWhitespace.AUTODETECT_PREFER_SPACE)
-                .transform(addOrUpdateDependencyIfNeeded(dependency));
+        execute(pom, dependency, EditEngine.DOM);
     }
 
-    private static PomTransformer.Transformation addOrUpdateDependencyIfNeeded(Dependency dependencyToBeAdded) {
+    /**
+     * Add a dependency informed by the {@link Dependency} instance into the target POM xml,
+     * using the given {@link EditEngine}
+     *
+     * @param pom        it's the target POM xml
+     * @param dependency it's an {@link Dependency} instance
+     * @param engine     it's the {@link EditEngine} to be used
+     */
+    static void execute(Path pom, Dependency dependency, EditEngine engine) {
+        execute(pom, dependency, PomSection.DEPENDENCIES, engine);
+    }
+
+    /**
+     * Add a dependency informed by the {@link Dependency} instance into the given dependencies section
+     * of the target POM xml, using the given {@link EditEngine}.
+     * Only the {@link PomSection#DEPENDENCIES} section can be streamed, the other ones are edited by the {@link EditEngine#DOM} engine
+     *
+     * @param pom        it's the target POM xml
+     * @param dependency it's an {@link Dependency} instance
+     * @param section    it's the {@link PomSection#DEPENDENCIES} or {@link PomSection#DEPENDENCY_MANAGEMENT} section
+     * @param engine     it's the {@link EditEngine} to be used
+     */
+    static void execute(Path pom, Dependency dependency, PomSection section, EditEngine engine) {
+        if (engine == EditEngine.STREAM
+                && section == PomSection.DEPENDENCIES
+                && StreamEditor.transform(pom, List.of(StreamEditor.addOrUpdateDependency(dependency)))) {
+            return;
+        }
+        PomEditor.transform(pom, List.of(addOrUpdateDependencyIfNeeded(dependency, section)));
+    }
+
+    /**
+     * Returns the {@link PomTransformer.Transformation} that adds the given dependency,
+     * or updates it if it's already declared, so it can be composed with other transformations
+     *
+     * @param dependencyToBeAdded it's an {@link Dependency} instance
+     * @return the {@link PomTransformer.Transformation} to be performed
+     */
+    static PomTransformer.Transformation addOrUpdateDependencyIfNeeded(Dependency dependencyToBeAdded) {
+        return addOrUpdateDependencyIfNeeded(dependencyToBeAdded, PomSection.DEPENDENCIES);
+    }
+
+    /**
+     * Returns the {@link PomTransformer.Transformation} that adds the given dependency to the given dependencies section,
+     * or updates it if it's already declared there, so it can be composed with other transformations
+     *
+     * @param dependencyToBeAdded it's an {@link Dependency} instance
+     * @param section             it's the {@link PomSection#DEPENDENCIES} or {@link PomSection#DEPENDENCY_MANAGEMENT} section
+     * @return the {@link PomTransformer.Transformation} to be performed
+     * @throws IllegalArgumentException if the given section doesn't declare dependencies
+     */
+    static PomTransformer.Transformation addOrUpdateDependencyIfNeeded(Dependency dependencyToBeAdded, PomSection section) {
+        if (section.isPlugins()) {
+            throw new IllegalArgumentException(String.format("the %s section doesn't declare dependencies", section));
+        }
         return (document, context) -> {
 
             Gavtcs dependency = toGavtcs(dependencyToBeAdded);
+            ArtifactIndex index = ArtifactIndex.of(document, context, section);
 
-            List<PomTransformer.NodeGavtcs> dependencies = context.getDependencies()
-                    .stream()
-                    .filter(nodeGavtcs -> nodeGavtcs.getGroupId().equals(dependency.getGroupId()))
-                    .filter(nodeGavtcs -> nodeGavtcs.getArtifactId().equals(dependency.getArtifactId()))
-                    .collect(Collectors.toList());
+            List<ArtifactIndex.Declaration> declarations = index.find(dependency.getGroupId(), dependency.getArtifactId());
 
-            dependencies.stream().forEach(
-                    nodeGavtcs -> {
+            declarations.forEach(
+                    declaration -> {
 
-                        BiConsumer<String, String> setValue = nodeChanger(nodeGavtcs);
-                        setValue.accept("version", dependency.getVersion());
-                        setValue.accept("type", dependency.getType());
-                        setValue.accept("classifier", dependency.getClassifier());
-                        setValue.accept("scope", dependency.getScope());
+                        declaration.set("version", dependency.getVersion());
+                        declaration.set("type", dependency.getType());
+                        declaration.set("classifier", dependency.getClassifier());
+                        declaration.set("scope", dependency.getScope());
 
                     });
 
-            if (dependencies.isEmpty()) {
-                context.addDependencyIfNeeded(dependency, Gavtcs.scopeAndTypeFirstComparator());
+            if (declarations.isEmpty()) {
+                index.add(dependency);
             }
         };
     }
@@ -85,23 +127,4 @@ public interface AddDependency {
                 dependency.getScope()
         );
     }
-
-    private static BiConsumer<String, String> nodeChanger(PomTransformer.NodeGavtcs nodeGavtcs) {
-        final PomTransformer.ContainerElement node = nodeGavtcs.getNode();
-
-        return (name, value) -> {
-            Optional<PomTransformer.ContainerElement> targetNode = node.childElementsStream()
-                    .filter(ch -> name.equals(ch.getNode().getLocalName()))
-                    .findFirst();
-            if (!targetNode.isPresent() && value == null) {
-                /* nothing to do */
-            } else if (!targetNode.isPresent()) {
-                node.addChildTextElement(name, value);
-            } else if (value == null) {
-                targetNode.get().remove(true, true);
-            } else {
-                targetNode.get().getNode().setTextContent(value);
-            }
-        };
-    }
 }
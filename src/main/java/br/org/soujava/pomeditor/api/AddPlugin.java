@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.PomTransformer;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command responsible for adding a build plugin to a given pom
+ */
+public interface AddPlugin {
+
+    /**
+     * Add a plugin informed by the {@link Plugin} instance into the given plugins section of the target POM xml,
+     * or updates its version if it's already declared there
+     *
+     * @param pom     it's the target POM xml
+     * @param plugin  it's a {@link Plugin} instance
+     * @param section it's the {@link PomSection#PLUGINS} or {@link PomSection#PLUGIN_MANAGEMENT} section
+     */
+    static void execute(Path pom, Plugin plugin, PomSection section) {
+        PomEditor.transform(pom, List.of(addOrUpdatePluginIfNeeded(plugin, section)));
+    }
+
+    /**
+     * Returns the {@link PomTransformer.Transformation} that adds the given plugin to the given plugins section,
+     * or updates its version if it's already declared there, so it can be composed with other transformations
+     *
+     * @param pluginToBeAdded it's a {@link Plugin} instance
+     * @param section         it's the {@link PomSection#PLUGINS} or {@link PomSection#PLUGIN_MANAGEMENT} section
+     * @return the {@link PomTransformer.Transformation} to be performed
+     * @throws IllegalArgumentException if the given section doesn't declare plugins
+     */
+    static PomTransformer.Transformation addOrUpdatePluginIfNeeded(Plugin pluginToBeAdded, PomSection section) {
+        if (!section.isPlugins()) {
+            throw new IllegalArgumentException(String.format("the %s section doesn't declare plugins", section));
+        }
+        return (document, context) -> {
+
+            ArtifactIndex index = ArtifactIndex.of(document, context, section);
+
+            List<ArtifactIndex.Declaration> declarations = index.find(pluginToBeAdded.getGroupId(), pluginToBeAdded.getArtifactId());
+
+            declarations.forEach(declaration -> declaration.set("version", pluginToBeAdded.getVersion()));
+
+            if (declarations.isEmpty()) {
+                index.add(pluginToBeAdded);
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton, which finds every occurrence of a set of patterns in a single pass over the text,
+ * whatever the number of patterns is.
+ * <p>
+ * The automaton is compiled into a dense transition table over the characters used by the patterns,
+ * so each character of the text costs a single table lookup.
+ */
+final class AhoCorasick {
+
+    /**
+     * Receives the occurrences found by {@link #scan(CharSequence, Hits)}, ordered by their end
+     */
+    @FunctionalInterface
+    interface Hits {
+
+        /**
+         * @param pattern the index of the pattern found
+         * @param end     the offset right after the occurrence
+         */
+        void hit(int pattern, int end);
+    }
+
+    private final int[] ascii = new int[128];
+    private final Map<Character, Integer> others = new HashMap<>();
+    private final int symbols;
+    private final int[] lengths;
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    /**
+     * @param patterns the patterns to be found
+     * @throws IllegalArgumentException if any pattern is empty
+     */
+    AhoCorasick(List<String> patterns) {
+        int symbolCount = 1;
+        for (String pattern : patterns) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("the patterns cannot be empty");
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (symbolOf(c) == 0) {
+                    if (c < ascii.length) {
+                        ascii[c] = symbolCount++;
+                    } else {
+                        others.put(c, symbolCount++);
+                    }
+                }
+            }
+        }
+        this.symbols = symbolCount;
+        this.lengths = patterns.stream().mapToInt(String::length).toArray();
+
+        // the trie: the state 0 is the root, so it's never a child
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> found = new ArrayList<>();
+        trie.add(new int[symbols]);
+        found.add(new ArrayList<>());
+        for (int index = 0; index < patterns.size(); index++) {
+            String pattern = patterns.get(index);
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int symbol = symbolOf(pattern.charAt(i));
+                int next = trie.get(state)[symbol];
+                if (next == 0) {
+                    next = trie.size();
+                    trie.add(new int[symbols]);
+                    found.add(new ArrayList<>());
+                    trie.get(state)[symbol] = next;
+                }
+                state = next;
+            }
+            found.get(state).add(index);
+        }
+
+        // the failure links, resolved breadth first into the transition table
+        int states = trie.size();
+        int[] failure = new int[states];
+        this.transitions = new int[states * symbols];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            int child = trie.get(0)[symbol];
+            transitions[symbol] = child;
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            found.get(state).addAll(found.get(failure[state]));
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                int child = trie.get(state)[symbol];
+                int fallback = transitions[failure[state] * symbols + symbol];
+                if (child == 0) {
+                    transitions[state * symbols + symbol] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    transitions[state * symbols + symbol] = child;
+                    queue.add(child);
+                }
+            }
+        }
+        this.outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            outputs[state] = found.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @param pattern the index of the pattern
+     * @return the length of the pattern
+     */
+    int length(int pattern) {
+        return lengths[pattern];
+    }
+
+    /**
+     * Finds every occurrence of the patterns in the given text, overlapping ones included
+     *
+     * @param text the text to be scanned
+     * @param hits receives the occurrences found
+     */
+    void scan(CharSequence text, Hits hits) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * symbols + symbolOf(text.charAt(i))];
+            for (int pattern : outputs[state]) {
+                hits.hit(pattern, i + 1);
+            }
+        }
+    }
+
+    private int symbolOf(char c) {
+        return c < ascii.length ? ascii[c] : others.getOrDefault(c, 0);
+    }
+}
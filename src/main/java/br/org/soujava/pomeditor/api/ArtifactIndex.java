@@ -0,0 +1,235 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.PomTransformer;
+import org.l2x6.pom.tuner.model.Gavtcs;
+import org.w3c.dom.Document;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Index of the dependencies or plugins declared by a {@link PomSection} of a POM document, by {@code groupId:artifactId}.
+ * <p>
+ * It's built once per document and section, reading every node of the section in a single pass,
+ * and it's attached to the document, so the following edits of the same transformation reuse it.
+ * It's kept up to date as long as the section is edited through it.
+ * <p>
+ * The edits made through it are reported to the {@link PomEditListener}s while a POM file is edited in place,
+ * a declaration being named by its {@code groupId:artifactId}, e.g. {@code /project/dependencies/dependency[org.junit:junit]}.
+ */
+final class ArtifactIndex {
+
+    private static final String USER_DATA_KEY = ArtifactIndex.class.getName();
+
+    /**
+     * Returns the index of the given section attached to the given document, building it if needed
+     *
+     * @param document the POM document being transformed
+     * @param context  the current transformation context
+     * @param section  the indexed section
+     * @return the {@link ArtifactIndex} of the given document section
+     */
+    static ArtifactIndex of(Document document, PomTransformer.TransformationContext context, PomSection section) {
+        String key = USER_DATA_KEY + '.' + section.name();
+        ArtifactIndex index = (ArtifactIndex) document.getUserData(key);
+        if (index == null || index.context != context) {
+            index = new ArtifactIndex(context, section);
+            document.setUserData(key, index, null);
+        }
+        return index;
+    }
+
+    private final PomTransformer.TransformationContext context;
+    private final PomSection section;
+    private final Map<String, List<Declaration>> declarations = new HashMap<>();
+    private final PomEditListener listener = PomEditListeners.during(PomEditListeners.none());
+    private final Path pom = PomEditListeners.edited();
+
+    private ArtifactIndex(PomTransformer.TransformationContext context, PomSection section) {
+        this.context = context;
+        this.section = section;
+        context.getContainerElement(section.pathFromProject())
+                .ifPresent(container -> container.childElements().forEach(this::index));
+    }
+
+    /**
+     * @param groupId    the groupId of the dependency or plugin
+     * @param artifactId the artifactId of the dependency or plugin
+     * @return every declaration of the given dependency or plugin, in the document order
+     */
+    List<Declaration> find(String groupId, String artifactId) {
+        return declarations.getOrDefault(key(groupId, artifactId), Collections.emptyList());
+    }
+
+    /**
+     * Adds the given dependency, keeping the scope and type first order, and indexes it
+     *
+     * @param dependency the dependency to be added
+     */
+    void add(Gavtcs dependency) {
+        added(index(container().addGavtcsIfNeeded(dependency, Gavtcs.scopeAndTypeFirstComparator())));
+    }
+
+    /**
+     * Appends the given plugin to the section and indexes it
+     *
+     * @param plugin the plugin to be added
+     */
+    void add(Plugin plugin) {
+        PomTransformer.ContainerElement node = container().addChildContainerElement(section.getElement());
+        node.addChildTextElement("groupId", plugin.getGroupId());
+        node.addChildTextElement("artifactId", plugin.getArtifactId());
+        if (plugin.getVersion() != null) {
+            node.addChildTextElement("version", plugin.getVersion());
+        }
+        added(index(node));
+    }
+
+    /**
+     * Removes every declaration of the given dependency or plugin
+     *
+     * @param groupId    the groupId of the dependency or plugin
+     * @param artifactId the artifactId of the dependency or plugin
+     */
+    void remove(String groupId, String artifactId) {
+        Optional.ofNullable(declarations.remove(key(groupId, artifactId)))
+                .ifPresent(removed -> removed.forEach(declaration -> {
+                    declaration.node.remove(true, true);
+                    if (listener != PomEditListeners.none()) {
+                        listener.nodeRemoved(pom, sectionPath(), declaration.name());
+                    }
+                }));
+    }
+
+    private void added(Declaration declaration) {
+        if (listener == PomEditListeners.none()) {
+            return;
+        }
+        listener.nodeAdded(pom, sectionPath(), declaration.name(), null);
+        String path = declaration.path();
+        declaration.node.childElements().forEach(child -> listener.nodeAdded(pom, path, Declaration.nameOf(child), child.getNode().getTextContent()));
+    }
+
+    private String sectionPath() {
+        return "/project/" + String.join("/", section.path());
+    }
+
+    private PomTransformer.ContainerElement container() {
+        String[] path = section.path();
+        return context.getOrAddContainerElements(path[0], Arrays.copyOfRange(path, 1, path.length));
+    }
+
+    private Declaration index(PomTransformer.ContainerElement node) {
+        Declaration declaration = new Declaration(this, node);
+        String groupId = declaration.text("groupId");
+        String artifactId = declaration.text("artifactId");
+        if (groupId == null && section.isPlugins()) {
+            groupId = PomSection.DEFAULT_PLUGIN_GROUP_ID;
+        }
+        if (groupId != null && artifactId != null) {
+            declaration.key = key(groupId, artifactId);
+            declarations.computeIfAbsent(declaration.key, key -> new ArrayList<>(1)).add(declaration);
+        }
+        return declaration;
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ':' + artifactId;
+    }
+
+    /**
+     * A dependency or plugin node, with its child elements resolved by name
+     */
+    static final class Declaration {
+
+        private final ArtifactIndex index;
+        private final PomTransformer.ContainerElement node;
+        private final Map<String, PomTransformer.TextElement> children = new HashMap<>();
+        private String key;
+
+        private Declaration(ArtifactIndex index, PomTransformer.ContainerElement node) {
+            this.index = index;
+            this.node = node;
+            node.childElements().forEach(child -> children.putIfAbsent(nameOf(child), child));
+        }
+
+        /**
+         * @return the name of the declaration in the node events, e.g. {@code dependency[org.junit:junit]}
+         */
+        private String name() {
+            return index.section.getElement() + '[' + key + ']';
+        }
+
+        /**
+         * @return the path of the declaration in the node events, e.g. {@code /project/dependencies/dependency[org.junit:junit]}
+         */
+        private String path() {
+            return index.sectionPath() + '/' + name();
+        }
+
+        /* the elements added by the transformer have no local name, since they're not namespace aware */
+        private static String nameOf(PomTransformer.TextElement element) {
+            return Optional.ofNullable(element.getNode().getLocalName()).orElse(element.getNode().getNodeName());
+        }
+
+        private String text(String name) {
+            return Optional.ofNullable(children.get(name))
+                    .map(child -> child.getNode().getTextContent())
+                    .orElse(null);
+        }
+
+        /**
+         * Sets the value of the given child element: it's added if it's missing or removed if the value is {@code null},
+         * and left as is, unreported, if it already has the value
+         *
+         * @param name  the name of the child element
+         * @param value the value to be set
+         */
+        void set(String name, String value) {
+            PomTransformer.TextElement child = children.get(name);
+            PomEditListener listener = index.listener;
+            if (child == null && value == null) {
+                /* nothing to do */
+            } else if (child == null) {
+                children.put(name, node.addChildTextElement(name, value));
+                if (listener != PomEditListeners.none()) {
+                    listener.nodeAdded(index.pom, path(), name, value);
+                }
+            } else if (value == null) {
+                child.remove(true, true);
+                children.remove(name);
+                if (listener != PomEditListeners.none()) {
+                    listener.nodeRemoved(index.pom, path(), name);
+                }
+            } else if (!value.equals(child.getNode().getTextContent())) {
+                child.getNode().setTextContent(value);
+                if (listener != PomEditListeners.none()) {
+                    listener.nodeUpdated(index.pom, path(), name, value);
+                }
+            }
+        }
+    }
+}
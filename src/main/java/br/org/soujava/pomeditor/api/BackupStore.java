@@ -0,0 +1,602 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Store of the original content of many POM files, kept in a single directory instead of a backup POM file next to each POM.
+ * <p>
+ * The contents are content-addressed: every distinct content is compressed once into the {@code pack} file,
+ * however many POM files share it, and the {@code index} file maps every stored POM file to the SHA-256 of its content.
+ * Both files are only appended to, so a crash leaves at most a torn entry at their end, that is truncated when they are read.
+ * Once no POM file is stored anymore, both files are emptied, so the pack doesn't grow forever.
+ * <p>
+ * Every operation locks the index file, so the store could be shared by concurrent processes,
+ * while the instances of the same directory are shared within the JVM by {@link #of(Path)}.
+ * Both files are kept open by the instance, and opened again if they are deleted, e.g. by {@code mvn clean}.
+ * Like the backup POM files, the store isn't flushed to the disk: a {@link Changeset} is the crash-safe alternative.
+ */
+public final class BackupStore implements PomChange.BackupStrategy {
+
+    /**
+     * Directory of the store used when none is given
+     */
+    public static final String DEFAULT_DIRECTORY = "target/pom-editor/backups";
+
+    static final String INDEX = "index";
+    static final String PACK = "pack";
+    private static final String MAGIC = "pom-editor-backups";
+    private static final int CHUNK = 64 * 1024;
+    private static final int ROLLBACK_BATCH = 128;
+    private static final Map<Path, BackupStore> STORES = new HashMap<>();
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Blob> blobs = new HashMap<>();
+    private final Map<Path, String> poms = new LinkedHashMap<>();
+    private FileChannel index;
+    private FileChannel pack;
+    private Object indexKey;
+    private String generation;
+    private long indexPosition;
+    private long packPosition;
+
+    private BackupStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the store of the given directory, created on the first backup
+     *
+     * @param directory the directory of the store
+     * @return the {@link BackupStore}, shared by every caller of this JVM
+     */
+    public static BackupStore of(Path directory) {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        Path key = directory.toAbsolutePath().normalize();
+        synchronized (STORES) {
+            return STORES.computeIfAbsent(key, BackupStore::new);
+        }
+    }
+
+    /**
+     * @param directory the directory of the store
+     * @return {@code true} if the given directory has a store
+     */
+    public static boolean exists(Path directory) {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        return Files.isRegularFile(directory.resolve(INDEX));
+    }
+
+    /**
+     * @return the directory of the store
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the stored POM files, in the order they were stored
+     */
+    public List<Path> getPoms() {
+        return locked((index, pack) -> new ArrayList<>(poms.keySet()));
+    }
+
+    /**
+     * @return how many distinct contents are stored in the pack
+     */
+    public int getBlobCount() {
+        return locked((index, pack) -> blobs.size());
+    }
+
+    /**
+     * Stores the original content of the given POM, if it's not stored yet.
+     * A content already stored for another POM file is not stored again
+     *
+     * @param pom    the target POM file
+     * @param logger the logger
+     * @return {@code true} if the backup was created by this call
+     */
+    @Override
+    public boolean backup(Path pom, Consumer<String> logger) {
+        Path key = key(pom);
+        boolean stored = locked((index, pack) -> {
+            if (poms.containsKey(key)) {
+                return false;
+            }
+            byte[] content = Files.readAllBytes(key);
+            String hash = PomPlan.sha256(content);
+            if (!blobs.containsKey(hash)) {
+                appendBlob(pack, hash, content);
+            }
+            appendIndex(index, String.format("+ %s %s\n", hash, key));
+            poms.put(key, hash);
+            return true;
+        });
+        if (stored) {
+            logger.accept(String.format("Backup for '%s' stored in '%s'", pom.toAbsolutePath(), directory));
+        }
+        return stored;
+    }
+
+    /**
+     * Restores the stored content of the given POM, if it's stored, and removes it from the store
+     *
+     * @param pom the target POM file
+     */
+    @Override
+    public void rollback(Path pom) {
+        List<Path> keys = List.of(key(pom));
+        locked((index, pack) -> restore(index, pack, keys));
+    }
+
+    /**
+     * Removes the stored content of the given POM, if it's stored, keeping its changes
+     *
+     * @param pom the target POM file
+     */
+    public void commit(Path pom) {
+        Path key = key(pom);
+        locked((index, pack) -> {
+            if (poms.containsKey(key)) {
+                drop(index, pack, List.of(key));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Restores every stored POM file, in a single pass over the store.
+     * The edits lock their POM before they lock the store, so each POM file is locked, restored and released in turn,
+     * never holding more than one {@link PomLock}, while its removal from the index is only appended once per batch.
+     *
+     * @return how many POM files had to be restored
+     */
+    public int rollbackAll() {
+        List<Path> stored = getPoms();
+        int restored = 0;
+        for (int from = 0; from < stored.size(); from += ROLLBACK_BATCH) {
+            List<Path> batch = stored.subList(from, Math.min(from + ROLLBACK_BATCH, stored.size()));
+            List<Path> pending = new ArrayList<>(batch.size());
+            try {
+                for (Path pom : batch) {
+                    try (PomLock lock = PomLock.acquire(pom, null)) {
+                        restored += locked((index, pack) -> {
+                            String hash = poms.get(pom);
+                            if (hash == null) {
+                                return 0;
+                            }
+                            boolean rolledBack = restore(pack, pom, hash);
+                            // a POM file restored in this batch is no longer stored, until it's backed up again
+                            poms.remove(pom);
+                            pending.add(pom);
+                            return rolledBack ? 1 : 0;
+                        });
+                    }
+                }
+            } finally {
+                locked((index, pack) -> {
+                    pending.removeIf(poms::containsKey);
+                    drop(index, pack, pending);
+                    return null;
+                });
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Keeps the changes of every stored POM file, emptying the store at once
+     *
+     * @return how many POM files were committed
+     */
+    public int commitAll() {
+        return locked((index, pack) -> {
+            int committed = poms.size();
+            reset(index, pack);
+            return committed;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d POM file(s))", directory, getPoms().size());
+    }
+
+    /**
+     * Restores the given POM files that are stored, and drops them from the store at once
+     *
+     * @return how many POM files had to be restored
+     */
+    private int restore(FileChannel index, FileChannel pack, List<Path> keys) throws IOException {
+        int restored = 0;
+        List<Path> dropped = new ArrayList<>(keys.size());
+        for (Path key : keys) {
+            String hash = poms.get(key);
+            if (hash == null) {
+                continue;
+            }
+            if (restore(pack, key, hash)) {
+                restored++;
+            }
+            dropped.add(key);
+        }
+        drop(index, pack, dropped);
+        return restored;
+    }
+
+    /**
+     * Restores the stored content of the given POM file, unless it's already found in it
+     *
+     * @return {@code true} if the POM file had to be restored
+     */
+    private boolean restore(FileChannel pack, Path key, String hash) throws IOException {
+        byte[] content = read(pack, blobs.get(hash));
+        if (Files.exists(key) && hash.equals(PomPlan.sha256(Files.readAllBytes(key)))) {
+            return false;
+        }
+        PomEditor.write(key, content);
+        PomEditListeners.current().rolledBack(key);
+        return true;
+    }
+
+    /**
+     * Runs the given operation holding the lock of the index file, once the entries appended by other processes are read
+     */
+    private <T> T locked(Operation<T> operation) {
+        lock.lock();
+        try {
+            open();
+            try (FileLock fileLock = index.lock()) {
+                refresh(index, pack);
+                return operation.run(index, pack);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot use the \"%s\" backup store: %s", directory, e.getMessage()), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens the files of the store, unless they are still open and the index found in the directory is the open one,
+     * so they are read again from the start
+     */
+    private void open() throws IOException {
+        Path indexFile = directory.resolve(INDEX);
+        if (index != null && index.isOpen() && pack.isOpen() && indexKey.equals(fileKeyOf(indexFile))) {
+            return;
+        }
+        close(index);
+        close(pack);
+        // a symbolic link to a directory isn't a directory to createDirectories
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+        }
+        index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        pack = FileChannel.open(directory.resolve(PACK), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexKey = fileKeyOf(indexFile);
+        generation = null;
+    }
+
+    /**
+     * @return the identity of the given file, or {@code null} if it doesn't exist
+     */
+    private static Object fileKeyOf(Path file) throws IOException {
+        try {
+            Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            return key != null ? key : file;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // it's opened again anyway
+        }
+    }
+
+    private void refresh(FileChannel index, FileChannel pack) throws IOException {
+        if (index.size() == 0) {
+            reset(index, pack);
+            return;
+        }
+        byte[] header = readLine(index, 0);
+        String[] fields = header == null ? new String[0] : new String(header, StandardCharsets.US_ASCII).split(" ");
+        if (fields.length != 2 || !MAGIC.equals(fields[0])) {
+            throw new IOException("the index is not a backup store index");
+        }
+        if (!fields[1].equals(generation) || index.size() < indexPosition || pack.size() < packPosition) {
+            // emptied by another process, or not read yet
+            generation = fields[1];
+            indexPosition = header.length + 1;
+            packPosition = 0;
+            blobs.clear();
+            poms.clear();
+        }
+        readPack(pack);
+        readIndex(index);
+    }
+
+    /**
+     * Reads the blob headers appended to the pack since it was last read, truncating a torn blob at its end
+     */
+    private void readPack(FileChannel pack) throws IOException {
+        long size = pack.size();
+        while (packPosition < size) {
+            byte[] header = readLine(pack, packPosition);
+            String[] fields = header == null ? new String[0] : new String(header, StandardCharsets.US_ASCII).split(" ");
+            int length = -1;
+            int compressedLength = -1;
+            if (fields.length == 3) {
+                try {
+                    length = Integer.parseInt(fields[1]);
+                    compressedLength = Integer.parseInt(fields[2]);
+                } catch (NumberFormatException e) {
+                    // a torn header: the valid data ends before it
+                }
+            }
+            long end = packPosition + (header == null ? 0 : header.length) + 1 + compressedLength;
+            if (length < 0 || compressedLength < 0 || end > size) {
+                pack.truncate(packPosition);
+                return;
+            }
+            blobs.putIfAbsent(fields[0], new Blob(packPosition + header.length + 1, length, compressedLength));
+            packPosition = end;
+        }
+    }
+
+    /**
+     * Reads the entries appended to the index since it was last read, a chunk at a time, truncating a torn entry at its end
+     */
+    private void readIndex(FileChannel index) throws IOException {
+        long size = index.size();
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(CHUNK, Math.max(size - indexPosition, 0)));
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        long position = indexPosition;
+        long offset = indexPosition;
+        boolean valid = true;
+        while (valid && offset < size) {
+            chunk.clear();
+            int read = index.read(chunk, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read && valid; i++) {
+                byte b = chunk.get(i);
+                if (b != '\n') {
+                    entry.write(b);
+                    continue;
+                }
+                valid = readEntry(entry.toString(StandardCharsets.UTF_8));
+                if (valid) {
+                    position = offset + i + 1;
+                    entry.reset();
+                }
+            }
+            offset += read;
+        }
+        if (position < size) {
+            index.truncate(position);
+        }
+        indexPosition = position;
+    }
+
+    /**
+     * @return {@code false} if the entry is not valid
+     */
+    private boolean readEntry(String entry) {
+        if (entry.startsWith("+ ") && entry.indexOf(' ', 2) > 0) {
+            int separator = entry.indexOf(' ', 2);
+            String hash = entry.substring(2, separator);
+            // the blob of an entry may be lost if a crash interrupted the emptying of the store
+            if (blobs.containsKey(hash)) {
+                poms.putIfAbsent(Path.of(entry.substring(separator + 1)), hash);
+            }
+            return true;
+        }
+        if (entry.startsWith("- ")) {
+            poms.remove(Path.of(entry.substring(2)));
+            return true;
+        }
+        return false;
+    }
+
+    private void appendBlob(FileChannel pack, String hash, byte[] content) throws IOException {
+        byte[] compressed = deflate(content);
+        byte[] header = String.format("%s %d %d\n", hash, content.length, compressed.length).getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer blob = ByteBuffer.allocate(header.length + compressed.length);
+        blob.put(header).put(compressed).flip();
+        writeFully(pack, blob, packPosition);
+        blobs.put(hash, new Blob(packPosition + header.length, content.length, compressed.length));
+        packPosition += header.length + compressed.length;
+    }
+
+    private void appendIndex(FileChannel index, String entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8));
+        int length = buffer.remaining();
+        writeFully(index, buffer, indexPosition);
+        indexPosition += length;
+    }
+
+    /**
+     * Removes the given POM files from the index at once, emptying the store if they were the last ones
+     */
+    private void drop(FileChannel index, FileChannel pack, List<Path> keys) throws IOException {
+        if (keys.isEmpty()) {
+            return;
+        }
+        poms.keySet().removeAll(keys);
+        if (poms.isEmpty()) {
+            reset(index, pack);
+            return;
+        }
+        StringBuilder entries = new StringBuilder();
+        keys.forEach(key -> entries.append("- ").append(key).append('\n'));
+        appendIndex(index, entries.toString());
+    }
+
+    /**
+     * Empties the store under a new generation, so the other processes read it again.
+     * The index is emptied first: a crash before the pack is emptied only leaves unreferenced blobs behind.
+     */
+    private void reset(FileChannel index, FileChannel pack) throws IOException {
+        generation = UUID.randomUUID().toString();
+        byte[] header = String.format("%s %s\n", MAGIC, generation).getBytes(StandardCharsets.US_ASCII);
+        index.truncate(0);
+        writeFully(index, ByteBuffer.wrap(header), 0);
+        pack.truncate(0);
+        indexPosition = header.length;
+        packPosition = 0;
+        blobs.clear();
+        poms.clear();
+    }
+
+    private byte[] read(FileChannel pack, Blob blob) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(blob.compressedLength);
+        readFully(pack, compressed, blob.offset);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            byte[] content = new byte[blob.length];
+            int inflated = 0;
+            while (inflated < content.length && !inflater.finished()) {
+                int count = inflater.inflate(content, inflated, content.length - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != content.length) {
+                throw new IOException("the stored content is truncated");
+            }
+            return content;
+        } catch (DataFormatException e) {
+            throw new IOException("the stored content is corrupted: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return the line starting at the given position, without its line feed, or {@code null} if it's not complete
+     */
+    private static byte[] readLine(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        int read = channel.read(buffer, position);
+        for (int i = 0; i < Math.max(read, 0); i++) {
+            if (buffer.get(i) == '\n') {
+                byte[] line = new byte[i];
+                System.arraycopy(buffer.array(), 0, line, 0, i);
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException("unexpected end of the backup store");
+            }
+            current += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+
+    private static Path key(Path pom) {
+        return pom.toAbsolutePath().normalize();
+    }
+
+    /**
+     * An operation run holding the lock of the store
+     */
+    @FunctionalInterface
+    private interface Operation<T> {
+        T run(FileChannel index, FileChannel pack) throws IOException;
+    }
+
+    /**
+     * The position of a compressed content in the pack
+     */
+    private static final class Blob {
+
+        private final long offset;
+        private final int length;
+        private final int compressedLength;
+
+        private Blob(long offset, int length, int compressedLength) {
+            this.offset = offset;
+            this.length = length;
+            this.compressedLength = compressedLength;
+        }
+    }
+}
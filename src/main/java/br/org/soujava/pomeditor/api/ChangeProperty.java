@@ -20,8 +20,8 @@ package br.org.soujava.pomeditor.api;
 import org.apache.maven.plugin.logging.Log;
 import org.l2x6.pom.tuner.PomTransformer;
 
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -37,58 +37,80 @@ public interface ChangeProperty {
      * @param property   it's a {@link Property} instance
      */
     static void execute(Log log, Path pom, Property property) {
-        new PomTransformer(
-                pom,
-                StandardCharsets.UTF_8,
-                PomTransformer.SimpleElementWhitespace.AUTODETECT_PREFER_SPACE)
-                .transform(changePropertyIfNeeded(log, property));
+        execute(log, pom, property, EditEngine.DOM);
     }
 
-    private static PomTransformer.Transformation changePropertyIfNeeded(Log log, Property propertyToChange) {
+    /**
+     * Change a property based on the {@link Property} instance into the target POM xml,
+     * using the given {@link EditEngine}.
+     * The changed nodes are reported to the {@link PomEditListener}s, and to the debug level of the logger if it's enabled, by either engine
+     *
+     * @param log          it's the logger
+     * @param pom        it's the target POM xml
+     * @param property   it's a {@link Property} instance
+     * @param engine     it's the {@link EditEngine} to be used
+     */
+    static void execute(Log log, Path pom, Property property, EditEngine engine) {
+        if (engine == EditEngine.STREAM) {
+            if (StreamEditor.transform(pom, List.of(StreamEditor.changeProperty(property)), DebugLogListener.of(log))) {
+                return;
+            }
+            log.debug("properties node not found, falling back to the dom engine");
+        }
+        PomEditor.transform(pom, List.of(changePropertyIfNeeded(log, property)));
+    }
+
+    /**
+     * Returns the {@link PomTransformer.Transformation} that sets or removes the given property,
+     * so it can be composed with other transformations.
+     * The changed nodes are reported to the {@link PomEditListener}s, and to the debug level of the logger if it's enabled
+     *
+     * @param log              it's the logger
+     * @param propertyToChange it's a {@link Property} instance
+     * @return the {@link PomTransformer.Transformation} to be performed
+     */
+    static PomTransformer.Transformation changePropertyIfNeeded(Log log, Property propertyToChange) {
+        PomEditListener debug = DebugLogListener.of(log);
         return (document, context) -> {
 
             String name = propertyToChange.getName();
             String value = propertyToChange.getValue();
             boolean removing = value == null;
-
-            log.debug("name: "+name);
-            log.debug("value: "+value);
-            log.debug("removing: "+removing);
+            PomEditListener listener = PomEditListeners.during(debug);
+            Path pom = PomEditListeners.edited();
 
             // the container API is a bit weird, we can't set a text value on a node, only on a sub-node.
 
             Optional<PomTransformer.ContainerElement> propsWrap = context.getContainerElement("project", "properties");
             PomTransformer.ContainerElement props;
             if (propsWrap.isEmpty()) {
-                log.debug("properties node not found");
                 if (removing) {
-                    log.debug("nothing to do, exiting");
                     return;
                 }
                 props = context.getOrAddContainerElement("properties");
-                log.debug("added properties:"+props);
+                listener.nodeAdded(pom, "/project", "properties", null);
             } else {
                 props = propsWrap.get();
-                log.debug("existing properties:"+props);
             }
 
             Optional<PomTransformer.ContainerElement> propWrap = props.getChildContainerElement(name);
-            if (propWrap.isEmpty()) {
-                log.debug("No property "+name+" found");
-                if (removing) {
-                    return;
+            if (removing) {
+                if (propWrap.isPresent()) {
+                    propWrap.get().remove(false, false);
+                    listener.nodeRemoved(pom, "/project/properties", name);
                 }
+                return;
             }
 
-            if (removing) {
-                PomTransformer.ContainerElement prop = propWrap.get();
-                log.debug("Removing prop "+prop);
-                prop.remove(false, false);
+            if (propWrap.isPresent() && value.equals(propWrap.get().getNode().getTextContent())) {
                 return;
             }
-
-            log.debug("Adding to properties");
             props.addOrSetChildTextElement(name, value);
+            if (propWrap.isPresent()) {
+                listener.nodeUpdated(pom, "/project/properties", name, value);
+            } else {
+                listener.nodeAdded(pom, "/project/properties", name, value);
+            }
 
         };
     }
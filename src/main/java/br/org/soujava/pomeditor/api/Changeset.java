@@ -0,0 +1,797 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Named set of POM changes, spanning many POM files, that is committed or rolled back as a whole.
+ * <p>
+ * The original content of every POM is recorded in a write-ahead journal, the {@code <journalDirectory>/<name>/journal} file,
+ * and made durable before the POM is changed, instead of a backup POM file next to it.
+ * The journal also records the state of the changeset, so a changeset interrupted by a crash can be recovered:
+ * an interrupted run or rollback is rolled back, an interrupted commit is completed.
+ * <p>
+ * Writes to the journal are grouped: concurrent backups share a single flush to the disk,
+ * and {@link #recordAll(Collection)} flushes the originals of many POM files at once.
+ * The journal is exclusively locked while the changeset is open, so it can't be used by two processes.
+ * Within the same JVM, e.g. the modules of a parallel build, the open changeset is shared instead:
+ * the concurrent runs are recorded as a single one, that ends when the last of them ends.
+ * The journal is written and flushed under {@link ReentrantLock}s, not monitors, so a virtual thread waiting for the disk
+ * doesn't pin its carrier thread.
+ */
+public final class Changeset implements PomChange.BackupStrategy, AutoCloseable {
+
+    /**
+     * State of a {@link Changeset}, as recorded in its journal
+     */
+    public enum State {
+        /**
+         * The recorded changes wait to be committed or rolled back
+         */
+        OPEN,
+        /**
+         * A run is changing the POM files; if it's found when the changeset is opened, the run was interrupted
+         */
+        RUNNING,
+        /**
+         * The changeset is being committed
+         */
+        COMMITTING,
+        /**
+         * The changeset is being rolled back
+         */
+        ROLLING_BACK
+    }
+
+    static final String JOURNAL = "journal";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final String FILE = "FILE";
+    private static final int MAX_HEADER = 128;
+    private static final int MAX_PATH = 32 * 1024;
+    private static final int CHUNK = 64 * 1024;
+    private static final Map<Path, Changeset> OPEN = new HashMap<>();
+    private static final ReentrantLock OPENING = new ReentrantLock();
+
+    private final String name;
+    private final Path directory;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private final Map<Path, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private State state = State.OPEN;
+    private long written;
+    private long synced;
+    private long syncs;
+    private int references = 1;
+    private int runs;
+
+    private Changeset(String name, Path directory, FileChannel channel, FileLock fileLock) {
+        this.name = name;
+        this.directory = directory;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Opens the given changeset, creating it if it doesn't exist yet, and locks it until it's closed.
+     * If it's already open in this JVM, the open instance is returned, and it's unlocked once every opener has closed it
+     *
+     * @param journalDirectory the directory of the changeset journals
+     * @param name             the changeset name, made of letters, digits, {@code .}, {@code _} and {@code -}
+     * @return the open {@link Changeset}
+     * @throws IllegalArgumentException if the name is not valid
+     * @throws IllegalStateException    if the changeset is being used by another process
+     * @throws UncheckedIOException     if the journal cannot be read or created
+     */
+    public static Changeset open(Path journalDirectory, String name) {
+        Objects.requireNonNull(journalDirectory, "journalDirectory cannot be null");
+        Objects.requireNonNull(name, "name cannot be null");
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(String.format("invalid changeset name '%s': use letters, digits, '.', '_' and '-'", name));
+        }
+        Path directory = journalDirectory.resolve(name).toAbsolutePath().normalize();
+        OPENING.lock();
+        try {
+            Changeset shared = OPEN.get(directory);
+            if (shared != null) {
+                shared.references++;
+                return shared;
+            }
+            Changeset changeset = lock(journalDirectory, name, directory);
+            OPEN.put(directory, changeset);
+            return changeset;
+        } finally {
+            OPENING.unlock();
+        }
+    }
+
+    private static Changeset lock(Path journalDirectory, String name, Path directory) {
+        Path journal = directory.resolve(JOURNAL);
+        FileChannel channel = null;
+        try {
+            boolean created = !Files.exists(journal);
+            Files.createDirectories(directory);
+            channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock fileLock = tryLock(channel);
+            if (fileLock == null) {
+                throw new IllegalStateException(String.format("the \"%s\" changeset is being used by another process", name));
+            }
+            if (created) {
+                syncDirectory(directory);
+                syncDirectory(journalDirectory);
+            }
+            Changeset changeset = new Changeset(name, directory, channel, fileLock);
+            changeset.read();
+            return changeset;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException(String.format("cannot open the \"%s\" changeset: %s", name, e.getMessage()), e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * @param journalDirectory the directory of the changeset journals
+     * @param name             the changeset name
+     * @return {@code true} if the given changeset has a journal
+     */
+    public static boolean exists(Path journalDirectory, String name) {
+        Objects.requireNonNull(journalDirectory, "journalDirectory cannot be null");
+        Objects.requireNonNull(name, "name cannot be null");
+        return NAME.matcher(name).matches() && Files.isRegularFile(journalDirectory.resolve(name).resolve(JOURNAL));
+    }
+
+    /**
+     * Completes every changeset of the given journal directory that was interrupted:
+     * interrupted runs and rollbacks are rolled back, interrupted commits are committed
+     *
+     * @param journalDirectory the directory of the changeset journals
+     * @return the state each recovered changeset was interrupted in, by name
+     * @throws IllegalStateException if a changeset is being used by another process
+     * @throws UncheckedIOException  if a changeset cannot be recovered
+     */
+    public static Map<String, State> recover(Path journalDirectory) {
+        Objects.requireNonNull(journalDirectory, "journalDirectory cannot be null");
+        Map<String, State> recovered = new TreeMap<>();
+        if (!Files.isDirectory(journalDirectory)) {
+            return recovered;
+        }
+        List<String> names;
+        try (Stream<Path> children = Files.list(journalDirectory)) {
+            names = children
+                    .filter(child -> Files.isRegularFile(child.resolve(JOURNAL)))
+                    .map(child -> child.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot list the \"%s\" directory: %s", journalDirectory, e.getMessage()), e);
+        }
+        for (String name : names) {
+            try (Changeset changeset = open(journalDirectory, name)) {
+                State state;
+                changeset.lock.lock();
+                try {
+                    // a run of this JVM is in progress, not interrupted
+                    if (changeset.runs > 0) {
+                        continue;
+                    }
+                    state = changeset.state;
+                } finally {
+                    changeset.lock.unlock();
+                }
+                if (state == State.OPEN) {
+                    continue;
+                }
+                if (state == State.COMMITTING) {
+                    changeset.commit();
+                } else {
+                    changeset.rollback();
+                }
+                recovered.put(name, state);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * @return the changeset name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the state of the changeset
+     */
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the POM files recorded in the changeset, in the order they were recorded
+     */
+    public List<Path> getPoms() {
+        lock.lock();
+        try {
+            return new ArrayList<>(entries.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how many times the journal has been flushed to the disk since the changeset was opened
+     */
+    public long getSyncs() {
+        syncLock.lock();
+        try {
+            return syncs;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Records the start of a run that changes the POM files of the changeset, unless another run of this JVM is in progress
+     *
+     * @throws IllegalStateException if the changeset is not {@link State#OPEN}, e.g. it was interrupted
+     */
+    public void begin() {
+        lock.lock();
+        try {
+            if (runs == 0) {
+                checkOpen();
+                append("BEGIN\n".getBytes(StandardCharsets.US_ASCII));
+                state = State.RUNNING;
+            }
+            runs++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the end of the run started by {@link #begin()}, once every run of this JVM has ended,
+     * so the changeset waits to be committed or rolled back
+     */
+    public void end() {
+        long end;
+        lock.lock();
+        try {
+            if (runs == 0 || --runs > 0) {
+                return;
+            }
+            end = append("END\n".getBytes(StandardCharsets.US_ASCII));
+            state = State.OPEN;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+    }
+
+    /**
+     * Records the original content of the given POM files that aren't recorded yet, flushing the journal once for all of them.
+     * The POM files that can't be read are skipped, so they fail when they are changed.
+     *
+     * @param poms the POM files
+     * @return how many POM files were recorded by this call
+     */
+    public int recordAll(Collection<Path> poms) {
+        Objects.requireNonNull(poms, "poms cannot be null");
+        int recorded = 0;
+        long end = 0;
+        for (Path pom : poms) {
+            Path key = key(pom);
+            byte[] content;
+            try {
+                content = Files.readAllBytes(pom);
+            } catch (IOException e) {
+                continue;
+            }
+            lock.lock();
+            try {
+                if (!entries.containsKey(key)) {
+                    end = appendEntry(key, content);
+                    recorded++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        awaitDurable(end);
+        return recorded;
+    }
+
+    /**
+     * Records the original content of the given POM in the journal, if it's not recorded yet,
+     * and waits until it's flushed to the disk
+     *
+     * @param pom    the target POM file
+     * @param logger the logger
+     * @return {@code true} if the original content was recorded by this call
+     */
+    @Override
+    public boolean backup(Path pom, Consumer<String> logger) {
+        Path key = key(pom);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(pom);
+        } catch (IOException e) {
+            throw new RuntimeException("failure during backup process:" + e.getMessage(), e);
+        }
+        long end;
+        lock.lock();
+        try {
+            if (entries.containsKey(key)) {
+                return false;
+            }
+            end = appendEntry(key, content);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+        logger.accept(String.format("Backup for '%s' recorded in the '%s' changeset", pom.toAbsolutePath(), name));
+        return true;
+    }
+
+    /**
+     * Restores the recorded content of the given POM, if it's recorded
+     *
+     * @param pom the target POM file
+     */
+    @Override
+    public void rollback(Path pom) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key(pom));
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null) {
+            restore(entry);
+        }
+    }
+
+    /**
+     * Commits the whole changeset: the changed POM files are flushed to the disk, then the commit is recorded
+     * and the journal is deleted
+     *
+     * @return how many POM files were committed
+     * @throws IllegalStateException if a run is in progress or was interrupted, or if the changeset is being rolled back
+     * @throws UncheckedIOException  if the changeset cannot be committed
+     */
+    public int commit() {
+        List<Entry> committed;
+        lock.lock();
+        try {
+            if (state == State.RUNNING || state == State.ROLLING_BACK) {
+                throw new IllegalStateException(String.format("the \"%s\" changeset cannot be committed while it's %s: roll it back or recover it",
+                        name, describe(state)));
+            }
+            committed = new ArrayList<>(entries.values());
+        } finally {
+            lock.unlock();
+        }
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Entry entry : committed) {
+            if (Files.exists(entry.pom)) {
+                sync(entry.pom);
+                directories.add(entry.pom.getParent());
+            }
+        }
+        directories.forEach(Changeset::syncDirectory);
+        long end;
+        lock.lock();
+        try {
+            end = append("COMMIT\n".getBytes(StandardCharsets.US_ASCII));
+            state = State.COMMITTING;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+        delete();
+        return committed.size();
+    }
+
+    /**
+     * Rolls back the whole changeset: the rollback is recorded, every POM file gets its recorded content back,
+     * the restored files are flushed to the disk and the journal is deleted.
+     * If it's interrupted, it's completed by {@link #recover(Path)}.
+     *
+     * @return how many POM files were restored
+     * @throws UncheckedIOException if the changeset cannot be rolled back
+     */
+    public int rollback() {
+        List<Entry> restored;
+        long end;
+        lock.lock();
+        try {
+            restored = new ArrayList<>(entries.values());
+            end = append("ROLLBACK\n".getBytes(StandardCharsets.US_ASCII));
+            state = State.ROLLING_BACK;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+        Set<Path> directories = new LinkedHashSet<>();
+        int count = 0;
+        for (Entry entry : restored) {
+            if (restore(entry)) {
+                sync(entry.pom);
+                directories.add(entry.pom.getParent());
+                count++;
+            }
+        }
+        directories.forEach(Changeset::syncDirectory);
+        delete();
+        return count;
+    }
+
+    /**
+     * Releases the lock of the changeset, keeping its journal, once every opener of this JVM has closed it
+     */
+    @Override
+    public void close() {
+        OPENING.lock();
+        try {
+            if (!channel.isOpen() || --references > 0) {
+                return;
+            }
+            OPEN.remove(directory);
+        } finally {
+            OPENING.unlock();
+        }
+        release();
+    }
+
+    private void release() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try (FileChannel ignored = channel) {
+            fileLock.release();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot close the \"%s\" changeset: %s", name, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s, %d POM file(s))", name, describe(getState()), getPoms().size());
+    }
+
+    private void checkOpen() {
+        if (state != State.OPEN) {
+            throw new IllegalStateException(String.format("the \"%s\" changeset was interrupted while %s: roll it back or recover it first",
+                    name, describe(state)));
+        }
+    }
+
+    private static String describe(State state) {
+        return state.name().toLowerCase().replace('_', ' ');
+    }
+
+    /**
+     * Reads the journal entry by entry, keeping only where the recorded contents are, so they are read when they are restored,
+     * and truncates the torn entry a crash may have left at its end
+     */
+    private void read() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            byte[] line = readLine(position, size);
+            if (line == null) {
+                break;
+            }
+            String[] header = new String(line, StandardCharsets.US_ASCII).split(" ");
+            long next = position + line.length + 1;
+            if (FILE.equals(header[0])) {
+                next = readEntry(header, next, size);
+                if (next < 0) {
+                    break;
+                }
+            } else if (!readState(header[0])) {
+                break;
+            }
+            position = next;
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+        written = position;
+        synced = position;
+    }
+
+    /**
+     * @return the header line starting at the given position, without its line break, or {@code null} if it's torn or too long
+     */
+    private byte[] readLine(long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_HEADER, size - position));
+        readFully(buffer, position);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            if (buffer.get(i) == '\n') {
+                return Arrays.copyOf(buffer.array(), i);
+            }
+        }
+        return null;
+    }
+
+    private boolean readState(String line) {
+        switch (line) {
+            case "BEGIN":
+                state = State.RUNNING;
+                return true;
+            case "END":
+                state = State.OPEN;
+                return true;
+            case "COMMIT":
+                state = State.COMMITTING;
+                return true;
+            case "ROLLBACK":
+                state = State.ROLLING_BACK;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks the entry against its checksum, a chunk at a time
+     *
+     * @return the position after the entry, or -1 if it's torn or corrupted
+     */
+    private long readEntry(String[] header, long position, long size) throws IOException {
+        if (header.length != 4) {
+            return -1;
+        }
+        long crc;
+        int pathLength;
+        int contentLength;
+        try {
+            crc = Long.parseLong(header[1], 16);
+            pathLength = Integer.parseInt(header[2]);
+            contentLength = Integer.parseInt(header[3]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        long contentOffset = position + pathLength;
+        long end = contentOffset + contentLength;
+        if (pathLength < 0 || pathLength > MAX_PATH || contentLength < 0 || end >= size) {
+            return -1;
+        }
+        ByteBuffer path = ByteBuffer.allocate(pathLength);
+        readFully(path, position);
+        CRC32 checksum = new CRC32();
+        checksum.update(path.array());
+        // the content is followed by the line break ending the entry, which is out of the checksum
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(CHUNK, contentLength + 1L));
+        for (long offset = contentOffset; offset <= end; offset += chunk.limit()) {
+            chunk.clear().limit((int) Math.min(chunk.capacity(), end + 1 - offset));
+            readFully(chunk, offset);
+            checksum.update(chunk.array(), 0, offset + chunk.limit() > end ? chunk.limit() - 1 : chunk.limit());
+        }
+        if (chunk.get(chunk.limit() - 1) != '\n' || checksum.getValue() != crc) {
+            return -1;
+        }
+        Path pom = Path.of(new String(path.array(), StandardCharsets.UTF_8));
+        entries.putIfAbsent(pom, new Entry(pom, contentOffset, contentLength));
+        return end + 1;
+    }
+
+    /**
+     * Appends the original content of the given POM to the journal, without flushing it
+     *
+     * @return the end position of the entry
+     */
+    private long appendEntry(Path pom, byte[] content) {
+        byte[] path = pom.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 checksum = new CRC32();
+        checksum.update(path);
+        checksum.update(content);
+        byte[] header = String.format("%s %x %d %d\n", FILE, checksum.getValue(), path.length, content.length)
+                .getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer entry = ByteBuffer.allocate(header.length + path.length + content.length + 1);
+        entry.put(header).put(path).put(content).put((byte) '\n').flip();
+        long contentOffset = written + header.length + path.length;
+        long end = append(entry.array());
+        entries.put(pom, new Entry(pom, contentOffset, content.length));
+        return end;
+    }
+
+    /**
+     * Appends the given entry to the journal, without flushing it.
+     * Callers must hold the lock of this changeset.
+     *
+     * @return the end position of the entry
+     */
+    private long append(byte[] entry) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(entry);
+            long position = written;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            written = position;
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot write the journal of the \"%s\" changeset: %s", name, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Waits until the journal is flushed up to the given position.
+     * A single flush covers every entry appended before it, so the threads waiting meanwhile don't flush it again.
+     */
+    private void awaitDurable(long position) {
+        syncLock.lock();
+        try {
+            if (synced >= position) {
+                return;
+            }
+            long target;
+            lock.lock();
+            try {
+                target = written;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("cannot flush the journal of the \"%s\" changeset: %s", name, e.getMessage()), e);
+            }
+            synced = target;
+            syncs++;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the POM had to be restored
+     */
+    private boolean restore(Entry entry) {
+        try {
+            ByteBuffer content = ByteBuffer.allocate(entry.length);
+            readFully(content, entry.offset);
+            if (Files.exists(entry.pom) && Files.size(entry.pom) == entry.length
+                    && Arrays.equals(content.array(), Files.readAllBytes(entry.pom))) {
+                return false;
+            }
+            PomEditor.write(entry.pom, content.array());
+            PomEditListeners.current().rolledBack(entry.pom);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot restore the \"%s\" file: %s", entry.pom, e.getMessage()), e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException("unexpected end of the journal");
+            }
+            current += read;
+        }
+    }
+
+    private void delete() {
+        OPENING.lock();
+        try {
+            OPEN.remove(directory);
+            references = 0;
+        } finally {
+            OPENING.unlock();
+        }
+        release();
+        try {
+            Files.deleteIfExists(directory.resolve(JOURNAL));
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot delete the journal of the \"%s\" changeset: %s", name, e.getMessage()), e);
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static void sync(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot flush the \"%s\" file: %s", file, e.getMessage()), e);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some platforms can't open or flush directories: the renames are left to the file system
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // nothing to do, the original failure is reported
+        }
+    }
+
+    private static Path key(Path pom) {
+        return pom.toAbsolutePath().normalize();
+    }
+
+    private static final class Entry {
+
+        private final Path pom;
+        private final long offset;
+        private final int length;
+
+        private Entry(Path pom, long offset, int length) {
+            this.pom = pom;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.nio.file.Path;
+
+/**
+ * {@link PomEditListener} reporting the node events to the debug level of a Maven {@link Log}.
+ * It only exists while the debug level is enabled, so the messages are never formatted otherwise.
+ */
+final class DebugLogListener implements PomEditListener {
+
+    private final Log log;
+
+    private DebugLogListener(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * @param log the logger
+     * @return the {@link DebugLogListener} of the given logger, or a no-op listener if its debug level is not enabled
+     */
+    static PomEditListener of(Log log) {
+        if (log == null || !log.isDebugEnabled()) {
+            return PomEditListeners.none();
+        }
+        return new DebugLogListener(log);
+    }
+
+    @Override
+    public void nodeAdded(Path pom, String parent, String name, String value) {
+        if (value == null) {
+            log.debug(String.format("added %s/%s", parent, name));
+        } else {
+            log.debug(String.format("added %s/%s: %s", parent, name, value));
+        }
+    }
+
+    @Override
+    public void nodeUpdated(Path pom, String parent, String name, String value) {
+        log.debug(String.format("updated %s/%s: %s", parent, name, value));
+    }
+
+    @Override
+    public void nodeRemoved(Path pom, String parent, String name) {
+        log.debug(String.format("removed %s/%s", parent, name));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.api;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * How hard the POM writes are flushed to the disk.
+ * <p>
+ * Every write goes to a sibling work file that is atomically renamed over the POM,
+ * so a crash never leaves a truncated POM; the durability decides whether the renamed content
+ * and the rename itself survive a power loss as well.
+ * It applies to the writes performed by the current thread within {@link #apply()},
+ * as {@link PomChange#execute(PomChange.Executable)} does, and it's {@link #FILE} otherwise.
+ */
+public enum Durability {
+
+    /**
+     * Nothing is flushed: the operating system writes the POM when it sees fit.
+     * Meant for throwaway file systems, e.g. tmpfs on CI runners
+     */
+    NONE,
+    /**
+     * The work file is flushed before it's renamed over the POM, so the POM is either the old or the new one
+     */
+    FILE,
+    /**
+     * The work file is flushed before the rename and the directory of the POM is flushed after it,
+     * so the new POM survives a power loss as soon as the write returns
+     */
+    DIRECTORY;
+
+    private static final ThreadLocal<Durability> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returns the {@link Durability} by its name: {@code none}, {@code file} or {@code directory}
+     *
+     * @param name the durability name, or {@code null} for {@link #FILE}
+     * @return a {@link Durability}
+     * @throws IllegalArgumentException if there's no durability with the given name
+     */
+    public static Durability of(String name) {
+        switch (Optional.ofNullable(name).map(String::trim).orElse("file")) {
+            case "none":
+                return NONE;
+            case "file":
+                return FILE;
+            case "directory":
+                return DIRECTORY;
+            default:
+                throw new IllegalArgumentException(String.format("unknown durability '%s': use none, file or directory", name));
+        }
+    }
+
+    /**
+     * Makes this durability apply to the writes of the current thread until the returned {@link Scope} is closed
+     *
+     * @return the {@link Scope}, to be closed in order to restore the previous durability
+     */
+    public Scope apply() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    static Durability current() {
+        return Objects.requireNonNullElse(CURRENT.get(), FILE);
+    }
+
+    /**
+     * Flushes the given work file, if this durability requires it, before it's renamed over the target file
+     */
+    void beforeRename(Path workFile) throws IOException {
+        if (this == NONE) {
+            return;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(workFile, StandardOpenOption.WRITE);
+        } catch (AccessDeniedException e) {
+            // a read-only POM has a read-only work file, that most platforms can flush through a read channel
+            channel = FileChannel.open(workFile, StandardOpenOption.READ);
+        }
+        try (FileChannel ignored = channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Flushes the directory of the given target file, if this durability requires it, after a file was renamed over it
+     */
+    void afterRename(Path target) {
+        if (this != DIRECTORY) {
+            return;
+        }
+        Path directory = target.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some platforms can't open or flush directories: the rename is left to the file system
+        }
+    }
+
+    /**
+     * Scope of a {@link Durability} applied to the current thread
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Durability previous;
+
+        private Scope(Durability previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+/**
+ * Engines that could perform the edits against a POM
+ */
+public enum EditEngine {
+
+    /**
+     * The POM is parsed into a DOM and serialized back by {@link org.l2x6.pom.tuner.PomTransformer}. It's the default
+     */
+    DOM,
+    /**
+     * The changes are spliced into the raw POM, without building a DOM, and the rest of it is copied byte for byte.
+     * It's meant for very large POMs. The edits that need a missing {@code <dependencies>} or {@code <properties>}
+     * element to be created are performed by the {@link #DOM} engine
+     */
+    STREAM;
+
+    /**
+     * Returns the engine by its name, case-insensitive
+     *
+     * @param name the engine name: {@code dom} or {@code stream}; {@code null} means {@link #DOM}
+     * @return the {@link EditEngine}
+     * @throws IllegalArgumentException if there's no engine with the given name
+     */
+    public static EditEngine of(String name) {
+        if (name == null || name.isBlank()) {
+            return DOM;
+        }
+        for (EditEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(name.trim())) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException(String.format("unknown engine '%s': use dom or stream", name));
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs the edits of many POM files concurrently, at most {@link #getConcurrency()} at a time,
+ * each one within an optional timeout.
+ * <p>
+ * The edits mostly wait for the file system, so on Java 21 or later they run on virtual threads by default,
+ * which keep many more of them in flight than a pool of platform threads, e.g. on network file systems.
+ * On Java 11 they run on a bounded pool of platform threads.
+ * <p>
+ * An edit running longer than the timeout is interrupted, so its file operations fail,
+ * the {@link PomChange} rolls it back, and it's reported as failed by a {@link TimeoutException}.
+ * The interrupted edit is still waited for, so no edit is left running once {@link #runAll} returns.
+ * <p>
+ * Once an edit has renamed its POM file into place, or once it starts rolling back or unlocking it,
+ * the timeout no longer interrupts it: the interrupt of an expired timeout is cleared, so the file operations
+ * of the rollback don't fail, and a committed edit is reported by its own outcome, since its POM file is changed anyway.
+ */
+public final class EditExecutor implements AutoCloseable {
+
+    /**
+     * The maximum number of edits running concurrently on virtual threads, if no concurrency is given
+     */
+    public static final int DEFAULT_VIRTUAL_CONCURRENCY = 64;
+
+    private static final String THREAD_PREFIX = "pom-editor-edit-";
+    private static final ThreadLocal<Watch> WATCH = new ThreadLocal<>();
+
+    /**
+     * The kind of threads running the edits
+     */
+    public enum Threads {
+
+        /**
+         * Virtual threads if the JVM supports them, platform threads otherwise
+         */
+        AUTO,
+        /**
+         * A bounded pool of platform threads
+         */
+        PLATFORM,
+        /**
+         * A new virtual thread for every edit: it requires Java 21 or later
+         */
+        VIRTUAL;
+
+        /**
+         * Returns the {@link Threads} by their name: {@code auto}, {@code platform} or {@code virtual}
+         *
+         * @param name the threads name, or {@code null} for {@link #AUTO}
+         * @return the {@link Threads}
+         * @throws IllegalArgumentException if there are no threads with the given name
+         */
+        public static Threads of(String name) {
+            switch (Optional.ofNullable(name).map(String::trim).orElse("auto")) {
+                case "auto":
+                    return AUTO;
+                case "platform":
+                    return PLATFORM;
+                case "virtual":
+                    return VIRTUAL;
+                default:
+                    throw new IllegalArgumentException(String.format("unknown threads '%s': use auto, platform or virtual", name));
+            }
+        }
+    }
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int concurrency;
+    private final Semaphore slots;
+    private final Duration timeout;
+    private final ScheduledExecutorService watchdog;
+
+    private EditExecutor(ExecutorService executor, boolean virtual, int concurrency, Duration timeout) {
+        this.executor = executor;
+        this.virtual = virtual;
+        this.concurrency = concurrency;
+        this.slots = new Semaphore(concurrency);
+        this.timeout = timeout;
+        this.watchdog = timeout == null ? null : Executors.newSingleThreadScheduledExecutor(daemonThreads("pom-editor-watchdog-"));
+    }
+
+    /**
+     * @return {@code true} if the running JVM supports virtual threads
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * Creates an {@link EditExecutor}
+     *
+     * @param threads     the kind of threads running the edits
+     * @param concurrency the maximum number of edits running concurrently: zero or less means the number of available processors
+     *                    for platform threads, and {@link #DEFAULT_VIRTUAL_CONCURRENCY} for virtual threads
+     * @param timeout     the maximum duration of each edit, or {@code null} for no timeout
+     * @return the {@link EditExecutor}, to be closed once the edits are done
+     * @throws UnsupportedOperationException if virtual threads are required but not supported
+     */
+    public static EditExecutor create(Threads threads, int concurrency, Duration timeout) {
+        Objects.requireNonNull(threads, "threads cannot be null");
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        boolean virtual = threads == Threads.VIRTUAL || threads == Threads.AUTO && VirtualThreads.isSupported();
+        if (virtual) {
+            int max = concurrency > 0 ? concurrency : DEFAULT_VIRTUAL_CONCURRENCY;
+            return new EditExecutor(VirtualThreads.newExecutor(THREAD_PREFIX), true, max, timeout);
+        }
+        int max = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        return new EditExecutor(Executors.newFixedThreadPool(max, daemonThreads(THREAD_PREFIX)), false, max, timeout);
+    }
+
+    /**
+     * @return {@code true} if the edits run on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @return the maximum number of edits running concurrently
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return the maximum duration of each edit, if any
+     */
+    public Optional<Duration> getTimeout() {
+        return Optional.ofNullable(timeout);
+    }
+
+    /**
+     * Runs the given edit for every POM file and waits for all of them
+     *
+     * @param poms      the POM files
+     * @param task      the edit of a POM file
+     * @param onFailure the result of a POM file whose edit failed, given the error, a {@link TimeoutException} if it timed out
+     * @param <T>       the result type
+     * @return the results, in the same order as the POM files
+     * @throws InterruptedException if the current thread is interrupted while waiting: the running edits are interrupted as well
+     */
+    public <T> List<T> runAll(List<Path> poms, Function<Path, T> task, BiFunction<Path, Throwable, T> onFailure) throws InterruptedException {
+        Objects.requireNonNull(task, "task cannot be null");
+        Objects.requireNonNull(onFailure, "onFailure cannot be null");
+        List<Future<T>> futures = new ArrayList<>(poms.size());
+        try {
+            for (Path pom : poms) {
+                futures.add(executor.submit(() -> run(pom, task, onFailure)));
+            }
+            List<T> results = new ArrayList<>(poms.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    // the failures are reported by the results, so it's only thrown by the onFailure function itself
+                    results.add(onFailure.apply(poms.get(i), ex.getCause()));
+                }
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+    }
+
+    /**
+     * Records that the edit running on the current thread renamed its POM file into place:
+     * from then on, the timeout no longer interrupts it, and it's reported by its own outcome
+     */
+    static void committed() {
+        Optional.ofNullable(WATCH.get()).ifPresent(Watch::commit);
+    }
+
+    /**
+     * Records that the edit running on the current thread is about to roll back or unlock its POM file:
+     * from then on, the timeout no longer interrupts it, and the interrupt of an expired timeout is cleared
+     */
+    static void uninterruptible() {
+        Optional.ofNullable(WATCH.get()).ifPresent(Watch::shield);
+    }
+
+    private <T> T run(Path pom, Function<Path, T> task, BiFunction<Path, Throwable, T> onFailure) throws InterruptedException {
+        slots.acquire();
+        Watch watch = new Watch(Thread.currentThread());
+        ScheduledFuture<?> alarm = timeout == null ? null : watchdog.schedule(watch::expire, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        T result = null;
+        Throwable error = null;
+        boolean inTime;
+        WATCH.set(watch);
+        try {
+            result = task.apply(pom);
+        } catch (Throwable ex) {
+            error = ex;
+        } finally {
+            WATCH.remove();
+            inTime = watch.stop();
+            if (alarm != null) {
+                alarm.cancel(false);
+            }
+            slots.release();
+        }
+        if (!inTime) {
+            return onFailure.apply(pom, timedOut(pom));
+        }
+        return error == null ? result : onFailure.apply(pom, error);
+    }
+
+    private TimeoutException timedOut(Path pom) {
+        return new TimeoutException(String.format("the edit of \"%s\" timed out after %d ms", pom, timeout.toMillis()));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The timeout of a running edit: either the edit stops, commits or starts rolling back first,
+     * or the timeout expires first and interrupts it
+     */
+    private static final class Watch {
+
+        private final Thread thread;
+        private boolean interruptible = true;
+        private boolean expired;
+        private boolean committed;
+
+        private Watch(Thread thread) {
+            this.thread = thread;
+        }
+
+        synchronized void expire() {
+            if (interruptible) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Prevents the timeout from interrupting the edit from now on; called by the thread of the edit
+         */
+        synchronized void shield() {
+            if (interruptible) {
+                interruptible = false;
+                if (expired) {
+                    // the interrupt is meant for the edit only, not for its rollback or the next task of the same thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        /**
+         * Records that the edit changed its POM file, unless it's already rolling back; called by the thread of the edit
+         */
+        synchronized void commit() {
+            if (interruptible) {
+                shield();
+                committed = true;
+            }
+        }
+
+        /**
+         * @return {@code true} if the edit stopped or committed before the timeout expired
+         */
+        synchronized boolean stop() {
+            shield();
+            return !expired || committed;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A manifest of dependency and property edits, each one targeting a POM file, read in a single streaming pass,
+ * so it's never fully loaded in memory.
+ * <p>
+ * Every entry has the {@code pom} field and either the {@code gav} field, optionally with the {@code type},
+ * {@code classifier} and {@code scope} fields, or the {@code property} field, optionally with the {@code value} field:
+ * a property without value is removed. A relative {@code pom} is resolved against the directory of the manifest,
+ * so the manifest can be applied from any working directory.
+ * <p>
+ * A CSV manifest, whose name ends with {@code .csv}, starts with a header naming its columns:
+ * <pre>
+ * pom,gav,scope,property,value
+ * module-a/pom.xml,org.junit.jupiter:junit-jupiter:5.9.2,test,,
+ * module-a/pom.xml,,,java.version,17
+ * </pre>
+ * Any other manifest is JSON: either an array of objects, or a sequence of objects such as JSON Lines:
+ * <pre>
+ * {"pom": "module-a/pom.xml", "gav": "org.junit.jupiter:junit-jupiter:5.9.2", "scope": "test"}
+ * {"pom": "module-a/pom.xml", "property": "java.version", "value": "17"}
+ * </pre>
+ */
+public final class EditManifest {
+
+    private static final List<String> FIELDS = List.of("pom", "gav", "type", "classifier", "scope", "property", "value");
+
+    private EditManifest() {
+    }
+
+    /**
+     * Reads the given manifest, passing each entry to the given consumer as soon as it's read
+     *
+     * @param manifest the manifest file
+     * @param consumer the consumer of the entries
+     * @throws UncheckedIOException     if the manifest cannot be read
+     * @throws IllegalArgumentException if an entry is invalid, with the manifest line where it's found
+     */
+    public static void read(Path manifest, Consumer<Entry> consumer) {
+        Objects.requireNonNull(manifest, "manifest cannot be null");
+        Objects.requireNonNull(consumer, "consumer cannot be null");
+        boolean csv = manifest.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            Scanner scanner = new Scanner(manifest, reader);
+            if (csv) {
+                readCsv(scanner, consumer);
+            } else {
+                readJson(scanner, consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot read the \"%s\" file: %s", manifest, e.getMessage()), e);
+        }
+    }
+
+    private static void readCsv(Scanner scanner, Consumer<Entry> consumer) throws IOException {
+        List<String> header = scanner.csvRecord();
+        if (header == null) {
+            return;
+        }
+        for (String column : header) {
+            if (!FIELDS.contains(column.trim())) {
+                throw scanner.error(String.format("unknown column '%s': use %s", column, String.join(", ", FIELDS)));
+            }
+        }
+        List<String> record;
+        while ((record = scanner.csvRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() > header.size()) {
+                throw scanner.error(String.format("%d values for %d columns", record.size(), header.size()));
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < record.size(); i++) {
+                fields.put(header.get(i).trim(), record.get(i));
+            }
+            consumer.accept(entry(scanner, fields));
+        }
+    }
+
+    private static void readJson(Scanner scanner, Consumer<Entry> consumer) throws IOException {
+        int c = scanner.skipWhitespace();
+        boolean array = c == '[';
+        if (array) {
+            scanner.next();
+            c = scanner.skipWhitespace();
+        }
+        while (c != -1 && !(array && c == ']')) {
+            consumer.accept(entry(scanner, scanner.jsonObject()));
+            c = scanner.skipWhitespace();
+            if (array && c == ',') {
+                scanner.next();
+                c = scanner.skipWhitespace();
+            }
+        }
+        if (array) {
+            if (c != ']') {
+                throw scanner.error("unterminated array");
+            }
+            scanner.next();
+            if (scanner.skipWhitespace() != -1) {
+                throw scanner.error("unexpected content after the array");
+            }
+        }
+    }
+
+    private static Entry entry(Scanner scanner, Map<String, String> fields) {
+        String pom = blankToNull(fields.get("pom"));
+        String gav = blankToNull(fields.get("gav"));
+        String property = blankToNull(fields.get("property"));
+        if (pom == null) {
+            throw scanner.error("pom is required");
+        }
+        if ((gav == null) == (property == null)) {
+            throw scanner.error("either gav or property is required");
+        }
+        try {
+            if (gav != null) {
+                return new Entry(scanner.resolve(pom), scanner.entryLine, Dependency.ofGav(gav)
+                        .withType(blankToNull(fields.get("type")))
+                        .withClassifier(blankToNull(fields.get("classifier")))
+                        .withScope(blankToNull(fields.get("scope")))
+                        .build(), null);
+            }
+            return new Entry(scanner.resolve(pom), scanner.entryLine, null,
+                    Property.of(property, blankToNull(fields.get("value"))).build());
+        } catch (RuntimeException e) {
+            throw scanner.error(e.getMessage());
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * An edit of the manifest
+     */
+    public static final class Entry {
+
+        private final Path pom;
+        private final int line;
+        private final Dependency dependency;
+        private final Property property;
+
+        private Entry(Path pom, int line, Dependency dependency, Property property) {
+            this.pom = pom;
+            this.line = line;
+            this.dependency = dependency;
+            this.property = property;
+        }
+
+        /**
+         * @return the target POM file
+         */
+        public Path getPom() {
+            return pom;
+        }
+
+        /**
+         * @return the line of the manifest where the entry starts
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the dependency to be added or updated, or {@code null} if it's a property edit
+         */
+        public Dependency getDependency() {
+            return dependency;
+        }
+
+        /**
+         * @return the property to be set or removed, or {@code null} if it's a dependency edit
+         */
+        public Property getProperty() {
+            return property;
+        }
+
+        /**
+         * Adds this edit to the given batch
+         *
+         * @param batch the {@link PomEditBatch.PomEditBatchBuilder} of the target POM
+         * @return the same {@link PomEditBatch.PomEditBatchBuilder} instance
+         */
+        public PomEditBatch.PomEditBatchBuilder addTo(PomEditBatch.PomEditBatchBuilder batch) {
+            return dependency != null ? batch.withDependency(dependency) : batch.withProperty(property);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{pom=%s, line=%d, %s}", pom, line,
+                    dependency != null ? "dependency=" + dependency : "property=" + property);
+        }
+    }
+
+    /**
+     * Reads the manifest one character at a time, keeping track of the current line
+     */
+    private static final class Scanner {
+
+        private final Path manifest;
+        private final Reader reader;
+        private int peeked = -2;
+        private int line = 1;
+        private int entryLine = 1;
+
+        private Scanner(Path manifest, Reader reader) {
+            this.manifest = manifest;
+            this.reader = reader;
+        }
+
+        Path resolve(String pom) {
+            Path directory = manifest.toAbsolutePath().getParent();
+            return directory == null ? Path.of(pom) : directory.resolve(pom);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(String.format("%s:%d: %s", manifest, entryLine, message));
+        }
+
+        int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = reader.read();
+            }
+            return peeked;
+        }
+
+        int next() throws IOException {
+            int c = peek();
+            peeked = -2;
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+
+        int skipWhitespace() throws IOException {
+            while (peek() != -1 && Character.isWhitespace(peek())) {
+                next();
+            }
+            entryLine = line;
+            return peek();
+        }
+
+        /**
+         * @return the fields of the next CSV record, or {@code null} at the end of the manifest
+         */
+        List<String> csvRecord() throws IOException {
+            entryLine = line;
+            if (peek() == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                int c = next();
+                if (quoted) {
+                    if (c == -1) {
+                        throw error("unterminated quoted value");
+                    }
+                    if (c == '"' && peek() == '"') {
+                        next();
+                        field.append('"');
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        /**
+         * @return the fields of the next JSON object, whose values must be strings or {@code null}
+         */
+        Map<String, String> jsonObject() throws IOException {
+            if (next() != '{') {
+                throw error("an object is expected");
+            }
+            Map<String, String> fields = new HashMap<>();
+            int c = skipWhitespaceInside();
+            if (c == '}') {
+                next();
+                return fields;
+            }
+            while (true) {
+                if (c != '"') {
+                    throw error("a field name is expected");
+                }
+                String name = jsonString();
+                if (skipWhitespaceInside() != ':') {
+                    throw error("':' is expected after the field name");
+                }
+                next();
+                String value = skipWhitespaceInside() == '"' ? jsonString() : jsonLiteral();
+                if (!FIELDS.contains(name)) {
+                    throw error(String.format("unknown field '%s': use %s", name, String.join(", ", FIELDS)));
+                }
+                fields.put(name, value);
+                c = skipWhitespaceInside();
+                next();
+                if (c == '}') {
+                    return fields;
+                }
+                if (c != ',') {
+                    throw error("',' or '}' is expected after a field");
+                }
+                c = skipWhitespaceInside();
+            }
+        }
+
+        private int skipWhitespaceInside() throws IOException {
+            while (peek() != -1 && Character.isWhitespace(peek())) {
+                next();
+            }
+            return peek();
+        }
+
+        private String jsonLiteral() throws IOException {
+            StringBuilder literal = new StringBuilder();
+            while (peek() != -1 && (Character.isLetterOrDigit(peek()) || peek() == '.' || peek() == '-' || peek() == '+')) {
+                literal.append((char) next());
+            }
+            String value = literal.toString();
+            if (value.equals("null")) {
+                return null;
+            }
+            if (value.isEmpty() || value.equals("true") || value.equals("false")) {
+                throw error("a string value is expected");
+            }
+            return value;
+        }
+
+        private String jsonString() throws IOException {
+            next();
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                int c = next();
+                if (c == -1 || c == '\n') {
+                    throw error("unterminated string");
+                }
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append((char) c);
+                    continue;
+                }
+                int escaped = next();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append((char) escaped);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) {
+                            hex[i] = (char) next();
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid unicode escape");
+                        }
+                        break;
+                    default:
+                        throw error("invalid escape");
+                }
+            }
+        }
+    }
+}
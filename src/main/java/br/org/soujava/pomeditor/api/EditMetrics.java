@@ -0,0 +1,353 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects how long each phase of the edits of every POM takes, how many bytes are written
+ * and how many bytes are allocated while editing them.
+ * <p>
+ * The edits report their phases to the {@link Scope} opened by {@link #start(Path)} on the same thread,
+ * so nothing is collected, nor costs anything, outside of a scope.
+ */
+public final class EditMetrics {
+
+    /**
+     * The measured phases of an edit
+     */
+    public enum Phase {
+        PARSE, TRANSFORM, SERIALIZE, WRITE, BACKUP, ROLLBACK;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final ThreadLocal<PomMetrics> CURRENT = new ThreadLocal<>();
+    private static final Timer DISABLED = new Timer(null);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Map<Path, PomMetrics> poms = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Starts measuring the edits of the given POM performed by the current thread
+     *
+     * @param pom the target POM file
+     * @return the {@link Scope} to be closed once the edits are done
+     */
+    public Scope start(Path pom) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        PomMetrics metrics = poms.computeIfAbsent(pom.toAbsolutePath().normalize(), PomMetrics::new);
+        return new Scope(metrics, CURRENT.get());
+    }
+
+    /**
+     * @return the metrics of every measured POM, in the order they were first edited
+     */
+    public List<PomMetrics> getPoms() {
+        synchronized (poms) {
+            return List.copyOf(poms.values());
+        }
+    }
+
+    /**
+     * @return {@code true} if no POM has been measured
+     */
+    public boolean isEmpty() {
+        return poms.isEmpty();
+    }
+
+    /**
+     * @return a single line summary of the metrics of every measured POM
+     */
+    public String summary() {
+        List<PomMetrics> measured = getPoms();
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%d POM file(s) edited in %d ms (",
+                measured.size(),
+                millis(measured.stream().mapToLong(PomMetrics::getTotalNanos).sum())));
+        for (Phase phase : Phase.values()) {
+            summary.append(phase == Phase.PARSE ? "" : ", ")
+                    .append(phase.label())
+                    .append(' ')
+                    .append(millis(measured.stream().mapToLong(metrics -> metrics.getNanos(phase)).sum()))
+                    .append(" ms");
+        }
+        summary.append(String.format("), %d byte(s) written, %d byte(s) allocated",
+                measured.stream().mapToLong(PomMetrics::getBytesWritten).sum(),
+                measured.stream().mapToLong(PomMetrics::getAllocatedBytes).sum()));
+        measured.stream()
+                .max(Comparator.comparingLong(PomMetrics::getTotalNanos))
+                .ifPresent(slowest -> summary.append(String.format(", slowest: \"%s\" (%d ms)",
+                        slowest.getPom(),
+                        millis(slowest.getTotalNanos()))));
+        return summary.toString();
+    }
+
+    /**
+     * Writes the metrics of every measured POM to the given file,
+     * as CSV if its name ends with {@code .csv}, as JSON otherwise
+     *
+     * @param file the target file
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void writeTo(Path file) {
+        Objects.requireNonNull(file, "file cannot be null");
+        boolean csv = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                if (csv) {
+                    writeCsv(writer);
+                } else {
+                    writeJson(writer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot write the \"%s\" file: %s", file, e.getMessage()), e);
+        }
+    }
+
+    private void writeCsv(Writer writer) throws IOException {
+        writer.write("pom,edits,total_ns");
+        for (Phase phase : Phase.values()) {
+            writer.write("," + phase.label() + "_ns");
+        }
+        writer.write(",bytes_written,allocated_bytes\n");
+        for (PomMetrics metrics : getPoms()) {
+            String pom = metrics.getPom().toString();
+            writer.write(pom.contains(",") || pom.contains("\"") ? "\"" + pom.replace("\"", "\"\"") + "\"" : pom);
+            writer.write("," + metrics.getEdits() + "," + metrics.getTotalNanos());
+            for (Phase phase : Phase.values()) {
+                writer.write("," + metrics.getNanos(phase));
+            }
+            writer.write("," + metrics.getBytesWritten() + "," + metrics.getAllocatedBytes() + "\n");
+        }
+    }
+
+    private void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"poms\": [");
+        List<PomMetrics> measured = getPoms();
+        for (int i = 0; i < measured.size(); i++) {
+            PomMetrics metrics = measured.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"pom\": \"" + escapeJson(metrics.getPom().toString()) + "\"");
+            writer.write(", \"edits\": " + metrics.getEdits());
+            writer.write(", \"totalNanos\": " + metrics.getTotalNanos());
+            for (Phase phase : Phase.values()) {
+                writer.write(", \"" + phase.label() + "Nanos\": " + metrics.getNanos(phase));
+            }
+            writer.write(", \"bytesWritten\": " + metrics.getBytesWritten());
+            writer.write(", \"allocatedBytes\": " + metrics.getAllocatedBytes() + "}");
+        }
+        writer.write(measured.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Returns a {@link Timer} reporting to the {@link Scope} opened by the current thread,
+     * which does nothing if there's none
+     *
+     * @return a {@link Timer}
+     */
+    static Timer timer() {
+        PomMetrics metrics = CURRENT.get();
+        return metrics == null ? DISABLED : new Timer(metrics);
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Measures consecutive phases of an edit: each {@link #lap(Phase)} accounts the time elapsed since the previous one
+     */
+    static final class Timer {
+
+        private final PomMetrics metrics;
+        private long last;
+
+        private Timer(PomMetrics metrics) {
+            this.metrics = metrics;
+            this.last = metrics == null ? 0 : System.nanoTime();
+        }
+
+        void lap(Phase phase) {
+            if (metrics == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            metrics.phases.addAndGet(phase.ordinal(), now - last);
+            last = now;
+        }
+
+        void written(long bytes) {
+            if (metrics != null) {
+                metrics.bytesWritten.addAndGet(bytes);
+            }
+        }
+    }
+
+    /**
+     * The measurement of the edits of a POM by the current thread
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final PomMetrics metrics;
+        private final PomMetrics previous;
+        private final long start;
+        private final long allocatedAtStart;
+
+        private Scope(PomMetrics metrics, PomMetrics previous) {
+            this.metrics = metrics;
+            this.previous = previous;
+            CURRENT.set(metrics);
+            this.allocatedAtStart = allocatedBytes();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            metrics.totalNanos.addAndGet(System.nanoTime() - start);
+            metrics.allocatedBytes.addAndGet(Math.max(0, allocatedBytes() - allocatedAtStart));
+            metrics.edits.incrementAndGet();
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * The metrics of a single POM
+     */
+    public static final class PomMetrics {
+
+        private final Path pom;
+        private final AtomicLong edits = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLongArray phases = new AtomicLongArray(Phase.values().length);
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+
+        private PomMetrics(Path pom) {
+            this.pom = pom;
+        }
+
+        /**
+         * @return the measured POM file
+         */
+        public Path getPom() {
+            return pom;
+        }
+
+        /**
+         * @return how many times the POM has been edited
+         */
+        public long getEdits() {
+            return edits.get();
+        }
+
+        /**
+         * @return the total time spent editing the POM, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        /**
+         * @param phase the measured phase
+         * @return the time spent in the given phase, in nanoseconds
+         */
+        public long getNanos(Phase phase) {
+            return phases.get(phase.ordinal());
+        }
+
+        /**
+         * @return how many bytes have been written to the POM
+         */
+        public long getBytesWritten() {
+            return bytesWritten.get();
+        }
+
+        /**
+         * @return how many bytes have been allocated while editing the POM,
+         * or zero if the JVM can't measure it
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes.get();
+        }
+
+        @Override
+        public String toString() {
+            List<String> phasesInMillis = new ArrayList<>();
+            for (Phase phase : Phase.values()) {
+                phasesInMillis.add(phase.label() + "=" + millis(getNanos(phase)) + "ms");
+            }
+            return String.format("{pom=%s, edits=%d, total=%dms, %s, bytesWritten=%d, allocatedBytes=%d}",
+                    pom, getEdits(), millis(getTotalNanos()), String.join(", ", phasesInMillis),
+                    getBytesWritten(), getAllocatedBytes());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a build plugin to be added, updated or removed
+ */
+public final class Plugin {
+
+    /**
+     * Returns a {@link PluginBuilder} instance
+     * @return a {@link PluginBuilder}
+     */
+    public static PluginBuilder builder() {
+        return new PluginBuilder();
+    }
+
+    /**
+     * Returns a {@link PluginBuilder} based on a GAV - groupId:artifactId[:version] - parameter
+     *
+     * @param gav a GAV - groupId:artifactId[:version] - parameter
+     * @return a {@link PluginBuilder}
+     */
+    public static PluginBuilder ofGav(String gav) {
+        PluginBuilder builder = builder();
+        var gavValues = Arrays.stream(gav.split(":"))
+                .filter(Objects::nonNull)
+                .filter(item -> !item.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toList());
+        if (gavValues.size() >= 1)
+            builder.withGroupId(gavValues.get(0));
+        if (gavValues.size() >= 2)
+            builder.withArtifactId(gavValues.get(1));
+        if (gavValues.size() >= 3)
+            builder.withVersion(gavValues.get(2));
+        return builder;
+    }
+
+    /**
+     * Plugin builder
+     */
+    public static class PluginBuilder {
+
+        private String groupId;
+        private String artifactId;
+        private String version;
+
+        /**
+         * @param groupId groupId
+         * @return the same {@link PluginBuilder} instance
+         */
+        public PluginBuilder withGroupId(String groupId) {
+            this.groupId = groupId;
+            return this;
+        }
+
+        /**
+         * @param artifactId artifactId
+         * @return the same {@link PluginBuilder} instance
+         */
+        public PluginBuilder withArtifactId(String artifactId) {
+            this.artifactId = artifactId;
+            return this;
+        }
+
+        /**
+         * @param version version
+         * @return the same {@link PluginBuilder} instance
+         */
+        public PluginBuilder withVersion(String version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * @return a {@link Plugin} instance
+         */
+        public Plugin build() {
+            return new Plugin(groupId, artifactId, version);
+        }
+    }
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+
+    private Plugin(String groupId, String artifactId, String version) {
+        if (groupId == null || groupId.isBlank())
+            throw new IllegalArgumentException("groupId must be provided");
+
+        if (artifactId == null || artifactId.isBlank())
+            throw new IllegalArgumentException("artifactId must be provided");
+
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+    }
+
+    /**
+     * @return the groupId
+     */
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return artifactId
+     */
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * @return version
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Plugin that = (Plugin) o;
+        return Objects.equals(groupId, that.groupId)
+                && Objects.equals(artifactId, that.artifactId)
+                && Objects.equals(version, that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, version);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("groupId='" + groupId + '\'');
+        sb.append(", artifactId='" + artifactId + '\'');
+        if (version != null)
+            sb.append(", version='" + version + '\'');
+        sb.append("}");
+        return sb.toString();
+    }
+}
@@ -17,10 +17,14 @@
 package br.org.soujava.pomeditor.api;
 
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -36,18 +40,30 @@ public final class PomChange {
 
     private final Path pom;
     private final Consumer<String> logger;
+    private final BackupStrategy backupStrategy;
     private final Function<Path, Boolean> backupFunction;
     private final Consumer<Path> rollbackFunction;
+    private final EditMetrics metrics;
+    private final Durability durability;
+    private final String indentation;
 
     private PomChange(Path pom,
                       Consumer<String> logger,
+                      BackupStrategy backupStrategy,
                       Function<Path, Boolean> backupFunction,
-                      Consumer<Path> rollbackFunction) {
+                      Consumer<Path> rollbackFunction,
+                      EditMetrics metrics,
+                      Durability durability,
+                      String indentation) {
         Objects.requireNonNull(pom, "pom cannot be null");
         this.pom = pom;
         this.logger = Optional.ofNullable(logger).orElse(System.out::println);
+        this.backupStrategy = Optional.ofNullable(backupStrategy).orElse(BackupStrategy.copy());
         this.backupFunction = Optional.ofNullable(backupFunction).orElse(this::backup);
-        this.rollbackFunction = Optional.ofNullable(rollbackFunction).orElse(PomRollback::execute);
+        this.rollbackFunction = Optional.ofNullable(rollbackFunction).orElse(this.backupStrategy::rollback);
+        this.metrics = metrics;
+        this.durability = Optional.ofNullable(durability).orElse(Durability.FILE);
+        this.indentation = indentation;
     }
 
     public static PomChangeBuilder builder() {
@@ -58,8 +74,12 @@ public final class PomChange {
 
         private Path pom;
         private Consumer<String> logger = System.out::println;
+        private BackupStrategy backupStrategy;
         private Function<Path, Boolean> backupFunction;
         private Consumer<Path> rollbackFunction;
+        private EditMetrics metrics;
+        private Durability durability;
+        private String indentation;
 
         public PomChangeBuilder withLogger(Consumer<String> logger) {
             this.logger = logger;
@@ -71,6 +91,11 @@ public final class PomChange {
             return this;
         }
 
+        public PomChangeBuilder withBackupStrategy(BackupStrategy backupStrategy) {
+            this.backupStrategy = backupStrategy;
+            return this;
+        }
+
         public PomChangeBuilder withBackupFunction(Function<Path, Boolean> backupFunction) {
             this.backupFunction = backupFunction;
             return this;
@@ -81,28 +106,331 @@ public final class PomChange {
             return this;
         }
 
+        /**
+         * @param metrics the {@link EditMetrics} that measure the changes, or {@code null} to not measure them
+         * @return the same {@link PomChangeBuilder} instance
+         */
+        public PomChangeBuilder withMetrics(EditMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param durability how hard the POM writes of the change are flushed to the disk, {@link Durability#FILE} by default
+         * @return the same {@link PomChangeBuilder} instance
+         */
+        public PomChangeBuilder withDurability(Durability durability) {
+            this.durability = durability;
+            return this;
+        }
+
+        /**
+         * @param indentation the indentation of the elements added by the change, see {@link WhitespaceProfile#indentationOf(String)},
+         *                    or {@code null} to detect it from the POM
+         * @return the same {@link PomChangeBuilder} instance
+         */
+        public PomChangeBuilder withIndentation(String indentation) {
+            this.indentation = indentation;
+            return this;
+        }
+
         public PomChange build() {
-            return new PomChange(this.pom, this.logger, this.backupFunction, this.rollbackFunction);
+            return new PomChange(this.pom, this.logger, this.backupStrategy, this.backupFunction, this.rollbackFunction, this.metrics,
+                    this.durability, this.indentation);
         }
 
     }
 
+    /**
+     * Strategy used to keep the original content of the POM while it's being changed
+     */
+    public interface BackupStrategy {
+
+        /**
+         * Keeps the original content of the given POM, if it's not kept already
+         *
+         * @param pom    the target POM file
+         * @param logger the logger
+         * @return {@code true} if the backup was created by this call
+         */
+        boolean backup(Path pom, Consumer<String> logger);
+
+        /**
+         * Recovers the original content of the given POM
+         *
+         * @param pom the target POM file
+         */
+        void rollback(Path pom);
+
+        /**
+         * Releases the original content of the given POM once the change that kept it has succeeded,
+         * if this strategy can only roll back a failed change. The other strategies keep it for the {@code commit}
+         * and {@code rollback} goals, so they do nothing by default
+         *
+         * @param pom the target POM file
+         */
+        default void release(Path pom) {
+        }
+
+        /**
+         * Returns the default strategy: the original POM is copied to the {@link #backupFileOf(Path)} file
+         *
+         * @return a {@link BackupStrategy}
+         */
+        static BackupStrategy copy() {
+            return new FileBackupStrategy(false);
+        }
+
+        /**
+         * Returns a strategy that hard links the {@link #backupFileOf(Path)} file to the original POM,
+         * so no content is copied. It falls back to a copy if the file system doesn't support hard links.
+         * <p>
+         * The edits must replace the POM file instead of rewriting it in place,
+         * as {@link AddDependency}, {@link ChangeProperty} and {@link PomEditBatch} do,
+         * otherwise the backup would be changed too.
+         *
+         * @return a {@link BackupStrategy}
+         */
+        static BackupStrategy link() {
+            return new FileBackupStrategy(true);
+        }
+
+        /**
+         * Returns the strategy that keeps the original POM content in memory, without any backup file.
+         * It's meant to roll back a failed change only: the content is released as soon as the change succeeds,
+         * so the {@code commit} and {@code rollback} goals have nothing to act on.
+         * There's a single instance per JVM, so the content is found whichever change, or daemon request, kept it.
+         *
+         * @return the shared {@link BackupStrategy} instance
+         */
+        static BackupStrategy inMemory() {
+            return InMemoryBackupStrategy.SHARED;
+        }
+
+        /**
+         * @param name the strategy name, as given to {@link #of(String)}
+         * @return {@code true} if it's the {@link #inMemory()} strategy, which leaves nothing to commit or roll back
+         */
+        static boolean isInMemory(String name) {
+            return "memory".equals(Optional.ofNullable(name).map(String::trim).orElse(""));
+        }
+
+        /**
+         * Returns a strategy that keeps the original POM content in the {@link BackupStore} of the given directory,
+         * without any backup file next to the POM
+         *
+         * @param directory the directory of the store
+         * @return the {@link BackupStore} of the directory
+         */
+        static BackupStrategy store(Path directory) {
+            return BackupStore.of(directory);
+        }
+
+        /**
+         * Returns the {@link BackupStrategy} by its name: {@code copy}, {@code link}, {@code memory}
+         * or {@code store}, in the {@link BackupStore#DEFAULT_DIRECTORY}
+         *
+         * @param name the strategy name
+         * @return a {@link BackupStrategy}
+         * @throws IllegalArgumentException if there's no strategy with the given name
+         */
+        static BackupStrategy of(String name) {
+            return of(name, Path.of(BackupStore.DEFAULT_DIRECTORY));
+        }
+
+        /**
+         * Returns the {@link BackupStrategy} by its name: {@code copy}, {@code link}, {@code memory} or {@code store}
+         *
+         * @param name           the strategy name
+         * @param storeDirectory the directory of the {@link BackupStore} used by the {@code store} strategy
+         * @return a {@link BackupStrategy}
+         * @throws IllegalArgumentException if there's no strategy with the given name
+         */
+        static BackupStrategy of(String name, Path storeDirectory) {
+            switch (Optional.ofNullable(name).map(String::trim).orElse("copy")) {
+                case "copy":
+                    return copy();
+                case "link":
+                    return link();
+                case "memory":
+                    return inMemory();
+                case "store":
+                    return store(storeDirectory);
+                default:
+                    throw new IllegalArgumentException(String.format("unknown backup strategy '%s': use copy, link, memory or store", name));
+            }
+        }
+    }
+
+    private static final class FileBackupStrategy implements BackupStrategy {
+
+        private final boolean link;
+
+        private FileBackupStrategy(boolean link) {
+            this.link = link;
+        }
+
+        @Override
+        public boolean backup(Path pom, Consumer<String> logger) {
+            Path backupFile = backupFileOf(pom);
+            if (backupFile.toFile().exists()) {
+                return false;
+            }
+            try {
+                if (link) {
+                    PomEditor.linkOrCopy(pom, backupFile);
+                } else {
+                    Files.copy(pom, backupFile, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                logger.accept(String.format("Backup for '%s' created: '%s'",
+                        pom.toAbsolutePath(),
+                        backupFile.toAbsolutePath()));
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                return false;
+            } catch (IOException e) {
+                throw new RuntimeException("failure during backup process:" + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void rollback(Path pom) {
+            PomRollback.execute(pom);
+        }
+    }
+
+    private static final class InMemoryBackupStrategy implements BackupStrategy {
+
+        private static final InMemoryBackupStrategy SHARED = new InMemoryBackupStrategy();
+
+        private final Map<Path, byte[]> contents = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean backup(Path pom, Consumer<String> logger) {
+            Path key = pom.toAbsolutePath().normalize();
+            if (contents.containsKey(key)) {
+                return false;
+            }
+            try {
+                contents.put(key, Files.readAllBytes(pom));
+                logger.accept(String.format("Backup for '%s' kept in memory", pom.toAbsolutePath()));
+                return true;
+            } catch (IOException e) {
+                throw new RuntimeException("failure during backup process:" + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void rollback(Path pom) {
+            byte[] content = contents.remove(pom.toAbsolutePath().normalize());
+            if (content == null) {
+                return;
+            }
+            try {
+                PomEditor.write(pom, content);
+                PomEditListeners.current().rolledBack(pom);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("error during rollback process: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void release(Path pom) {
+            contents.remove(pom.toAbsolutePath().normalize());
+        }
+    }
+
     @FunctionalInterface
     public static interface Executable {
         void execute() throws Throwable;
     }
 
-    public void execute(Executable executable) throws Throwable {
-        boolean createdBackupFile = false;
-        try {
-            createdBackupFile = createBackupFileIfNeeded();
-            executable.execute();
-        } catch (Throwable ex) {
-            rollback(createdBackupFile);
-            throw ex;
+    /**
+     * Performs the given change holding the {@link PomLock} of the POM, so concurrent changes of the same POM are queued.
+     * The backup is created right before the change first writes the POM, as {@link #beforeWrite(Path)} does,
+     * so a change leaving the POM as it is neither creates a backup nor writes the POM.
+     * If the change fails, the POM is rolled back if its backup was created by the change,
+     * and if it succeeds, the backup is released as {@link BackupStrategy#release(Path)} does.
+     * If {@link PomChangeBuilder#withMetrics(EditMetrics)} was set, the change is measured by it.
+     * The POM writes of the change, including the rollback, are flushed as {@link PomChangeBuilder#withDurability(Durability)} requires,
+     * and the elements it adds are indented as {@link PomChangeBuilder#withIndentation(String)} requires
+     *
+     * @param executable the change to be performed
+     * @return {@code true} if the change wrote the POM
+     * @throws Throwable the error thrown by the change
+     */
+    public boolean execute(Executable executable) throws Throwable {
+        try (PomLock lock = PomLock.acquire(pom, logger);
+             EditMetrics.Scope scope = metrics == null ? null : metrics.start(pom);
+             Durability.Scope durabilityScope = durability.apply();
+             WhitespaceProfile.Scope indentationScope = WhitespaceProfile.withIndentation(indentation)) {
+            Running running = new Running(this);
+            Running outer = RUNNING.get();
+            RUNNING.set(running);
+            try {
+                executable.execute();
+            } catch (Throwable ex) {
+                // neither the rollback nor the unlock may be interrupted by the timeout of the edit
+                EditExecutor.uninterruptible();
+                // the rollback writes the POM too, it must not be taken for a write of the change
+                restore(outer);
+                rollback(running.createdBackupFile);
+                throw ex;
+            } finally {
+                restore(outer);
+            }
+            EditExecutor.committed();
+            if (running.createdBackupFile) {
+                backupStrategy.release(pom);
+            }
+            return running.written;
+        }
+    }
+
+    /**
+     * Called by the edits right before they replace the given POM file: the first write of the POM
+     * of the change running on the current thread creates its backup.
+     * The edits of this package call it already, it's only needed by the {@link Executable}s writing the POM on their own
+     *
+     * @param pom the POM file about to be written
+     */
+    public static void beforeWrite(Path pom) {
+        Running running = RUNNING.get();
+        if (running == null || running.written || !running.change.isChanging(pom)) {
+            return;
+        }
+        running.written = true;
+        running.createdBackupFile = running.change.createBackupFileIfNeeded();
+    }
+
+    private static final ThreadLocal<Running> RUNNING = new ThreadLocal<>();
+
+    /**
+     * State of the {@link #execute(Executable)} running on the current thread
+     */
+    private static final class Running {
+
+        private final PomChange change;
+        private boolean written;
+        private boolean createdBackupFile;
+
+        private Running(PomChange change) {
+            this.change = change;
+        }
+    }
+
+    private static void restore(Running outer) {
+        if (outer == null) {
+            RUNNING.remove();
+        } else {
+            RUNNING.set(outer);
         }
     }
 
+    private boolean isChanging(Path other) {
+        return pom.toAbsolutePath().normalize().equals(other.toAbsolutePath().normalize());
+    }
+
     private boolean createBackupFileIfNeeded() {
         return Optional.ofNullable(this.backupFunction.apply(this.pom))
                 .orElse(Boolean.FALSE);
@@ -110,24 +438,21 @@ public final class PomChange {
 
     private void rollback(boolean isBackupOwner) {
         if (isBackupOwner) {
-            this.rollbackFunction.accept(this.pom);
+            EditMetrics.Timer timer = EditMetrics.timer();
+            try {
+                this.rollbackFunction.accept(this.pom);
+            } finally {
+                timer.lap(EditMetrics.Phase.ROLLBACK);
+            }
         }
     }
 
     private Boolean backup(Path pom) {
-        Path backupFile = backupFileOf(pom);
-        if (!backupFile.toFile().exists()) {
-            try {
-                Files.copy(pom, backupFile);
-                logger.accept(String.format("Backup for '%s' created: '%s'",
-                        pom.toAbsolutePath(),
-                        backupFile.toAbsolutePath()));
-                return true;
-            } catch (IOException e) {
-                throw new RuntimeException("failure during backup process:" + e.getMessage(), e);
-            }
+        boolean created = backupStrategy.backup(pom, logger);
+        if (created) {
+            PomEditListeners.current().backupCreated(pom);
         }
-        return false;
+        return created;
     }
 
 }
@@ -25,7 +25,8 @@ import java.util.Objects;
 public interface PomCommit {
 
     /**
-     * Confirms the changes of a given POM and deletes the backup POM file
+     * Confirms the changes of a given POM and deletes the backup POM file,
+     * holding the {@link PomLock} of the POM so it doesn't race with an edit of it
      *
      * @param pom the target POM file
      * @throws RuntimeException on any issue occurs during the rollback processing
@@ -33,9 +34,23 @@ public interface PomCommit {
     public static void execute(final Path pom) {
         Objects.requireNonNull(pom, "pom cannot be null");
         Path backupFile = PomChange.backupFileOf(pom);
-        if (backupFile.toFile().exists()) {
-            backupFile.toFile().delete();
+        try (PomLock lock = PomLock.acquire(pom, null)) {
+            if (backupFile.toFile().exists()) {
+                backupFile.toFile().delete();
+            }
         }
     }
 
+    /**
+     * Confirms the changes of every POM of the given {@link BackupStore}, discarding the whole store in a single pass
+     *
+     * @param store the backup store
+     * @return how many POM files were committed
+     * @throws RuntimeException on any issue occurs during the commit processing
+     */
+    public static int execute(final BackupStore store) {
+        Objects.requireNonNull(store, "store cannot be null");
+        return store.commitAll();
+    }
+
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.Log;
+import org.l2x6.pom.tuner.PomTransformer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents a set of dependency, plugin and property edits to be applied to a POM in a single pass
+ */
+public final class PomEditBatch {
+
+    /**
+     * Returns a {@link PomEditBatchBuilder} instance
+     * @return a {@link PomEditBatchBuilder}
+     */
+    public static PomEditBatchBuilder builder() {
+        return new PomEditBatchBuilder();
+    }
+
+    /**
+     * PomEditBatch builder
+     */
+    public static class PomEditBatchBuilder {
+
+        private final List<Dependency> dependencies = new ArrayList<>();
+        private final List<Dependency> managedDependencies = new ArrayList<>();
+        private final List<Plugin> plugins = new ArrayList<>();
+        private final List<Plugin> managedPlugins = new ArrayList<>();
+        private final List<Property> properties = new ArrayList<>();
+
+        /**
+         * @param dependency dependency to be added or updated
+         * @return the same {@link PomEditBatchBuilder} instance
+         */
+        public PomEditBatchBuilder withDependency(Dependency dependency) {
+            this.dependencies.add(Objects.requireNonNull(dependency, "dependency cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param dependency dependency to be added or updated in the {@code dependencyManagement} section
+         * @return the same {@link PomEditBatchBuilder} instance
+         */
+        public PomEditBatchBuilder withManagedDependency(Dependency dependency) {
+            this.managedDependencies.add(Objects.requireNonNull(dependency, "dependency cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param plugin plugin to be added or updated in the {@code build/plugins} section
+         * @return the same {@link PomEditBatchBuilder} instance
+         */
+        public PomEditBatchBuilder withPlugin(Plugin plugin) {
+            this.plugins.add(Objects.requireNonNull(plugin, "plugin cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param plugin plugin to be added or updated in the {@code build/pluginManagement} section
+         * @return the same {@link PomEditBatchBuilder} instance
+         */
+        public PomEditBatchBuilder withManagedPlugin(Plugin plugin) {
+            this.managedPlugins.add(Objects.requireNonNull(plugin, "plugin cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param property property to be set or removed
+         * @return the same {@link PomEditBatchBuilder} instance
+         */
+        public PomEditBatchBuilder withProperty(Property property) {
+            this.properties.add(Objects.requireNonNull(property, "property cannot be null"));
+            return this;
+        }
+
+        /**
+         * @return a {@link PomEditBatch} instance
+         */
+        public PomEditBatch build() {
+            return new PomEditBatch(dependencies, managedDependencies, plugins, managedPlugins, properties);
+        }
+    }
+
+    private final List<Dependency> dependencies;
+    private final List<Dependency> managedDependencies;
+    private final List<Plugin> plugins;
+    private final List<Plugin> managedPlugins;
+    private final List<Property> properties;
+
+    private PomEditBatch(List<Dependency> dependencies,
+                         List<Dependency> managedDependencies,
+                         List<Plugin> plugins,
+                         List<Plugin> managedPlugins,
+                         List<Property> properties) {
+        this.dependencies = Collections.unmodifiableList(new ArrayList<>(dependencies));
+        this.managedDependencies = Collections.unmodifiableList(new ArrayList<>(managedDependencies));
+        this.plugins = Collections.unmodifiableList(new ArrayList<>(plugins));
+        this.managedPlugins = Collections.unmodifiableList(new ArrayList<>(managedPlugins));
+        this.properties = Collections.unmodifiableList(new ArrayList<>(properties));
+    }
+
+    /**
+     * @return the dependencies to be added or updated
+     */
+    public List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return the dependencies to be added or updated in the {@code dependencyManagement} section
+     */
+    public List<Dependency> getManagedDependencies() {
+        return managedDependencies;
+    }
+
+    /**
+     * @return the plugins to be added or updated in the {@code build/plugins} section
+     */
+    public List<Plugin> getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * @return the plugins to be added or updated in the {@code build/pluginManagement} section
+     */
+    public List<Plugin> getManagedPlugins() {
+        return managedPlugins;
+    }
+
+    /**
+     * @return the properties to be set or removed
+     */
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return {@code true} if there's no edit to be applied
+     */
+    public boolean isEmpty() {
+        return dependencies.isEmpty()
+                && managedDependencies.isEmpty()
+                && plugins.isEmpty()
+                && managedPlugins.isEmpty()
+                && properties.isEmpty();
+    }
+
+    /**
+     * Composes every edit of this batch into a single {@link PomTransformer.Transformation} chain
+     *
+     * @param log it's the logger
+     * @return the transformations to be performed, in order
+     */
+    public List<PomTransformer.Transformation> transformations(Log log) {
+        List<PomTransformer.Transformation> transformations = new ArrayList<>(size());
+        dependencies.forEach(dependency -> transformations.add(AddDependency.addOrUpdateDependencyIfNeeded(dependency)));
+        managedDependencies.forEach(dependency -> transformations.add(
+                AddDependency.addOrUpdateDependencyIfNeeded(dependency, PomSection.DEPENDENCY_MANAGEMENT)));
+        plugins.forEach(plugin -> transformations.add(AddPlugin.addOrUpdatePluginIfNeeded(plugin, PomSection.PLUGINS)));
+        managedPlugins.forEach(plugin -> transformations.add(AddPlugin.addOrUpdatePluginIfNeeded(plugin, PomSection.PLUGIN_MANAGEMENT)));
+        properties.forEach(property -> transformations.add(ChangeProperty.changePropertyIfNeeded(log, property)));
+        return transformations;
+    }
+
+    /**
+     * Applies every edit of this batch into the target POM xml,
+     * parsing and writing it only once
+     *
+     * @param log it's the logger
+     * @param pom it's the target POM xml
+     */
+    public void execute(Log log, Path pom) {
+        execute(log, pom, EditEngine.DOM);
+    }
+
+    /**
+     * Applies every edit of this batch into the target POM xml, using the given {@link EditEngine}.
+     * If any edit can't be streamed, such as the managed dependencies and the plugins ones,
+     * the whole batch is performed by the {@link EditEngine#DOM} engine
+     *
+     * @param log    it's the logger
+     * @param pom    it's the target POM xml
+     * @param engine it's the {@link EditEngine} to be used
+     */
+    public void execute(Log log, Path pom, EditEngine engine) {
+        if (isEmpty()) {
+            return;
+        }
+        if (engine == EditEngine.STREAM && isStreamable() && StreamEditor.transform(pom, edits(), DebugLogListener.of(log))) {
+            return;
+        }
+        PomEditor.transform(pom, transformations(log));
+    }
+
+    /**
+     * Computes the content the target POM xml would have once every edit of this batch is applied,
+     * using the given {@link EditEngine}, without writing it
+     *
+     * @param log     it's the logger
+     * @param pom     it's the target POM xml, used in the error messages
+     * @param content it's the raw content of the target POM xml
+     * @param engine  it's the {@link EditEngine} to be used
+     * @return the raw content of the changed POM xml, equal to the given content if there's nothing to be changed
+     */
+    public byte[] preview(Log log, Path pom, byte[] content, EditEngine engine) {
+        if (isEmpty()) {
+            return content;
+        }
+        if (engine == EditEngine.STREAM && isStreamable()) {
+            Optional<byte[]> streamed = StreamEditor.apply(pom, content, edits());
+            if (streamed.isPresent()) {
+                return streamed.get();
+            }
+        }
+        return PomEditor.transform(pom, content, transformations(log));
+    }
+
+    private boolean isStreamable() {
+        return managedDependencies.isEmpty() && plugins.isEmpty() && managedPlugins.isEmpty();
+    }
+
+    private int size() {
+        return dependencies.size() + managedDependencies.size() + plugins.size() + managedPlugins.size() + properties.size();
+    }
+
+    private List<StreamEditor.Edit> edits() {
+        List<StreamEditor.Edit> edits = new ArrayList<>(dependencies.size() + properties.size());
+        dependencies.forEach(dependency -> edits.add(StreamEditor.addOrUpdateDependency(dependency)));
+        properties.forEach(property -> edits.add(StreamEditor.changeProperty(property)));
+        return edits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PomEditBatch that = (PomEditBatch) o;
+        return Objects.equals(dependencies, that.dependencies)
+                && Objects.equals(managedDependencies, that.managedDependencies)
+                && Objects.equals(plugins, that.plugins)
+                && Objects.equals(managedPlugins, that.managedPlugins)
+                && Objects.equals(properties, that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dependencies, managedDependencies, plugins, managedPlugins, properties);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("dependencies=").append(dependencies);
+        if (!managedDependencies.isEmpty())
+            sb.append(", managedDependencies=").append(managedDependencies);
+        if (!plugins.isEmpty())
+            sb.append(", plugins=").append(plugins);
+        if (!managedPlugins.isEmpty())
+            sb.append(", managedPlugins=").append(managedPlugins);
+        sb.append(", properties=").append(properties);
+        sb.append("}");
+        return sb.toString();
+    }
+}
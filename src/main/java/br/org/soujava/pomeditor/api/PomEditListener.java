@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.nio.file.Path;
+
+/**
+ * Listener of the edits performed on the POM files, notified as each step of an edit is done.
+ * <p>
+ * The listeners are discovered through the {@link java.util.ServiceLoader}, by a
+ * {@code META-INF/services/br.org.soujava.pomeditor.api.PomEditListener} file on the classpath of the plugin,
+ * or registered by {@link PomEditListeners#register(PomEditListener)}.
+ * Every event is a no-op by default, so a listener overrides only the events it cares about.
+ * <p>
+ * The events are reported by the thread performing the edit, while it holds the {@link PomLock} of the POM when there's one,
+ * so a listener must be thread-safe, must be quick and should not throw: a {@link RuntimeException} it throws is logged and ignored.
+ * Only the elements whose value actually changes are reported, once the POM file is written.
+ * A POM edited from the cache of the {@code cacheDirectory} is not transformed again, so only its {@link #writeCompleted(Path, long)} is reported.
+ * The events carry the raw values of the edit: formatting them, if at all, is up to the listener.
+ */
+public interface PomEditListener {
+
+    /**
+     * The original content of the POM was kept by the {@link PomChange.BackupStrategy} of a {@link PomChange}
+     *
+     * @param pom the edited POM file
+     */
+    default void backupCreated(Path pom) {
+    }
+
+    /**
+     * An element was added
+     *
+     * @param pom    the edited POM file
+     * @param parent the path of the parent element, e.g. {@code /project/properties}
+     * @param name   the name of the added element
+     * @param value  the text of the added element, or {@code null} if it's a container element
+     */
+    default void nodeAdded(Path pom, String parent, String name, String value) {
+    }
+
+    /**
+     * The text of an element was set
+     *
+     * @param pom    the edited POM file
+     * @param parent the path of the parent element, e.g. {@code /project/properties}
+     * @param name   the name of the updated element
+     * @param value  the new text of the element
+     */
+    default void nodeUpdated(Path pom, String parent, String name, String value) {
+    }
+
+    /**
+     * An element was removed
+     *
+     * @param pom    the edited POM file
+     * @param parent the path of the parent element, e.g. {@code /project/properties}
+     * @param name   the name of the removed element
+     */
+    default void nodeRemoved(Path pom, String parent, String name) {
+    }
+
+    /**
+     * The new content of the POM file was written, by an edit or by a rollback
+     *
+     * @param pom  the written POM file
+     * @param size the size of the written content, in bytes
+     */
+    default void writeCompleted(Path pom, long size) {
+    }
+
+    /**
+     * The POM file was restored from its backup
+     *
+     * @param pom the restored POM file
+     */
+    default void rolledBack(Path pom) {
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.lang.System.Logger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link PomEditListener}s notified by the edits: the ones discovered through the {@link ServiceLoader},
+ * once, along with the ones registered by {@link #register(PomEditListener)}.
+ * <p>
+ * While there's no listener, {@link #current()} is a shared no-op listener, so notifying it costs a call that does nothing:
+ * the edits pass the values they already have, and nothing is formatted nor allocated on their behalf.
+ * A listener throwing a {@link RuntimeException} is logged and skipped, so it can't fail an edit or a rollback,
+ * nor keep the other listeners from being notified.
+ */
+public final class PomEditListeners {
+
+    private static final Logger LOGGER = System.getLogger(PomEditListeners.class.getName());
+    private static final PomEditListener NONE = new PomEditListener() {
+    };
+    private static final Scope NO_SCOPE = new Scope(null);
+    private static final ThreadLocal<Path> EDITED = new ThreadLocal<>();
+    private static final List<PomEditListener> DISCOVERED = discover();
+    private static final List<PomEditListener> REGISTERED = new ArrayList<>();
+    private static volatile PomEditListener current = combine(DISCOVERED);
+
+    private PomEditListeners() {
+    }
+
+    /**
+     * Registers the given listener, in addition to the discovered ones, until the returned {@link Registration} is closed
+     *
+     * @param listener the listener to be notified
+     * @return the {@link Registration}, to be closed in order to unregister the listener
+     */
+    public static Registration register(PomEditListener listener) {
+        Objects.requireNonNull(listener, "listener cannot be null");
+        synchronized (REGISTERED) {
+            REGISTERED.add(listener);
+            refresh();
+        }
+        return new Registration(listener);
+    }
+
+    /**
+     * @return the listener notifying every discovered and registered listener, or a no-op one if there are none
+     */
+    static PomEditListener current() {
+        return current;
+    }
+
+    /**
+     * Makes the current thread report the node events of the given POM file until the returned {@link Scope} is closed,
+     * as the edits of the DOM engine don't know which file they edit.
+     * If there's no listener, nothing is recorded at all
+     *
+     * @param pom the POM file being edited in place
+     * @return the {@link Scope}, to be closed once the POM is edited
+     */
+    static Scope editing(Path pom) {
+        if (current == NONE) {
+            return NO_SCOPE;
+        }
+        Scope scope = new Scope(EDITED.get());
+        EDITED.set(pom);
+        return scope;
+    }
+
+    /**
+     * @return the POM file being edited in place by the current thread, see {@link #editing(Path)},
+     * or {@code null} if there's none, e.g. while an edit is previewed
+     */
+    static Path edited() {
+        return EDITED.get();
+    }
+
+    /**
+     * Returns the listener of the node events of an edit: the current listener, along with the given one,
+     * if a POM file is being edited in place, or only the given one otherwise
+     *
+     * @param local the listener of this edit only, e.g. the {@link DebugLogListener} of the caller
+     * @return the listener to be notified
+     */
+    static PomEditListener during(PomEditListener local) {
+        if (EDITED.get() == null || current == NONE) {
+            return local;
+        }
+        return local == NONE ? current : combine(List.of(current, local));
+    }
+
+    /**
+     * @return the no-op listener
+     */
+    static PomEditListener none() {
+        return NONE;
+    }
+
+    private static void refresh() {
+        List<PomEditListener> listeners = new ArrayList<>(DISCOVERED);
+        listeners.addAll(REGISTERED);
+        current = combine(listeners);
+    }
+
+    private static List<PomEditListener> discover() {
+        List<PomEditListener> listeners = new ArrayList<>();
+        ServiceLoader.load(PomEditListener.class, PomEditListener.class.getClassLoader()).forEach(listeners::add);
+        return listeners;
+    }
+
+    private static PomEditListener combine(List<PomEditListener> listeners) {
+        switch (listeners.size()) {
+            case 0:
+                return NONE;
+            default:
+                return new Composite(listeners.toArray(new PomEditListener[0]));
+        }
+    }
+
+    /**
+     * Registration of a listener
+     */
+    public static final class Registration implements AutoCloseable {
+
+        private final PomEditListener listener;
+
+        private Registration(PomEditListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            synchronized (REGISTERED) {
+                if (REGISTERED.remove(listener)) {
+                    refresh();
+                }
+            }
+        }
+    }
+
+    /**
+     * Scope of a POM file being edited in place by the current thread
+     */
+    static final class Scope implements AutoCloseable {
+
+        private final Path previous;
+
+        private Scope(Path previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (this == NO_SCOPE) {
+                return;
+            }
+            if (previous == null) {
+                EDITED.remove();
+            } else {
+                EDITED.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners, in order, isolating each one from the failures of the others
+     */
+    private static final class Composite implements PomEditListener {
+
+        private final PomEditListener[] listeners;
+
+        private Composite(PomEditListener[] listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void backupCreated(Path pom) {
+            for (PomEditListener listener : listeners) {
+                try {
+                    listener.backupCreated(pom);
+                } catch (RuntimeException e) {
+                    failed(listener, "backupCreated", pom, e);
+                }
+            }
+        }
+
+        @Override
+        public void nodeAdded(Path pom, String parent, String name, String value) {
+            for (PomEditListener listener : listeners) {
+                try {
+                    listener.nodeAdded(pom, parent, name, value);
+                } catch (RuntimeException e) {
+                    failed(listener, "nodeAdded", pom, e);
+                }
+            }
+        }
+
+        @Override
+        public void nodeUpdated(Path pom, String parent, String name, String value) {
+            for (PomEditListener listener : listeners) {
+                try {
+                    listener.nodeUpdated(pom, parent, name, value);
+                } catch (RuntimeException e) {
+                    failed(listener, "nodeUpdated", pom, e);
+                }
+            }
+        }
+
+        @Override
+        public void nodeRemoved(Path pom, String parent, String name) {
+            for (PomEditListener listener : listeners) {
+                try {
+                    listener.nodeRemoved(pom, parent, name);
+                } catch (RuntimeException e) {
+                    failed(listener, "nodeRemoved", pom, e);
+                }
+            }
+        }
+
+        @Override
+        public void writeCompleted(Path pom, long size) {
+            for (PomEditListener listener : listeners) {
+                try {
+                    listener.writeCompleted(pom, size);
+                } catch (RuntimeException e) {
+                    failed(listener, "writeCompleted", pom, e);
+                }
+            }
+        }
+
+        @Override
+        public void rolledBack(Path pom) {
+            for (PomEditListener listener : listeners) {
+                try {
+                    listener.rolledBack(pom);
+                } catch (RuntimeException e) {
+                    failed(listener, "rolledBack", pom, e);
+                }
+            }
+        }
+
+        private static void failed(PomEditListener listener, String event, Path pom, RuntimeException e) {
+            LOGGER.log(Logger.Level.WARNING, String.format("the %s listener failed on the %s event of the \"%s\" file: %s",
+                    listener.getClass().getName(), event, pom, e.getMessage()), e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.PomTransformer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs {@link PomTransformer.Transformation}s against a POM file.
+ * <p>
+ * The POM is never rewritten in place: the transformations are performed on a sibling work file
+ * that is atomically moved over the POM, so the POM file is replaced instead of truncated.
+ * That keeps hard-linked backups intact and never leaves a half-written POM behind.
+ * The work file and the rename are flushed to the disk as the current {@link Durability} requires.
+ * If the transformations produce no change the POM file is not touched at all,
+ * otherwise the backup of the running {@link PomChange} is created right before the POM file is replaced.
+ * The whitespace of the simple elements is taken from the cached {@link WhitespaceProfile} of the POM,
+ * so the transformer doesn't scan the POM to detect it.
+ * The {@link PomEditListener}s are notified of every POM write.
+ */
+final class PomEditor {
+
+    private PomEditor() {
+    }
+
+    static void transform(Path pom, Collection<PomTransformer.Transformation> transformations) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        Path workFile = workFileOf(pom);
+        EditMetrics.Timer timer = EditMetrics.timer();
+        try (PomEditListeners.Scope scope = PomEditListeners.editing(pom)) {
+            linkOrCopy(pom, workFile);
+
+            List<PomTransformer.Transformation> chain = new ArrayList<>(transformations.size() + 3);
+            // the transformer runs the chain right after parsing the POM and serializes it right after the chain
+            chain.add(lap(timer, EditMetrics.Phase.PARSE));
+            chain.addAll(transformations);
+            // the work file has been read by now, unlinking it makes the transformer write a brand-new file
+            chain.add(unlink(workFile));
+            chain.add(lap(timer, EditMetrics.Phase.TRANSFORM));
+            new PomTransformer(
+                    workFile,
+                    StandardCharsets.UTF_8,
+                    WhitespaceProfile.of(pom).getSimpleElementWhitespace())
+                    .transform(chain);
+            timer.lap(EditMetrics.Phase.SERIALIZE);
+
+            if (Files.exists(workFile)) {
+                PomChange.beforeWrite(pom);
+                timer.lap(EditMetrics.Phase.BACKUP);
+                long size = Files.size(workFile);
+                copyPermissions(pom, workFile);
+                commit(workFile, pom);
+                WhitespaceProfile.written(pom);
+                PomEditListeners.current().writeCompleted(pom, size);
+                timer.written(size);
+                timer.lap(EditMetrics.Phase.WRITE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot write the \"%s\" file: %s", pom, e.getMessage()), e);
+        } finally {
+            deleteQuietly(workFile);
+        }
+    }
+
+    /**
+     * Runs the given transformations against the given POM content, without touching the POM file:
+     * the content is transformed in a scratch file next to the POM, so the transformer sees the POM where it is,
+     * in its repository, or in the temporary directory if the directory of the POM is read-only
+     *
+     * @param pom             the POM file the content was read from, used in the error messages
+     * @param content         the raw bytes of the POM
+     * @param transformations the transformations to be performed, in order
+     * @return the raw bytes of the transformed POM
+     */
+    static byte[] transform(Path pom, byte[] content, Collection<PomTransformer.Transformation> transformations) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        Path scratchFile = null;
+        EditMetrics.Timer timer = EditMetrics.timer();
+        try {
+            scratchFile = scratchFileOf(pom);
+            Files.write(scratchFile, content);
+
+            List<PomTransformer.Transformation> chain = new ArrayList<>(transformations.size() + 2);
+            chain.add(lap(timer, EditMetrics.Phase.PARSE));
+            chain.addAll(transformations);
+            chain.add(lap(timer, EditMetrics.Phase.TRANSFORM));
+            new PomTransformer(
+                    scratchFile,
+                    StandardCharsets.UTF_8,
+                    WhitespaceProfile.of(pom).getSimpleElementWhitespace())
+                    .transform(chain);
+            byte[] transformed = Files.readAllBytes(scratchFile);
+            timer.lap(EditMetrics.Phase.SERIALIZE);
+            return transformed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot transform the \"%s\" file: %s", pom, e.getMessage()), e);
+        } finally {
+            if (scratchFile != null) {
+                deleteQuietly(scratchFile);
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of the given POM the same way {@link #transform(Path, Collection)} does
+     *
+     * @param pom     the target POM file
+     * @param content the new content of the POM
+     */
+    static void write(Path pom, byte[] content) {
+        write(pom, content, () -> {
+        });
+    }
+
+    /**
+     * Replaces the content of the given POM the same way {@link #write(Path, byte[])} does,
+     * running the given callback once the POM is replaced, before its write is reported
+     *
+     * @param pom       the target POM file
+     * @param content   the new content of the POM
+     * @param committed the callback, e.g. reporting the node events of the new content
+     */
+    static void write(Path pom, byte[] content, Runnable committed) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        Path workFile = workFileOf(pom);
+        EditMetrics.Timer timer = EditMetrics.timer();
+        try {
+            PomChange.beforeWrite(pom);
+            timer.lap(EditMetrics.Phase.BACKUP);
+            Files.write(workFile, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            copyPermissions(pom, workFile);
+            commit(workFile, pom);
+            WhitespaceProfile.written(pom);
+            committed.run();
+            PomEditListeners.current().writeCompleted(pom, content.length);
+            timer.written(content.length);
+            timer.lap(EditMetrics.Phase.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot write the \"%s\" file: %s", pom, e.getMessage()), e);
+        } finally {
+            deleteQuietly(workFile);
+        }
+    }
+
+    private static Path scratchFileOf(Path pom) throws IOException {
+        Path scratchFile = workFileOf(pom.toAbsolutePath());
+        try {
+            return Files.createFile(scratchFile);
+        } catch (FileSystemException e) {
+            return Files.createTempFile("pom-editor", ".xml");
+        }
+    }
+
+    static Path workFileOf(Path pom) {
+        Path fileName = pom.getFileName();
+        return pom.resolveSibling(String.format(".%s.%x.tmp", fileName, ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Hard links the target file to the source file, or copies the source file if it can't be linked
+     *
+     * @throws FileAlreadyExistsException if the target file exists
+     */
+    static void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * Renames the given work file over the target file, flushing them as the {@link Durability#current()} requires
+     */
+    static void commit(Path workFile, Path target) throws IOException {
+        Durability durability = Durability.current();
+        durability.beforeRename(workFile);
+        replace(workFile, target);
+        EditExecutor.committed();
+        durability.afterRename(target);
+    }
+
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path workFile) {
+        try {
+            Files.deleteIfExists(workFile);
+        } catch (IOException e) {
+            // nothing to do, it's just a leftover
+        }
+    }
+
+    static void copyPermissions(Path source, Path target) throws IOException {
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, the default permissions are kept
+        }
+    }
+
+    private static PomTransformer.Transformation lap(EditMetrics.Timer timer, EditMetrics.Phase phase) {
+        return (document, context) -> timer.lap(phase);
+    }
+
+    private static PomTransformer.Transformation unlink(Path workFile) {
+        return (document, context) -> {
+            try {
+                Files.delete(workFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
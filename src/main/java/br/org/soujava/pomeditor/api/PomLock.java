@@ -0,0 +1,331 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Exclusive lock of a POM file, so concurrent editors on the same machine queue instead of corrupting it.
+ * <p>
+ * It's made of an in-JVM lock, striped by the canonical path of the POM, and an OS-level {@link FileLock}
+ * on a sidecar {@code <pom>.lock} file, which is removed when the lock is released.
+ * The lock is reentrant for the thread holding it.
+ * The stripe only guards the registration of the held POMs and the wait for their release, so it's never held
+ * during an edit nor while waiting for another process, and the other POMs of the stripe aren't held up.
+ */
+public final class PomLock implements AutoCloseable {
+
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+    private static final Condition[] RELEASES = new Condition[STRIPES];
+    private static final Map<Path, PomLock> HELD = new ConcurrentHashMap<>();
+    private static final AtomicLong ACQUISITIONS = new AtomicLong();
+    private static final AtomicLong CONTENDED = new AtomicLong();
+    private static final AtomicLong WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+    private static final byte RELEASED = 1;
+    private static final long STALE_PAUSE_MILLIS = 10;
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+            RELEASES[i] = LOCKS[i].newCondition();
+        }
+    }
+
+    /**
+     * Returns the sidecar file used to lock the given POM across processes
+     *
+     * @param pom the target POM file
+     * @return the lock file
+     */
+    public static Path lockFileOf(Path pom) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        return Path.of(pom.toString() + ".lock");
+    }
+
+    /**
+     * Acquires the lock of the given POM, waiting for it if needed
+     *
+     * @param pom    the target POM file
+     * @param logger the logger, informed when the lock was contended
+     * @return the acquired {@link PomLock}, to be closed in order to release it
+     * @throws UncheckedIOException if the lock file cannot be locked
+     */
+    public static PomLock acquire(Path pom, Consumer<String> logger) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        Path key = canonical(pom);
+        int index = Math.floorMod(key.hashCode(), STRIPES);
+        ReentrantLock stripe = LOCKS[index];
+        long start = System.nanoTime();
+        boolean contended = !stripe.tryLock();
+        if (contended) {
+            stripe.lock();
+        }
+        PomLock lock;
+        try {
+            for (PomLock held = HELD.get(key); held != null; held = HELD.get(key)) {
+                if (held.owner == Thread.currentThread()) {
+                    held.holds++;
+                    return held;
+                }
+                contended = true;
+                RELEASES[index].awaitUninterruptibly();
+            }
+            lock = new PomLock(key, stripe, RELEASES[index], Thread.currentThread());
+            HELD.put(key, lock);
+        } finally {
+            stripe.unlock();
+        }
+        try {
+            contended |= lock.lockFile();
+            count(key, contended, System.nanoTime() - start, logger);
+            return lock;
+        } catch (IOException | RuntimeException e) {
+            lock.unregister();
+            if (e instanceof IOException) {
+                throw new UncheckedIOException(String.format("cannot lock the \"%s\" file: %s", pom, e.getMessage()), (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * @return a snapshot of the lock contention metrics of this JVM
+     */
+    public static Metrics metrics() {
+        Map<Path, String> holders = new TreeMap<>();
+        HELD.forEach((path, lock) -> holders.put(path, lock.owner.getName()));
+        return new Metrics(ACQUISITIONS.get(), CONTENDED.get(), WAIT_NANOS.get(), MAX_WAIT_NANOS.get(), holders);
+    }
+
+    private static void count(Path pom, boolean contended, long waitNanos, Consumer<String> logger) {
+        ACQUISITIONS.incrementAndGet();
+        if (!contended) {
+            return;
+        }
+        CONTENDED.incrementAndGet();
+        WAIT_NANOS.addAndGet(waitNanos);
+        MAX_WAIT_NANOS.accumulateAndGet(waitNanos, Math::max);
+        Objects.requireNonNullElse(logger, message -> {
+        }).accept(String.format("Lock for '%s' acquired after waiting %d ms", pom, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+    }
+
+    private static Path canonical(Path pom) {
+        try {
+            return pom.toRealPath();
+        } catch (IOException e) {
+            return pom.toAbsolutePath().normalize();
+        }
+    }
+
+    private final Path pom;
+    private final ReentrantLock stripe;
+    private final Condition released;
+    private final Thread owner;
+    private int holds = 1;
+    private FileChannel channel;
+    private FileLock fileLock;
+
+    private PomLock(Path pom, ReentrantLock stripe, Condition released, Thread owner) {
+        this.pom = pom;
+        this.stripe = stripe;
+        this.released = released;
+        this.owner = owner;
+    }
+
+    /**
+     * @return {@code true} if another process was holding the lock
+     */
+    private boolean lockFile() throws IOException {
+        Path lockFile = lockFileOf(pom);
+        boolean contended = false;
+        Object stale = null;
+        for (int attempt = 1; ; attempt++) {
+            FileChannel candidate = FileChannel.open(lockFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                Object opened = fileKeyOf(lockFile);
+                FileLock candidateLock = candidate.tryLock();
+                if (candidateLock == null) {
+                    contended = true;
+                    candidateLock = candidate.lock();
+                }
+                // a released lock file is marked, then deleted by its holder, so the locked file must be
+                // the one still found at its path, and unmarked; otherwise it must be opened again
+                Object locked = fileKeyOf(lockFile);
+                boolean current = locked != null && locked.equals(opened);
+                if (current && candidate.size() == 0) {
+                    this.channel = candidate;
+                    this.fileLock = candidateLock;
+                    return contended;
+                }
+                // a marked file found twice in a row at its path was left by a holder that died before deleting it
+                if (current && locked.equals(stale)) {
+                    Files.deleteIfExists(lockFile);
+                }
+                stale = current ? locked : null;
+                candidateLock.release();
+                candidate.close();
+                if (attempt > 1) {
+                    Thread.sleep(STALE_PAUSE_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                candidate.close();
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for the lock", e);
+            } catch (IOException | RuntimeException e) {
+                candidate.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the identity of the file found at the given path, or {@code null} if there's none
+     */
+    private static Object fileKeyOf(Path file) throws IOException {
+        try {
+            Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            // without file keys, as on Windows, an open file cannot be deleted, so it's still the same
+            return key != null ? key : file;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Releases the lock, unless it's still held by an outer {@link #acquire(Path, Consumer)} of the same thread
+     */
+    @Override
+    public void close() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("the lock can only be released by the thread holding it");
+        }
+        if (--holds > 0) {
+            return;
+        }
+        try (FileChannel ignored = channel) {
+            // the waiters on the same file find out it has been released, then they create it again
+            channel.write(ByteBuffer.wrap(new byte[]{RELEASED}), 0);
+            Files.deleteIfExists(lockFileOf(pom));
+            fileLock.release();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot release the lock of the \"%s\" file: %s", pom, e.getMessage()), e);
+        } finally {
+            unregister();
+        }
+    }
+
+    /**
+     * Removes this lock from the held ones, waking up the threads waiting for it
+     */
+    private void unregister() {
+        stripe.lock();
+        try {
+            HELD.remove(pom);
+            released.signalAll();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Lock contention metrics
+     */
+    public static final class Metrics {
+
+        private final long acquisitions;
+        private final long contended;
+        private final long waitNanos;
+        private final long maxWaitNanos;
+        private final Map<Path, String> holders;
+
+        private Metrics(long acquisitions, long contended, long waitNanos, long maxWaitNanos, Map<Path, String> holders) {
+            this.acquisitions = acquisitions;
+            this.contended = contended;
+            this.waitNanos = waitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.holders = Collections.unmodifiableMap(holders);
+        }
+
+        /**
+         * @return how many times a lock has been acquired
+         */
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        /**
+         * @return how many times a lock was held by someone else when it was requested
+         */
+        public long getContended() {
+            return contended;
+        }
+
+        /**
+         * @return the total time spent waiting for contended locks, in nanoseconds
+         */
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        /**
+         * @return the longest time spent waiting for a contended lock, in nanoseconds
+         */
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        /**
+         * @return the POM files currently locked by this JVM, with the name of the thread holding each one
+         */
+        public Map<Path, String> getHolders() {
+            return holders;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lock acquisition(s), %d contended, %d ms waiting (max %d ms), holders: %s",
+                    acquisitions,
+                    contended,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos),
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+                    holders);
+        }
+    }
+}
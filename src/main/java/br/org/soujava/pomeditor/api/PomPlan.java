@@ -0,0 +1,285 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The changes planned for a set of POM files, computed in memory and applied later on.
+ * <p>
+ * Each {@link Entry} holds the unified diff of the change and the SHA-256 hashes of the POM content
+ * before and after it, so the change is applied only to a POM that's still the planned one,
+ * and its outcome is verified, without transforming the POM again.
+ * <p>
+ * The plan file is a unified diff, readable by humans and by the {@code patch} tool,
+ * with an {@code Index} and a {@code SHA-256} line before the diff of each POM.
+ */
+public final class PomPlan {
+
+    private static final String HEADER = "# pom-editor plan";
+    private static final String INDEX = "Index: ";
+    private static final String HASHES = "SHA-256: ";
+    private static final String SEPARATOR = "===================================================================";
+
+    /**
+     * Plans the edits of the given batch for the target POM xml, without writing it
+     *
+     * @param log    it's the logger
+     * @param pom    it's the target POM xml
+     * @param batch  it's the {@link PomEditBatch} to be planned
+     * @param engine it's the {@link EditEngine} to be used
+     * @return the planned {@link Entry}, or empty if there's nothing to be changed
+     */
+    public static Optional<Entry> plan(Log log, Path pom, PomEditBatch batch, EditEngine engine) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        Objects.requireNonNull(batch, "batch cannot be null");
+        byte[] original = readAllBytes(pom);
+        byte[] changed = batch.preview(log, pom, original, engine);
+        if (Arrays.equals(original, changed)) {
+            return Optional.empty();
+        }
+        String diff = UnifiedDiff.diff(pom.toString(),
+                new String(original, StandardCharsets.UTF_8),
+                new String(changed, StandardCharsets.UTF_8));
+        return Optional.of(new Entry(pom, sha256(original), sha256(changed), diff));
+    }
+
+    /**
+     * Reads a plan file written by {@link #writeTo(Path)}
+     *
+     * @param file the plan file
+     * @return the {@link PomPlan}
+     * @throws UncheckedIOException     if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid plan
+     */
+    public static PomPlan read(Path file) {
+        Objects.requireNonNull(file, "file cannot be null");
+        List<String> lines = UnifiedDiff.lines(new String(readAllBytes(file), StandardCharsets.UTF_8));
+        List<Entry> entries = new ArrayList<>();
+        int i = 0;
+        while (i < lines.size() && !lines.get(i).startsWith(INDEX)) {
+            i++;
+        }
+        while (i < lines.size()) {
+            Path pom = Path.of(strip(lines.get(i++)).substring(INDEX.length()));
+            if (i >= lines.size() || !lines.get(i).startsWith(HASHES)) {
+                throw new IllegalArgumentException(String.format("invalid plan file \"%s\": missing hashes of \"%s\"", file, pom));
+            }
+            String[] hashes = strip(lines.get(i++)).substring(HASHES.length()).split(" ");
+            if (hashes.length != 2) {
+                throw new IllegalArgumentException(String.format("invalid plan file \"%s\": invalid hashes of \"%s\"", file, pom));
+            }
+            if (i < lines.size() && strip(lines.get(i)).equals(SEPARATOR)) {
+                i++;
+            }
+            StringBuilder diff = new StringBuilder();
+            while (i < lines.size() && !lines.get(i).startsWith(INDEX)) {
+                diff.append(lines.get(i++));
+            }
+            entries.add(new Entry(pom, hashes[0], hashes[1], diff.toString()));
+        }
+        return new PomPlan(entries);
+    }
+
+    private final List<Entry> entries;
+
+    /**
+     * @param entries the planned changes
+     */
+    public PomPlan(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /**
+     * @return the planned changes
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Writes this plan to the given file
+     *
+     * @param file the plan file
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void writeTo(Path file) {
+        Objects.requireNonNull(file, "file cannot be null");
+        StringBuilder plan = new StringBuilder();
+        plan.append(HEADER).append(": ").append(entries.size()).append(" POM file(s) to be changed\n");
+        entries.forEach(entry -> plan.append(INDEX).append(entry.pom).append('\n')
+                .append(HASHES).append(entry.inputHash).append(' ').append(entry.outputHash).append('\n')
+                .append(SEPARATOR).append('\n')
+                .append(entry.diff));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(file, plan, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot write the \"%s\" file: %s", file, e.getMessage()), e);
+        }
+    }
+
+    private static String strip(String line) {
+        return line.endsWith("\r\n") ? line.substring(0, line.length() - 2)
+                : line.endsWith("\n") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    private static byte[] readAllBytes(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot read the \"%s\" file: %s", file, e.getMessage()), e);
+        }
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The planned change of a single POM
+     */
+    public static final class Entry {
+
+        private final Path pom;
+        private final String inputHash;
+        private final String outputHash;
+        private final String diff;
+
+        private Entry(Path pom, String inputHash, String outputHash, String diff) {
+            this.pom = pom;
+            this.inputHash = inputHash;
+            this.outputHash = outputHash;
+            this.diff = diff;
+        }
+
+        /**
+         * @return the target POM file
+         */
+        public Path getPom() {
+            return pom;
+        }
+
+        /**
+         * @return the SHA-256 hash of the POM content the change was planned against
+         */
+        public String getInputHash() {
+            return inputHash;
+        }
+
+        /**
+         * @return the SHA-256 hash of the POM content once the change is applied
+         */
+        public String getOutputHash() {
+            return outputHash;
+        }
+
+        /**
+         * @return the unified diff of the change
+         */
+        public String getDiff() {
+            return diff;
+        }
+
+        /**
+         * @return {@code true} if the POM content is no longer the one the change was planned against
+         */
+        public boolean isStale() {
+            return !Files.exists(pom) || !inputHash.equals(sha256(readAllBytes(pom)));
+        }
+
+        /**
+         * Applies the planned change to the POM, by patching it with the planned diff
+         *
+         * @throws IllegalStateException if the POM is no longer the one the change was planned against,
+         *                               or if the patched content isn't the planned one
+         */
+        public void apply() {
+            byte[] original = readAllBytes(pom);
+            if (!inputHash.equals(sha256(original))) {
+                throw new IllegalStateException(String.format("the \"%s\" file has changed since it was planned", pom));
+            }
+            byte[] changed;
+            try {
+                changed = UnifiedDiff.patch(new String(original, StandardCharsets.UTF_8), diff).getBytes(StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(String.format("cannot patch the \"%s\" file: %s", pom, e.getMessage()), e);
+            }
+            if (!outputHash.equals(sha256(changed))) {
+                throw new IllegalStateException(String.format("the patched \"%s\" file is not the planned one", pom));
+            }
+            PomEditor.write(pom, changed);
+        }
+
+        /**
+         * @return how many lines the change adds
+         */
+        public long getAddedLines() {
+            return countLines('+');
+        }
+
+        /**
+         * @return how many lines the change removes
+         */
+        public long getRemovedLines() {
+            return countLines('-');
+        }
+
+        private long countLines(char type) {
+            List<String> lines = UnifiedDiff.lines(diff);
+            int firstHunk = 0;
+            while (firstHunk < lines.size() && !lines.get(firstHunk).startsWith("@@")) {
+                firstHunk++;
+            }
+            return lines.subList(firstHunk, lines.size()).stream()
+                    .filter(line -> line.charAt(0) == type)
+                    .count();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{pom=%s, inputHash=%s, outputHash=%s}", pom, inputHash, outputHash);
+        }
+    }
+}
@@ -20,7 +20,6 @@ package br.org.soujava.pomeditor.api;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.Objects;
 
 /**
@@ -29,21 +28,41 @@ import java.util.Objects;
 public interface PomRollback {
 
     /**
-     * Recovers the backup POM file replacing the given POM file
+     * Recovers the backup POM file replacing the given POM file, keeping the permissions of the POM file,
+     * holding the {@link PomLock} of the POM so it doesn't race with an edit of it
      * @param pom target POM file
      * @throws RuntimeException on any issue occurs during the rollback processing
      */
     public static void execute(Path pom) {
         Objects.requireNonNull(pom, "pom cannot be null");
         Path backupFile = PomChange.backupFileOf(pom);
-        if (backupFile.toFile().exists()) {
-            try {
-                Files.copy(backupFile, pom, StandardCopyOption.REPLACE_EXISTING);
-                backupFile.toFile().delete();
-            } catch (IOException e) {
-                throw new RuntimeException("error during rollback process: " + e.getMessage(), e);
+        try (PomLock lock = PomLock.acquire(pom, null)) {
+            if (backupFile.toFile().exists()) {
+                // the backup replaces the POM file, so it takes the current mode of the POM, whatever the backup was created with
+                if (Files.exists(pom)) {
+                    PomEditor.copyPermissions(pom, backupFile);
+                }
+                PomEditor.commit(backupFile, pom);
+                PomEditListeners.current().rolledBack(pom);
+                // a hard-linked backup of an untouched POM is the very same file, so there's nothing to be moved
+                Files.deleteIfExists(backupFile);
             }
+        } catch (IOException e) {
+            throw new RuntimeException("error during rollback process: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Recovers every POM of the given {@link BackupStore} in a single pass over the store,
+     * holding the {@link PomLock} of each POM while it's recovered
+     *
+     * @param store the backup store
+     * @return how many POM files had to be recovered
+     * @throws RuntimeException on any issue occurs during the rollback processing
+     */
+    public static int execute(BackupStore store) {
+        Objects.requireNonNull(store, "store cannot be null");
+        return store.rollbackAll();
+    }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.util.Arrays;
+
+/**
+ * Sections of a POM declaring dependencies or plugins by {@code groupId:artifactId}
+ */
+public enum PomSection {
+
+    /**
+     * {@code project/dependencies}
+     */
+    DEPENDENCIES("dependency", "dependencies"),
+    /**
+     * {@code project/dependencyManagement/dependencies}
+     */
+    DEPENDENCY_MANAGEMENT("dependency", "dependencyManagement", "dependencies"),
+    /**
+     * {@code project/build/plugins}
+     */
+    PLUGINS("plugin", "build", "plugins"),
+    /**
+     * {@code project/build/pluginManagement/plugins}
+     */
+    PLUGIN_MANAGEMENT("plugin", "build", "pluginManagement", "plugins");
+
+    /**
+     * The groupId of a plugin declared without it
+     */
+    static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+
+    private final String element;
+    private final String[] path;
+
+    PomSection(String element, String... path) {
+        this.element = element;
+        this.path = path;
+    }
+
+    /**
+     * @return the name of the elements declared by this section: {@code dependency} or {@code plugin}
+     */
+    public String getElement() {
+        return element;
+    }
+
+    /**
+     * @return {@code true} if this section declares plugins
+     */
+    public boolean isPlugins() {
+        return this == PLUGINS || this == PLUGIN_MANAGEMENT;
+    }
+
+    /**
+     * @return {@code true} if this section declares managed versions
+     */
+    public boolean isManagement() {
+        return this == DEPENDENCY_MANAGEMENT || this == PLUGIN_MANAGEMENT;
+    }
+
+    /**
+     * @return the path of the section container element, below {@code project}
+     */
+    String[] path() {
+        return path.clone();
+    }
+
+    /**
+     * @return the path of the section container element, from {@code project}
+     */
+    String[] pathFromProject() {
+        String[] fromProject = new String[path.length + 1];
+        fromProject[0] = "project";
+        System.arraycopy(path, 0, fromProject, 1, path.length);
+        return fromProject;
+    }
+
+    /**
+     * Returns the dependencies section, either the managed one or not
+     *
+     * @param managed {@code true} for the {@code dependencyManagement} section
+     * @return {@link #DEPENDENCY_MANAGEMENT} or {@link #DEPENDENCIES}
+     */
+    public static PomSection dependencies(boolean managed) {
+        return managed ? DEPENDENCY_MANAGEMENT : DEPENDENCIES;
+    }
+
+    /**
+     * Returns the plugins section, either the managed one or not
+     *
+     * @param managed {@code true} for the {@code pluginManagement} section
+     * @return {@link #PLUGIN_MANAGEMENT} or {@link #PLUGINS}
+     */
+    public static PomSection plugins(boolean managed) {
+        return managed ? PLUGIN_MANAGEMENT : PLUGINS;
+    }
+
+    @Override
+    public String toString() {
+        return String.join("/", Arrays.asList(path));
+    }
+}
@@ -0,0 +1,615 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the properties defined by a set of POMs, usually the POMs of a reactor,
+ * and of their usages across all of them.
+ * <p>
+ * The definitions are the children of {@code project/properties}. Once they're known,
+ * every POM is scanned in a single pass by an {@link AhoCorasick} automaton looking for the
+ * {@code ${name}} references of every defined property at once, and for the hard-coded
+ * dependency, plugin or extension versions equal to the value of any of them.
+ * A hard-coded version is only reported for the {@code groupId:artifactId} pairs whose version references the property
+ * somewhere else in the indexed POMs, so an unrelated artifact that happens to have the same version is left alone.
+ * Comments are ignored.
+ * <p>
+ * The {@code parent} of every POM is resolved among the indexed POMs, by its {@code relativePath} first,
+ * then by its {@code groupId:artifactId}, so the properties a POM inherits are known as well.
+ */
+public final class PropertyIndex {
+
+    private static final List<String> MARKERS = List.of(
+            "<!--", "-->",
+            "<dependency>", "<plugin>", "<extension>",
+            "</dependency>", "</plugin>", "</extension>");
+    private static final int COMMENT_START = 0;
+    private static final int COMMENT_END = 1;
+    private static final int DECLARATION_END = 5;
+    private static final int FIRST_PATTERN = MARKERS.size();
+    private static final String VERSION_START = "<version>";
+    private static final String VERSION_END = "</version>";
+    private static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+
+    /**
+     * Builds the index of the given POMs, reading each one of them only once
+     *
+     * @param poms the POM files
+     * @return the {@link PropertyIndex} of the given POMs
+     * @throws UncheckedIOException if any POM cannot be read
+     * @throws IllegalArgumentException if any POM cannot be parsed
+     */
+    public static PropertyIndex of(Collection<Path> poms) {
+        Objects.requireNonNull(poms, "poms cannot be null");
+        Map<Path, String> contents = new LinkedHashMap<>();
+        Map<Path, Model> models = new LinkedHashMap<>();
+        List<Usage> definitions = new ArrayList<>();
+        for (Path pom : poms) {
+            String content = read(pom);
+            contents.put(pom, content);
+            Model model = modelOf(pom, content);
+            models.put(pom, model);
+            definitions.addAll(model.definitions);
+        }
+
+        List<String> names = definitions.stream()
+                .map(Usage::getProperty)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Set<String>> namesByValue = new LinkedHashMap<>();
+        definitions.stream()
+                .filter(definition -> isLiteral(definition.getValue()))
+                .forEach(definition -> namesByValue
+                        .computeIfAbsent(definition.getValue(), value -> new LinkedHashSet<>())
+                        .add(definition.getProperty()));
+        List<String> values = new ArrayList<>(namesByValue.keySet());
+
+        List<String> patterns = new ArrayList<>(MARKERS);
+        names.forEach(name -> patterns.add("${" + name + "}"));
+        values.forEach(value -> patterns.add(VERSION_START + escape(value) + VERSION_END));
+        AhoCorasick automaton = new AhoCorasick(patterns);
+
+        List<Usage> usages = new ArrayList<>(definitions);
+        List<Usage> hardCoded = new ArrayList<>();
+        contents.forEach((pom, content) -> {
+            Lines lines = new Lines(content);
+            scan(automaton, FIRST_PATTERN + names.size(), content, (pattern, start, end, declaration) -> {
+                int index = pattern - FIRST_PATTERN;
+                if (index < names.size()) {
+                    boolean version = declaration >= 0
+                            && content.startsWith(VERSION_START, start - VERSION_START.length())
+                            && content.startsWith(VERSION_END, end);
+                    usages.add(new Usage(Usage.Kind.REFERENCE, pom, lines.of(start), names.get(index), null,
+                            version ? artifactOf(content, declaration) : null));
+                } else {
+                    String value = values.get(index - names.size());
+                    String artifact = artifactOf(content, declaration);
+                    namesByValue.get(value).forEach(name ->
+                            hardCoded.add(new Usage(Usage.Kind.HARD_CODED, pom, lines.of(start), name, value, artifact)));
+                }
+            });
+        });
+
+        // only the artifacts already versioned by a property are expected to be versioned by it everywhere
+        Map<String, Set<String>> referencedArtifacts = new HashMap<>();
+        usages.stream()
+                .filter(usage -> usage.getKind() == Usage.Kind.REFERENCE && usage.getArtifact() != null)
+                .forEach(usage -> referencedArtifacts.computeIfAbsent(usage.getProperty(), name -> new HashSet<>()).add(usage.getArtifact()));
+        hardCoded.stream()
+                .filter(usage -> referencedArtifacts.getOrDefault(usage.getProperty(), Set.of()).contains(usage.getArtifact()))
+                .forEach(usages::add);
+        return new PropertyIndex(new ArrayList<>(contents.keySet()), usages, parentsOf(models));
+    }
+
+    /**
+     * Replaces the hard-coded versions equal to any of the given values by a reference to the given property,
+     * for the given dependencies, plugins or extensions only
+     *
+     * @param pom       the target POM file
+     * @param property  the name of the property
+     * @param values    the hard-coded values to be replaced
+     * @param artifacts the {@code groupId:artifactId} of the dependencies, plugins or extensions whose version is to be replaced,
+     *                  see {@link Usage#getArtifact()}
+     * @return {@code true} if the POM was changed
+     */
+    public static boolean referenceHardCodedValues(Path pom, String property, Collection<String> values, Collection<String> artifacts) {
+        Objects.requireNonNull(property, "property cannot be null");
+        Objects.requireNonNull(artifacts, "artifacts cannot be null");
+        List<String> literals = values.stream()
+                .filter(PropertyIndex::isLiteral)
+                .distinct()
+                .collect(Collectors.toList());
+        if (literals.isEmpty()) {
+            return false;
+        }
+        List<String> patterns = new ArrayList<>(MARKERS);
+        literals.forEach(value -> patterns.add(VERSION_START + escape(value) + VERSION_END));
+
+        String content = read(pom);
+        StringBuilder changed = new StringBuilder(content.length());
+        int[] copied = {0};
+        scan(new AhoCorasick(patterns), FIRST_PATTERN, content, (pattern, start, end, declaration) -> {
+            if (!artifacts.contains(artifactOf(content, declaration))) {
+                return;
+            }
+            changed.append(content, copied[0], start + VERSION_START.length()).append("${").append(property).append('}');
+            copied[0] = end - VERSION_END.length();
+        });
+        if (copied[0] == 0) {
+            return false;
+        }
+        changed.append(content, copied[0], content.length());
+        PomEditor.write(pom, changed.toString().getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface Occurrences {
+
+        /**
+         * @param declaration the offset of the innermost dependency, plugin or extension declaration around the occurrence, or {@code -1}
+         */
+        void found(int pattern, int start, int end, int declaration);
+    }
+
+    /**
+     * Scans the given POM content, reporting the occurrences of the patterns following the markers,
+     * out of comments; the version patterns, from the given index on, are only reported
+     * within a dependency, plugin or extension declaration
+     */
+    private static void scan(AhoCorasick automaton, int firstVersion, String content, Occurrences occurrences) {
+        Deque<Integer> declarations = new ArrayDeque<>();
+        boolean[] comment = {false};
+        automaton.scan(content, (pattern, end) -> {
+            if (pattern == COMMENT_START) {
+                comment[0] = true;
+            } else if (pattern == COMMENT_END) {
+                comment[0] = false;
+            } else if (comment[0]) {
+                /* commented out */
+            } else if (pattern < DECLARATION_END) {
+                declarations.push(end - automaton.length(pattern));
+            } else if (pattern < FIRST_PATTERN) {
+                declarations.poll();
+            } else if (pattern < firstVersion || !declarations.isEmpty()) {
+                occurrences.found(pattern, end - automaton.length(pattern), end, declarations.isEmpty() ? -1 : declarations.peek());
+            }
+        });
+    }
+
+    /**
+     * Reads the {@code groupId:artifactId} of the dependency, plugin or extension declared at the given offset,
+     * from its direct children only, so the ones of its exclusions are skipped.
+     * A plugin without {@code groupId} has the default one of Maven
+     *
+     * @return the {@code groupId:artifactId}, or {@code null} if there's no declaration or it has no {@code artifactId}
+     */
+    static String artifactOf(String content, int declaration) {
+        if (declaration < 0) {
+            return null;
+        }
+        String groupId = null;
+        String artifactId = null;
+        int depth = 0;
+        int position = content.indexOf('>', declaration) + 1;
+        while (position > 0 && position < content.length()) {
+            int tag = content.indexOf('<', position);
+            if (tag < 0) {
+                break;
+            }
+            if (content.startsWith("<!--", tag)) {
+                int end = content.indexOf("-->", tag);
+                position = end < 0 ? -1 : end + 3;
+                continue;
+            }
+            int end = content.indexOf('>', tag);
+            if (end < 0) {
+                break;
+            }
+            position = end + 1;
+            if (content.startsWith("</", tag)) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+            } else if (content.charAt(tag + 1) != '?' && content.charAt(tag + 1) != '!' && content.charAt(end - 1) != '/') {
+                if (depth == 0) {
+                    int nameEnd = tag + 1;
+                    while (nameEnd < end && !Character.isWhitespace(content.charAt(nameEnd))) {
+                        nameEnd++;
+                    }
+                    String name = content.substring(tag + 1, nameEnd);
+                    int textEnd = content.indexOf('<', position);
+                    if ("groupId".equals(name) && textEnd > 0) {
+                        groupId = content.substring(position, textEnd).trim();
+                    } else if ("artifactId".equals(name) && textEnd > 0) {
+                        artifactId = content.substring(position, textEnd).trim();
+                    }
+                }
+                depth++;
+            }
+        }
+        if (artifactId == null) {
+            return null;
+        }
+        if (groupId == null && content.startsWith("<plugin>", declaration)) {
+            groupId = DEFAULT_PLUGIN_GROUP_ID;
+        }
+        return groupId + ":" + artifactId;
+    }
+
+    private static Model modelOf(Path pom, String content) {
+        Model model = new Model();
+        Deque<String> path = new ArrayDeque<>();
+        try {
+            XMLStreamReader reader = XmlContext.newXmlStreamReader(new StringReader(content));
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if (path.size() == 2 && "properties".equals(path.peek())) {
+                            int line = reader.getLocation().getLineNumber();
+                            model.definitions.add(new Usage(Usage.Kind.DEFINITION, pom, line, name, reader.getElementText().trim(), null));
+                        } else if (path.size() == 1 && ("groupId".equals(name) || "artifactId".equals(name))) {
+                            model.coordinates.put(name, reader.getElementText().trim());
+                        } else if (path.size() == 2 && "parent".equals(path.peek())
+                                && ("groupId".equals(name) || "artifactId".equals(name) || "relativePath".equals(name))) {
+                            model.parent.put(name, reader.getElementText().trim());
+                        } else {
+                            path.push(name);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        path.pop();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException(String.format("cannot parse the \"%s\" file: %s", pom, e.getMessage()), e);
+        }
+        return model;
+    }
+
+    /**
+     * Resolves the parent of every POM among the given ones: by its {@code relativePath}, {@code ../pom.xml} by default,
+     * if that POM has the expected coordinates, otherwise by its {@code groupId:artifactId}
+     */
+    private static Map<Path, Path> parentsOf(Map<Path, Model> models) {
+        Map<Path, Path> byLocation = new HashMap<>();
+        Map<String, Path> byCoordinates = new HashMap<>();
+        models.forEach((pom, model) -> {
+            byLocation.putIfAbsent(pom.toAbsolutePath().normalize(), pom);
+            Optional.ofNullable(model.coordinates()).ifPresent(coordinates -> byCoordinates.putIfAbsent(coordinates, pom));
+        });
+        Map<Path, Path> parents = new HashMap<>();
+        models.forEach((pom, model) -> {
+            String coordinates = model.parentCoordinates();
+            if (coordinates == null) {
+                return;
+            }
+            Path parent = null;
+            String relativePath = model.parent.getOrDefault("relativePath", "../pom.xml");
+            Path directory = pom.toAbsolutePath().normalize().getParent();
+            if (!relativePath.isEmpty() && directory != null) {
+                Path location = directory.resolve(relativePath).normalize();
+                parent = Optional.ofNullable(byLocation.get(location)).orElseGet(() -> byLocation.get(location.resolve("pom.xml")));
+                if (parent != null && !coordinates.equals(models.get(parent).coordinates())) {
+                    parent = null;
+                }
+            }
+            if (parent == null) {
+                parent = byCoordinates.get(coordinates);
+            }
+            if (parent != null && !parent.equals(pom)) {
+                parents.put(pom, parent);
+            }
+        });
+        return parents;
+    }
+
+    private static String read(Path pom) {
+        try {
+            return new String(Files.readAllBytes(pom), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot read the \"%s\" file: %s", pom, e.getMessage()), e);
+        }
+    }
+
+    private static boolean isLiteral(String value) {
+        return value != null && !value.isBlank() && !value.contains("${");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private final List<Path> poms;
+    private final Map<String, List<Usage>> usages;
+    private final Map<Path, Path> parents;
+
+    private PropertyIndex(List<Path> poms, List<Usage> usages, Map<Path, Path> parents) {
+        this.poms = Collections.unmodifiableList(poms);
+        this.parents = parents;
+        Map<Path, Integer> order = new HashMap<>();
+        poms.forEach(pom -> order.putIfAbsent(pom, order.size()));
+        Map<String, List<Usage>> byProperty = new HashMap<>();
+        usages.stream()
+                .sorted(Comparator.comparing(Usage::getKind)
+                        .thenComparing(usage -> order.get(usage.getPom()))
+                        .thenComparingInt(Usage::getLine))
+                .forEach(usage -> byProperty.computeIfAbsent(usage.getProperty(), name -> new ArrayList<>()).add(usage));
+        byProperty.replaceAll((name, list) -> Collections.unmodifiableList(list));
+        this.usages = byProperty;
+    }
+
+    /**
+     * @return the indexed POM files
+     */
+    public List<Path> getPoms() {
+        return poms;
+    }
+
+    /**
+     * @return the names of the properties defined by any of the indexed POM files, sorted
+     */
+    public Set<String> getProperties() {
+        return Collections.unmodifiableSet(new TreeSet<>(usages.keySet()));
+    }
+
+    /**
+     * @param property the name of the property
+     * @return the definitions, the references and the hard-coded values of the given property, in this order
+     */
+    public List<Usage> getUsages(String property) {
+        return usages.getOrDefault(property, Collections.emptyList());
+    }
+
+    /**
+     * @param property the name of the property
+     * @param kind     the kind of usage
+     * @return the given kind of usages of the given property
+     */
+    public List<Usage> getUsages(String property, Usage.Kind kind) {
+        return getUsages(property).stream()
+                .filter(usage -> usage.getKind() == kind)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param property the name of the property
+     * @param kind     the kind of usage
+     * @return the POM files with the given kind of usages of the given property, in the indexed order
+     */
+    public Set<Path> getPoms(String property, Usage.Kind kind) {
+        return getUsages(property, kind).stream()
+                .map(Usage::getPom)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * @param pom the POM file
+     * @return the parent of the given POM file, if it's one of the indexed POM files
+     */
+    public Optional<Path> getParent(Path pom) {
+        return Optional.ofNullable(parents.get(pom));
+    }
+
+    /**
+     * Checks whether the given POM file defines the given property, or inherits it from one of its parents among the indexed POM files
+     *
+     * @param pom      the POM file
+     * @param property the name of the property
+     * @return {@code true} if the property is defined for the POM
+     */
+    public boolean isDefinedFor(Path pom, String property) {
+        Set<Path> defining = getPoms(property, Usage.Kind.DEFINITION);
+        Set<Path> visited = new HashSet<>();
+        for (Path current = pom; current != null && visited.add(current); current = parents.get(current)) {
+            if (defining.contains(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A definition, a reference or a hard-coded value of a property in a POM file
+     */
+    public static final class Usage {
+
+        /**
+         * The kinds of usage
+         */
+        public enum Kind {
+            /**
+             * The property is defined in {@code project/properties}
+             */
+            DEFINITION,
+            /**
+             * The property is referenced as {@code ${name}}
+             */
+            REFERENCE,
+            /**
+             * A dependency, plugin or extension version equals the value of the property instead of referencing it,
+             * while the version of the same {@code groupId:artifactId} references the property in some POM file
+             */
+            HARD_CODED
+        }
+
+        private final Kind kind;
+        private final Path pom;
+        private final int line;
+        private final String property;
+        private final String value;
+        private final String artifact;
+
+        private Usage(Kind kind, Path pom, int line, String property, String value, String artifact) {
+            this.kind = kind;
+            this.pom = pom;
+            this.line = line;
+            this.property = property;
+            this.value = value;
+            this.artifact = artifact;
+        }
+
+        /**
+         * @return the kind of usage
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the POM file
+         */
+        public Path getPom() {
+            return pom;
+        }
+
+        /**
+         * @return the line of the usage, starting at 1
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the name of the property
+         */
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * @return the defined or hard-coded value, or {@code null} for a reference
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * @return the {@code groupId:artifactId} of the dependency, plugin or extension whose version is the usage,
+         * or {@code null} if the usage is not such a version
+         */
+        public String getArtifact() {
+            return artifact;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Usage that = (Usage) o;
+            return line == that.line
+                    && kind == that.kind
+                    && Objects.equals(pom, that.pom)
+                    && Objects.equals(property, that.property)
+                    && Objects.equals(value, that.value)
+                    && Objects.equals(artifact, that.artifact);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, pom, line, property, value, artifact);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("\"%s\":%d %s", pom, line, Optional.ofNullable(value).orElse("${" + property + "}"));
+        }
+    }
+
+    /**
+     * What the index needs from the model of a POM: its property definitions, its coordinates and the ones of its parent
+     */
+    private static final class Model {
+
+        private final List<Usage> definitions = new ArrayList<>();
+        private final Map<String, String> coordinates = new HashMap<>();
+        private final Map<String, String> parent = new HashMap<>();
+
+        /**
+         * @return the {@code groupId:artifactId} of the POM, the {@code groupId} being inherited from the parent if it's missing
+         */
+        private String coordinates() {
+            String artifactId = coordinates.get("artifactId");
+            String groupId = Optional.ofNullable(coordinates.get("groupId")).orElse(parent.get("groupId"));
+            return artifactId == null || groupId == null ? null : groupId + ":" + artifactId;
+        }
+
+        private String parentCoordinates() {
+            String artifactId = parent.get("artifactId");
+            String groupId = parent.get("groupId");
+            return artifactId == null || groupId == null ? null : groupId + ":" + artifactId;
+        }
+    }
+
+    /**
+     * Line numbers of the offsets of a text
+     */
+    private static final class Lines {
+
+        private final int[] starts;
+
+        private Lines(String content) {
+            List<Integer> found = new ArrayList<>();
+            found.add(0);
+            for (int i = 0; i < content.length(); i++) {
+                if (content.charAt(i) == '\n') {
+                    found.add(i + 1);
+                }
+            }
+            this.starts = found.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private int of(int offset) {
+            int index = Arrays.binarySearch(starts, offset);
+            return (index >= 0 ? index : -index - 2) + 1;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.PomTransformer;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command responsible for removing a dependency from a given pom
+ */
+public interface RemoveDependency {
+
+    /**
+     * Removes every declaration of the dependency informed by the {@link Dependency} instance,
+     * by its groupId and artifactId, from the given dependencies section of the target POM xml
+     *
+     * @param pom        it's the target POM xml
+     * @param dependency it's an {@link Dependency} instance
+     * @param section    it's the {@link PomSection#DEPENDENCIES} or {@link PomSection#DEPENDENCY_MANAGEMENT} section
+     */
+    static void execute(Path pom, Dependency dependency, PomSection section) {
+        PomEditor.transform(pom, List.of(removeDependencyIfNeeded(dependency, section)));
+    }
+
+    /**
+     * Returns the {@link PomTransformer.Transformation} that removes the given dependency from the given dependencies section,
+     * so it can be composed with other transformations
+     *
+     * @param dependencyToBeRemoved it's an {@link Dependency} instance
+     * @param section               it's the {@link PomSection#DEPENDENCIES} or {@link PomSection#DEPENDENCY_MANAGEMENT} section
+     * @return the {@link PomTransformer.Transformation} to be performed
+     * @throws IllegalArgumentException if the given section doesn't declare dependencies
+     */
+    static PomTransformer.Transformation removeDependencyIfNeeded(Dependency dependencyToBeRemoved, PomSection section) {
+        if (section.isPlugins()) {
+            throw new IllegalArgumentException(String.format("the %s section doesn't declare dependencies", section));
+        }
+        return (document, context) -> ArtifactIndex.of(document, context, section)
+                .remove(dependencyToBeRemoved.getGroupId(), dependencyToBeRemoved.getArtifactId());
+    }
+}
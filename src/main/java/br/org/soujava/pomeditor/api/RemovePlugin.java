@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.PomTransformer;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command responsible for removing a build plugin from a given pom
+ */
+public interface RemovePlugin {
+
+    /**
+     * Removes every declaration of the plugin informed by the {@link Plugin} instance,
+     * by its groupId and artifactId, from the given plugins section of the target POM xml
+     *
+     * @param pom     it's the target POM xml
+     * @param plugin  it's a {@link Plugin} instance
+     * @param section it's the {@link PomSection#PLUGINS} or {@link PomSection#PLUGIN_MANAGEMENT} section
+     */
+    static void execute(Path pom, Plugin plugin, PomSection section) {
+        PomEditor.transform(pom, List.of(removePluginIfNeeded(plugin, section)));
+    }
+
+    /**
+     * Returns the {@link PomTransformer.Transformation} that removes the given plugin from the given plugins section,
+     * so it can be composed with other transformations
+     *
+     * @param pluginToBeRemoved it's a {@link Plugin} instance
+     * @param section           it's the {@link PomSection#PLUGINS} or {@link PomSection#PLUGIN_MANAGEMENT} section
+     * @return the {@link PomTransformer.Transformation} to be performed
+     * @throws IllegalArgumentException if the given section doesn't declare plugins
+     */
+    static PomTransformer.Transformation removePluginIfNeeded(Plugin pluginToBeRemoved, PomSection section) {
+        if (!section.isPlugins()) {
+            throw new IllegalArgumentException(String.format("the %s section doesn't declare plugins", section));
+        }
+        return (document, context) -> ArtifactIndex.of(document, context, section)
+                .remove(pluginToBeRemoved.getGroupId(), pluginToBeRemoved.getArtifactId());
+    }
+}
@@ -0,0 +1,742 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.model.Gavtcs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Edits a POM by splicing the change into its raw bytes, without building a DOM.
+ * <p>
+ * The POM is scanned once per edit, recording only the offsets of the elements down to
+ * {@code /project/dependencies/dependency/*}; everything else is copied through byte for byte,
+ * so the original formatting is preserved.
+ * An edit that needs a missing {@code <dependencies>} or {@code <properties>} element to be created
+ * can't be streamed, since the element position depends on the POM ordering rules:
+ * {@link #transform(Path, Collection)} reports it so the caller could fall back to the DOM engine.
+ * <p>
+ * The node events of the edits are reported to the {@link PomEditListener}s, as the DOM engine does,
+ * only once every edit has been streamed, so an edit falling back to the DOM engine doesn't report them twice.
+ */
+final class StreamEditor {
+
+    private static final int MAX_DEPTH = 4;
+    private static final String DEFAULT_INDENTATION = "    ";
+    private static final ThreadLocal<Path> EDITED = new ThreadLocal<>();
+    private static final ThreadLocal<Recorder> RECORDER = new ThreadLocal<>();
+
+    /**
+     * A single edit, performed on the raw bytes of a POM
+     */
+    @FunctionalInterface
+    interface Edit {
+
+        /**
+         * @param pom the raw bytes of the POM
+         * @return the raw bytes of the changed POM, or empty if the edit can't be streamed
+         */
+        Optional<byte[]> apply(byte[] pom);
+    }
+
+    private StreamEditor() {
+    }
+
+    /**
+     * Performs the given edits against the given POM, writing it only if it has changed
+     *
+     * @param pom   the target POM file
+     * @param edits the edits to be performed, in order
+     * @return {@code false} if any edit can't be streamed, in which case the POM is not touched
+     */
+    static boolean transform(Path pom, Collection<Edit> edits) {
+        return transform(pom, edits, PomEditListeners.none());
+    }
+
+    /**
+     * Performs the given edits against the given POM, writing it only if it has changed,
+     * and reports their node events once the POM has been written
+     *
+     * @param pom   the target POM file
+     * @param edits the edits to be performed, in order
+     * @param local the listener of these edits only, e.g. the {@link DebugLogListener} of the caller
+     * @return {@code false} if any edit can't be streamed, in which case the POM is not touched and nothing is reported
+     */
+    static boolean transform(Path pom, Collection<Edit> edits, PomEditListener local) {
+        Objects.requireNonNull(pom, "pom cannot be null");
+        EditMetrics.Timer timer = EditMetrics.timer();
+        byte[] original;
+        try {
+            original = Files.readAllBytes(pom);
+            timer.lap(EditMetrics.Phase.PARSE);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("cannot read the \"%s\" file: %s", pom, e.getMessage()), e);
+        }
+        Optional<byte[]> content;
+        try (PomEditListeners.Scope scope = PomEditListeners.editing(pom)) {
+            PomEditListener listener = PomEditListeners.during(local);
+            Recorder recorder = listener == PomEditListeners.none() ? null : new Recorder();
+            if (recorder != null) {
+                RECORDER.set(recorder);
+            }
+            try {
+                content = apply(pom, original, edits);
+            } finally {
+                RECORDER.remove();
+            }
+            timer.lap(EditMetrics.Phase.TRANSFORM);
+            if (content.isEmpty()) {
+                return false;
+            }
+            if (Arrays.equals(original, content.get())) {
+                return true;
+            }
+            // the node events are only reported once they are in the POM file
+            PomEditor.write(pom, content.get(), () -> {
+                if (recorder != null) {
+                    recorder.replay(listener);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Performs the given edits against the given POM content, in memory
+     *
+     * @param pom      the POM file the content was read from, used in the error messages
+     * @param original the raw bytes of the POM
+     * @param edits    the edits to be performed, in order
+     * @return the raw bytes of the changed POM, or empty if any edit can't be streamed
+     * @throws IllegalArgumentException if the POM is not well-formed enough to be outlined
+     */
+    static Optional<byte[]> apply(Path pom, byte[] original, Collection<Edit> edits) {
+        byte[] content = original;
+        // the edits fall back to the indentation of the other POMs of the repository if the POM doesn't tell its own
+        EDITED.set(pom);
+        try {
+            for (Edit edit : edits) {
+                Optional<byte[]> changed;
+                try {
+                    changed = edit.apply(content);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format("cannot read the \"%s\" file: %s", pom, e.getMessage()), e);
+                }
+                if (changed.isEmpty()) {
+                    return Optional.empty();
+                }
+                content = changed.get();
+            }
+        } finally {
+            EDITED.remove();
+        }
+        return Optional.of(content);
+    }
+
+    /**
+     * @param dependency the dependency to be added, or updated if it's already declared
+     * @return the {@link Edit} to be performed
+     */
+    static Edit addOrUpdateDependency(Dependency dependency) {
+        Objects.requireNonNull(dependency, "dependency cannot be null");
+        return pom -> {
+            Outline outline = Outline.of(pom);
+            Optional<Element> dependencies = outline.root.child("dependencies");
+            if (dependencies.isEmpty() || dependencies.get().selfClosing) {
+                return Optional.empty();
+            }
+            List<Element> declarations = new ArrayList<>();
+            for (Element node : dependencies.get().children) {
+                if ("dependency".equals(node.name)
+                        && dependency.getGroupId().equals(outline.text(node, "groupId"))
+                        && dependency.getArtifactId().equals(outline.text(node, "artifactId"))) {
+                    declarations.add(node);
+                }
+            }
+            Splices splices = new Splices();
+            PomEditListener listener = listener();
+            // the events name a declaration the way the DOM engine does, only if they are reported at all
+            String path = listener == PomEditListeners.none()
+                    ? null
+                    : "/project/dependencies/dependency[" + dependency.getGroupId() + ':' + dependency.getArtifactId() + ']';
+            if (declarations.isEmpty()) {
+                addDependency(outline, dependencies.get(), dependency, splices, path);
+            }
+            for (Element declaration : declarations) {
+                setChild(outline, declaration, "version", dependency.getVersion(), splices, path);
+                setChild(outline, declaration, "type", dependency.getType(), splices, path);
+                setChild(outline, declaration, "classifier", dependency.getClassifier(), splices, path);
+                setChild(outline, declaration, "scope", dependency.getScope(), splices, path);
+            }
+            return Optional.of(splices.applyTo(pom));
+        };
+    }
+
+    /**
+     * @param property the property to be set, or removed if it has no value
+     * @return the {@link Edit} to be performed
+     */
+    static Edit changeProperty(Property property) {
+        Objects.requireNonNull(property, "property cannot be null");
+        return pom -> {
+            Outline outline = Outline.of(pom);
+            Optional<Element> properties = outline.root.child("properties");
+            boolean removing = property.getValue() == null;
+            if (properties.isEmpty() || properties.get().selfClosing) {
+                return removing ? Optional.of(pom) : Optional.empty();
+            }
+            Splices splices = new Splices();
+            PomEditListener listener = listener();
+            Path edited = EDITED.get();
+            Optional<Element> current = properties.get().child(property.getName());
+            if (removing) {
+                if (current.isPresent()) {
+                    // only the element is removed, as the DOM engine does, so its surrounding whitespace is kept
+                    splices.add(current.get().start, current.get().end, "");
+                    listener.nodeRemoved(edited, "/project/properties", property.getName());
+                }
+            } else if (current.isPresent()) {
+                if (setText(outline, current.get(), property.getValue(), splices)) {
+                    listener.nodeUpdated(edited, "/project/properties", property.getName(), property.getValue());
+                }
+            } else {
+                appendChild(outline, properties.get(), element(property.getName(), property.getValue()), splices);
+                listener.nodeAdded(edited, "/project/properties", property.getName(), property.getValue());
+            }
+            return Optional.of(splices.applyTo(pom));
+        };
+    }
+
+    /**
+     * @return the recorder of the node events of the current {@link #transform(Path, Collection, PomEditListener)},
+     * or the no-op listener if they aren't reported, e.g. while the edits are previewed
+     */
+    private static PomEditListener listener() {
+        Recorder recorder = RECORDER.get();
+        return recorder == null ? PomEditListeners.none() : recorder;
+    }
+
+    private static void addDependency(Outline outline, Element dependencies, Dependency dependency, Splices splices, String path) {
+        Gavtcs gavtcs = new Gavtcs(
+                dependency.getGroupId(),
+                dependency.getArtifactId(),
+                dependency.getVersion(),
+                dependency.getType(),
+                dependency.getClassifier(),
+                dependency.getScope());
+
+        String indentation = outline.childIndentation(dependencies);
+        String fieldIndentation = indentation + outline.indentationUnit();
+        String newLine = outline.newLine;
+        StringBuilder block = new StringBuilder("<dependency>");
+        PomEditListener listener = listener();
+        Path edited = EDITED.get();
+        if (path != null) {
+            listener.nodeAdded(edited, "/project/dependencies", "dependency[" + dependency.getGroupId() + ':' + dependency.getArtifactId() + ']', null);
+        }
+        appendField(block, newLine, fieldIndentation, "groupId", gavtcs.getGroupId(), path);
+        appendField(block, newLine, fieldIndentation, "artifactId", gavtcs.getArtifactId(), path);
+        appendField(block, newLine, fieldIndentation, "version", gavtcs.getVersion(), path);
+        if (!"jar".equals(gavtcs.getType())) {
+            appendField(block, newLine, fieldIndentation, "type", gavtcs.getType(), path);
+        }
+        appendField(block, newLine, fieldIndentation, "classifier", gavtcs.getClassifier(), path);
+        appendField(block, newLine, fieldIndentation, "scope", gavtcs.getScope(), path);
+        block.append(newLine).append(indentation).append("</dependency>");
+
+        // the same position PomTransformer picks: before the first dependency that should come after it
+        Comparator<Gavtcs> comparator = Gavtcs.scopeAndTypeFirstComparator();
+        for (Element node : dependencies.children) {
+            if ("dependency".equals(node.name)
+                    && outline.text(node, "groupId") != null
+                    && outline.text(node, "artifactId") != null
+                    && comparator.compare(gavtcs, outline.gavtcs(node)) < 0) {
+                splices.add(node.leadingStart, node.leadingStart, newLine + indentation + block);
+                return;
+            }
+        }
+        appendChild(outline, dependencies, block.toString(), splices);
+    }
+
+    private static void appendField(StringBuilder block, String newLine, String indentation, String name, String value, String path) {
+        if (value != null) {
+            block.append(newLine).append(indentation).append(element(name, value));
+            if (path != null) {
+                listener().nodeAdded(EDITED.get(), path, name, value);
+            }
+        }
+    }
+
+    /**
+     * Sets the given child element, reporting it as a child of the given path, unless it's {@code null}
+     */
+    private static void setChild(Outline outline, Element parent, String name, String value, Splices splices, String path) {
+        Optional<Element> child = parent.child(name);
+        if (child.isEmpty() && value == null) {
+            /* nothing to do */
+        } else if (child.isEmpty()) {
+            appendChild(outline, parent, element(name, value), splices);
+            if (path != null) {
+                listener().nodeAdded(EDITED.get(), path, name, value);
+            }
+        } else if (value == null) {
+            splices.add(child.get().leadingStart, child.get().end, "");
+            if (path != null) {
+                listener().nodeRemoved(EDITED.get(), path, name);
+            }
+        } else if (setText(outline, child.get(), value, splices) && path != null) {
+            listener().nodeUpdated(EDITED.get(), path, name, value);
+        }
+    }
+
+    /**
+     * @return {@code false} if the element already has the given text, in which case it's left as is
+     */
+    private static boolean setText(Outline outline, Element element, String value, Splices splices) {
+        if (element.selfClosing) {
+            if (value.isEmpty()) {
+                return false;
+            }
+            splices.add(element.start, element.end, element(element.name, value));
+        } else if (!value.equals(outline.text(element))) {
+            splices.add(element.contentStart, element.contentEnd, escape(value));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static void appendChild(Outline outline, Element parent, String child, Splices splices) {
+        String indentation = outline.childIndentation(parent);
+        if (parent.children.isEmpty()) {
+            int from = outline.trailingWhitespace(parent);
+            if (outline.containsNewLine(from, parent.contentEnd)) {
+                splices.add(from, from, outline.newLine + indentation + child);
+            } else {
+                splices.add(from, parent.contentEnd,
+                        outline.newLine + indentation + child + outline.newLine + outline.indentation(parent).orElse(""));
+            }
+        } else {
+            int end = parent.children.get(parent.children.size() - 1).end;
+            splices.add(end, end, outline.newLine + indentation + child);
+        }
+    }
+
+    private static String element(String name, String value) {
+        return "<" + name + ">" + escape(value) + "</" + name + ">";
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    /**
+     * An element of the POM, by its offsets:
+     * {@code leadingStart} is where the whitespace and comments preceding the element start
+     */
+    private static final class Element {
+
+        private final String name;
+        private final int leadingStart;
+        private final int start;
+        private final boolean selfClosing;
+        private final List<Element> children = new ArrayList<>();
+        private int contentStart;
+        private int contentEnd;
+        private int end;
+
+        private Element(String name, int leadingStart, int start, boolean selfClosing) {
+            this.name = name;
+            this.leadingStart = leadingStart;
+            this.start = start;
+            this.selfClosing = selfClosing;
+        }
+
+        private Optional<Element> child(String name) {
+            for (Element child : children) {
+                if (name.equals(child.name)) {
+                    return Optional.of(child);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The offsets of the POM elements down to {@link #MAX_DEPTH}
+     */
+    private static final class Outline {
+
+        private final byte[] pom;
+        private final Element root;
+        private final String newLine;
+
+        private Outline(byte[] pom, Element root) {
+            this.pom = pom;
+            this.root = root;
+            this.newLine = contains(pom, "\r\n") ? "\r\n" : "\n";
+        }
+
+        /**
+         * @throws IllegalArgumentException if the POM is not well-formed enough to be outlined
+         */
+        static Outline of(byte[] pom) {
+            Deque<Element> open = new ArrayDeque<>();
+            Element root = null;
+            int skipped = 0;
+            int previousEnd = 0;
+            int position = 0;
+            while (true) {
+                int lt = indexOf(pom, (byte) '<', position);
+                if (lt < 0) {
+                    break;
+                }
+                if (startsWith(pom, lt, "<!--")) {
+                    position = end(pom, lt, "-->");
+                } else if (startsWith(pom, lt, "<![CDATA[")) {
+                    position = end(pom, lt, "]]>");
+                } else if (startsWith(pom, lt, "<?")) {
+                    position = end(pom, lt, "?>");
+                } else if (startsWith(pom, lt, "<!")) {
+                    position = endOfDeclaration(pom, lt);
+                } else if (startsWith(pom, lt, "</")) {
+                    int gt = end(pom, lt, ">");
+                    if (skipped > 0) {
+                        skipped--;
+                    } else {
+                        String name = nameOf(pom, lt + 2);
+                        if (open.isEmpty() || !open.peek().name.equals(name)) {
+                            throw new IllegalArgumentException(open.isEmpty()
+                                    ? String.format("unexpected </%s> at offset %d", name, lt)
+                                    : String.format("</%s> at offset %d doesn't close <%s>", name, lt, open.peek().name));
+                        }
+                        Element element = open.pop();
+                        element.contentEnd = lt;
+                        element.end = gt;
+                        previousEnd = gt;
+                    }
+                    position = gt;
+                } else {
+                    int gt = endOfTag(pom, lt);
+                    boolean selfClosing = pom[gt - 2] == '/';
+                    if (skipped > 0 || open.size() == MAX_DEPTH) {
+                        if (!selfClosing) {
+                            skipped++;
+                        }
+                    } else {
+                        Element element = new Element(nameOf(pom, lt + 1), open.isEmpty() ? lt : previousEnd, lt, selfClosing);
+                        if (open.isEmpty()) {
+                            if (root != null) {
+                                throw new IllegalArgumentException("more than one root element");
+                            }
+                            root = element;
+                        } else {
+                            open.peek().children.add(element);
+                        }
+                        if (selfClosing) {
+                            element.contentStart = gt;
+                            element.contentEnd = gt;
+                            element.end = gt;
+                            previousEnd = gt;
+                        } else {
+                            element.contentStart = gt;
+                            open.push(element);
+                            previousEnd = gt;
+                        }
+                    }
+                    position = gt;
+                }
+            }
+            if (root == null || !open.isEmpty() || skipped > 0) {
+                throw new IllegalArgumentException("unexpected end of the document");
+            }
+            if (!"project".equals(root.name)) {
+                throw new IllegalArgumentException("the root element must be <project>");
+            }
+            return new Outline(pom, root);
+        }
+
+        private String text(Element parent, String name) {
+            return parent.child(name).map(this::text).orElse(null);
+        }
+
+        private String text(Element element) {
+            return unescape(new String(pom, element.contentStart, element.contentEnd - element.contentStart, StandardCharsets.UTF_8));
+        }
+
+        private Gavtcs gavtcs(Element dependency) {
+            return new Gavtcs(
+                    text(dependency, "groupId"),
+                    text(dependency, "artifactId"),
+                    text(dependency, "version"),
+                    text(dependency, "type"),
+                    text(dependency, "classifier"),
+                    text(dependency, "scope"));
+        }
+
+        /**
+         * @return the whitespace between the beginning of the line and the element, if the element starts the line
+         */
+        private Optional<String> indentation(Element element) {
+            int lineStart = element.start;
+            while (lineStart > 0 && pom[lineStart - 1] != '\n') {
+                lineStart--;
+                if (pom[lineStart] != ' ' && pom[lineStart] != '\t') {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(new String(pom, lineStart, element.start - lineStart, StandardCharsets.UTF_8));
+        }
+
+        private String childIndentation(Element parent) {
+            for (Element child : parent.children) {
+                Optional<String> indentation = indentation(child);
+                if (indentation.isPresent()) {
+                    return indentation.get();
+                }
+            }
+            return indentation(parent).orElse("") + indentationUnit();
+        }
+
+        /**
+         * @return the explicit {@link WhitespaceProfile#withIndentation(String)}, if any, the one of the POM otherwise,
+         * falling back to the {@link WhitespaceProfile} of the repository and then to {@link #DEFAULT_INDENTATION}
+         */
+        private String indentationUnit() {
+            String explicit = WhitespaceProfile.explicitIndentation();
+            if (explicit != null) {
+                return explicit;
+            }
+            String rootIndentation = indentation(root).orElse("");
+            for (Element child : root.children) {
+                Optional<String> indentation = indentation(child);
+                if (indentation.isPresent() && indentation.get().length() > rootIndentation.length()) {
+                    return indentation.get().substring(rootIndentation.length());
+                }
+            }
+            return Optional.ofNullable(EDITED.get())
+                    .flatMap(pom -> WhitespaceProfile.of(pom).getIndentation())
+                    .orElse(DEFAULT_INDENTATION);
+        }
+
+        /**
+         * @return the offset of the whitespace at the end of the element content
+         */
+        private int trailingWhitespace(Element element) {
+            int end = element.contentEnd;
+            while (end > element.contentStart && Character.isWhitespace(pom[end - 1])) {
+                end--;
+            }
+            return end;
+        }
+
+        private boolean containsNewLine(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (pom[i] == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String nameOf(byte[] pom, int from) {
+            int to = from;
+            while (to < pom.length && !Character.isWhitespace(pom[to]) && pom[to] != '>' && pom[to] != '/') {
+                to++;
+            }
+            return new String(pom, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        private static int endOfTag(byte[] pom, int from) {
+            byte quote = 0;
+            for (int i = from + 1; i < pom.length; i++) {
+                byte b = pom[i];
+                if (quote != 0) {
+                    if (b == quote) {
+                        quote = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                } else if (b == '>') {
+                    return i + 1;
+                }
+            }
+            throw new IllegalArgumentException("unterminated tag at offset " + from);
+        }
+
+        private static int endOfDeclaration(byte[] pom, int from) {
+            int brackets = 0;
+            for (int i = from + 2; i < pom.length; i++) {
+                if (pom[i] == '[') {
+                    brackets++;
+                } else if (pom[i] == ']') {
+                    brackets--;
+                } else if (pom[i] == '>' && brackets == 0) {
+                    return i + 1;
+                }
+            }
+            throw new IllegalArgumentException("unterminated declaration at offset " + from);
+        }
+
+        private static int end(byte[] pom, int from, String terminator) {
+            for (int i = from; i <= pom.length - terminator.length(); i++) {
+                if (startsWith(pom, i, terminator)) {
+                    return i + terminator.length();
+                }
+            }
+            throw new IllegalArgumentException(String.format("missing \"%s\" after offset %d", terminator, from));
+        }
+
+        private static int indexOf(byte[] pom, byte b, int from) {
+            for (int i = from; i < pom.length; i++) {
+                if (pom[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean startsWith(byte[] pom, int offset, String prefix) {
+            if (offset + prefix.length() > pom.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (pom[offset + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean contains(byte[] pom, String value) {
+            for (int i = 0; i <= pom.length - value.length(); i++) {
+                if (startsWith(pom, i, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Byte ranges to be replaced, applied in a single copy of the POM
+     */
+    private static final class Splices {
+
+        private final List<int[]> ranges = new ArrayList<>();
+        private final List<String> replacements = new ArrayList<>();
+
+        private void add(int from, int to, String replacement) {
+            ranges.add(new int[]{from, to});
+            replacements.add(replacement);
+        }
+
+        private byte[] applyTo(byte[] pom) {
+            if (ranges.isEmpty()) {
+                return pom;
+            }
+            List<Integer> order = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                order.add(i);
+            }
+            // stable, so the insertions at the same offset keep the order they were added
+            order.sort(Comparator.comparingInt(i -> ranges.get(i)[0]));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(pom.length + 256);
+            int position = 0;
+            for (int i : order) {
+                int[] range = ranges.get(i);
+                out.write(pom, position, range[0] - position);
+                byte[] replacement = replacements.get(i).getBytes(StandardCharsets.UTF_8);
+                out.write(replacement, 0, replacement.length);
+                position = range[1];
+            }
+            out.write(pom, position, pom.length - position);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Records the node events of the edits, to be reported once every edit has been streamed
+     */
+    private static final class Recorder implements PomEditListener {
+
+        private final List<Consumer<PomEditListener>> events = new ArrayList<>();
+
+        @Override
+        public void nodeAdded(Path pom, String parent, String name, String value) {
+            events.add(listener -> listener.nodeAdded(pom, parent, name, value));
+        }
+
+        @Override
+        public void nodeUpdated(Path pom, String parent, String name, String value) {
+            events.add(listener -> listener.nodeUpdated(pom, parent, name, value));
+        }
+
+        @Override
+        public void nodeRemoved(Path pom, String parent, String name) {
+            events.add(listener -> listener.nodeRemoved(pom, parent, name));
+        }
+
+        private void replay(PomEditListener listener) {
+            events.forEach(event -> event.accept(listener));
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * On-disk cache of transformed POMs, so applying the same edits to byte-identical POMs,
+ * as the ones generated from the same template, parses and transforms them only once.
+ * <p>
+ * Each entry is keyed by the hash of the input POM bytes, the hash of the edits and the plugin version,
+ * and it holds the output POM bytes. The total size of the entries is bounded: once it's exceeded,
+ * the least recently used entries are evicted. The last access time of each entry is kept as its file modification time,
+ * so the order survives across runs.
+ * The entry files are read and written outside of the lock guarding the bookkeeping of the entries,
+ * which is a {@link ReentrantLock}, so the edits running on virtual threads don't pin their carrier threads on it.
+ * As the output of a hit is written without transforming the POM, only its {@link PomEditListener#writeCompleted(Path, long)} is reported.
+ * The cache is best-effort: an entry that cannot be written is counted and skipped, so it never fails an edit.
+ */
+public final class TransformationCache {
+
+    private static final String SUFFIX = ".pom";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String version;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicBoolean warned = new AtomicBoolean();
+    private final Consumer<String> logger;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Path, Long> entries;
+    private long totalBytes;
+
+    /**
+     * @param directory the cache directory, created if needed
+     * @param maxBytes  the maximum total size of the cached POMs, in bytes
+     * @param version   the version of the edits implementation, usually the plugin version
+     */
+    public TransformationCache(Path directory, long maxBytes, String version) {
+        this(directory, maxBytes, version, message -> {
+        });
+    }
+
+    /**
+     * @param directory the cache directory, created if needed
+     * @param maxBytes  the maximum total size of the cached POMs, in bytes
+     * @param version   the version of the edits implementation, usually the plugin version
+     * @param logger    the logger, warned about the first entry that cannot be written
+     */
+    public TransformationCache(Path directory, long maxBytes, String version, Consumer<String> logger) {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("the maximum cache size must be positive");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.version = Objects.requireNonNullElse(version, "unknown");
+        this.logger = Objects.requireNonNullElse(logger, message -> {
+        });
+    }
+
+    /**
+     * Looks up the result of the given edits on the current content of the given POM
+     *
+     * @param pom  the target POM file
+     * @param edit a canonical description of the edits, equal for equal edits; it must include anything else
+     *             the output depends on besides the POM content, as the {@link WhitespaceProfile} of the POM,
+     *             which may come from its repository
+     * @return the {@link Lookup}, to be applied in order to change the POM
+     * @throws UncheckedIOException if the POM cannot be read
+     */
+    public Lookup lookup(Path pom, String edit) {
+        byte[] input = read(pom);
+        Path entry = directory.resolve(PomPlan.sha256(input) + '-'
+                + PomPlan.sha256((edit + '\n' + version).getBytes(StandardCharsets.UTF_8)) + SUFFIX);
+        byte[] output = load(entry);
+        (output == null ? misses : hits).incrementAndGet();
+        return new Lookup(pom, entry, input, output);
+    }
+
+    /**
+     * @return how many lookups found the transformed POM
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return how many lookups didn't find the transformed POM
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return how many entries were evicted in order to keep the cache under its maximum size
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return how many entries couldn't be written, so they weren't cached
+     */
+    public long getWriteFailures() {
+        return writeFailures.get();
+    }
+
+    /**
+     * @return a one-line summary of the cache usage
+     */
+    public String summary() {
+        lock.lock();
+        try {
+            return String.format("%d hit(s), %d miss(es), %d eviction(s), %d entries taking %d KB of %d KB, %d write failure(s)",
+                    getHits(),
+                    getMisses(),
+                    getEvictions(),
+                    entries == null ? 0 : entries.size(),
+                    totalBytes / 1024,
+                    maxBytes / 1024,
+                    getWriteFailures());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] load(Path entry) {
+        byte[] output;
+        try {
+            output = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // an unreadable entry is just a miss
+            return null;
+        }
+        lock.lock();
+        try {
+            entries().get(entry);
+        } finally {
+            lock.unlock();
+        }
+        return output;
+    }
+
+    private void store(Path entry, byte[] output) {
+        Path workFile = directory.resolve(String.format(".%x.tmp", ThreadLocalRandom.current().nextLong()));
+        try {
+            Files.createDirectories(directory);
+            Files.write(workFile, output);
+            try {
+                Files.move(workFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(workFile, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            account(entry, output);
+        } catch (IOException | UncheckedIOException e) {
+            writeFailures.incrementAndGet();
+            try {
+                Files.deleteIfExists(workFile);
+            } catch (IOException ignored) {
+                // left behind as a temporary file, which is never read as an entry
+            }
+            if (warned.compareAndSet(false, true)) {
+                logger.accept(String.format("cannot write the \"%s\" cache entry, the POMs are edited without caching them: %s",
+                        entry, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Accounts for the given written entry, evicting the least recently used ones if the cache is full
+     */
+    private void account(Path entry, byte[] output) {
+        List<Path> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = entries().put(entry, (long) output.length);
+            totalBytes += output.length - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<Path, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Path, Long> candidate = eldest.next();
+                if (candidate.getKey().equals(entry)) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= candidate.getValue();
+                evictions.incrementAndGet();
+                evicted.add(candidate.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Path file : evicted) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // another process may be reading it: it will be evicted again later
+            }
+        }
+    }
+
+    /**
+     * Callers must hold the lock of this cache.
+     *
+     * @return the cached entries, from the least to the most recently used one
+     */
+    private Map<Path, Long> entries() {
+        if (entries == null) {
+            entries = new LinkedHashMap<>(16, 0.75f, true);
+            Map<Path, BasicFileAttributes> files = new HashMap<>();
+            if (Files.isDirectory(directory)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                    for (Path file : stream) {
+                        try {
+                            files.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+                        } catch (IOException e) {
+                            // evicted by another process meanwhile
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(String.format("cannot read the \"%s\" cache directory: %s", directory, e.getMessage()), e);
+                }
+            }
+            files.entrySet().stream()
+                    .sorted(Comparator.comparing(file -> file.getValue().lastModifiedTime()))
+                    .forEach(file -> {
+                        entries.put(file.getKey(), file.getValue().size());
+                        totalBytes += file.getValue().size();
+                    });
+        }
+        return entries;
+    }
+
+    private static byte[] read(Path pom) {
+        try {
+            return Files.readAllBytes(pom);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("cannot read the \"%s\" file: %s", pom, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * The result of a {@link #lookup(Path, String)}
+     */
+    public final class Lookup {
+
+        private final Path pom;
+        private final Path entry;
+        private final byte[] input;
+        private final byte[] output;
+
+        private Lookup(Path pom, Path entry, byte[] input, byte[] output) {
+            this.pom = pom;
+            this.entry = entry;
+            this.input = input;
+            this.output = output;
+        }
+
+        /**
+         * @return {@code true} if the transformed POM was found
+         */
+        public boolean isHit() {
+            return output != null;
+        }
+
+        /**
+         * @return {@code true} if the transformed POM was found and it's equal to the current one,
+         * so there's nothing to be changed
+         */
+        public boolean isUnchanged() {
+            return isHit() && Arrays.equals(input, output);
+        }
+
+        /**
+         * Records that the edits don't change the POM, so the next lookups of the same input don't need to check it
+         */
+        public void unchanged() {
+            if (!isHit()) {
+                store(entry, input);
+            }
+        }
+
+        /**
+         * Changes the POM: on a hit, the cached POM is written without running the given command,
+         * otherwise the command is run and its output is cached.
+         * If the POM was changed since it was looked up, the command is run and nothing is cached
+         *
+         * @param command the command performing the edits
+         * @throws Throwable the error thrown by the command
+         */
+        public void apply(PomChange.Executable command) throws Throwable {
+            if (!Arrays.equals(input, read(pom))) {
+                command.execute();
+            } else if (isHit()) {
+                PomEditor.write(pom, output);
+            } else {
+                command.execute();
+                store(entry, read(pom));
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes unified diffs between two versions of a text, and applies them back.
+ * <p>
+ * The lines keep their terminators, so applying a diff gives back the very same text, line endings included;
+ * a last line without terminator is marked with the usual {@code \ No newline at end of file} line.
+ */
+final class UnifiedDiff {
+
+    private static final int CONTEXT = 3;
+    private static final String NO_NEWLINE = "\\ No newline at end of file";
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * @param name     the name of the diffed file, used in the diff headers
+     * @param original the original text
+     * @param revised  the revised text
+     * @return the unified diff from the original text to the revised one, empty if they're equal
+     */
+    static String diff(String name, String original, String revised) {
+        List<String> a = lines(original);
+        List<String> b = lines(revised);
+        List<Op> ops = ops(a, b);
+        StringBuilder diff = new StringBuilder();
+        int i = 0;
+        while (i < ops.size()) {
+            int firstChange = nextChange(ops, i);
+            if (firstChange < 0) {
+                break;
+            }
+            int start = Math.max(i, firstChange - CONTEXT);
+            int lastChange = firstChange;
+            // changes closer than twice the context share the same hunk
+            for (int change = nextChange(ops, lastChange + 1);
+                 change >= 0 && change - lastChange <= 2 * CONTEXT + 1;
+                 change = nextChange(ops, lastChange + 1)) {
+                lastChange = change;
+            }
+            int end = Math.min(ops.size() - 1, lastChange + CONTEXT);
+            if (diff.length() == 0) {
+                diff.append("--- ").append(name).append('\n');
+                diff.append("+++ ").append(name).append('\n');
+            }
+            hunk(diff, ops, start, end);
+            i = end + 1;
+        }
+        return diff.toString();
+    }
+
+    /**
+     * @param original the original text
+     * @param diff     the unified diff computed by {@link #diff(String, String, String)} against the original text
+     * @return the revised text
+     * @throws IllegalArgumentException if the diff doesn't match the original text
+     */
+    static String patch(String original, String diff) {
+        List<String> source = lines(original);
+        List<String> hunks = diffLines(diff);
+        StringBuilder revised = new StringBuilder(original.length());
+        int position = 0;
+        int i = 0;
+        while (i < hunks.size() && !hunks.get(i).startsWith("@@")) {
+            i++;
+        }
+        while (i < hunks.size()) {
+            int[] header = header(hunks.get(i++));
+            int oldStart = header[1] == 0 ? header[0] : header[0] - 1;
+            if (oldStart < position || oldStart > source.size()) {
+                throw new IllegalArgumentException("the diff doesn't match the original text at line " + header[0]);
+            }
+            while (position < oldStart) {
+                revised.append(source.get(position++));
+            }
+            int oldLines = header[1];
+            int newLines = header[2];
+            while (oldLines > 0 || newLines > 0) {
+                if (i >= hunks.size()) {
+                    throw new IllegalArgumentException("the diff is truncated");
+                }
+                String line = hunks.get(i++);
+                if (i < hunks.size() && hunks.get(i).startsWith("\\")) {
+                    i++;
+                } else {
+                    line = line + "\n";
+                }
+                char type = line.charAt(0);
+                String text = line.substring(1);
+                if (type == ' ' || type == '-') {
+                    if (position >= source.size() || !source.get(position).equals(text)) {
+                        throw new IllegalArgumentException("the diff doesn't match the original text at line " + (position + 1));
+                    }
+                    position++;
+                    oldLines--;
+                }
+                if (type == ' ' || type == '+') {
+                    revised.append(text);
+                    newLines--;
+                }
+                if (type != ' ' && type != '-' && type != '+') {
+                    throw new IllegalArgumentException("unexpected diff line: " + line.trim());
+                }
+            }
+        }
+        while (position < source.size()) {
+            revised.append(source.get(position++));
+        }
+        return revised.toString();
+    }
+
+    /**
+     * Splits a text into its lines, each one keeping its terminator
+     */
+    static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    /**
+     * Splits a diff into its lines, without terminators
+     */
+    private static List<String> diffLines(String diff) {
+        List<String> lines = new ArrayList<>();
+        for (String line : lines(diff)) {
+            lines.add(line.endsWith("\n") ? line.substring(0, line.length() - 1) : line);
+        }
+        return lines;
+    }
+
+    private static int[] header(String line) {
+        // @@ -oldStart[,oldLines] +newStart[,newLines] @@
+        String[] parts = line.split(" ");
+        if (parts.length < 4 || !parts[1].startsWith("-") || !parts[2].startsWith("+")) {
+            throw new IllegalArgumentException("invalid hunk header: " + line);
+        }
+        int[] old = range(parts[1].substring(1));
+        int[] revised = range(parts[2].substring(1));
+        return new int[]{old[0], old[1], revised[1]};
+    }
+
+    private static int[] range(String range) {
+        try {
+            int comma = range.indexOf(',');
+            if (comma < 0) {
+                return new int[]{Integer.parseInt(range), 1};
+            }
+            return new int[]{Integer.parseInt(range.substring(0, comma)), Integer.parseInt(range.substring(comma + 1))};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid hunk range: " + range, e);
+        }
+    }
+
+    private static void hunk(StringBuilder diff, List<Op> ops, int start, int end) {
+        int oldLines = 0;
+        int newLines = 0;
+        for (int i = start; i <= end; i++) {
+            char type = ops.get(i).type;
+            oldLines += type == '+' ? 0 : 1;
+            newLines += type == '-' ? 0 : 1;
+        }
+        Op first = ops.get(start);
+        diff.append("@@ -").append(oldLines == 0 ? first.oldIndex : first.oldIndex + 1).append(',').append(oldLines)
+                .append(" +").append(newLines == 0 ? first.newIndex : first.newIndex + 1).append(',').append(newLines)
+                .append(" @@\n");
+        for (int i = start; i <= end; i++) {
+            Op op = ops.get(i);
+            diff.append(op.type);
+            if (op.line.endsWith("\n")) {
+                diff.append(op.line);
+            } else {
+                diff.append(op.line).append('\n').append(NO_NEWLINE).append('\n');
+            }
+        }
+    }
+
+    private static int nextChange(List<Op> ops, int from) {
+        for (int i = from; i < ops.size(); i++) {
+            if (ops.get(i).type != ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the shortest edit script between both line lists, by the Myers algorithm,
+     * after skipping their common prefix and suffix
+     */
+    private static List<Op> ops(List<String> a, List<String> b) {
+        int prefix = 0;
+        while (prefix < a.size() && prefix < b.size() && a.get(prefix).equals(b.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.size() - prefix && suffix < b.size() - prefix
+                && a.get(a.size() - 1 - suffix).equals(b.get(b.size() - 1 - suffix))) {
+            suffix++;
+        }
+        List<Op> ops = new ArrayList<>(Math.max(a.size(), b.size()) + 16);
+        for (int i = 0; i < prefix; i++) {
+            ops.add(new Op(' ', a.get(i), i, i));
+        }
+        ops.addAll(myers(a.subList(prefix, a.size() - suffix), b.subList(prefix, b.size() - suffix), prefix));
+        for (int i = suffix; i > 0; i--) {
+            ops.add(new Op(' ', a.get(a.size() - i), a.size() - i, b.size() - i));
+        }
+        return ops;
+    }
+
+    /**
+     * Computes the shortest edit script in linear space: the middle snake of the shortest path splits the problem in two,
+     * which are solved the same way, so only the furthest reaching paths of the current split are kept
+     */
+    private static List<Op> myers(List<String> a, List<String> b, int offset) {
+        List<Op> ops = new ArrayList<>(a.size() + b.size());
+        List<int[]> path = path(a, b, 0, 0, a.size(), b.size());
+        if (path == null) {
+            return ops;
+        }
+        for (int i = 1; i < path.size(); i++) {
+            int x = path.get(i - 1)[0];
+            int y = path.get(i - 1)[1];
+            int toX = path.get(i)[0];
+            int toY = path.get(i)[1];
+            while (x < toX && y < toY && a.get(x).equals(b.get(y))) {
+                ops.add(new Op(' ', a.get(x), offset + x, offset + y));
+                x++;
+                y++;
+            }
+            if (toX - x < toY - y) {
+                ops.add(new Op('+', b.get(y), offset + x, offset + y));
+                y++;
+            } else if (toX - x > toY - y) {
+                ops.add(new Op('-', a.get(x), offset + x, offset + y));
+                x++;
+            }
+            while (x < toX && y < toY && a.get(x).equals(b.get(y))) {
+                ops.add(new Op(' ', a.get(x), offset + x, offset + y));
+                x++;
+                y++;
+            }
+        }
+        return ops;
+    }
+
+    /**
+     * @return the points the shortest path goes through, from the top left to the bottom right corner of the given box,
+     * or {@code null} if the box is empty
+     */
+    private static List<int[]> path(List<String> a, List<String> b, int left, int top, int right, int bottom) {
+        int[] snake = middleSnake(a, b, left, top, right, bottom);
+        if (snake == null) {
+            return null;
+        }
+        List<int[]> head = path(a, b, left, top, snake[0], snake[1]);
+        List<int[]> tail = path(a, b, snake[2], snake[3], right, bottom);
+        List<int[]> path = head != null ? head : new ArrayList<>(List.of(new int[]{snake[0], snake[1]}));
+        if (tail != null) {
+            path.addAll(tail);
+        } else {
+            path.add(new int[]{snake[2], snake[3]});
+        }
+        return path;
+    }
+
+    /**
+     * Searches the shortest path of the given box forwards and backwards at once, until both searches overlap
+     *
+     * @return the start and end points of the snake where they overlap, or {@code null} if the box is empty
+     */
+    private static int[] middleSnake(List<String> a, List<String> b, int left, int top, int right, int bottom) {
+        int size = right - left + bottom - top;
+        if (size == 0) {
+            return null;
+        }
+        int max = (size + 1) / 2;
+        int delta = right - left - (bottom - top);
+        // the furthest x of each forward diagonal k, and the furthest y of each backward diagonal c = k - delta
+        int[] forward = new int[2 * max + 3];
+        int[] backward = new int[2 * max + 3];
+        int o = max + 1;
+        forward[o + 1] = left;
+        backward[o + 1] = bottom;
+        for (int d = 0; d <= max; d++) {
+            for (int k = d; k >= -d; k -= 2) {
+                int previousX;
+                int x;
+                if (k == -d || (k != d && forward[o + k - 1] < forward[o + k + 1])) {
+                    previousX = forward[o + k + 1];
+                    x = previousX;
+                } else {
+                    previousX = forward[o + k - 1];
+                    x = previousX + 1;
+                }
+                int y = top + (x - left) - k;
+                int previousY = d == 0 || x != previousX ? y : y - 1;
+                while (x < right && y < bottom && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                forward[o + k] = x;
+                int c = k - delta;
+                if ((delta & 1) != 0 && c >= -(d - 1) && c <= d - 1 && y >= backward[o + c]) {
+                    return new int[]{previousX, previousY, x, y};
+                }
+            }
+            for (int c = d; c >= -d; c -= 2) {
+                int previousY;
+                int y;
+                if (c == -d || (c != d && backward[o + c - 1] > backward[o + c + 1])) {
+                    previousY = backward[o + c + 1];
+                    y = previousY;
+                } else {
+                    previousY = backward[o + c - 1];
+                    y = previousY - 1;
+                }
+                int k = c + delta;
+                int x = left + (y - top) + k;
+                int previousX = d == 0 || y != previousY ? x : x + 1;
+                while (x > left && y > top && a.get(x - 1).equals(b.get(y - 1))) {
+                    x--;
+                    y--;
+                }
+                backward[o + c] = y;
+                if ((delta & 1) == 0 && k >= -d && k <= d && x <= forward[o + k]) {
+                    return new int[]{x, y, previousX, previousY};
+                }
+            }
+        }
+        throw new IllegalStateException("the forward and backward paths didn't meet");
+    }
+
+    /**
+     * A line of the edit script, with its position in the original and in the revised lines
+     */
+    private static final class Op {
+
+        private final char type;
+        private final String line;
+        private final int oldIndex;
+        private final int newIndex;
+
+        private Op(char type, String line, int oldIndex, int newIndex) {
+            this.type = type;
+            this.line = line;
+            this.oldIndex = oldIndex;
+            this.newIndex = newIndex;
+        }
+    }
+}
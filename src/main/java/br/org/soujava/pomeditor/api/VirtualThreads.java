@@ -0,0 +1,50 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual threads support of the running JVM.
+ * <p>
+ * This is the Java 11 version, which doesn't support them: the multi-release JAR of the plugin
+ * replaces it with the Java 21 version on Java 21 or later, if the plugin was built with Java 21 or later.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return {@code true} if virtual threads are supported
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task
+     *
+     * @param prefix the prefix of the thread names
+     * @return the {@link ExecutorService}
+     * @throws UnsupportedOperationException if virtual threads are not supported
+     */
+    static ExecutorService newExecutor(String prefix) {
+        throw new UnsupportedOperationException("virtual threads require Java 21 or later");
+    }
+}
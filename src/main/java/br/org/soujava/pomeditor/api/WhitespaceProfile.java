@@ -0,0 +1,344 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.l2x6.pom.tuner.PomTransformer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The whitespace style of a POM: the indentation of the children of {@code <project>},
+ * and whether the simple elements are written as {@code <x/>} or as {@code <x />}.
+ * <p>
+ * The style is detected the way {@link PomTransformer} does, which means scanning the whole POM, so it's cached:
+ * per POM file, as long as its modification time and size don't change, and per repository, the nearest directory
+ * with a {@code .git} entry, so a POM that doesn't tell its own style, e.g. a POM without any simple element,
+ * follows the style of the other POMs of its repository.
+ * The edits preserve the style, so the POM files they write keep their cached profile.
+ * <p>
+ * An explicit indentation, applied to the current thread by {@link #withIndentation(String)}
+ * as {@link PomChange#execute(PomChange.Executable)} does, skips the detection of the indentation entirely.
+ */
+public final class WhitespaceProfile {
+
+    private static final int MAX_CACHED = 4096;
+    private static final Pattern SIMPLE_ELEMENT = Pattern.compile("<([^ \t\n\r]+)([ \t\n\r]*)/>");
+    private static final WhitespaceProfile UNKNOWN = new WhitespaceProfile(null, null);
+    private static final ThreadLocal<String> EXPLICIT_INDENTATION = new ThreadLocal<>();
+    private static final Map<Path, Stamped> FILES = lru();
+    private static final Map<Path, Optional<Path>> REPOSITORIES = lru();
+    private static final Map<Path, WhitespaceProfile> REPOSITORY_PROFILES = lru();
+
+    private final String indentation;
+    private final PomTransformer.SimpleElementWhitespace simpleElementWhitespace;
+
+    private WhitespaceProfile(String indentation, PomTransformer.SimpleElementWhitespace simpleElementWhitespace) {
+        this.indentation = indentation;
+        this.simpleElementWhitespace = simpleElementWhitespace;
+    }
+
+    /**
+     * Returns the whitespace profile of the given POM file, detecting it only if the file has changed since it was cached.
+     * What the POM doesn't tell is taken from the profile of its repository
+     *
+     * @param pom the POM file
+     * @return the {@link WhitespaceProfile}; an unreadable POM has an empty profile
+     */
+    public static WhitespaceProfile of(Path pom) {
+        Path file = pom.toAbsolutePath().normalize();
+        WhitespaceProfile profile = ofFile(file);
+        if (profile.isComplete()) {
+            return profile;
+        }
+        return repositoryOf(file)
+                .map(REPOSITORY_PROFILES::get)
+                .map(profile::orElse)
+                .orElse(profile);
+    }
+
+    /**
+     * Returns the indentation by its name
+     *
+     * @param name a number of spaces, {@code tab}, or {@code null} to autodetect the indentation
+     * @return the indentation, or {@code null} to autodetect it
+     * @throws IllegalArgumentException if the name is not a valid indentation
+     */
+    public static String indentationOf(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String value = name.trim();
+        if ("tab".equalsIgnoreCase(value)) {
+            return "\t";
+        }
+        try {
+            int spaces = Integer.parseInt(value);
+            if (spaces > 0 && spaces <= 16) {
+                return " ".repeat(spaces);
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(String.format("unknown indentation '%s': use a number of spaces from 1 to 16 or tab", name));
+    }
+
+    /**
+     * Makes the given indentation apply to the elements added by the current thread until the returned {@link Scope} is closed,
+     * instead of the detected one
+     *
+     * @param indentation the indentation of every nesting level, or {@code null} to autodetect it
+     * @return the {@link Scope}, to be closed in order to restore the previous indentation
+     */
+    public static Scope withIndentation(String indentation) {
+        Scope scope = new Scope(EXPLICIT_INDENTATION.get());
+        if (indentation == null) {
+            EXPLICIT_INDENTATION.remove();
+        } else {
+            EXPLICIT_INDENTATION.set(indentation);
+        }
+        return scope;
+    }
+
+    /**
+     * @return the indentation applied to the current thread by {@link #withIndentation(String)}, or {@code null} if there's none
+     */
+    static String explicitIndentation() {
+        return EXPLICIT_INDENTATION.get();
+    }
+
+    /**
+     * Records that the given POM file was just written by an edit: as the edit preserves its style,
+     * a complete cached profile is kept, while an incomplete one is detected again
+     *
+     * @param pom the written POM file
+     */
+    static void written(Path pom) {
+        Path file = pom.toAbsolutePath().normalize();
+        Stamped cached = FILES.get(file);
+        if (cached == null) {
+            return;
+        }
+        if (cached.profile.isComplete()) {
+            try {
+                FILES.put(file, new Stamped(Files.readAttributes(file, BasicFileAttributes.class), cached.profile));
+                return;
+            } catch (IOException e) {
+                // detected again on the next edit
+            }
+        }
+        FILES.remove(file);
+    }
+
+    /**
+     * Detects the whitespace profile of the given POM content, as {@link PomTransformer} does
+     *
+     * @param pom the raw bytes of the POM
+     * @return the detected {@link WhitespaceProfile}
+     */
+    static WhitespaceProfile detect(byte[] pom) {
+        // the patterns are ASCII, so a single-byte decoding finds the same matches as the UTF-8 one, only faster
+        String content = new String(pom, StandardCharsets.ISO_8859_1);
+        Matcher simpleElement = SIMPLE_ELEMENT.matcher(content);
+        PomTransformer.SimpleElementWhitespace simpleElementWhitespace = null;
+        if (simpleElement.find()) {
+            simpleElementWhitespace = simpleElement.group(2).isEmpty()
+                    ? PomTransformer.SimpleElementWhitespace.EMPTY
+                    : PomTransformer.SimpleElementWhitespace.SPACE;
+        }
+        return new WhitespaceProfile(detectIndentation(content), simpleElementWhitespace);
+    }
+
+    /**
+     * @return the trailing spaces and tabs of the text right after the {@code <project>} start tag, or {@code null} if there are none
+     */
+    private static String detectIndentation(String content) {
+        int position = 0;
+        while (true) {
+            position = content.indexOf('<', position);
+            if (position < 0 || position + 1 == content.length()) {
+                return null;
+            }
+            char next = content.charAt(position + 1);
+            if (next != '?' && next != '!') {
+                break;
+            }
+            position++;
+        }
+        int textStart = endOfTag(content, position);
+        if (textStart < 0 || content.charAt(textStart - 2) == '/') {
+            return null;
+        }
+        int textEnd = content.indexOf('<', textStart);
+        if (textEnd < 0) {
+            return null;
+        }
+        int indentationStart = textEnd;
+        while (indentationStart > textStart && (content.charAt(indentationStart - 1) == ' ' || content.charAt(indentationStart - 1) == '\t')) {
+            indentationStart--;
+        }
+        return indentationStart == textEnd ? null : content.substring(indentationStart, textEnd);
+    }
+
+    private static int endOfTag(String content, int from) {
+        char quote = 0;
+        for (int i = from; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static WhitespaceProfile ofFile(Path file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // the edit reports the unreadable POM itself
+            return UNKNOWN;
+        }
+        Stamped cached = FILES.get(file);
+        if (cached != null && cached.matches(attributes)) {
+            return cached.profile;
+        }
+        WhitespaceProfile profile;
+        try {
+            profile = detect(Files.readAllBytes(file));
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+        FILES.put(file, new Stamped(attributes, profile));
+        if (profile.indentation != null || profile.simpleElementWhitespace != null) {
+            repositoryOf(file).ifPresent(root -> REPOSITORY_PROFILES.merge(root, profile, WhitespaceProfile::orElse));
+        }
+        return profile;
+    }
+
+    private static Optional<Path> repositoryOf(Path file) {
+        Path directory = file.getParent();
+        if (directory == null) {
+            return Optional.empty();
+        }
+        Optional<Path> root = REPOSITORIES.get(directory);
+        if (root == null) {
+            root = Optional.empty();
+            for (Path candidate = directory; candidate != null; candidate = candidate.getParent()) {
+                if (Files.exists(candidate.resolve(".git"))) {
+                    root = Optional.of(candidate);
+                    break;
+                }
+            }
+            REPOSITORIES.put(directory, root);
+        }
+        return root;
+    }
+
+    private static <K, V> Map<K, V> lru() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > MAX_CACHED;
+            }
+        });
+    }
+
+    /**
+     * @return the detected indentation of the children of {@code <project>}, or empty if the POM and its repository don't tell it
+     */
+    public Optional<String> getIndentation() {
+        return Optional.ofNullable(indentation);
+    }
+
+    /**
+     * @return the whitespace of the simple elements to be passed to {@link PomTransformer}:
+     * the detected one, or {@link PomTransformer.SimpleElementWhitespace#SPACE} if the POM has no simple element,
+     * which is what {@link PomTransformer.SimpleElementWhitespace#AUTODETECT_PREFER_SPACE} would choose, without scanning the POM again
+     */
+    public PomTransformer.SimpleElementWhitespace getSimpleElementWhitespace() {
+        return Optional.ofNullable(simpleElementWhitespace).orElse(PomTransformer.SimpleElementWhitespace.SPACE);
+    }
+
+    private boolean isComplete() {
+        return indentation != null && simpleElementWhitespace != null;
+    }
+
+    private WhitespaceProfile orElse(WhitespaceProfile other) {
+        return new WhitespaceProfile(
+                Optional.ofNullable(indentation).orElse(other.indentation),
+                Optional.ofNullable(simpleElementWhitespace).orElse(other.simpleElementWhitespace));
+    }
+
+    /**
+     * The profile of a POM file, along with the modification time and size of the file it was detected from
+     */
+    private static final class Stamped {
+
+        private final FileTime lastModifiedTime;
+        private final long size;
+        private final WhitespaceProfile profile;
+
+        private Stamped(BasicFileAttributes attributes, WhitespaceProfile profile) {
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.profile = profile;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModifiedTime.equals(attributes.lastModifiedTime());
+        }
+    }
+
+    /**
+     * Scope of an explicit indentation applied to the current thread
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                EXPLICIT_INDENTATION.remove();
+            } else {
+                EXPLICIT_INDENTATION.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.api;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * XML processing context, that keeps the parsers created by this plugin itself warm across many edits in the same JVM.
+ * <p>
+ * The parsers are borrowed from small bounded pools, not kept per thread, as the edits may run on a new virtual thread each.
+ */
+final class XmlContext {
+
+    private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final Pool<DocumentBuilder> DOCUMENT_BUILDERS = new Pool<>(POOL_SIZE, XmlContext::newDocumentBuilder, DocumentBuilder::reset);
+    private static final Pool<XMLInputFactory> XML_INPUT_FACTORIES = new Pool<>(POOL_SIZE, XmlContext::newXmlInputFactory, factory -> {
+    });
+
+    private XmlContext() {
+    }
+
+    /**
+     * Parses the given XML file with a pooled DOM parser
+     *
+     * @param file the XML file
+     * @return the parsed {@link Document}
+     * @throws IOException  if the file cannot be read
+     * @throws SAXException if the file cannot be parsed
+     */
+    static Document parse(Path file) throws IOException, SAXException {
+        DocumentBuilder builder = DOCUMENT_BUILDERS.borrow();
+        try {
+            return builder.parse(file.toFile());
+        } finally {
+            DOCUMENT_BUILDERS.giveBack(builder);
+        }
+    }
+
+    /**
+     * Creates a StAX reader of the given XML content with a pooled factory.
+     * The reader doesn't depend on its factory, which is given back to the pool right away
+     *
+     * @param content the XML content
+     * @return the {@link XMLStreamReader} of the content
+     * @throws XMLStreamException if the reader cannot be created
+     */
+    static XMLStreamReader newXmlStreamReader(Reader content) throws XMLStreamException {
+        XMLInputFactory factory = XML_INPUT_FACTORIES.borrow();
+        try {
+            return factory.createXMLStreamReader(content);
+        } finally {
+            XML_INPUT_FACTORIES.giveBack(factory);
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setNamespaceAware(false);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("cannot create the XML parser: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Bounded pool of reusable objects, not tied to any thread: a borrowed object is created if none is idle,
+     * and an object given back is reset, then kept only while fewer than the maximum are idle
+     */
+    static final class Pool<T> {
+
+        private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int maxIdle;
+        private final Supplier<T> factory;
+        private final Consumer<T> reset;
+
+        Pool(int maxIdle, Supplier<T> factory, Consumer<T> reset) {
+            this.maxIdle = maxIdle;
+            this.factory = factory;
+            this.reset = reset;
+        }
+
+        T borrow() {
+            T object = idle.poll();
+            if (object == null) {
+                return factory.get();
+            }
+            size.decrementAndGet();
+            return object;
+        }
+
+        void giveBack(T object) {
+            reset.accept(object);
+            if (size.incrementAndGet() > maxIdle) {
+                size.decrementAndGet();
+                return;
+            }
+            idle.offer(object);
+        }
+
+        int idle() {
+            return size.get();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.cli;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * {@link Log} of the command line, printed the way Maven prints it: the info messages to the standard output,
+ * the warnings and the errors to the standard error, and the debug messages only if they're enabled
+ */
+final class ConsoleLog implements Log {
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final boolean debug;
+
+    ConsoleLog(PrintStream out, PrintStream err, boolean debug) {
+        this.out = out;
+        this.err = err;
+        this.debug = debug;
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return debug;
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        debug(content, null);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        if (debug) {
+            print(out, "DEBUG", content, error);
+        }
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        debug(null, error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return true;
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        info(content, null);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        print(out, "INFO", content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        info(null, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return true;
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        warn(content, null);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        print(err, "WARNING", content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        warn(null, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return true;
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        error(content, null);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        print(err, "ERROR", content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        error(null, error);
+    }
+
+    private void print(PrintStream stream, String level, CharSequence content, Throwable error) {
+        StringBuilder message = new StringBuilder().append('[').append(level).append("] ");
+        if (content != null) {
+            message.append(content);
+        } else if (error != null) {
+            message.append(error.getMessage());
+        }
+        if (error != null && debug) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            message.append(System.lineSeparator()).append(trace);
+        }
+        stream.println(message);
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.cli;
+
+import br.org.soujava.pomeditor.mojo.AddDependencyMojo;
+import br.org.soujava.pomeditor.mojo.AddPluginMojo;
+import br.org.soujava.pomeditor.mojo.ApplyManifestMojo;
+import br.org.soujava.pomeditor.mojo.ApplyMojo;
+import br.org.soujava.pomeditor.mojo.BatchMojo;
+import br.org.soujava.pomeditor.mojo.ChangePropertyMojo;
+import br.org.soujava.pomeditor.mojo.CommitAllMojo;
+import br.org.soujava.pomeditor.mojo.CommitMojo;
+import br.org.soujava.pomeditor.mojo.RecoverMojo;
+import br.org.soujava.pomeditor.mojo.RemoveDependencyMojo;
+import br.org.soujava.pomeditor.mojo.RemovePluginMojo;
+import br.org.soujava.pomeditor.mojo.RollbackAllMojo;
+import br.org.soujava.pomeditor.mojo.RollbackMojo;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Standalone command line of the single-POM goals, and of the goals acting on the backup POM files of a whole tree,
+ * so scripts and git hooks can edit POM files without starting Maven:
+ * <pre>
+ * java -jar pom-editor.jar add-dep pom=pom.xml gav=junit:junit:4.13 scope=test
+ * </pre>
+ * The goals run the same mojos Maven runs, so they take the same parameters, with the same defaults,
+ * given as {@code name=value} or {@code -Dname=value} arguments; list parameters are comma-separated,
+ * and a {@code boolean} parameter given without a value is {@code true}.
+ * The goals editing the POMs of a reactor need Maven, so they aren't available.
+ * <p>
+ * The exit status is {@code 0} on success, {@code 1} if the goal failed, and {@code 2} for an invalid command line
+ * or invalid parameters.
+ */
+public final class PomEditorCli {
+
+    /**
+     * Exit status of a goal that failed, e.g. by a {@link MojoExecutionException} or a {@link MojoFailureException}
+     */
+    public static final int FAILED = 1;
+
+    /**
+     * Exit status of an invalid command line: an unknown goal or parameter, a value that can't be bound to its parameter,
+     * or any other {@link IllegalArgumentException}
+     */
+    public static final int INVALID = 2;
+
+    private static final Map<String, Supplier<AbstractMojo>> GOALS = goals();
+    private static final String PLUGIN_DESCRIPTOR = "/META-INF/maven/plugin.xml";
+    private static final String POM_PROPERTIES = "/META-INF/maven/br.org.soujava/pom-editor-maven-plugin/pom.properties";
+    private static Map<String, Map<String, String>> descriptor;
+
+    private PomEditorCli() {
+    }
+
+    private static Map<String, Supplier<AbstractMojo>> goals() {
+        Map<String, Supplier<AbstractMojo>> goals = new LinkedHashMap<>();
+        goals.put("add-dep", AddDependencyMojo::new);
+        goals.put("remove-dep", RemoveDependencyMojo::new);
+        goals.put("add-plugin", AddPluginMojo::new);
+        goals.put("remove-plugin", RemovePluginMojo::new);
+        goals.put("change-prop", ChangePropertyMojo::new);
+        goals.put("batch", BatchMojo::new);
+        goals.put("apply", ApplyMojo::new);
+        goals.put("apply-manifest", ApplyManifestMojo::new);
+        goals.put("commit", CommitMojo::new);
+        goals.put("rollback", RollbackMojo::new);
+        goals.put("commit-all", CommitAllMojo::new);
+        goals.put("rollback-all", RollbackAllMojo::new);
+        goals.put("recover", RecoverMojo::new);
+        return Collections.unmodifiableMap(goals);
+    }
+
+    /**
+     * Command line entry point: {@code [--debug] <goal> [name=value...]}
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Runs a goal
+     *
+     * @param args the command line arguments: {@code [--debug] <goal> [name=value...]}
+     * @param out  the stream of the info messages
+     * @param err  the stream of the warnings and the errors
+     * @return the exit status: {@code 0} on success, {@link #FAILED} or {@link #INVALID}
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        List<String> arguments = Arrays.asList(args);
+        boolean debug = !arguments.isEmpty() && "--debug".equals(arguments.get(0));
+        if (debug) {
+            arguments = arguments.subList(1, arguments.size());
+        }
+        if (arguments.isEmpty() || "--help".equals(arguments.get(0)) || "-h".equals(arguments.get(0))) {
+            usage(arguments.isEmpty() ? err : out);
+            return arguments.isEmpty() ? INVALID : 0;
+        }
+        ConsoleLog log = new ConsoleLog(out, err, debug);
+        String goal = arguments.get(0);
+        Supplier<AbstractMojo> factory = GOALS.get(goal);
+        if (factory == null) {
+            log.error(String.format("unknown goal \"%s\", the available goals are: %s", goal, String.join(", ", GOALS.keySet())));
+            return INVALID;
+        }
+        AbstractMojo mojo = factory.get();
+        mojo.setLog(log);
+        try {
+            configure(mojo, goal, arguments.subList(1, arguments.size()));
+            mojo.execute();
+            return 0;
+        } catch (IllegalArgumentException ex) {
+            log.error(ex.getMessage(), ex);
+            return INVALID;
+        } catch (MojoExecutionException | MojoFailureException ex) {
+            log.error(ex.getMessage(), ex);
+            return FAILED;
+        } catch (RuntimeException ex) {
+            log.error(String.format("cannot run the \"%s\" goal: %s", goal, ex.getMessage()), ex);
+            return FAILED;
+        }
+    }
+
+    private static void usage(PrintStream stream) {
+        stream.println("usage: pom-editor [--debug] <goal> [name=value...]");
+        stream.println();
+        stream.println("goals:");
+        GOALS.forEach((goal, factory) -> stream.printf("  %-16s %s%n", goal, String.join(", ", parameters(factory.get().getClass()).keySet())));
+        stream.println();
+        stream.println("The parameters are the same ones of the goals, e.g. pom=pom.xml gav=junit:junit:4.13 scope=test");
+    }
+
+    private static void configure(AbstractMojo mojo, String goal, List<String> arguments) {
+        Map<String, Field> parameters = parameters(mojo.getClass());
+        defaults(mojo.getClass()).forEach((name, value) -> set(mojo, parameters.get(name), value));
+        for (String argument : arguments) {
+            String parameter = argument.startsWith("-D") ? argument.substring(2) : argument;
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            Field field = parameters.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException(String.format("unknown parameter \"%s\" of the \"%s\" goal, its parameters are: %s",
+                        name, goal, String.join(", ", parameters.keySet())));
+            }
+            if (separator < 0 && field.getType() != boolean.class) {
+                throw new IllegalArgumentException(String.format("the \"%s\" parameter requires a value: %s=<value>", name, name));
+            }
+            set(mojo, field, separator < 0 ? "true" : parameter.substring(separator + 1));
+        }
+        Field version = findField(mojo.getClass(), "pluginVersion");
+        if (version != null) {
+            set(mojo, version, pluginVersion());
+        }
+    }
+
+    /**
+     * @return the parameters of the given mojo class by name: its fields that Maven would configure,
+     * that is, the editable parameters of a simple type declared by its plugin descriptor
+     */
+    static Map<String, Field> parameters(Class<?> mojoClass) {
+        Map<String, Field> parameters = new TreeMap<>();
+        for (String name : descriptorOf(mojoClass).keySet()) {
+            Field field = findField(mojoClass, name);
+            if (field != null && isSimple(field.getType())) {
+                parameters.put(name, field);
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @return the default values of the parameters of the given mojo class by name, as its plugin descriptor declares them,
+     * but the ones that only Maven can evaluate, e.g. {@code ${project.file}}
+     */
+    static Map<String, String> defaults(Class<?> mojoClass) {
+        Map<String, String> defaults = new TreeMap<>();
+        descriptorOf(mojoClass).forEach((name, value) -> {
+            if (value != null && !value.contains("${")) {
+                defaults.put(name, value);
+            }
+        });
+        return defaults;
+    }
+
+    private static Map<String, String> descriptorOf(Class<?> mojoClass) {
+        Map<String, String> parameters = descriptor().get(mojoClass.getName());
+        if (parameters == null) {
+            throw new IllegalStateException(String.format("the %s mojo is not declared by the plugin descriptor", mojoClass.getName()));
+        }
+        return parameters;
+    }
+
+    /**
+     * @return the editable parameters of every mojo declared by the plugin descriptor, by mojo class name,
+     * then by parameter name with their default values, or {@code null} if they don't have one
+     */
+    private static synchronized Map<String, Map<String, String>> descriptor() {
+        if (descriptor == null) {
+            descriptor = readDescriptor();
+        }
+        return descriptor;
+    }
+
+    private static Map<String, Map<String, String>> readDescriptor() {
+        try (InputStream in = PomEditorCli.class.getResourceAsStream(PLUGIN_DESCRIPTOR)) {
+            if (in == null) {
+                throw new IllegalStateException(String.format("cannot find the plugin descriptor: %s", PLUGIN_DESCRIPTOR));
+            }
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(in);
+            Map<String, Map<String, String>> mojos = new HashMap<>();
+            for (Element mojo : children(document.getDocumentElement(), "mojos", "mojo")) {
+                Map<String, String> parameters = new TreeMap<>();
+                for (Element parameter : children(mojo, "parameters", "parameter")) {
+                    if (!"false".equals(text(parameter, "editable"))) {
+                        parameters.put(text(parameter, "name"), null);
+                    }
+                }
+                for (Element configuration : children(mojo, "configuration")) {
+                    for (Element parameter : childrenOf(configuration)) {
+                        if (parameters.containsKey(parameter.getTagName()) && parameter.hasAttribute("default-value")) {
+                            parameters.put(parameter.getTagName(), parameter.getAttribute("default-value"));
+                        }
+                    }
+                }
+                mojos.put(text(mojo, "implementation"), parameters);
+            }
+            return mojos;
+        } catch (IOException | ParserConfigurationException | SAXException ex) {
+            throw new IllegalStateException(String.format("cannot read the plugin descriptor: %s", ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * @return the descendants of the given element along the given path of element names
+     */
+    private static List<Element> children(Element element, String... path) {
+        List<Element> elements = List.of(element);
+        for (String name : path) {
+            elements = elements.stream()
+                    .flatMap(parent -> childrenOf(parent).stream())
+                    .filter(child -> child.getTagName().equals(name))
+                    .collect(Collectors.toList());
+        }
+        return elements;
+    }
+
+    private static List<Element> childrenOf(Element element) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    private static String text(Element element, String name) {
+        return children(element, name).stream().findFirst().map(child -> child.getTextContent().trim()).orElse(null);
+    }
+
+    private static boolean isSimple(Class<?> type) {
+        return type == String.class || type == boolean.class || type == int.class || type == long.class || type == List.class;
+    }
+
+    private static Field findField(Class<?> mojoClass, String name) {
+        for (Class<?> type = mojoClass; type != AbstractMojo.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void set(AbstractMojo mojo, Field field, String value) {
+        try {
+            field.setAccessible(true);
+            field.set(mojo, convert(field, value));
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(String.format("cannot set the \"%s\" parameter: %s", field.getName(), ex.getMessage()), ex);
+        }
+    }
+
+    private static Object convert(Field field, String value) {
+        Class<?> type = field.getType();
+        if (type == boolean.class) {
+            if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                throw new IllegalArgumentException(String.format("the \"%s\" parameter must be true or false: %s", field.getName(), value));
+            }
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            if (type == int.class) {
+                return Integer.parseInt(value.trim());
+            }
+            if (type == long.class) {
+                return Long.parseLong(value.trim());
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("the \"%s\" parameter must be a number: %s", field.getName(), value), ex);
+        }
+        if (type == List.class) {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(item -> !item.isEmpty())
+                    .collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    private static String pluginVersion() {
+        try (InputStream in = PomEditorCli.class.getResourceAsStream(POM_PROPERTIES)) {
+            if (in == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version");
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
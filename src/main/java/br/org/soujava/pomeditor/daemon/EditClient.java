@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.daemon;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Thin client of the {@link EditDaemon}.
+ * <p>
+ * It could be used from Java code or from the command line:
+ * <pre>
+ * java -cp pom-editor-maven-plugin.jar br.org.soujava.pomeditor.daemon.EditClient --port 7979 add-dep pom=pom.xml gav=junit:junit:4.13
+ * </pre>
+ * The {@code pom} and {@code backupDirectory} paths are made absolute against the working directory of the client,
+ * as the daemon rejects the relative ones.
+ * Any HTTP client works as well, as long as it sends the token of the daemon and absolute paths, e.g.
+ * {@code curl -H "X-Pom-Editor-Token: $(cat ~/.pom-editor/daemon-7979.token)" -d pom=$PWD/pom.xml -d gav=junit:junit:4.13 http://127.0.0.1:7979/add-dep}
+ */
+public final class EditClient {
+
+    /**
+     * The outcome of a request
+     */
+    public static final class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /**
+         * @return the HTTP status
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the outcome message, e.g. {@code changed} or {@code unchanged}
+         */
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * @return {@code true} if the request succeeded
+         */
+        public boolean isSuccessful() {
+            return status == 200;
+        }
+
+        @Override
+        public String toString() {
+            return status + " " + body;
+        }
+    }
+
+    private static final Set<String> PATHS = Set.of("pom", "backupDirectory");
+
+    private final URI endpoint;
+    private final Path tokenFile;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    /**
+     * @param port the port the daemon is listening to on the loopback interface, whose token is read from the
+     *             {@link EditDaemon#defaultTokenFile(int)}
+     */
+    public EditClient(int port) {
+        this(port, EditDaemon.defaultTokenFile(port));
+    }
+
+    /**
+     * @param port      the port the daemon is listening to on the loopback interface
+     * @param tokenFile the file the daemon has written its token to
+     */
+    public EditClient(int port, Path tokenFile) {
+        this.endpoint = URI.create(String.format("http://%s:%d/", InetAddress.getLoopbackAddress().getHostAddress(), port));
+        this.tokenFile = Objects.requireNonNull(tokenFile, "tokenFile cannot be null");
+    }
+
+    /**
+     * Sends a request to the daemon
+     *
+     * @param request the request name: {@code add-dep}, {@code change-prop}, {@code commit}, {@code rollback} or {@code shutdown}
+     * @param params  the request parameters
+     * @return the {@link Response}
+     * @throws IOException          if the token file cannot be read or the daemon cannot be reached
+     * @throws InterruptedException if the current thread is interrupted while waiting for the response
+     */
+    public Response send(String request, Map<String, String> params) throws IOException, InterruptedException {
+        Objects.requireNonNull(request, "request cannot be null");
+        String form = params.entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .map(entry -> encode(entry.getKey()) + "=" + encode(PATHS.contains(entry.getKey()) && !entry.getValue().isBlank()
+                        ? Paths.get(entry.getValue()).toAbsolutePath().toString()
+                        : entry.getValue()))
+                .collect(Collectors.joining("&"));
+        // the token is read on every request, so the client keeps working once the daemon is restarted
+        String token = Files.readString(tokenFile, StandardCharsets.US_ASCII).trim();
+        HttpRequest httpRequest = HttpRequest.newBuilder(endpoint.resolve(request))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header(EditDaemon.TOKEN_HEADER, token)
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return new Response(response.statusCode(), response.body().trim());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Command line entry point: {@code [--port <port>] [--token-file <file>] <request> [name=value...]}
+     *
+     * @param args the command line arguments
+     * @throws Exception if the request cannot be sent
+     */
+    public static void main(String[] args) throws Exception {
+        int port = EditDaemon.DEFAULT_PORT;
+        Path tokenFile = null;
+        int next = 0;
+        if (args.length > next + 1 && "--port".equals(args[next])) {
+            port = Integer.parseInt(args[next + 1]);
+            next += 2;
+        }
+        if (args.length > next + 1 && "--token-file".equals(args[next])) {
+            tokenFile = Paths.get(args[next + 1]);
+            next += 2;
+        }
+        if (args.length <= next) {
+            System.err.println("usage: EditClient [--port <port>] [--token-file <file>] <add-dep|change-prop|commit|rollback|shutdown> [name=value...]");
+            System.exit(2);
+            return;
+        }
+        String request = args[next];
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = next + 1; i < args.length; i++) {
+            int separator = args[i].indexOf('=');
+            if (separator < 0) {
+                params.put(args[i], "");
+            } else {
+                params.put(args[i].substring(0, separator), args[i].substring(separator + 1));
+            }
+        }
+        Response response = new EditClient(port, tokenFile == null ? EditDaemon.defaultTokenFile(port) : tokenFile).send(request, params);
+        (response.isSuccessful() ? System.out : System.err).println(response.getBody());
+        if (!response.isSuccessful()) {
+            System.exit(1);
+        }
+    }
+}
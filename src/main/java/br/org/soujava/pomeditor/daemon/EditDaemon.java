@@ -0,0 +1,473 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.daemon;
+
+import br.org.soujava.pomeditor.api.AddDependency;
+import br.org.soujava.pomeditor.api.BackupStore;
+import br.org.soujava.pomeditor.api.ChangeProperty;
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.Durability;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.PomChange;
+import br.org.soujava.pomeditor.api.PomCommit;
+import br.org.soujava.pomeditor.api.PomLock;
+import br.org.soujava.pomeditor.api.PomRollback;
+import br.org.soujava.pomeditor.api.Property;
+import br.org.soujava.pomeditor.api.WhitespaceProfile;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running server that keeps the editing commands warm in a single JVM,
+ * so the edits don't pay for a JVM and a Maven startup each.
+ * <p>
+ * It listens on the loopback interface only, and accepts the following requests,
+ * whose parameters are the same ones of the matching goals, sent as query or form parameters.
+ * The {@code pom} and {@code backupDirectory} paths must be absolute, as the working directory of the daemon
+ * isn't the one of its clients; the backup directory defaults to {@value BackupStore#DEFAULT_DIRECTORY} next to the POM:
+ * <ul>
+ *     <li>{@code POST /add-dep}: {@code pom}, {@code gav}, {@code type}, {@code classifier}, {@code scope},
+ *     {@code backup}, {@code backupDirectory}, {@code engine}, {@code durability}, {@code indent}</li>
+ *     <li>{@code POST /change-prop}: {@code pom}, {@code property}, {@code value}, {@code backup}, {@code backupDirectory},
+ *     {@code engine}, {@code durability}, {@code indent}</li>
+ *     <li>{@code POST /commit}: {@code pom}, {@code backup}, {@code backupDirectory}</li>
+ *     <li>{@code POST /rollback}: {@code pom}, {@code backup}, {@code backupDirectory}</li>
+ *     <li>{@code POST /shutdown}</li>
+ *     <li>{@code GET /status}</li>
+ * </ul>
+ * Every request must carry the {@link #TOKEN_HEADER} header with the random token generated when the daemon starts,
+ * which is written to a file readable by its owner only, see {@link #defaultTokenFile(int)}, so the other users of the machine can't send requests.
+ * The requests with an {@code Origin} header, or a {@code Host} header that isn't a loopback one, are rejected as well,
+ * so a web page can't send them through the browser.
+ * <p>
+ * The requests targeting the same POM file are serialized by its {@link PomLock},
+ * whose contention metrics are reported by the {@code /status} request.
+ * The response body is the outcome of the request, e.g. {@code changed} or {@code unchanged}:
+ * the status is {@code 400} for invalid parameters, {@code 401} for a missing or wrong token,
+ * {@code 403} for browser requests and {@code 500} for failed edits.
+ */
+public final class EditDaemon implements AutoCloseable {
+
+    /**
+     * The port the daemon listens to if none is given
+     */
+    public static final int DEFAULT_PORT = 7979;
+
+    /**
+     * The request header carrying the token of the daemon
+     */
+    public static final String TOKEN_HEADER = "X-Pom-Editor-Token";
+
+    private static final Set<String> LOOPBACK_HOSTS = Set.of("127.0.0.1", "localhost", "[::1]");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Log log;
+    private final byte[] token;
+    private final Path tokenFile;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private EditDaemon(HttpServer server, ExecutorService executor, Log log, byte[] token, Path tokenFile) {
+        this.server = server;
+        this.executor = executor;
+        this.log = log;
+        this.token = token;
+        this.tokenFile = tokenFile;
+    }
+
+    /**
+     * Returns the file the token of a daemon is written to if no other file is given:
+     * {@code ~/.pom-editor/daemon-<port>.token}
+     *
+     * @param port the port the daemon is listening to
+     * @return the token file
+     */
+    public static Path defaultTokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".pom-editor", String.format("daemon-%d.token", port));
+    }
+
+    /**
+     * Starts a daemon listening on the loopback interface, writing its token to the {@link #defaultTokenFile(int)}
+     *
+     * @param port    the port to listen to, {@code 0} means any free port
+     * @param threads the maximum number of requests handled concurrently
+     * @param log     the logger
+     * @return the running {@link EditDaemon}
+     * @throws IOException if the port cannot be bound or the token file cannot be written
+     */
+    public static EditDaemon start(int port, int threads, Log log) throws IOException {
+        return start(port, threads, null, log);
+    }
+
+    /**
+     * Starts a daemon listening on the loopback interface
+     *
+     * @param port      the port to listen to, {@code 0} means any free port
+     * @param threads   the maximum number of requests handled concurrently
+     * @param tokenFile the file the token is written to, readable by its owner only,
+     *                  or {@code null} for the {@link #defaultTokenFile(int)} of the bound port
+     * @param log       the logger
+     * @return the running {@link EditDaemon}
+     * @throws IOException if the port cannot be bound or the token file cannot be written
+     */
+    public static EditDaemon start(int port, int threads, Path tokenFile, Log log) throws IOException {
+        Objects.requireNonNull(log, "log cannot be null");
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be greater than zero");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        Path file = Optional.ofNullable(tokenFile).orElseGet(() -> defaultTokenFile(server.getAddress().getPort()));
+        byte[] token = new byte[32];
+        new SecureRandom().nextBytes(token);
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        try {
+            writeToken(file, encoded);
+        } catch (IOException | RuntimeException ex) {
+            server.stop(0);
+            throw ex;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        EditDaemon daemon = new EditDaemon(server, executor, log, encoded.getBytes(StandardCharsets.US_ASCII), file);
+        server.createContext("/", daemon::handle);
+        server.setExecutor(executor);
+        server.start();
+        return daemon;
+    }
+
+    /**
+     * @return the file the token of the daemon is written to
+     */
+    public Path getTokenFile() {
+        return tokenFile;
+    }
+
+    /**
+     * @return the port the daemon is listening to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Blocks until the daemon is shut down, by a {@code /shutdown} request or by {@link #close()}
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void awaitShutdown() throws InterruptedException {
+        stopped.await();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            // the token is useless once the daemon is stopped
+        }
+        stopped.countDown();
+    }
+
+    /**
+     * Writes the token to a brand-new file, readable and writable by its owner only
+     */
+    private static void writeToken(Path file, String token) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.deleteIfExists(file);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            File created = Files.createFile(file).toFile();
+            if (!created.setReadable(false, false) || !created.setReadable(true, true) || !created.setWritable(true, true)) {
+                throw new IOException(String.format("cannot restrict the permissions of the \"%s\" token file", file));
+            }
+        }
+        Files.writeString(file, token, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the status the request is rejected with, or {@code 0} if it's allowed
+     */
+    private int reject(HttpExchange exchange) {
+        Headers headers = exchange.getRequestHeaders();
+        if (headers.containsKey("Origin") || !isLoopback(headers.getFirst("Host"))) {
+            return 403;
+        }
+        String sent = headers.getFirst(TOKEN_HEADER);
+        if (sent == null || !MessageDigest.isEqual(token, sent.trim().getBytes(StandardCharsets.US_ASCII))) {
+            return 401;
+        }
+        return 0;
+    }
+
+    private static boolean isLoopback(String host) {
+        if (host == null) {
+            return false;
+        }
+        int port = host.lastIndexOf(':');
+        String name = port > host.lastIndexOf(']') ? host.substring(0, port) : host;
+        return LOOPBACK_HOSTS.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        try {
+            int rejected = reject(exchange);
+            if (rejected != 0) {
+                respond(exchange, rejected, rejected == 401
+                        ? String.format("the \"%s\" header doesn't match the token of the daemon", TOKEN_HEADER)
+                        : "the requests from the browsers are not allowed");
+                return;
+            }
+            if ("/status".equals(path)) {
+                respond(exchange, 200, "running: " + PomLock.metrics());
+                return;
+            }
+            if (!"POST".equals(method)) {
+                respond(exchange, 405, String.format("%s is not allowed, use POST", method));
+                return;
+            }
+            Map<String, String> params = parameters(exchange);
+            switch (path) {
+                case "/add-dep":
+                    respond(exchange, 200, addDependency(params));
+                    break;
+                case "/change-prop":
+                    respond(exchange, 200, changeProperty(params));
+                    break;
+                case "/commit":
+                    respond(exchange, 200, commit(params));
+                    break;
+                case "/rollback":
+                    respond(exchange, 200, rollback(params));
+                    break;
+                case "/shutdown":
+                    respond(exchange, 200, "stopping");
+                    new Thread(this::close, "pom-editor-daemon-shutdown").start();
+                    break;
+                default:
+                    respond(exchange, 404, String.format("unknown request \"%s\"", path));
+            }
+        } catch (IllegalArgumentException ex) {
+            respond(exchange, 400, ex.getMessage());
+        } catch (Throwable ex) {
+            log.error(String.format("cannot handle the \"%s\" request: %s", path, ex.getMessage()), ex);
+            respond(exchange, 500, ex.getMessage());
+        }
+    }
+
+    private String addDependency(Map<String, String> params) throws Exception {
+        Path pom = pom(params);
+        Dependency dependency = Dependency
+                .ofGav(required(params, "gav"))
+                .withType(params.get("type"))
+                .withClassifier(params.get("classifier"))
+                .withScope(params.get("scope"))
+                .build();
+        EditEngine engine = EditEngine.of(params.get("engine"));
+        PomChange.BackupStrategy backup = PomChange.BackupStrategy.of(params.get("backup"), backupDirectory(params));
+        Durability durability = Durability.of(params.get("durability"));
+        String indentation = WhitespaceProfile.indentationOf(params.get("indent"));
+        return edit(pom, String.format("the dependency: %s", dependency),
+                backup,
+                durability,
+                indentation,
+                () -> AddDependency.execute(pom, dependency, engine));
+    }
+
+    private String changeProperty(Map<String, String> params) throws Exception {
+        Path pom = pom(params);
+        Property property = Property.of(required(params, "property"), params.get("value")).build();
+        EditEngine engine = EditEngine.of(params.get("engine"));
+        PomChange.BackupStrategy backup = PomChange.BackupStrategy.of(params.get("backup"), backupDirectory(params));
+        Durability durability = Durability.of(params.get("durability"));
+        String indentation = WhitespaceProfile.indentationOf(params.get("indent"));
+        return edit(pom, String.format("the property: %s", property),
+                backup,
+                durability,
+                indentation,
+                () -> ChangeProperty.execute(log, pom, property, engine));
+    }
+
+    private String commit(Map<String, String> params) throws Exception {
+        Path pom = pom(params);
+        Optional<BackupStore> store = store(params);
+        return withLock(pom, () -> {
+            if (store.isPresent()) {
+                store.get().commit(pom);
+            } else {
+                PomCommit.execute(pom);
+            }
+            log.info(String.format("committed the changes of the \"%s\" file.", pom));
+            return "committed";
+        });
+    }
+
+    private String rollback(Map<String, String> params) throws Exception {
+        Path pom = pom(params);
+        Optional<BackupStore> store = store(params);
+        return withLock(pom, () -> {
+            if (store.isPresent()) {
+                store.get().rollback(pom);
+            } else {
+                PomRollback.execute(pom);
+            }
+            log.info(String.format("rolled back the changes of the \"%s\" file.", pom));
+            return "rolled back";
+        });
+    }
+
+    /**
+     * @return the backup store the {@code store} backup of the request is kept in, or empty for the other backups
+     */
+    private static Optional<BackupStore> store(Map<String, String> params) {
+        if (PomChange.BackupStrategy.isInMemory(params.get("backup"))) {
+            throw new IllegalArgumentException("the memory backup only lasts for the edit that made it: there's nothing to commit or roll back");
+        }
+        PomChange.BackupStrategy backup = PomChange.BackupStrategy.of(params.get("backup"), backupDirectory(params));
+        return backup instanceof BackupStore ? Optional.of((BackupStore) backup) : Optional.empty();
+    }
+
+    private static Path backupDirectory(Map<String, String> params) {
+        if (params.get("backupDirectory") == null) {
+            return pom(params).resolveSibling(BackupStore.DEFAULT_DIRECTORY);
+        }
+        return absolute(params, "backupDirectory");
+    }
+
+    private String edit(Path pom,
+                        String description,
+                        PomChange.BackupStrategy backup,
+                        Durability durability,
+                        String indentation,
+                        PomChange.Executable command) throws Exception {
+        boolean changed;
+        try {
+            changed = PomChange.builder()
+                    .withPom(pom)
+                    .withLogger(log::info)
+                    .withBackupStrategy(backup)
+                    .withDurability(durability)
+                    .withIndentation(indentation)
+                    .build()
+                    .execute(command);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            // PomChange.Executable is allowed to throw any Throwable
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        if (!changed) {
+            log.info(String.format("%s is already applied to the \"%s\" file: unchanged.", description, pom));
+            return "unchanged";
+        }
+        log.info(String.format("applied %s to the \"%s\" file.", description, pom));
+        return "changed";
+    }
+
+    private <T> T withLock(Path pom, Callable<T> action) throws Exception {
+        try (PomLock lock = PomLock.acquire(pom, log::info)) {
+            return action.call();
+        }
+    }
+
+    private static Path pom(Map<String, String> params) {
+        return absolute(params, "pom");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the given parameter is missing or isn't an absolute path
+     */
+    private static Path absolute(Map<String, String> params, String name) {
+        Path path = Paths.get(required(params, name));
+        if (!path.isAbsolute()) {
+            throw new IllegalArgumentException(String.format("the \"%s\" parameter must be an absolute path: %s", name, path));
+        }
+        return path.normalize();
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        return Optional.ofNullable(params.get(name))
+                .filter(value -> !value.isBlank())
+                .orElseThrow(() -> new IllegalArgumentException(String.format("the \"%s\" parameter is required", name)));
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream body = exchange.getRequestBody()) {
+            parse(new String(body.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isBlank()) {
+            return;
+        }
+        for (String pair : encoded.trim().split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? null : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    value == null ? null : URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (Optional.ofNullable(message).orElse("") + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.AddDependency;
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.PomSection;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible to add a given dependency to every POM of the reactor,
+ * or to every POM found under a given root directory
+ */
+@Mojo(name = "add-dep-all", aggregator = true, threadSafe = true)
+public class AddDependencyAllMojo extends ReactorEditingMojo {
+
+    @Parameter(property = "gav")
+    String gav;
+    @Parameter(property = "type")
+    String type;
+    @Parameter(property = "classifier")
+    String classifier;
+    @Parameter(property = "scope")
+    String scope;
+
+    BiConsumer<Path, Dependency> addDependencyCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Dependency dependency = AddDependencyMojo.buildDependency(gav, type, classifier, scope);
+        BiConsumer<Path, Dependency> command = dependencyCommand(engine());
+
+        changeAll(String.format("the dependency %s", dependency),
+                "add-dep " + PomSection.DEPENDENCIES + " " + dependency,
+                pomFile -> command.accept(pomFile, dependency));
+    }
+
+    private BiConsumer<Path, Dependency> dependencyCommand(EditEngine engine) {
+        return Optional
+                .ofNullable(this.addDependencyCommand)
+                .orElse((path, dependency) -> AddDependency.execute(path, dependency, engine));
+    }
+
+}
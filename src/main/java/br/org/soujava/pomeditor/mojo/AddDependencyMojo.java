@@ -19,22 +19,24 @@ package br.org.soujava.pomeditor.mojo;
 
 import br.org.soujava.pomeditor.api.AddDependency;
 import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.PomSection;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 
 /**
  * Mojo responsible to add a given dependency to a target POM
  * if such dependency is not declared
- * or the given dependency's version is greater than the existent at target POM
+ * or the given dependency's version is greater than the existent at target POM.
+ * If {@code managed} is set, the dependency is added to the {@code dependencyManagement} section instead
  */
-@Mojo(name = "add-dep")
+@Mojo(name = "add-dep", threadSafe = true)
 public class AddDependencyMojo extends EditingMojo {
 
     @Parameter(property = "gav")
@@ -45,18 +47,26 @@ public class AddDependencyMojo extends EditingMojo {
     String classifier;
     @Parameter(property = "scope")
     String scope;
+    @Parameter(property = "managed", defaultValue = "false")
+    boolean managed;
 
     BiConsumer<Path, Dependency> addDependencyCommand;
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
-        Path pomFile = Paths.get(pom);
-        Dependency dependency = buildDependency();
+        Path pomFile = targetPom();
+        Dependency dependency = buildDependency(gav, type, classifier, scope);
+        EditEngine engine = engine();
         try {
             getLog().info(String.format("trying to add the dependency: %s to the \"%s\" file...", dependency, pomFile));
 
-            change(pomFile).execute(() -> dependencyCommand().accept(pomFile, dependency));
+            if (!edit(pomFile,
+                    "add-dep " + PomSection.dependencies(managed) + " " + dependency,
+                    () -> dependencyCommand(engine).accept(pomFile, dependency))) {
+                getLog().info(String.format("the dependency: %s is already declared in the \"%s\" file: unchanged.", dependency, pomFile));
+                return;
+            }
 
             getLog().info(String.format("added the dependency: %s to the \"%s\" file.", dependency, pomFile));
         } catch (Throwable ex) {
@@ -64,16 +74,18 @@ public class AddDependencyMojo extends EditingMojo {
                     dependency,
                     pomFile,
                     ex.getMessage()), ex);
+        } finally {
+            finish();
         }
     }
 
-    private BiConsumer<Path, Dependency> dependencyCommand() {
+    private BiConsumer<Path, Dependency> dependencyCommand(EditEngine engine) {
         return Optional
                 .ofNullable(this.addDependencyCommand)
-                .orElse(AddDependency::execute);
+                .orElse((path, dependency) -> AddDependency.execute(path, dependency, PomSection.dependencies(managed), engine));
     }
 
-    private Dependency buildDependency() throws MojoExecutionException {
+    static Dependency buildDependency(String gav, String type, String classifier, String scope) throws MojoExecutionException {
         try {
             return Dependency
                     .ofGav(gav)
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.AddPlugin;
+import br.org.soujava.pomeditor.api.Plugin;
+import br.org.soujava.pomeditor.api.PomSection;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible to add a given build plugin to a target POM,
+ * or to update its version if such plugin is already declared.
+ * If {@code managed} is set, the plugin is added to the {@code pluginManagement} section instead
+ */
+@Mojo(name = "add-plugin", threadSafe = true)
+public class AddPluginMojo extends EditingMojo {
+
+    @Parameter(property = "gav")
+    String gav;
+    @Parameter(property = "managed", defaultValue = "false")
+    boolean managed;
+
+    BiConsumer<Path, Plugin> addPluginCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Path pomFile = targetPom();
+        Plugin plugin = buildPlugin(gav);
+        try {
+            getLog().info(String.format("trying to add the plugin: %s to the \"%s\" file...", plugin, pomFile));
+
+            if (!change(pomFile).execute(() -> addPluginCommand().accept(pomFile, plugin))) {
+                getLog().info(String.format("the plugin: %s is already declared in the \"%s\" file: unchanged.", plugin, pomFile));
+                return;
+            }
+
+            getLog().info(String.format("added the plugin: %s to the \"%s\" file.", plugin, pomFile));
+        } catch (Throwable ex) {
+            throw new MojoFailureException(String.format("cannot add the plugin: %s to the \"%s\" file: %s",
+                    plugin,
+                    pomFile,
+                    ex.getMessage()), ex);
+        } finally {
+            finish();
+        }
+    }
+
+    private BiConsumer<Path, Plugin> addPluginCommand() {
+        return Optional
+                .ofNullable(this.addPluginCommand)
+                .orElse((path, plugin) -> AddPlugin.execute(path, plugin, PomSection.plugins(managed)));
+    }
+
+    static Plugin buildPlugin(String gav) throws MojoExecutionException {
+        try {
+            return Plugin.ofGav(gav).build();
+        } catch (RuntimeException ex) {
+            throw new MojoExecutionException(ex.getMessage(), ex);
+        }
+    }
+}
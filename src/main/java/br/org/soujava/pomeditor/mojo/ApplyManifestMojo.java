@@ -0,0 +1,247 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.EditManifest;
+import br.org.soujava.pomeditor.api.PomEditBatch;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible for applying the dependency and property edits of a manifest file.
+ * <p>
+ * The manifest is read in a single streaming pass, see {@link EditManifest}. Its entries are grouped by target POM,
+ * and each group is applied as a single batch, with a single backup, by a bounded pool of workers.
+ * The edits of the same POM are always applied in the manifest order, and only a bounded number of groups
+ * is kept in memory: a group is applied once that number is exceeded, so a manifest sorted by POM
+ * is applied with a single pass per POM.
+ * An invalid entry stops the reading: the groups submitted before it are still applied, the others are discarded.
+ * The whole manifest is applied once per build, not once per module of the reactor.
+ */
+@Mojo(name = "apply-manifest", aggregator = true, threadSafe = true)
+public class ApplyManifestMojo extends EditingMojo {
+
+    /**
+     * Manifest file with the edits: CSV if its name ends with {@code .csv}, JSON otherwise
+     */
+    @Parameter(property = "manifest", required = true)
+    String manifest;
+
+    /**
+     * Maximum number of POM files edited concurrently. Zero or less means the number of available processors.
+     */
+    @Parameter(property = "threads", defaultValue = "0")
+    int threads;
+
+    BiConsumer<Path, PomEditBatch> batchCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        if (manifest == null || manifest.isBlank()) {
+            throw new MojoExecutionException("manifest is required");
+        }
+        Path manifestFile = Paths.get(manifest);
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        getLog().info(String.format("applying the edits of the \"%s\" manifest with %d worker(s)...", manifestFile, workers));
+
+        Groups groups = new Groups(workers, batchCommand(engine()));
+        try {
+            try {
+                EditManifest.read(manifestFile, groups::add);
+                groups.flushAll();
+            } catch (RuntimeException ex) {
+                throw new MojoExecutionException(String.format("cannot read the \"%s\" manifest: %s", manifestFile, ex.getMessage()), ex);
+            } finally {
+                groups.await();
+            }
+
+            // a POM whose group was flushed more than once is counted once: failed if any of its groups failed, then changed if any of them changed
+            Set<String> changed = new HashSet<>(groups.changed);
+            changed.removeAll(groups.failures);
+            getLog().info(String.format("%d edit(s) applied to %d POM file(s): %d changed, %d unchanged, %d failed.",
+                    groups.entries,
+                    groups.poms.size(),
+                    changed.size(),
+                    groups.poms.size() - changed.size() - groups.failures.size(),
+                    groups.failures.size()));
+        } finally {
+            finish();
+        }
+
+        if (!groups.failures.isEmpty()) {
+            throw new MojoFailureException(String.format("cannot apply the edits of the \"%s\" manifest to %d POM file(s): %s",
+                    manifestFile,
+                    groups.failures.size(),
+                    String.join(", ", groups.failures)));
+        }
+    }
+
+    private void apply(Path pomFile, PomEditBatch batch, Groups groups) {
+        try {
+            if (!change(pomFile).execute(() -> groups.command.accept(pomFile, batch))) {
+                getLog().info(String.format("  [UNCHANGED] \"%s\"", pomFile));
+                return;
+            }
+            groups.changed.add(pomFile.toString());
+            getLog().info(String.format("  [OK] \"%s\"", pomFile));
+        } catch (Throwable ex) {
+            groups.failures.add(pomFile.toString());
+            getLog().error(String.format("  [FAILED] \"%s\": %s", pomFile, ex.getMessage()));
+        }
+    }
+
+    private BiConsumer<Path, PomEditBatch> batchCommand(EditEngine engine) {
+        return Optional
+                .ofNullable(this.batchCommand)
+                .orElse((path, batch) -> batch.execute(getLog(), path, engine));
+    }
+
+    /**
+     * The groups of edits being read, and the workers applying them.
+     * Every POM is always applied by the same single-threaded worker, so its groups are applied in order,
+     * and the groups waiting for a worker are bounded, so the manifest reading waits for the workers.
+     */
+    private final class Groups {
+
+        private final int openLimit;
+        private final BiConsumer<Path, PomEditBatch> command;
+        private final Map<Path, PomEditBatch.PomEditBatchBuilder> open = new LinkedHashMap<>();
+        private final List<ExecutorService> workers = new ArrayList<>();
+        private final Semaphore pending;
+        private final Set<Path> poms = new HashSet<>();
+        private final Set<String> failures = new ConcurrentSkipListSet<>();
+        private final Set<String> changed = ConcurrentHashMap.newKeySet();
+        private long entries;
+
+        private Groups(int workers, BiConsumer<Path, PomEditBatch> command) {
+            this.command = command;
+            for (int i = 0; i < workers; i++) {
+                this.workers.add(Executors.newSingleThreadExecutor());
+            }
+            this.openLimit = workers * 4;
+            this.pending = new Semaphore(workers * 4);
+        }
+
+        void add(EditManifest.Entry entry) {
+            entries++;
+            Path pomFile = entry.getPom().toAbsolutePath().normalize();
+            entry.addTo(open.computeIfAbsent(pomFile, key -> PomEditBatch.builder()));
+            if (open.size() > openLimit) {
+                Iterator<Map.Entry<Path, PomEditBatch.PomEditBatchBuilder>> eldest = open.entrySet().iterator();
+                Map.Entry<Path, PomEditBatch.PomEditBatchBuilder> group = eldest.next();
+                eldest.remove();
+                submit(group.getKey(), group.getValue().build());
+            }
+        }
+
+        void flushAll() {
+            open.forEach((pomFile, batch) -> submit(pomFile, batch.build()));
+            open.clear();
+        }
+
+        private void submit(Path pomFile, PomEditBatch batch) {
+            poms.add(pomFile);
+            pending.acquireUninterruptibly();
+            workers.get(Math.floorMod(pomFile.hashCode(), workers.size())).execute(new Group(pomFile, batch));
+        }
+
+        /**
+         * Waits for the workers to apply every group. If the current thread is interrupted meanwhile,
+         * the groups not started yet are cancelled, and reported as failed, the running ones are interrupted,
+         * and it still waits for them to finish, so no POM file is being written once it returns
+         */
+        void await() {
+            workers.forEach(ExecutorService::shutdown);
+            boolean interrupted = false;
+            for (ExecutorService worker : workers) {
+                while (true) {
+                    try {
+                        if (worker.awaitTermination(1, TimeUnit.MINUTES)) {
+                            break;
+                        }
+                        getLog().info("waiting for the POM files being edited...");
+                    } catch (InterruptedException ex) {
+                        if (!interrupted) {
+                            interrupted = true;
+                            cancel();
+                        }
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void cancel() {
+            for (ExecutorService worker : workers) {
+                for (Runnable cancelled : worker.shutdownNow()) {
+                    Path pomFile = ((Group) cancelled).pomFile;
+                    failures.add(pomFile.toString());
+                    pending.release();
+                    getLog().error(String.format("  [CANCELLED] \"%s\"", pomFile));
+                }
+            }
+        }
+
+        /**
+         * The edits of a POM file applied by a worker
+         */
+        private final class Group implements Runnable {
+
+            private final Path pomFile;
+            private final PomEditBatch batch;
+
+            private Group(Path pomFile, PomEditBatch batch) {
+                this.pomFile = pomFile;
+                this.batch = batch;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    apply(pomFile, batch, Groups.this);
+                } finally {
+                    pending.release();
+                }
+            }
+        }
+    }
+}
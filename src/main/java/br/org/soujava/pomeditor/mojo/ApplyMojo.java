@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PomLock;
+import br.org.soujava.pomeditor.api.PomPlan;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Mojo responsible for applying the changes planned by the {@code plan} goal.
+ * A POM file that has changed since it was planned is skipped, and every changed POM file gets its own backup.
+ * The whole plan is applied once per build, as it's planned, not once per module of the reactor.
+ */
+@Mojo(name = "apply", requiresProject = false, aggregator = true, threadSafe = true)
+public class ApplyMojo extends EditingMojo {
+
+    /**
+     * File to read the plan from
+     */
+    @Parameter(property = "planFile", defaultValue = "pom-editor.plan")
+    String planFile = "pom-editor.plan";
+
+    Consumer<PomPlan.Entry> applyCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Path file = Paths.get(planFile);
+        PomPlan plan;
+        try {
+            plan = PomPlan.read(file);
+        } catch (RuntimeException ex) {
+            throw new MojoExecutionException(String.format("cannot read the plan from the \"%s\" file: %s", file, ex.getMessage()), ex);
+        }
+
+        getLog().info(String.format("applying the plan of the \"%s\" file to %d POM file(s)...", file, plan.getEntries().size()));
+
+        Consumer<PomPlan.Entry> command = applyCommand();
+        int stale = 0;
+        List<Path> failures = new ArrayList<>();
+        for (PomPlan.Entry entry : plan.getEntries()) {
+            Path pomFile = entry.getPom();
+            try (PomLock lock = PomLock.acquire(pomFile, getLog()::info)) {
+                if (entry.isStale()) {
+                    getLog().warn(String.format("  [STALE] \"%s\": it has changed since it was planned, skipped.", pomFile));
+                    stale++;
+                    continue;
+                }
+                change(pomFile).execute(() -> command.accept(entry));
+                getLog().info(String.format("  [OK] \"%s\"", pomFile));
+            } catch (Throwable ex) {
+                getLog().error(String.format("  [FAILED] \"%s\": %s", pomFile, ex.getMessage()));
+                failures.add(pomFile);
+            }
+        }
+        getLog().info(String.format("%d POM file(s) processed: %d changed, %d stale, %d failed.",
+                plan.getEntries().size(),
+                plan.getEntries().size() - stale - failures.size(),
+                stale,
+                failures.size()));
+        finish();
+
+        if (!failures.isEmpty()) {
+            throw new MojoFailureException(String.format("cannot apply the plan of the \"%s\" file to %d POM file(s): %s",
+                    file,
+                    failures.size(),
+                    failures.stream().map(Path::toString).collect(Collectors.joining(", "))));
+        }
+    }
+
+    private Consumer<PomPlan.Entry> applyCommand() {
+        return Optional
+                .ofNullable(this.applyCommand)
+                .orElse(PomPlan.Entry::apply);
+    }
+}
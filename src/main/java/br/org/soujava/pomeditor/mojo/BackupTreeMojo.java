@@ -0,0 +1,234 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PomChange;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Base class for {@link org.apache.maven.plugin.Mojo} functionality that acts on every backup POM file,
+ * as created by {@link PomChange#backupFileOf(Path)}, found under a root directory.
+ * <p>
+ * The tree is walked in parallel by a work-stealing {@link ForkJoinPool}: every directory is listed by its own task,
+ * that forks a task per subdirectory and per backup POM file, so the backups are committed or rolled back
+ * while the rest of the tree is still being walked. The {@code target}, {@code node_modules} and hidden directories,
+ * e.g. {@code .git}, are skipped, as the goals editing many POMs do.
+ */
+public abstract class BackupTreeMojo extends AbstractMojo {
+
+    private static final String BACKUP_SUFFIX = PomChange.backupFileOf(Path.of("")).toString();
+
+    /**
+     * Root directory to look for backup POM files
+     */
+    @Parameter(property = "root", defaultValue = ".")
+    String root = ".";
+
+    /**
+     * Glob, relative to the root directory, that the POM files of the backups must match
+     */
+    @Parameter(property = "includes", defaultValue = "{pom.xml,**/pom.xml}")
+    String includes = "{pom.xml,**/pom.xml}";
+
+    /**
+     * Number of workers walking the tree and acting on the backups. Zero or less means the number of available processors.
+     */
+    @Parameter(property = "threads", defaultValue = "0")
+    int threads;
+
+    /**
+     * Runs the given command for the POM file of every backup POM file found under the {@code root} directory,
+     * and reports the outcome of each one
+     *
+     * @param action  the action, as reported, e.g. {@code commit}
+     * @param done    the outcome of a successful action, as reported, e.g. {@code committed}
+     * @param command the command to be run for each POM file
+     * @throws MojoFailureException if the tree can't be walked or the command fails for any of the POM files
+     */
+    protected void runAll(String action, String done, Consumer<Path> command) throws MojoFailureException {
+        Path rootDir = Paths.get(root);
+        if (!Files.isDirectory(rootDir)) {
+            throw new MojoFailureException(String.format("cannot %s the backup POM files under \"%s\": it's not a directory", action, rootDir));
+        }
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        getLog().info(String.format("trying to %s the backup POM files under \"%s\" with %d worker(s)...", action, rootDir, workers));
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + includes);
+        Queue<Outcome> queue = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            pool.invoke(new Walk(rootDir, rootDir, matcher, command, queue));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(queue);
+        outcomes.sort(Comparator.comparing(outcome -> outcome.path));
+        List<Outcome> failures = outcomes.stream()
+                .filter(outcome -> outcome.error != null)
+                .collect(Collectors.toList());
+        outcomes.forEach(outcome -> {
+            if (outcome.error == null) {
+                getLog().info(String.format("  [OK] \"%s\"", outcome.path));
+            } else {
+                getLog().error(String.format("  [FAILED] \"%s\": %s", outcome.path, outcome.error.getMessage()));
+            }
+        });
+        getLog().info(String.format("%d backup POM file(s) found under \"%s\": %d %s, %d failed.",
+                outcomes.size(),
+                rootDir,
+                outcomes.size() - failures.size(),
+                done,
+                failures.size()));
+
+        if (!failures.isEmpty()) {
+            throw new MojoFailureException(String.format("cannot %s %d POM file(s): %s",
+                    action,
+                    failures.size(),
+                    failures.stream().map(outcome -> outcome.path.toString()).collect(Collectors.joining(", "))));
+        }
+    }
+
+    /**
+     * Lists a single directory, forking a task for each subdirectory and for each backup POM file in it
+     */
+    private static final class Walk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path rootDir;
+        private final Path directory;
+        private final PathMatcher matcher;
+        private final Consumer<Path> command;
+        private final Queue<Outcome> outcomes;
+
+        private Walk(Path rootDir, Path directory, PathMatcher matcher, Consumer<Path> command, Queue<Outcome> outcomes) {
+            this.rootDir = rootDir;
+            this.directory = directory;
+            this.matcher = matcher;
+            this.command = command;
+            this.outcomes = outcomes;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            try {
+                // the children are visited without following the links, so the directories are reported as files
+                Files.walkFileTree(directory, Set.of(), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isDirectory()) {
+                            if (!ReactorEditingMojo.isPruned(file)) {
+                                tasks.add(new Walk(rootDir, file, matcher, command, outcomes));
+                            }
+                        } else if (attrs.isRegularFile() && isBackup(file)) {
+                            tasks.add(new Run(pomOf(file), command, outcomes));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        outcomes.add(new Outcome(file, exc));
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException ex) {
+                outcomes.add(new Outcome(directory, ex));
+            }
+            invokeAll(tasks);
+        }
+
+        private boolean isBackup(Path file) {
+            String name = file.getFileName().toString();
+            return name.length() > BACKUP_SUFFIX.length()
+                    && name.endsWith(BACKUP_SUFFIX)
+                    && matcher.matches(rootDir.relativize(pomOf(file)));
+        }
+
+        private static Path pomOf(Path backupFile) {
+            String name = backupFile.getFileName().toString();
+            return backupFile.resolveSibling(name.substring(0, name.length() - BACKUP_SUFFIX.length()));
+        }
+    }
+
+    /**
+     * Runs the command for a single POM file
+     */
+    private static final class Run extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path pom;
+        private final Consumer<Path> command;
+        private final Queue<Outcome> outcomes;
+
+        private Run(Path pom, Consumer<Path> command, Queue<Outcome> outcomes) {
+            this.pom = pom;
+            this.command = command;
+            this.outcomes = outcomes;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                command.accept(pom);
+                outcomes.add(new Outcome(pom, null));
+            } catch (RuntimeException ex) {
+                outcomes.add(new Outcome(pom, ex));
+            }
+        }
+    }
+
+    /**
+     * Outcome of the command for a single POM file, or of the listing of a directory
+     */
+    private static final class Outcome {
+
+        private final Path path;
+        private final Throwable error;
+
+        private Outcome(Path path, Throwable error) {
+            this.path = path;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.Plugin;
+import br.org.soujava.pomeditor.api.PomEditBatch;
+import br.org.soujava.pomeditor.api.Property;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible for applying several dependency, plugin and property edits
+ * to a target POM in a single pass, with a single backup
+ */
+@Mojo(name = "batch", threadSafe = true)
+public class BatchMojo extends EditingMojo {
+
+    @Parameter(property = "gavs")
+    List<String> gavs;
+    @Parameter(property = "managedGavs")
+    List<String> managedGavs;
+    @Parameter(property = "plugins")
+    List<String> plugins;
+    @Parameter(property = "managedPlugins")
+    List<String> managedPlugins;
+    @Parameter(property = "properties")
+    List<String> properties;
+
+    BiConsumer<Path, PomEditBatch> batchCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Path pomFile = targetPom();
+        PomEditBatch batch = buildBatch(gavs, managedGavs, plugins, managedPlugins, properties);
+        EditEngine engine = engine();
+
+        try {
+            getLog().info(String.format("applying the edits %s to the \"%s\" file...", batch, pomFile));
+
+            if (!edit(pomFile,
+                    "batch " + batch,
+                    () -> batchCommand(engine).accept(pomFile, batch))) {
+                getLog().info(String.format("the edits %s are already applied to the \"%s\" file: unchanged.", batch, pomFile));
+                return;
+            }
+
+            getLog().info(String.format("applied the edits %s to the \"%s\" file.", batch, pomFile));
+        } catch (Throwable ex) {
+            throw new MojoFailureException(String.format("cannot apply the edits %s to the \"%s\" file: %s",
+                    batch,
+                    pomFile,
+                    ex.getMessage()), ex);
+        } finally {
+            finish();
+        }
+    }
+
+    private BiConsumer<Path, PomEditBatch> batchCommand(EditEngine engine) {
+        return Optional
+                .ofNullable(this.batchCommand)
+                .orElse((path, batch) -> batch.execute(getLog(), path, engine));
+    }
+
+    static PomEditBatch buildBatch(List<String> gavs,
+                                   List<String> managedGavs,
+                                   List<String> plugins,
+                                   List<String> managedPlugins,
+                                   List<String> properties) throws MojoExecutionException {
+        try {
+            PomEditBatch.PomEditBatchBuilder builder = PomEditBatch.builder();
+            Optional.ofNullable(gavs).ifPresent(items -> items.stream()
+                    .map(gav -> Dependency.ofGav(gav).build())
+                    .forEach(builder::withDependency));
+            Optional.ofNullable(managedGavs).ifPresent(items -> items.stream()
+                    .map(gav -> Dependency.ofGav(gav).build())
+                    .forEach(builder::withManagedDependency));
+            Optional.ofNullable(plugins).ifPresent(items -> items.stream()
+                    .map(gav -> Plugin.ofGav(gav).build())
+                    .forEach(builder::withPlugin));
+            Optional.ofNullable(managedPlugins).ifPresent(items -> items.stream()
+                    .map(gav -> Plugin.ofGav(gav).build())
+                    .forEach(builder::withManagedPlugin));
+            Optional.ofNullable(properties).ifPresent(items -> items.stream()
+                    .map(BatchMojo::toProperty)
+                    .forEach(builder::withProperty));
+            PomEditBatch batch = builder.build();
+            if (batch.isEmpty()) {
+                throw new IllegalArgumentException("at least one gav, plugin or property must be provided");
+            }
+            return batch;
+        } catch (RuntimeException ex) {
+            throw new MojoExecutionException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Parses a property edit in the {@code name=value} format.
+     * If there's no {@code =} the property will be removed.
+     */
+    static Property toProperty(String nameAndValue) {
+        int separator = nameAndValue.indexOf('=');
+        if (separator < 0) {
+            return Property.of(nameAndValue.trim(), null).build();
+        }
+        return Property.of(
+                nameAndValue.substring(0, separator).trim(),
+                nameAndValue.substring(separator + 1)).build();
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.ChangeProperty;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.Property;
+import br.org.soujava.pomeditor.api.PropertyIndex;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mojo responsible for changing a property value only in the POMs defining it,
+ * among every POM of the reactor, or every POM found under a given root directory.
+ * If {@code referenceHardCoded} is set, the dependency, plugin and extension versions hard-coded with
+ * the former property value are replaced by a reference to the property as well,
+ * in the POMs defining it, inheriting it from a parent POM or already referencing it,
+ * and only for the {@code groupId:artifactId} pairs whose version already references the property somewhere
+ */
+@Mojo(name = "bump-prop", aggregator = true, threadSafe = true)
+public class BumpPropertyMojo extends ReactorEditingMojo {
+
+    @Parameter(property = "property", required = true)
+    String property;
+    @Parameter(property = "value", required = true)
+    String value;
+
+    /**
+     * Whether the versions hard-coded with the former property value are replaced by a reference to the property
+     */
+    @Parameter(property = "referenceHardCoded", defaultValue = "false")
+    boolean referenceHardCoded;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Property bumped = ChangePropertyMojo.buildProperty(property, value);
+        EditEngine engine = engine();
+        List<Path> poms = targetPoms();
+        PropertyIndex index = buildIndex(poms);
+
+        List<PropertyIndex.Usage> definitions = index.getUsages(bumped.getName(), PropertyIndex.Usage.Kind.DEFINITION);
+        if (definitions.isEmpty()) {
+            throw new MojoExecutionException(String.format("the property %s is not defined in any of the %d POM file(s)",
+                    bumped.getName(),
+                    poms.size()));
+        }
+        Set<Path> defining = definitions.stream()
+                .filter(definition -> !bumped.getValue().equals(definition.getValue()))
+                .map(PropertyIndex.Usage::getPom)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> formerValues = definitions.stream()
+                .map(PropertyIndex.Usage::getValue)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> artifacts = index.getUsages(bumped.getName(), PropertyIndex.Usage.Kind.REFERENCE).stream()
+                .map(PropertyIndex.Usage::getArtifact)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Path> hardCoding = new LinkedHashSet<>();
+        if (referenceHardCoded) {
+            Set<Path> referencing = index.getPoms(bumped.getName(), PropertyIndex.Usage.Kind.REFERENCE);
+            index.getPoms(bumped.getName(), PropertyIndex.Usage.Kind.HARD_CODED).stream()
+                    .filter(pomFile -> referencing.contains(pomFile) || index.isDefinedFor(pomFile, bumped.getName()))
+                    .forEach(hardCoding::add);
+        }
+
+        changeAll(String.format("the property %s", bumped),
+                pomFile -> {
+                    if (hardCoding.contains(pomFile)) {
+                        PropertyIndex.referenceHardCodedValues(pomFile, bumped.getName(), formerValues, artifacts);
+                    }
+                    if (defining.contains(pomFile)) {
+                        ChangeProperty.execute(getLog(), pomFile, bumped, engine);
+                    }
+                });
+    }
+
+    static PropertyIndex buildIndex(List<Path> poms) throws MojoFailureException {
+        try {
+            return PropertyIndex.of(poms);
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(String.format("cannot index the properties of %d POM file(s): %s", poms.size(), ex.getMessage()), ex);
+        }
+    }
+}
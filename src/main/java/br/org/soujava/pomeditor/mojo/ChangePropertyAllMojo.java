@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.ChangeProperty;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.Property;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible for setting (potentially overwriting), or removing a property value
+ * in every POM of the reactor, or in every POM found under a given root directory
+ */
+@Mojo(name = "change-prop-all", aggregator = true, threadSafe = true)
+public class ChangePropertyAllMojo extends ReactorEditingMojo {
+
+    @Parameter(property = "property", required = true)
+    String property;
+    @Parameter(property = "value")
+    String value;
+
+    BiConsumer<Path, Property> changePropertyCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Property property = ChangePropertyMojo.buildProperty(this.property, value);
+        BiConsumer<Path, Property> command = changePropertyCommand(engine());
+
+        changeAll(String.format("the property %s", property),
+                "change-prop " + property,
+                pomFile -> command.accept(pomFile, property));
+    }
+
+    private BiConsumer<Path, Property> changePropertyCommand(EditEngine engine) {
+        return Optional
+                .ofNullable(this.changePropertyCommand)
+                .orElse((path, prop) -> ChangeProperty.execute(getLog(), path, prop, engine));
+    }
+
+}
@@ -18,6 +18,7 @@
 package br.org.soujava.pomeditor.mojo;
 
 import br.org.soujava.pomeditor.api.ChangeProperty;
+import br.org.soujava.pomeditor.api.EditEngine;
 import br.org.soujava.pomeditor.api.Property;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -25,14 +26,13 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 
 /**
  * Mojo responsible for setting (potentially overwriting), or removing a property value.
  */
-@Mojo(name = "change-prop")
+@Mojo(name = "change-prop", threadSafe = true)
 public class ChangePropertyMojo extends EditingMojo {
 
     @Parameter(property = "property", required = true)
@@ -45,14 +45,20 @@ public class ChangePropertyMojo extends EditingMojo {
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
-        Path pomFile = Paths.get(pom);
-        Property property = buildProperty();
+        Path pomFile = targetPom();
+        Property property = buildProperty(this.property, value);
+        EditEngine engine = engine();
 
         try {
 
             getLog().info(String.format("Changing property %s on \"%s\" POM file...", property, pomFile));
 
-            change(pomFile).execute(() -> changePropertyCommand().accept(pomFile, property));
+            if (!edit(pomFile,
+                    "change-prop " + property,
+                    () -> changePropertyCommand(engine).accept(pomFile, property))) {
+                getLog().info(String.format("Property %s is already handled on \"%s\" POM file: unchanged.", property, pomFile));
+                return;
+            }
 
             getLog().info(String.format("Handled property %s on \"%s\" POM file.", property, pomFile));
 
@@ -61,16 +67,18 @@ public class ChangePropertyMojo extends EditingMojo {
                     property,
                     pomFile,
                     ex.getMessage()), ex);
+        } finally {
+            finish();
         }
     }
 
-    private BiConsumer<Path, Property> changePropertyCommand() {
+    private BiConsumer<Path, Property> changePropertyCommand(EditEngine engine) {
         return Optional
                 .ofNullable(this.changePropertyCommand)
-                .orElse((path,prop)->ChangeProperty.execute(getLog(), path, prop));
+                .orElse((path,prop)->ChangeProperty.execute(getLog(), path, prop, engine));
     }
 
-    private Property buildProperty() throws MojoExecutionException {
+    static Property buildProperty(String property, String value) throws MojoExecutionException {
         try {
             return Property.of(property, value).build();
         } catch (RuntimeException ex) {
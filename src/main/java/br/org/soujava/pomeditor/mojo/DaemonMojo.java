@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.daemon.EditDaemon;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Mojo responsible for running the {@link EditDaemon}, which accepts edit requests carrying its token
+ * on the loopback interface until it's shut down
+ */
+@Mojo(name = "daemon", requiresProject = false, threadSafe = true)
+public class DaemonMojo extends AbstractMojo {
+
+    /**
+     * The port to listen to, {@code 0} means any free port
+     */
+    @Parameter(property = "port", defaultValue = "7979")
+    int port = EditDaemon.DEFAULT_PORT;
+
+    /**
+     * Maximum number of requests handled concurrently. The requests targeting the same POM file are always serialized
+     */
+    @Parameter(property = "threads", defaultValue = "4")
+    int threads = 4;
+
+    /**
+     * File the token of the daemon is written to, readable by its owner only. By default, {@code ~/.pom-editor/daemon-<port>.token}
+     */
+    @Parameter(property = "tokenFile")
+    String tokenFile;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        EditDaemon daemon;
+        try {
+            daemon = EditDaemon.start(port, threads, tokenFile == null || tokenFile.isBlank() ? null : Paths.get(tokenFile), getLog());
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new MojoExecutionException(String.format("cannot start the daemon on the port %d: %s", port, ex.getMessage()), ex);
+        }
+        try (daemon) {
+            getLog().info(String.format("the daemon is listening on http://127.0.0.1:%d, send a POST /shutdown request to stop it.", daemon.getPort()));
+            getLog().info(String.format("every request must carry the \"%s\" header with the token of the \"%s\" file.",
+                    EditDaemon.TOKEN_HEADER, daemon.getTokenFile()));
+            daemon.awaitShutdown();
+            getLog().info("the daemon has been stopped.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("the daemon has been interrupted", ex);
+        }
+    }
+}
@@ -17,36 +17,285 @@
 
 package br.org.soujava.pomeditor.mojo;
 
+import br.org.soujava.pomeditor.api.BackupStore;
+import br.org.soujava.pomeditor.api.Changeset;
+import br.org.soujava.pomeditor.api.Durability;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.EditMetrics;
 import br.org.soujava.pomeditor.api.PomChange;
+import br.org.soujava.pomeditor.api.PomEditListener;
+import br.org.soujava.pomeditor.api.TransformationCache;
+import br.org.soujava.pomeditor.api.WhitespaceProfile;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.io.File;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * Base class for {@link org.apache.maven.plugin.Mojo} functionality,
  * containing common code for editing POM files, and unit testing.
+ * <p>
+ * The goals are thread-safe: Maven creates a new instance for every execution, so the state of an execution lives in its fields,
+ * while the state shared by the executions of a parallel build, as the {@link br.org.soujava.pomeditor.api.PomLock}s
+ * and the open {@link Changeset}s, is thread-safe.
  */
 public abstract class EditingMojo extends AbstractMojo {
 
+    /**
+     * Target POM file
+     */
     @Parameter(property = "pom", defaultValue = "pom.xml")
     String pom = "pom.xml";
 
+    /**
+     * Whether every module of the reactor edits its own POM instead of the {@code pom} one, as a parallel build of many modules needs
+     */
+    @Parameter(property = "perModule", defaultValue = "false")
+    boolean perModule;
+
+    @Parameter(defaultValue = "${project.file}", readonly = true)
+    File projectFile;
+
+    /**
+     * How the original POM is kept while it's changed: {@code copy} (a copy in the backup POM file),
+     * {@code link} (a hard link as the backup POM file), {@code memory} (no backup POM file, in-process rollback only)
+     * or {@code store} (a compressed, deduplicated copy in the {@code backupDirectory} store shared by every POM)
+     */
+    @Parameter(property = "backup", defaultValue = "copy")
+    String backup = "copy";
+
+    /**
+     * Directory of the backup store used by the {@code store} backup
+     */
+    @Parameter(property = "backupDirectory", defaultValue = BackupStore.DEFAULT_DIRECTORY)
+    String backupDirectory = BackupStore.DEFAULT_DIRECTORY;
+
+    /**
+     * How the edits are performed: {@code dom} (the whole POM is parsed and serialized back)
+     * or {@code stream} (the changes are spliced into the raw POM, meant for very large POMs)
+     */
+    @Parameter(property = "engine", defaultValue = "dom")
+    String engine = "dom";
+
+    /**
+     * How hard the POM writes are flushed to the disk: {@code none} (not at all, meant for throwaway file systems),
+     * {@code file} (the written POM is flushed before it's renamed over the original one)
+     * or {@code directory} (the directory of the POM is flushed after the rename as well)
+     */
+    @Parameter(property = "durability", defaultValue = "file")
+    String durability = "file";
+
+    /**
+     * Indentation of the elements added by the {@code stream} engine: a number of spaces or {@code tab}.
+     * If not set, it's detected from the POM, or from the other POMs of its repository
+     */
+    @Parameter(property = "indent")
+    String indent;
+
+    /**
+     * File to write the timing, written bytes and allocation metrics of every edited POM to:
+     * as CSV if its name ends with {@code .csv}, as JSON otherwise. If not set, only a summary is logged.
+     */
+    @Parameter(property = "metricsFile")
+    String metricsFile;
+
+    /**
+     * Directory of the on-disk cache of transformed POMs, keyed by the input POM, the edits and the plugin version,
+     * so the same edits of byte-identical POMs are computed only once. If not set, nothing is cached.
+     */
+    @Parameter(property = "cacheDirectory")
+    String cacheDirectory;
+
+    /**
+     * Maximum size of the {@code cacheDirectory}, in megabytes: the least recently used entries are evicted beyond it
+     */
+    @Parameter(property = "cacheSize", defaultValue = "256")
+    long cacheSize = 256;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    String pluginVersion;
+
+    /**
+     * Name of the changeset to record the edits in, instead of the backup POM files:
+     * the whole changeset is then committed or rolled back at once by the {@code commit} and {@code rollback} goals,
+     * and it's rolled back by the {@code recover} goal if the run is interrupted
+     */
+    @Parameter(property = "changeset")
+    String changeset;
+
+    /**
+     * Directory of the changeset journals
+     */
+    @Parameter(property = "journalDirectory", defaultValue = ".pom-editor/journal")
+    String journalDirectory = ".pom-editor/journal";
 
     protected Function<Path, Boolean> backupFunction;
     protected Consumer<Path> rollbackFunction;
-
+    protected final EditMetrics metrics = new EditMetrics();
+    private TransformationCache cache;
+    private Changeset openChangeset;
 
     protected PomChange change(Path pomFile) {
         return PomChange
                 .builder()
                 .withLogger(getLog()::info)
                 .withPom(pomFile)
+                .withBackupStrategy(Optional.<PomChange.BackupStrategy>ofNullable(changeset())
+                        .orElseGet(() -> PomChange.BackupStrategy.of(backup, Paths.get(backupDirectory))))
                 .withBackupFunction(backupFunction)
                 .withRollbackFunction(rollbackFunction)
+                .withMetrics(metrics)
+                .withDurability(Durability.of(durability))
+                .withIndentation(indentation())
                 .build();
     }
 
+    /**
+     * Performs the given edit of the given POM file the way {@link #change(Path)} does, so the POM file is backed up and written
+     * only if the edit changes it.
+     * If the {@code cacheDirectory} is set, the cached output of the same edit of the same POM content is used instead,
+     * skipping the edit, so only the write of the POM is reported to the {@link PomEditListener}s
+     *
+     * @param pomFile the target POM file
+     * @param edit    a canonical description of the edit, used as the cache key
+     * @param command the edit
+     * @return {@code true} if the POM file was changed
+     * @throws Throwable the error thrown by the edit
+     */
+    protected boolean edit(Path pomFile, String edit, PomChange.Executable command) throws Throwable {
+        TransformationCache transformationCache = cache();
+        if (transformationCache == null) {
+            return change(pomFile).execute(command);
+        }
+        TransformationCache.Lookup lookup = transformationCache.lookup(pomFile, edit + " with the " + engine() + " engine"
+                + whitespaceOf(pomFile));
+        if (lookup.isUnchanged()) {
+            return false;
+        }
+        return change(pomFile).execute(() -> lookup.apply(command));
+    }
+
+    /**
+     * Describes the whitespace the edit of the given POM file writes: byte-identical POMs may be written differently,
+     * as a POM that doesn't tell its own style follows the one of its repository
+     */
+    private String whitespaceOf(Path pomFile) {
+        WhitespaceProfile profile = WhitespaceProfile.of(pomFile);
+        return Optional.ofNullable(indentation()).or(profile::getIndentation)
+                .map(value -> " indented by '" + value + "'")
+                .orElse("")
+                + " with " + profile.getSimpleElementWhitespace() + " simple elements";
+    }
+
+    private synchronized TransformationCache cache() {
+        if (cache == null && cacheDirectory != null && !cacheDirectory.isBlank()) {
+            cache = new TransformationCache(Paths.get(cacheDirectory), cacheSize * 1024 * 1024, pluginVersion, getLog()::warn);
+        }
+        return cache;
+    }
+
+    /**
+     * Opens the {@code changeset}, if it's set, and records the start of this run in it
+     *
+     * @return the open {@link Changeset}, or {@code null} if the {@code changeset} is not set
+     * @throws IllegalStateException if the changeset is being used by another process, or if it was interrupted
+     */
+    protected synchronized Changeset changeset() {
+        if (openChangeset == null && changeset != null && !changeset.isBlank()) {
+            Changeset opened = Changeset.open(Paths.get(journalDirectory), changeset.trim());
+            try {
+                opened.begin();
+            } catch (RuntimeException ex) {
+                opened.close();
+                throw ex;
+            }
+            openChangeset = opened;
+        }
+        return openChangeset;
+    }
+
+    /**
+     * Ends the run: the end of the run is recorded in the {@code changeset}, if it was opened, even if the run was interrupted,
+     * and the metrics are reported by {@link #reportMetrics()}
+     */
+    protected void finish() {
+        Changeset opened;
+        synchronized (this) {
+            opened = openChangeset;
+            openChangeset = null;
+        }
+        if (opened != null) {
+            // the journal is an interruptible channel, so an interrupted run is still ended with the interrupt cleared
+            boolean interrupted = Thread.interrupted();
+            try {
+                opened.end();
+                getLog().info(String.format("changeset: %s", opened));
+            } catch (RuntimeException ex) {
+                getLog().warn(String.format("cannot end the run of the \"%s\" changeset: %s", opened.getName(), ex.getMessage()));
+            } finally {
+                opened.close();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        reportMetrics();
+    }
+
+    /**
+     * Logs the summary of the metrics of the edited POM files, and writes them to the {@code metricsFile} if it's set.
+     * Failing to write them doesn't fail the edit, so it's only logged as a warning.
+     */
+    protected void reportMetrics() {
+        if (!metrics.isEmpty()) {
+            getLog().info(String.format("edit metrics: %s", metrics.summary()));
+        }
+        if (cache != null) {
+            getLog().info(String.format("transformation cache: %s", cache.summary()));
+        }
+        if (metricsFile == null || metricsFile.isBlank()) {
+            return;
+        }
+        Path file = Paths.get(metricsFile);
+        try {
+            metrics.writeTo(file);
+            getLog().info(String.format("edit metrics written to the \"%s\" file.", file));
+        } catch (RuntimeException ex) {
+            getLog().warn(String.format("cannot write the edit metrics to the \"%s\" file: %s", file, ex.getMessage()));
+        }
+    }
+
+    /**
+     * @return the {@link EditEngine} named by the {@code engine} parameter
+     * @throws MojoExecutionException if there's no engine with that name
+     */
+    protected EditEngine engine() throws MojoExecutionException {
+        try {
+            return EditEngine.of(engine);
+        } catch (IllegalArgumentException ex) {
+            throw new MojoExecutionException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return the explicit {@code indent}, or {@code null} to detect it
+     * @throws IllegalArgumentException if the {@code indent} is not valid
+     */
+    protected String indentation() {
+        return WhitespaceProfile.indentationOf(indent);
+    }
+
+    /**
+     * @return the POM of the current module if {@code perModule} is set and there's one, otherwise the {@code pom}
+     */
+    protected Path targetPom() {
+        return perModule && projectFile != null ? projectFile.toPath() : Paths.get(pom);
+    }
+
 }
@@ -24,7 +24,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 /**
  * Says "Hi" to the output
  */
-@Mojo(name = "hello")
+@Mojo(name = "hello", threadSafe = true)
 public class GreetingMojo extends AbstractMojo {
 
     @Parameter(property = "username")
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.EditMetrics;
+import br.org.soujava.pomeditor.api.PomEditBatch;
+import br.org.soujava.pomeditor.api.PomPlan;
+import br.org.soujava.pomeditor.api.WhitespaceProfile;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Mojo responsible for planning several dependency and property edits for every POM of the reactor,
+ * or for every POM found under a given root directory, without writing any of them.
+ * The planned changes are written to a plan file, to be applied by the {@code apply} goal.
+ */
+@Mojo(name = "plan", aggregator = true, threadSafe = true)
+public class PlanMojo extends ReactorEditingMojo {
+
+    @Parameter(property = "gavs")
+    List<String> gavs;
+    @Parameter(property = "managedGavs")
+    List<String> managedGavs;
+    @Parameter(property = "plugins")
+    List<String> plugins;
+    @Parameter(property = "managedPlugins")
+    List<String> managedPlugins;
+    @Parameter(property = "properties")
+    List<String> properties;
+
+    /**
+     * File to write the plan to
+     */
+    @Parameter(property = "planFile", defaultValue = "pom-editor.plan")
+    String planFile = "pom-editor.plan";
+
+    BiFunction<Path, PomEditBatch, Optional<PomPlan.Entry>> planCommand;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        PomEditBatch batch = BatchMojo.buildBatch(gavs, managedGavs, plugins, managedPlugins, properties);
+        BiFunction<Path, PomEditBatch, Optional<PomPlan.Entry>> command = planCommand(engine());
+        List<Path> poms = targetPoms();
+
+        getLog().info(String.format("planning the edits %s for %d POM file(s)...", batch, poms.size()));
+
+        List<Planned> planned = runAll(poms,
+                pomFile -> plan(pomFile, batch, command),
+                (pomFile, error) -> new Planned(pomFile, Optional.empty(), error));
+
+        planned.forEach(item -> {
+            if (item.error != null) {
+                getLog().error(String.format("  [FAILED] \"%s\": %s", item.pom, item.error.getMessage()));
+            } else if (item.entry.isPresent()) {
+                PomPlan.Entry entry = item.entry.get();
+                getLog().info(String.format("  [CHANGE] \"%s\" (+%d -%d)", item.pom, entry.getAddedLines(), entry.getRemovedLines()));
+                getLog().debug(entry.getDiff());
+            } else {
+                getLog().info(String.format("  [UNCHANGED] \"%s\"", item.pom));
+            }
+        });
+
+        List<PomPlan.Entry> entries = planned.stream()
+                .map(item -> item.entry)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        List<Path> failures = planned.stream()
+                .filter(item -> item.error != null)
+                .map(item -> item.pom)
+                .collect(Collectors.toList());
+
+        Path file = Paths.get(planFile);
+        try {
+            new PomPlan(entries).writeTo(file);
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(String.format("cannot write the plan to the \"%s\" file: %s", file, ex.getMessage()), ex);
+        }
+        getLog().info(String.format("%d POM file(s) planned in the \"%s\" file: %d to be changed, %d unchanged, %d failed.",
+                planned.size(),
+                file,
+                entries.size(),
+                planned.size() - entries.size() - failures.size(),
+                failures.size()));
+        reportMetrics();
+
+        if (!failures.isEmpty()) {
+            throw new MojoFailureException(String.format("cannot plan the edits %s for %d POM file(s): %s",
+                    batch,
+                    failures.size(),
+                    failures.stream().map(Path::toString).collect(Collectors.joining(", "))));
+        }
+    }
+
+    private Planned plan(Path pomFile, PomEditBatch batch, BiFunction<Path, PomEditBatch, Optional<PomPlan.Entry>> command) {
+        try (EditMetrics.Scope scope = metrics.start(pomFile);
+             WhitespaceProfile.Scope indentation = WhitespaceProfile.withIndentation(indentation())) {
+            return new Planned(pomFile, command.apply(pomFile.toAbsolutePath().normalize(), batch), null);
+        } catch (RuntimeException ex) {
+            return new Planned(pomFile, Optional.empty(), ex);
+        }
+    }
+
+    private BiFunction<Path, PomEditBatch, Optional<PomPlan.Entry>> planCommand(EditEngine engine) {
+        return Optional
+                .ofNullable(this.planCommand)
+                .orElse((path, batch) -> PomPlan.plan(getLog(), path, batch, engine));
+    }
+
+    /**
+     * Outcome of the planning of a single POM file
+     */
+    private static final class Planned {
+
+        private final Path pom;
+        private final Optional<PomPlan.Entry> entry;
+        private final Throwable error;
+
+        private Planned(Path pom, Optional<PomPlan.Entry> entry, Throwable error) {
+            this.pom = pom;
+            this.entry = entry;
+            this.error = error;
+        }
+    }
+}
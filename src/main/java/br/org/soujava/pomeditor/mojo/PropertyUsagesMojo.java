@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PropertyIndex;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mojo responsible for listing where the properties are defined, referenced or hard-coded
+ * in every POM of the reactor, or in every POM found under a given root directory
+ */
+@Mojo(name = "prop-usages", aggregator = true, threadSafe = true)
+public class PropertyUsagesMojo extends ReactorEditingMojo {
+
+    /**
+     * Property to list the usages of. If not set, every defined property is listed
+     */
+    @Parameter(property = "property")
+    String property;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        List<Path> poms = targetPoms();
+        PropertyIndex index = BumpPropertyMojo.buildIndex(poms);
+
+        Collection<String> properties = property == null || property.isBlank() ? index.getProperties() : Set.of(property.trim());
+
+        getLog().info(String.format("%d properties defined in %d POM file(s).", index.getProperties().size(), poms.size()));
+        for (String name : properties) {
+            List<PropertyIndex.Usage> definitions = index.getUsages(name, PropertyIndex.Usage.Kind.DEFINITION);
+            List<PropertyIndex.Usage> references = index.getUsages(name, PropertyIndex.Usage.Kind.REFERENCE);
+            List<PropertyIndex.Usage> hardCoded = index.getUsages(name, PropertyIndex.Usage.Kind.HARD_CODED);
+            getLog().info(String.format("%s: %d definition(s), %d reference(s), %d hard-coded value(s)",
+                    name,
+                    definitions.size(),
+                    references.size(),
+                    hardCoded.size()));
+            index.getUsages(name).forEach(usage ->
+                    getLog().info(String.format("  [%s] %s", usage.getKind().name().replace('_', '-'), usage)));
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.EditExecutor;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Base class for {@link org.apache.maven.plugin.Mojo} functionality that applies
+ * the same edit to every POM of the reactor, or to every POM found under a root directory,
+ * using a bounded number of workers, see {@link EditExecutor}.
+ * Each POM file gets its own backup, unless a {@code changeset} is set.
+ */
+public abstract class ReactorEditingMojo extends EditingMojo {
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    MavenSession session;
+
+    /**
+     * Root directory to look for POM files. If not set, the POM files of the current reactor are used.
+     */
+    @Parameter(property = "root")
+    String root;
+
+    /**
+     * Glob, relative to the root directory, that the POM files must match
+     */
+    @Parameter(property = "includes", defaultValue = "{pom.xml,**/pom.xml}")
+    String includes = "{pom.xml,**/pom.xml}";
+
+    /**
+     * Maximum number of POM files edited concurrently. Zero or less means the number of available processors,
+     * or 64 on virtual threads.
+     */
+    @Parameter(property = "threads", defaultValue = "0")
+    int threads;
+
+    /**
+     * Threads running the edits: {@code auto} (virtual threads on Java 21 or later, platform threads otherwise),
+     * {@code platform} or {@code virtual}
+     */
+    @Parameter(property = "executor", defaultValue = "auto")
+    String executor = "auto";
+
+    /**
+     * Maximum duration of the edit of each POM file, in seconds: a longer edit is interrupted, rolled back and reported as failed.
+     * Zero or less means no timeout.
+     */
+    @Parameter(property = "editTimeout", defaultValue = "0")
+    long editTimeout;
+
+    /**
+     * Applies the given edit to every target POM file and reports the outcome of each one
+     *
+     * @param description a short description of the edit, used in the report
+     * @param edit        the edit to be applied to each POM file
+     * @throws MojoFailureException if the edit fails for any of the POM files
+     */
+    protected void changeAll(String description, Consumer<Path> edit) throws MojoFailureException {
+        changeAll(description, null, edit);
+    }
+
+    /**
+     * Applies the given edit to every target POM file and reports the outcome of each one,
+     * using the transformation cache if it's enabled
+     *
+     * @param description a short description of the edit, used in the report
+     * @param cacheKey    a canonical description of the edit, used as the cache key, or {@code null} to not cache it
+     * @param edit        the edit to be applied to each POM file
+     * @throws MojoFailureException if the edit fails for any of the POM files
+     */
+    protected void changeAll(String description, String cacheKey, Consumer<Path> edit) throws MojoFailureException {
+
+        List<Path> poms = targetPoms();
+
+        getLog().info(String.format("applying %s to %d POM file(s)...", description, poms.size()));
+
+        List<Outcome> failures;
+        try {
+            openChangeset();
+
+            List<Outcome> outcomes = runAll(poms,
+                    pomFile -> apply(pomFile, cacheKey, edit),
+                    (pomFile, error) -> new Outcome(pomFile, false, error));
+
+            failures = outcomes.stream()
+                    .filter(outcome -> !outcome.isSuccess())
+                    .collect(Collectors.toList());
+
+            outcomes.forEach(outcome -> {
+                if (outcome.isSuccess() && !outcome.isChanged()) {
+                    getLog().info(String.format("  [UNCHANGED] \"%s\"", outcome.getPom()));
+                } else if (outcome.isSuccess()) {
+                    getLog().info(String.format("  [OK] \"%s\"", outcome.getPom()));
+                } else {
+                    getLog().error(String.format("  [FAILED] \"%s\": %s", outcome.getPom(), outcome.getError().getMessage()));
+                }
+            });
+            long unchanged = outcomes.stream().filter(outcome -> outcome.isSuccess() && !outcome.isChanged()).count();
+            getLog().info(String.format("%d POM file(s) processed: %d changed, %d unchanged, %d failed.",
+                    outcomes.size(),
+                    outcomes.size() - unchanged - failures.size(),
+                    unchanged,
+                    failures.size()));
+        } finally {
+            finish();
+        }
+
+        if (!failures.isEmpty()) {
+            throw new MojoFailureException(String.format("cannot apply %s to %d POM file(s): %s",
+                    description,
+                    failures.size(),
+                    failures.stream().map(outcome -> outcome.getPom().toString()).collect(Collectors.joining(", "))));
+        }
+    }
+
+    /**
+     * Opens the {@code changeset}, if it's set, before any POM file is edited, so an interrupted changeset fails the run at once.
+     * Each POM file is only recorded in it once it's actually changed, the concurrent ones sharing a single flush of the journal
+     */
+    private void openChangeset() throws MojoFailureException {
+        try {
+            changeset();
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(String.format("cannot open the \"%s\" changeset: %s", changeset, ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * Runs the given task for every POM file using the {@link EditExecutor}
+     *
+     * @param poms      the POM files
+     * @param task      the task to be run for each POM file, which should report its failures in its result
+     * @param onFailure the result of a POM file whose task failed or timed out
+     * @param <T>       the result type
+     * @return the results, in the same order as the POM files
+     * @throws MojoFailureException if the executor cannot be created or the workers are interrupted
+     */
+    protected <T> List<T> runAll(List<Path> poms, Function<Path, T> task, BiFunction<Path, Throwable, T> onFailure) throws MojoFailureException {
+        EditExecutor pool;
+        try {
+            pool = EditExecutor.create(EditExecutor.Threads.of(executor), threads, editTimeout > 0 ? Duration.ofSeconds(editTimeout) : null);
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(String.format("cannot edit the POM files with the \"%s\" executor: %s", executor, ex.getMessage()), ex);
+        }
+        try (pool) {
+            getLog().debug(String.format("editing up to %d POM file(s) concurrently on %s threads.",
+                    pool.getConcurrency(), pool.isVirtual() ? "virtual" : "platform"));
+            return pool.runAll(poms, task, onFailure);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("interrupted while editing the POM files", ex);
+        }
+    }
+
+    private Outcome apply(Path pomFile, String cacheKey, Consumer<Path> edit) {
+        try {
+            if (cacheKey != null) {
+                return new Outcome(pomFile, edit(pomFile, cacheKey, () -> edit.accept(pomFile)), null);
+            }
+            return new Outcome(pomFile, change(pomFile).execute(() -> edit.accept(pomFile)), null);
+        } catch (Throwable ex) {
+            return new Outcome(pomFile, false, ex);
+        }
+    }
+
+    List<Path> targetPoms() throws MojoFailureException {
+        if (root != null && !root.isBlank()) {
+            return findPoms(Paths.get(root), includes);
+        }
+        List<Path> reactorPoms = Optional.ofNullable(session)
+                .map(MavenSession::getProjects)
+                .orElse(List.of())
+                .stream()
+                .map(MavenProject::getFile)
+                .filter(Objects::nonNull)
+                .map(File::toPath)
+                .collect(Collectors.toList());
+        return reactorPoms.isEmpty() ? List.of(Paths.get(pom)) : reactorPoms;
+    }
+
+    static List<Path> findPoms(Path rootDir, String glob) throws MojoFailureException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        List<Path> poms = new ArrayList<>();
+        try {
+            Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(rootDir) && isPruned(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && matcher.matches(rootDir.relativize(file))) {
+                        poms.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            throw new MojoFailureException(String.format("cannot look for POM files under \"%s\": %s", rootDir, ex.getMessage()), ex);
+        }
+        poms.sort(Comparator.comparingInt(Path::getNameCount).thenComparing(Comparator.naturalOrder()));
+        return poms;
+    }
+
+    static boolean isPruned(Path dir) {
+        String name = dir.getFileName().toString();
+        return name.equals("target") || name.equals("node_modules") || name.startsWith(".");
+    }
+
+    /**
+     * Outcome of the edit of a single POM file
+     */
+    static final class Outcome {
+
+        private final Path pom;
+        private final boolean changed;
+        private final Throwable error;
+
+        Outcome(Path pom, boolean changed, Throwable error) {
+            this.pom = pom;
+            this.changed = changed;
+            this.error = error;
+        }
+
+        Path getPom() {
+            return pom;
+        }
+
+        Throwable getError() {
+            return error;
+        }
+
+        boolean isChanged() {
+            return changed;
+        }
+
+        boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Changeset;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Mojo responsible for recovering the changesets interrupted by a crash:
+ * interrupted runs and rollbacks are rolled back, interrupted commits are committed
+ */
+@Mojo(name = "recover", requiresProject = false, threadSafe = true)
+public class RecoverMojo extends AbstractMojo {
+
+    /**
+     * Directory of the changeset journals
+     */
+    @Parameter(property = "journalDirectory", defaultValue = ".pom-editor/journal")
+    String journalDirectory = ".pom-editor/journal";
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        Path directory = Paths.get(journalDirectory);
+        getLog().info(String.format("recovering the interrupted changesets of the \"%s\" directory...", directory));
+        Map<String, Changeset.State> recovered;
+        try {
+            recovered = Changeset.recover(directory);
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(
+                    String.format("cannot recover the changesets of the \"%s\" directory: %s", directory, ex.getMessage()), ex);
+        }
+        recovered.forEach((name, state) -> getLog().info(String.format("  [%s] \"%s\": %s",
+                state == Changeset.State.COMMITTING ? "COMMITTED" : "ROLLED BACK",
+                name,
+                state == Changeset.State.COMMITTING ? "its commit was interrupted" : "it was interrupted while " + describe(state))));
+        getLog().info(String.format("%d changeset(s) recovered.", recovered.size()));
+    }
+
+    private static String describe(Changeset.State state) {
+        return state == Changeset.State.RUNNING ? "running" : "rolling back";
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.PomSection;
+import br.org.soujava.pomeditor.api.RemoveDependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible to remove a given dependency, by its groupId and artifactId, from a target POM.
+ * If {@code managed} is set, the dependency is removed from the {@code dependencyManagement} section instead
+ */
+@Mojo(name = "remove-dep", threadSafe = true)
+public class RemoveDependencyMojo extends RemovingMojo<Dependency> {
+
+    BiConsumer<Path, Dependency> removeDependencyCommand;
+
+    @Override
+    protected String goal() {
+        return "remove-dep";
+    }
+
+    @Override
+    protected String kind() {
+        return "dependency";
+    }
+
+    @Override
+    protected Dependency element() throws MojoExecutionException {
+        return AddDependencyMojo.buildDependency(gav, null, null, null);
+    }
+
+    @Override
+    protected PomSection section() {
+        return PomSection.dependencies(managed);
+    }
+
+    @Override
+    protected BiConsumer<Path, Dependency> command() {
+        return Optional
+                .ofNullable(this.removeDependencyCommand)
+                .orElse((path, dependency) -> RemoveDependency.execute(path, dependency, section()));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Plugin;
+import br.org.soujava.pomeditor.api.PomSection;
+import br.org.soujava.pomeditor.api.RemovePlugin;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mojo responsible to remove a given build plugin, by its groupId and artifactId, from a target POM.
+ * If {@code managed} is set, the plugin is removed from the {@code pluginManagement} section instead
+ */
+@Mojo(name = "remove-plugin", threadSafe = true)
+public class RemovePluginMojo extends RemovingMojo<Plugin> {
+
+    BiConsumer<Path, Plugin> removePluginCommand;
+
+    @Override
+    protected String goal() {
+        return "remove-plugin";
+    }
+
+    @Override
+    protected String kind() {
+        return "plugin";
+    }
+
+    @Override
+    protected Plugin element() throws MojoExecutionException {
+        return AddPluginMojo.buildPlugin(gav);
+    }
+
+    @Override
+    protected PomSection section() {
+        return PomSection.plugins(managed);
+    }
+
+    @Override
+    protected BiConsumer<Path, Plugin> command() {
+        return Optional
+                .ofNullable(this.removePluginCommand)
+                .orElse((path, plugin) -> RemovePlugin.execute(path, plugin, section()));
+    }
+
+}
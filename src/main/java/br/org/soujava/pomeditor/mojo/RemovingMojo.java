@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PomSection;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+/**
+ * Base class of the goals that remove a given element, by its groupId and artifactId, from a target POM,
+ * or from the managed section of the target POM if {@code managed} is set
+ *
+ * @param <T> the type of the removed element
+ */
+public abstract class RemovingMojo<T> extends EditingMojo {
+
+    @Parameter(property = "gav")
+    String gav;
+    @Parameter(property = "managed", defaultValue = "false")
+    boolean managed;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Path pomFile = targetPom();
+        T element = element();
+        String kind = kind();
+        try {
+            getLog().info(String.format("trying to remove the %s: %s from the \"%s\" file...", kind, element, pomFile));
+
+            if (!edit(pomFile,
+                    goal() + " " + section() + " " + element,
+                    () -> command().accept(pomFile, element))) {
+                getLog().info(String.format("the %s: %s is not declared in the \"%s\" file: unchanged.", kind, element, pomFile));
+                return;
+            }
+
+            getLog().info(String.format("removed the %s: %s from the \"%s\" file.", kind, element, pomFile));
+        } catch (Throwable ex) {
+            throw new MojoFailureException(String.format("cannot remove the %s: %s from the \"%s\" file: %s",
+                    kind,
+                    element,
+                    pomFile,
+                    ex.getMessage()), ex);
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * @return the name of the goal, as the edit is described in the transformation cache
+     */
+    protected abstract String goal();
+
+    /**
+     * @return the kind of the removed element, as it's logged
+     */
+    protected abstract String kind();
+
+    /**
+     * @return the element to remove, built from the {@code gav}
+     * @throws MojoExecutionException if the {@code gav} is not valid
+     */
+    protected abstract T element() throws MojoExecutionException;
+
+    /**
+     * @return the section the element is removed from
+     */
+    protected abstract PomSection section();
+
+    /**
+     * @return the command that removes the element from the POM file
+     */
+    protected abstract BiConsumer<Path, T> command();
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PomRollback;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Mojo responsible for restoring every POM file with a backup POM file under a root directory from its backup POM file.
+ * The tree is walked, and the POM files are processed, in parallel, see {@link BackupTreeMojo}.
+ */
+@Mojo(name = "rollback-all", requiresProject = false, aggregator = true, threadSafe = true)
+public class RollbackAllMojo extends BackupTreeMojo {
+
+    Consumer<Path> rollbackFunction;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        runAll("roll back", "rolled back", Optional.ofNullable(rollbackFunction).orElse(PomRollback::execute));
+    }
+}
@@ -17,6 +17,9 @@
 
 package br.org.soujava.pomeditor.mojo;
 
+import br.org.soujava.pomeditor.api.BackupStore;
+import br.org.soujava.pomeditor.api.Changeset;
+import br.org.soujava.pomeditor.api.PomChange;
 import br.org.soujava.pomeditor.api.PomRollback;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -24,24 +27,75 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.io.File;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Optional;
 import java.util.function.Consumer;
 
 /**
  * Restore the target POM file with the backup POM file
  */
-@Mojo(name = "rollback")
+@Mojo(name = "rollback", threadSafe = true)
 public class RollbackMojo extends AbstractMojo {
 
+    /**
+     * Target POM file
+     */
     @Parameter(property = "pom", defaultValue = "pom.xml")
     String pom = "pom.xml";
 
+    /**
+     * Whether every module of the reactor rolls back its own POM instead of the {@code pom} one, as a parallel build of many modules needs
+     */
+    @Parameter(property = "perModule", defaultValue = "false")
+    boolean perModule;
+
+    @Parameter(defaultValue = "${project.file}", readonly = true)
+    File projectFile;
+
+    /**
+     * Name of the changeset to roll back as a whole, instead of the {@code pom}
+     */
+    @Parameter(property = "changeset")
+    String changeset;
+
+    /**
+     * Directory of the changeset journals
+     */
+    @Parameter(property = "journalDirectory", defaultValue = ".pom-editor/journal")
+    String journalDirectory = ".pom-editor/journal";
+
+    /**
+     * How the original POM was kept by the edits: {@code store} roll backs every POM of the {@code backupDirectory} store
+     * in a single pass, instead of the {@code pom}; {@code memory} is rejected, since such a backup doesn't outlive its edit;
+     * any other value roll backs the backup POM file of the {@code pom}
+     */
+    @Parameter(property = "backup", defaultValue = "copy")
+    String backup = "copy";
+
+    /**
+     * Directory of the backup store
+     */
+    @Parameter(property = "backupDirectory", defaultValue = BackupStore.DEFAULT_DIRECTORY)
+    String backupDirectory = BackupStore.DEFAULT_DIRECTORY;
+
     Consumer<Path> rollbackFunction;
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        Path targetPom = Path.of(this.pom);
+        if (changeset != null && !changeset.isBlank()) {
+            rollbackChangeset(changeset.trim());
+            return;
+        }
+        if (PomChange.BackupStrategy.isInMemory(backup)) {
+            throw new MojoFailureException("the memory backup only lasts for the edit that made it: there's nothing to roll back");
+        }
+        if ("store".equals(Optional.ofNullable(backup).map(String::trim).orElse(""))) {
+            rollbackStore();
+            return;
+        }
+        Path targetPom = targetPom();
         try {
             getLog().info(String.format("trying to revert the \"%s\" file...", targetPom));
             Optional.ofNullable(rollbackFunction)
@@ -53,4 +107,41 @@ public class RollbackMojo extends AbstractMojo {
                     String.format("cannot recover the \"%s\" file: %s", targetPom,ex.getMessage()), ex);
         }
     }
+
+    private void rollbackChangeset(String name) throws MojoFailureException {
+        Path directory = Paths.get(journalDirectory);
+        if (!Changeset.exists(directory, name)) {
+            throw new MojoFailureException(String.format("there's no \"%s\" changeset in the \"%s\" directory", name, directory));
+        }
+        getLog().info(String.format("trying to roll back the \"%s\" changeset...", name));
+        try (Changeset opened = Changeset.open(directory, name)) {
+            int count = opened.rollback();
+            getLog().info(String.format("%d POM file(s) of the \"%s\" changeset restored.", count, name));
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(
+                    String.format("cannot roll back the \"%s\" changeset: %s", name, ex.getMessage()), ex);
+        }
+    }
+
+    private void rollbackStore() throws MojoFailureException {
+        Path directory = Paths.get(backupDirectory);
+        if (!BackupStore.exists(directory)) {
+            throw new MojoFailureException(String.format("there's no backup store in the \"%s\" directory", directory));
+        }
+        getLog().info(String.format("trying to roll back the POM files of the \"%s\" backup store...", directory));
+        try {
+            int count = PomRollback.execute(BackupStore.of(directory));
+            getLog().info(String.format("%d POM file(s) of the \"%s\" backup store restored.", count, directory));
+        } catch (RuntimeException ex) {
+            throw new MojoFailureException(
+                    String.format("cannot roll back the \"%s\" backup store: %s", directory, ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * @return the POM of the current module if {@code perModule} is set and there's one, otherwise the {@code pom}
+     */
+    private Path targetPom() {
+        return perModule && projectFile != null ? projectFile.toPath() : Paths.get(pom);
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddDependencyTest extends BaseTest {
+
+    @BeforeEach
+    void setup() throws IOException {
+        modifyPom("<project>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>5.9.0</version>\n" +
+                "            <scope>test</scope>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+    }
+
+    @Test
+    void shouldNotChangeThePomWhenTheDependencyIsAlreadyDeclared() throws Throwable {
+        Dependency declared = Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.0").withScope("test").build();
+
+        assertThat(isChangedBy(() -> AddDependency.execute(pom, declared))).isFalse();
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldChangeThePomWhenTheDependencyIsNotDeclared() throws Throwable {
+        Dependency absent = Dependency.ofGav("org.assertj:assertj-core:3.24.2").build();
+
+        assertThat(isChangedBy(() -> AddDependency.execute(pom, absent))).isTrue();
+        assertThat(PomChange.backupFileOf(pom)).exists();
+    }
+
+    @Test
+    void shouldChangeThePomWhenAnyFieldDiffers() throws Throwable {
+        for (Dependency dependency : List.of(
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withScope("test").build(),
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.0").build(),
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.0").withScope("test").withType("pom").build())) {
+            setup();
+
+            assertThat(isChangedBy(() -> AddDependency.execute(pom, dependency))).isTrue();
+        }
+    }
+
+    @Test
+    void shouldUpdateEveryDeclarationOfTheDependency() throws Throwable {
+        modifyPom("<project>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>5.9.0</version>\n" +
+                "            <scope>test</scope>\n" +
+                "        </dependency>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>5.8.0</version>\n" +
+                "            <classifier>tests</classifier>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+
+        AddDependency.execute(pom, Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withScope("test").build());
+
+        assertThat(Files.readString(pom))
+                .doesNotContain("<version>5.9.0</version>", "<version>5.8.0</version>", "<classifier>")
+                .containsOnlyOnce("<scope>test</scope>\n        </dependency>\n        <dependency>");
+        assertThat(isChangedBy(() -> AddDependency.execute(pom,
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withScope("test").build()))).isFalse();
+    }
+
+    @Test
+    void shouldReuseTheIndexAcrossEditsOfTheSameTransformation() throws Throwable {
+
+        PomEditBatch.builder()
+                .withDependency(Dependency.ofGav("org.assertj:assertj-core:3.24.1").build())
+                .withDependency(Dependency.ofGav("org.assertj:assertj-core:3.24.2").withScope("test").build())
+                .withDependency(Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withScope("test").build())
+                .build()
+                .execute(new SystemStreamLog(), pom);
+
+        String content = Files.readString(pom);
+        assertThat(content)
+                .containsOnlyOnce("<artifactId>assertj-core</artifactId>")
+                .containsOnlyOnce("<artifactId>junit-jupiter</artifactId>")
+                .doesNotContain("<version>3.24.1</version>", "<version>5.9.0</version>");
+        assertThat(isChangedBy(() -> AddDependency.execute(pom,
+                Dependency.ofGav("org.assertj:assertj-core:3.24.2").withScope("test").build()))).isFalse();
+        assertThat(isChangedBy(() -> AddDependency.execute(pom,
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withScope("test").build()))).isFalse();
+    }
+
+    @Test
+    void shouldAddTheManagedDependencyWithoutTouchingTheDependencies() throws Throwable {
+
+        AddDependency.execute(pom,
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withType("pom").withScope("import").build(),
+                PomSection.DEPENDENCY_MANAGEMENT,
+                EditEngine.STREAM);
+
+        assertThat(Files.readString(pom))
+                .contains("<dependencyManagement>\n        <dependencies>\n            <dependency>")
+                .contains("<version>5.9.0</version>", "<version>5.9.2</version>", "<scope>import</scope>");
+        assertThat(isChangedBy(() -> AddDependency.execute(pom,
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withType("pom").withScope("import").build(),
+                PomSection.DEPENDENCY_MANAGEMENT,
+                EditEngine.STREAM))).isFalse();
+        assertThat(isChangedBy(() -> AddDependency.execute(pom,
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.0").withScope("test").build()))).isFalse();
+    }
+
+    @Test
+    void shouldUpdateEveryManagedVersionInOnePass() throws Throwable {
+        StringBuilder managed = new StringBuilder();
+        PomEditBatch.PomEditBatchBuilder batch = PomEditBatch.builder();
+        for (int i = 0; i < 300; i++) {
+            managed.append("            <dependency>\n")
+                    .append("                <groupId>org.example</groupId>\n")
+                    .append("                <artifactId>module-").append(i).append("</artifactId>\n")
+                    .append("                <version>1.0.0</version>\n")
+                    .append("            </dependency>\n");
+            batch.withManagedDependency(Dependency.ofGav("org.example:module-" + i + ":1.1.0").build());
+        }
+        modifyPom("<project>\n" +
+                "    <dependencyManagement>\n" +
+                "        <dependencies>\n" +
+                managed +
+                "        </dependencies>\n" +
+                "    </dependencyManagement>\n" +
+                "</project>\n");
+
+        batch.build().execute(new SystemStreamLog(), pom, EditEngine.STREAM);
+
+        assertThat(Files.readString(pom))
+                .doesNotContain("<version>1.0.0</version>")
+                .containsOnlyOnce("<artifactId>module-299</artifactId>\n                <version>1.1.0</version>");
+        assertThat(isChangedBy(() -> batch.build().execute(new SystemStreamLog(), pom))).isFalse();
+    }
+
+    @Test
+    void shouldNotAddDependenciesToAPluginsSection() {
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                AddDependency.addOrUpdateDependencyIfNeeded(Dependency.ofGav("org.example:module:1.0.0").build(), PomSection.PLUGINS));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddPluginTest extends BaseTest {
+
+    @BeforeEach
+    void setup() throws IOException {
+        modifyPom("<project>\n" +
+                "    <build>\n" +
+                "        <plugins>\n" +
+                "            <plugin>\n" +
+                "                <artifactId>maven-compiler-plugin</artifactId>\n" +
+                "                <version>3.10.1</version>\n" +
+                "            </plugin>\n" +
+                "        </plugins>\n" +
+                "    </build>\n" +
+                "</project>\n");
+    }
+
+    @Test
+    void shouldUpdateAPluginDeclaredWithoutGroupId() throws Throwable {
+        Plugin compiler = Plugin.ofGav("org.apache.maven.plugins:maven-compiler-plugin:3.11.0").build();
+
+        assertThat(isChangedBy(() -> AddPlugin.execute(pom, compiler, PomSection.PLUGINS))).isTrue();
+
+        assertThat(Files.readString(pom))
+                .containsOnlyOnce("<artifactId>maven-compiler-plugin</artifactId>")
+                .contains("<version>3.11.0</version>")
+                .doesNotContain("<groupId>", "3.10.1");
+        assertThat(isChangedBy(() -> AddPlugin.execute(pom, compiler, PomSection.PLUGINS))).isFalse();
+    }
+
+    @Test
+    void shouldAddTheManagedPluginKeepingThePluginsSection() throws Throwable {
+        Plugin surefire = Plugin.ofGav("org.apache.maven.plugins:maven-surefire-plugin:3.0.0").build();
+
+        AddPlugin.execute(pom, surefire, PomSection.PLUGIN_MANAGEMENT);
+
+        assertThat(Files.readString(pom))
+                .contains("</plugins>\n        <pluginManagement>\n            <plugins>\n                <plugin>\n" +
+                        "                    <groupId>org.apache.maven.plugins</groupId>\n" +
+                        "                    <artifactId>maven-surefire-plugin</artifactId>\n" +
+                        "                    <version>3.0.0</version>\n")
+                .contains("<version>3.10.1</version>");
+        assertThat(isChangedBy(() -> AddPlugin.execute(pom, surefire, PomSection.PLUGIN_MANAGEMENT))).isFalse();
+    }
+
+    @Test
+    void shouldRemoveThePlugin() throws Throwable {
+        Plugin compiler = Plugin.ofGav("org.apache.maven.plugins:maven-compiler-plugin").build();
+
+        RemovePlugin.execute(pom, compiler, PomSection.PLUGINS);
+
+        assertThat(Files.readString(pom)).doesNotContain("maven-compiler-plugin");
+        assertThat(isChangedBy(() -> RemovePlugin.execute(pom, compiler, PomSection.PLUGINS))).isFalse();
+    }
+
+    @Test
+    void shouldNotAddPluginsToADependenciesSection() {
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                AddPlugin.addOrUpdatePluginIfNeeded(Plugin.ofGav("org.example:plugin:1.0.0").build(), PomSection.DEPENDENCY_MANAGEMENT));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+
+    @Test
+    void shouldFindEveryOverlappingOccurrenceInOnePass() {
+        List<String> patterns = List.of("he", "she", "his", "hers");
+        AhoCorasick automaton = new AhoCorasick(patterns);
+        List<String> found = new ArrayList<>();
+
+        automaton.scan("ushers and his sheep", (pattern, end) ->
+                found.add(patterns.get(pattern) + "@" + (end - automaton.length(pattern))));
+
+        assertThat(found).containsExactly("she@1", "he@2", "hers@2", "his@11", "she@15", "he@16");
+    }
+
+    @Test
+    void shouldFindPatternsWithCharactersOutOfAscii() {
+        List<String> patterns = List.of("${versão}", "ão");
+        AhoCorasick automaton = new AhoCorasick(patterns);
+        List<Integer> found = new ArrayList<>();
+
+        automaton.scan("<v>${versão}</v> não", (pattern, end) -> found.add(pattern));
+
+        assertThat(found).containsExactly(1, 0, 1);
+    }
+
+    @Test
+    void shouldNotAcceptEmptyPatterns() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AhoCorasick(List.of("a", "")));
+    }
+}
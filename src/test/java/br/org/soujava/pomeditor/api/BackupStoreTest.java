@@ -0,0 +1,198 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BackupStoreTest extends BaseTest {
+
+    private static final String POM = "<project>\n    <modelVersion>4.0.0</modelVersion>\n</project>\n";
+
+    private BackupStore store;
+    private List<Path> poms;
+
+    @BeforeEach
+    void setup() throws IOException {
+        store = BackupStore.of(tempDir.resolve("backups"));
+        poms = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            poms.add(Files.writeString(Files.createDirectory(tempDir.resolve("module-" + i)).resolve("pom.xml"), POM));
+        }
+    }
+
+    @Test
+    void shouldStoreEveryDistinctContentOnce() throws IOException {
+        poms.forEach(pom -> assertThat(store.backup(pom, message -> { })).isTrue());
+        assertThat(store.backup(poms.get(0), message -> { })).isFalse();
+
+        assertThat(store.getPoms()).containsExactlyElementsOf(poms);
+        assertThat(store.getBlobCount()).isEqualTo(1);
+        assertThat(Files.list(tempDir.resolve("module-0"))).containsExactly(poms.get(0));
+    }
+
+    @Test
+    void shouldRollBackEveryPomInASinglePass() throws IOException {
+        poms.forEach(pom -> store.backup(pom, message -> { }));
+        Files.writeString(poms.get(0), "changed");
+        Files.writeString(poms.get(2), "changed too");
+
+        assertThat(PomRollback.execute(store)).isEqualTo(2);
+
+        for (Path pom : poms) {
+            assertThat(pom).hasContent(POM);
+        }
+        assertThat(store.getPoms()).isEmpty();
+        assertThat(Files.size(tempDir.resolve("backups").resolve(BackupStore.PACK))).isZero();
+    }
+
+    @Test
+    void shouldBackUpAPomAgainOnceEveryPomIsRolledBack() throws IOException {
+        store.backup(poms.get(0), message -> { });
+        store.backup(poms.get(1), message -> { });
+        Files.writeString(poms.get(0), "changed");
+
+        assertThat(store.rollbackAll()).isEqualTo(1);
+        Files.writeString(poms.get(0), "changed");
+        assertThat(store.backup(poms.get(0), message -> { })).isTrue();
+        Files.writeString(poms.get(0), "changed again");
+        store.rollback(poms.get(0));
+
+        assertThat(poms.get(0)).hasContent("changed");
+        assertThat(store.getPoms()).isEmpty();
+    }
+
+    @Test
+    void shouldCommitEveryPomAtOnce() throws IOException {
+        poms.forEach(pom -> store.backup(pom, message -> { }));
+        Files.writeString(poms.get(1), "changed");
+
+        assertThat(PomCommit.execute(store)).isEqualTo(3);
+
+        assertThat(poms.get(1)).hasContent("changed");
+        assertThat(store.getPoms()).isEmpty();
+        assertThat(store.getBlobCount()).isZero();
+    }
+
+    @Test
+    void shouldRollBackAFailedChange() {
+        Throwable error = new IllegalStateException("failed");
+
+        Throwable thrown = assertThrows(IllegalStateException.class, () -> newPomChangeBuilder()
+                .withPom(poms.get(0))
+                .withBackupStrategy(PomChange.BackupStrategy.of("store", store.getDirectory()))
+                .build()
+                .execute(() -> {
+                    PomChange.beforeWrite(poms.get(0));
+                    Files.writeString(poms.get(0), "half-written");
+                    throw error;
+                }));
+
+        assertThat(thrown).isSameAs(error);
+        assertThat(poms.get(0)).hasContent(POM);
+        assertThat(store.getPoms()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepTheOtherPomsWhenOneIsCommitted() throws IOException {
+        store.backup(poms.get(0), message -> { });
+        Files.writeString(poms.get(1), POM.replace("4.0.0", "4.1.0"));
+        store.backup(poms.get(1), message -> { });
+        Files.writeString(poms.get(0), "changed");
+        Files.writeString(poms.get(1), "changed");
+
+        store.commit(poms.get(0));
+        store.rollback(poms.get(1));
+
+        assertThat(poms.get(0)).hasContent("changed");
+        assertThat(poms.get(1)).hasContent(POM.replace("4.0.0", "4.1.0"));
+        assertThat(store.getPoms()).isEmpty();
+    }
+
+    @Test
+    void shouldReadAnIndexLargerThanAChunk() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            Path module = Files.createDirectories(tempDir.resolve("modules").resolve("module-with-a-rather-long-name-" + i));
+            store.backup(Files.writeString(module.resolve("pom.xml"), POM), message -> { });
+        }
+        BackupStore sameDirectory = BackupStore.of(Files.createSymbolicLink(tempDir.resolve("link"), tempDir.resolve("backups")));
+
+        assertThat(sameDirectory.getPoms()).hasSize(1000);
+        assertThat(sameDirectory.rollbackAll()).isZero();
+        assertThat(store.getPoms()).isEmpty();
+        assertThat(Files.size(tempDir.resolve("backups").resolve(BackupStore.PACK))).isZero();
+    }
+
+    @Test
+    void shouldOpenTheStoreAgainOnceItsDirectoryIsDeleted() throws IOException {
+        store.backup(poms.get(0), message -> { });
+        Path directory = tempDir.resolve("backups");
+        Files.delete(directory.resolve(BackupStore.INDEX));
+        Files.delete(directory.resolve(BackupStore.PACK));
+        Files.delete(directory);
+
+        store.backup(poms.get(1), message -> { });
+        Files.writeString(poms.get(1), "changed");
+
+        assertThat(store.getPoms()).containsExactly(poms.get(1));
+        assertThat(PomRollback.execute(store)).isEqualTo(1);
+        assertThat(poms.get(1)).hasContent(POM);
+    }
+
+    @Test
+    void shouldTruncateATornEntry() throws IOException {
+        store.backup(poms.get(0), message -> { });
+        Path directory = tempDir.resolve("backups");
+        Files.writeString(directory.resolve(BackupStore.PACK), "0123 45", StandardOpenOption.APPEND);
+        Files.writeString(directory.resolve(BackupStore.INDEX), "+ 0123", StandardOpenOption.APPEND);
+
+        assertThat(store.getPoms()).containsExactly(poms.get(0));
+        store.backup(poms.get(1), message -> { });
+        Files.writeString(poms.get(1), "changed");
+        store.rollback(poms.get(1));
+
+        assertThat(poms.get(1)).hasContent(POM);
+        assertThat(store.getPoms()).containsExactly(poms.get(0));
+    }
+
+    @Test
+    void shouldTruncateATornBlobHeader() throws IOException {
+        store.backup(poms.get(0), message -> { });
+        Path directory = tempDir.resolve("backups");
+        long size = Files.size(directory.resolve(BackupStore.PACK));
+        Files.writeString(directory.resolve(BackupStore.PACK), "0123 4x 1\nx", StandardOpenOption.APPEND);
+
+        assertThat(store.getPoms()).containsExactly(poms.get(0));
+        assertThat(directory.resolve(BackupStore.PACK)).hasSize(size);
+        store.backup(poms.get(1), message -> { });
+        Files.writeString(poms.get(1), "changed");
+        store.rollback(poms.get(1));
+
+        assertThat(poms.get(1)).hasContent(POM);
+    }
+}
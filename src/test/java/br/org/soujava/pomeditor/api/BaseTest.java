@@ -40,6 +40,10 @@ public abstract class BaseTest {
                 .withPom(pom);
     }
 
+    boolean isChangedBy(PomChange.Executable edit) throws Throwable {
+        return newPomChangeBuilder().build().execute(edit);
+    }
+
     // utility methods
 
     void modifyPomRandomly() throws IOException {
@@ -47,6 +51,7 @@ public abstract class BaseTest {
     }
 
     void modifyPom(String data) throws IOException {
+        PomChange.beforeWrite(pom);
         Files.writeString(pom, data, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
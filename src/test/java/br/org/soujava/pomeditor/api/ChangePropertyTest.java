@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangePropertyTest extends BaseTest {
+
+    @BeforeEach
+    void setup() throws IOException {
+        modifyPom("<project>\n" +
+                "    <properties>\n" +
+                "        <uncertainty>principal</uncertainty>\n" +
+                "    </properties>\n" +
+                "</project>\n");
+    }
+
+    @Test
+    void shouldNotChangeThePomWhenThePropertyHasTheSameValue() throws Throwable {
+        assertThat(isChangedBy(Property.of("uncertainty", "principal").build())).isFalse();
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldNotChangeThePomWhenThePropertyToBeRemovedDoesNotExist() throws Throwable {
+        assertThat(isChangedBy(Property.of("disappear", null).build())).isFalse();
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldChangeThePomWhenThePropertyHasADifferentValue() throws Throwable {
+        assertThat(isChangedBy(Property.of("uncertainty", "relative").build())).isTrue();
+        assertThat(PomChange.backupFileOf(pom)).exists();
+    }
+
+    @Test
+    void shouldChangeThePomWhenThePropertyDoesNotExist() throws Throwable {
+        assertThat(isChangedBy(Property.of("vanilla", "sky").build())).isTrue();
+    }
+
+    @Test
+    void shouldChangeThePomWhenThePropertyToBeRemovedExists() throws Throwable {
+        assertThat(isChangedBy(Property.of("uncertainty", null).build())).isTrue();
+    }
+
+    private boolean isChangedBy(Property property) throws Throwable {
+        return isChangedBy(() -> ChangeProperty.execute(new SystemStreamLog(), pom, property));
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChangesetTest extends BaseTest {
+
+    @Test
+    void shouldRollBackEveryPomOfTheChangeset() throws Throwable {
+        Path otherPom = newDummyPom();
+        String original = Files.readString(pom);
+        String otherOriginal = Files.readString(otherPom);
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+            change(changeset, otherPom, "edited");
+            changeset.end();
+        }
+
+        assertThat(Changeset.exists(journalDirectory(), "bump")).isTrue();
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            assertThat(changeset.getState()).isEqualTo(Changeset.State.OPEN);
+            assertThat(changeset.getPoms()).containsExactly(pom.toAbsolutePath(), otherPom.toAbsolutePath());
+            assertThat(changeset.rollback()).isEqualTo(2);
+        }
+
+        assertThat(pom).hasContent(original);
+        assertThat(otherPom).hasContent(otherOriginal);
+        assertThat(Changeset.exists(journalDirectory(), "bump")).isFalse();
+    }
+
+    @Test
+    void shouldKeepTheOriginalContentAcrossRuns() throws Throwable {
+        String original = Files.readString(pom);
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "first");
+            changeset.end();
+        }
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "second");
+            changeset.end();
+            changeset.rollback();
+        }
+
+        assertThat(pom).hasContent(original);
+    }
+
+    @Test
+    void shouldCommitTheChangesetAndDeleteItsJournal() throws Throwable {
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+            changeset.end();
+            assertThat(changeset.commit()).isEqualTo(1);
+        }
+
+        assertThat(pom).hasContent("edited");
+        assertThat(Changeset.exists(journalDirectory(), "bump")).isFalse();
+    }
+
+    @Test
+    void shouldRollBackTheFailedPomOnly() throws Throwable {
+        Path otherPom = newDummyPom();
+        String original = Files.readString(otherPom);
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+            assertThrows(IllegalStateException.class, () -> newPomChangeBuilder()
+                    .withPom(otherPom)
+                    .withBackupStrategy(changeset)
+                    .build()
+                    .execute(() -> {
+                        PomChange.beforeWrite(otherPom);
+                        Files.writeString(otherPom, "half edited");
+                        throw new IllegalStateException("forced error");
+                    }));
+            changeset.end();
+        }
+
+        assertThat(pom).hasContent("edited");
+        assertThat(otherPom).hasContent(original);
+    }
+
+    @Test
+    void shouldFlushTheJournalOnceForManyPoms() throws IOException {
+        List<Path> poms = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            poms.add(newDummyPom());
+        }
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            assertThat(changeset.recordAll(poms)).isEqualTo(100);
+            assertThat(changeset.recordAll(poms)).isZero();
+            assertThat(changeset.getSyncs()).isEqualTo(1);
+            assertThat(changeset.backup(poms.get(0), message -> {
+            })).isFalse();
+            assertThat(changeset.getSyncs()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldNotReportAPomAlreadyRecordedAsBackedUp() throws Throwable {
+        String original = Files.readString(pom);
+        List<Path> backups = new ArrayList<>();
+        PomEditListener listener = new PomEditListener() {
+            @Override
+            public void backupCreated(Path pom) {
+                backups.add(pom);
+            }
+        };
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump");
+             PomEditListeners.Registration registration = PomEditListeners.register(listener)) {
+            changeset.begin();
+            change(changeset, pom, "first");
+            Files.writeString(pom, original);
+            change(changeset, pom, "second");
+            assertThat(changeset.backup(pom, message -> {
+            })).isFalse();
+            changeset.end();
+        }
+
+        assertThat(backups).containsExactly(pom);
+    }
+
+    @Test
+    void shouldReadTheContentsLargerThanAChunk() throws Throwable {
+        String original = "<project>" + "x".repeat(200 * 1024) + "</project>";
+        Files.writeString(pom, original);
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+            changeset.end();
+        }
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            assertThat(changeset.getPoms()).containsExactly(pom.toAbsolutePath());
+            assertThat(changeset.rollback()).isEqualTo(1);
+        }
+
+        assertThat(pom).hasContent(original);
+    }
+
+    @Test
+    void shouldRollBackAnInterruptedRun() throws Throwable {
+        String original = Files.readString(pom);
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+            // the run dies before it ends
+        }
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            assertThat(changeset.getState()).isEqualTo(Changeset.State.RUNNING);
+            assertThrows(IllegalStateException.class, changeset::begin);
+            assertThrows(IllegalStateException.class, changeset::commit);
+        }
+        Map<String, Changeset.State> recovered = Changeset.recover(journalDirectory());
+
+        assertThat(recovered).containsExactly(Map.entry("bump", Changeset.State.RUNNING));
+        assertThat(pom).hasContent(original);
+        assertThat(Changeset.exists(journalDirectory(), "bump")).isFalse();
+    }
+
+    @Test
+    void shouldCompleteAnInterruptedCommit() throws Throwable {
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+            changeset.end();
+        }
+        Files.write(journalDirectory().resolve("bump").resolve(Changeset.JOURNAL),
+                "COMMIT\n".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        assertThat(Changeset.recover(journalDirectory())).containsExactly(Map.entry("bump", Changeset.State.COMMITTING));
+        assertThat(pom).hasContent("edited");
+    }
+
+    @Test
+    void shouldIgnoreTheTornEntryOfACrash() throws Throwable {
+        String original = Files.readString(pom);
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            changeset.begin();
+            change(changeset, pom, "edited");
+        }
+        Files.write(journalDirectory().resolve("bump").resolve(Changeset.JOURNAL),
+                "FILE 1234 10 2000\n/tmp".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        try (Changeset changeset = Changeset.open(journalDirectory(), "bump")) {
+            assertThat(changeset.getPoms()).containsExactly(pom.toAbsolutePath());
+            changeset.rollback();
+        }
+
+        assertThat(pom).hasContent(original);
+    }
+
+    @Test
+    void shouldNotOpenAChangesetLockedByAnotherProcess() throws IOException {
+        Path journal = journalDirectory().resolve("bump").resolve(Changeset.JOURNAL);
+        Files.createDirectories(journal.getParent());
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            assertThrows(IllegalStateException.class, () -> Changeset.open(journalDirectory(), "bump"));
+        }
+    }
+
+    @Test
+    void shouldShareTheChangesetAmongTheRunsOfTheSameJvm() throws Throwable {
+        Changeset first = Changeset.open(journalDirectory(), "bump");
+        Changeset second = Changeset.open(journalDirectory(), "bump");
+        assertThat(second).isSameAs(first);
+
+        first.begin();
+        second.begin();
+        change(second, pom, "edited");
+        first.end();
+        first.close();
+
+        assertThat(Changeset.recover(journalDirectory())).isEmpty();
+        assertThat(second.getState()).isEqualTo(Changeset.State.RUNNING);
+        second.end();
+        second.close();
+
+        try (Changeset reopened = Changeset.open(journalDirectory(), "bump")) {
+            assertThat(reopened).isNotSameAs(first);
+            assertThat(reopened.getState()).isEqualTo(Changeset.State.OPEN);
+            assertThat(reopened.getPoms()).containsExactly(pom.toAbsolutePath());
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidNames() {
+        assertThrows(IllegalArgumentException.class, () -> Changeset.open(journalDirectory(), "../bump"));
+    }
+
+    private Path journalDirectory() {
+        return tempDir.resolve("journal");
+    }
+
+    private void change(Changeset changeset, Path target, String content) throws Throwable {
+        newPomChangeBuilder()
+                .withPom(target)
+                .withBackupStrategy(changeset)
+                .build()
+                .execute(() -> {
+                    PomChange.beforeWrite(target);
+                    Files.writeString(target, content);
+                });
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DurabilityTest extends BaseTest {
+
+    @Test
+    void shouldBeFoundByItsName() {
+        assertThat(Durability.of("none")).isEqualTo(Durability.NONE);
+        assertThat(Durability.of(" file ")).isEqualTo(Durability.FILE);
+        assertThat(Durability.of("directory")).isEqualTo(Durability.DIRECTORY);
+        assertThat(Durability.of(null)).isEqualTo(Durability.FILE);
+        assertThrows(IllegalArgumentException.class, () -> Durability.of("eventually"));
+    }
+
+    @Test
+    void shouldApplyToTheCurrentThreadUntilItsScopeIsClosed() {
+        assertThat(Durability.current()).isEqualTo(Durability.FILE);
+        try (Durability.Scope outer = Durability.NONE.apply()) {
+            try (Durability.Scope inner = Durability.DIRECTORY.apply()) {
+                assertThat(Durability.current()).isEqualTo(Durability.DIRECTORY);
+            }
+            assertThat(Durability.current()).isEqualTo(Durability.NONE);
+        }
+        assertThat(Durability.current()).isEqualTo(Durability.FILE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Durability.class)
+    void shouldReplaceThePomWithoutLeftovers(Durability durability) throws Throwable {
+        newPomChangeBuilder()
+                .withBackupStrategy(PomChange.BackupStrategy.inMemory())
+                .withDurability(durability)
+                .build()
+                .execute(() -> PomEditor.write(pom, "edited".getBytes()));
+
+        assertThat(pom).hasContent("edited");
+        assertThat(workFiles()).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceAReadOnlyPom() throws Throwable {
+        Files.setPosixFilePermissions(pom, PosixFilePermissions.fromString("r--r--r--"));
+
+        try (Durability.Scope scope = Durability.DIRECTORY.apply()) {
+            PomEditor.write(pom, "edited".getBytes());
+        }
+
+        assertThat(pom).hasContent("edited");
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(pom))).isEqualTo("r--r--r--");
+    }
+
+    private List<String> workFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".tmp"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class EditExecutorTest {
+
+    @TempDir
+    Path tempDir;
+
+    static List<Path> poms(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Paths.get("module-" + i, "pom.xml"))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldRunEveryEditInOrderWithinTheConcurrencyCap() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Path> poms = poms(32);
+
+        List<String> results;
+        try (EditExecutor executor = EditExecutor.create(EditExecutor.Threads.PLATFORM, 3, null)) {
+            results = executor.runAll(poms, pom -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return pom.toString();
+            }, (pom, error) -> "failed");
+        }
+
+        assertThat(results).containsExactlyElementsOf(poms.stream().map(Path::toString).collect(Collectors.toList()));
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void shouldReportTheFailedEdits() throws Exception {
+        List<Path> poms = poms(3);
+
+        List<String> results;
+        try (EditExecutor executor = EditExecutor.create(EditExecutor.Threads.AUTO, 0, null)) {
+            results = executor.runAll(poms, pom -> {
+                if (pom.equals(poms.get(1))) {
+                    throw new IllegalStateException("forced error");
+                }
+                return "ok";
+            }, (pom, error) -> error.getMessage());
+        }
+
+        assertThat(results).containsExactly("ok", "forced error", "ok");
+    }
+
+    @Test
+    void shouldInterruptTheTimedOutEdits() throws Exception {
+        List<Path> poms = poms(3);
+
+        List<Object> results;
+        try (EditExecutor executor = EditExecutor.create(EditExecutor.Threads.PLATFORM, 1, Duration.ofMillis(200))) {
+            results = executor.runAll(poms, pom -> {
+                if (pom.equals(poms.get(0))) {
+                    try {
+                        Thread.sleep(30_000);
+                    } catch (InterruptedException ex) {
+                        return "interrupted";
+                    }
+                }
+                // the same single thread runs the next edits, which must not see the interrupt of the timed out one
+                return Thread.currentThread().isInterrupted() ? "still interrupted" : "ok";
+            }, (pom, error) -> error);
+        }
+
+        assertThat(results.get(0)).isInstanceOf(TimeoutException.class);
+        assertThat(((TimeoutException) results.get(0)).getMessage()).contains(poms.get(0).toString(), "timed out after 200 ms");
+        assertThat(results.subList(1, 3)).containsExactly("ok", "ok");
+    }
+
+    @Test
+    void shouldNotInterruptTheRollbackOfATimedOutEdit() throws Exception {
+        Path pom = Files.writeString(tempDir.resolve("pom.xml"), "<project/>\n");
+        AtomicBoolean interruptedRollback = new AtomicBoolean();
+
+        List<Object> results;
+        try (EditExecutor executor = EditExecutor.create(EditExecutor.Threads.PLATFORM, 1, Duration.ofMillis(100))) {
+            results = executor.runAll(List.of(pom), target -> change(target, rolledBack -> {
+                interruptedRollback.set(Thread.currentThread().isInterrupted());
+                // an interruptible channel write, as the ones of the rollbacks
+                PomEditor.write(rolledBack, "<project/>\n".getBytes(StandardCharsets.UTF_8));
+            }, () -> {
+                // as an interruptible channel operation does, the edit fails while its thread stays interrupted
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.onSpinWait();
+                }
+                throw new ClosedByInterruptException();
+            }), (target, error) -> error);
+        }
+
+        assertThat(results.get(0)).isInstanceOf(TimeoutException.class);
+        assertThat(interruptedRollback).isFalse();
+        assertThat(Files.readString(pom)).isEqualTo("<project/>\n");
+    }
+
+    @Test
+    void shouldReportTheCommittedEditsOnTheirOutcome() throws Exception {
+        Path pom = Files.writeString(tempDir.resolve("pom.xml"), "<project/>\n");
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        List<Object> results;
+        try (EditExecutor executor = EditExecutor.create(EditExecutor.Threads.PLATFORM, 1, Duration.ofMillis(100))) {
+            results = executor.runAll(List.of(pom), target -> change(target, rolledBack -> {
+            }, () -> {
+                PomEditor.write(target, "<project><modelVersion>4.0.0</modelVersion></project>\n".getBytes(StandardCharsets.UTF_8));
+                try {
+                    // the POM file is renamed into place: the timeout no longer interrupts the end of the edit
+                    Thread.sleep(500);
+                } catch (InterruptedException ex) {
+                    interrupted.set(true);
+                }
+            }), (target, error) -> error);
+        }
+
+        assertThat(results).containsExactly("ok");
+        assertThat(interrupted).isFalse();
+        assertThat(Files.readString(pom)).contains("<modelVersion>4.0.0</modelVersion>");
+    }
+
+    private static Object change(Path pom, Consumer<Path> rollbackFunction, PomChange.Executable executable) {
+        try {
+            PomChange.builder()
+                    .withPom(pom)
+                    .withBackupFunction(target -> true)
+                    .withRollbackFunction(rollbackFunction)
+                    .build()
+                    .execute(executable);
+            return "ok";
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    void shouldUsePlatformThreadsIfVirtualThreadsAreNotSupported() {
+        assumeFalse(EditExecutor.isVirtualThreadsSupported());
+
+        try (EditExecutor executor = EditExecutor.create(EditExecutor.Threads.AUTO, 0, null)) {
+            assertThat(executor.isVirtual()).isFalse();
+            assertThat(executor.getConcurrency()).isEqualTo(Runtime.getRuntime().availableProcessors());
+        }
+        assertThatThrownBy(() -> EditExecutor.create(EditExecutor.Threads.VIRTUAL, 0, null))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+
+        assertThat(EditExecutor.Threads.of(null)).isEqualTo(EditExecutor.Threads.AUTO);
+        assertThat(EditExecutor.Threads.of("virtual")).isEqualTo(EditExecutor.Threads.VIRTUAL);
+        assertThatThrownBy(() -> EditExecutor.Threads.of("green")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EditExecutor.create(EditExecutor.Threads.PLATFORM, 1, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EditManifestTest extends BaseTest {
+
+    @Test
+    void shouldReadACsvManifest() throws IOException {
+        Path manifest = Files.writeString(tempDir.resolve("edits.csv"), "pom,gav,scope,property,value\r\n" +
+                "a/pom.xml,org.junit.jupiter:junit-jupiter:5.9.2,test,,\r\n" +
+                "\"b/pom, with comma.xml\",,,java.version,17\r\n" +
+                "\n" +
+                "b/pom.xml,,,obsolete,\n");
+
+        List<EditManifest.Entry> entries = read(manifest);
+
+        assertThat(entries).hasSize(3);
+        assertThat(entries.get(0).getPom()).isEqualTo(tempDir.resolve("a/pom.xml"));
+        assertThat(entries.get(0).getLine()).isEqualTo(2);
+        assertThat(entries.get(0).getDependency()).isEqualTo(Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").withScope("test").build());
+        assertThat(entries.get(1).getPom()).isEqualTo(tempDir.resolve("b/pom, with comma.xml"));
+        assertThat(entries.get(1).getProperty()).isEqualTo(Property.of("java.version", "17").build());
+        assertThat(entries.get(2).getLine()).isEqualTo(5);
+        assertThat(entries.get(2).getProperty()).isEqualTo(Property.of("obsolete", null).build());
+    }
+
+    @Test
+    void shouldReadAJsonArrayManifest() throws IOException {
+        Path manifest = Files.writeString(tempDir.resolve("edits.json"), "[\n" +
+                "  {\"pom\": \"a/pom.xml\", \"gav\": \"junit:junit:4.13\", \"type\": \"jar\", \"classifier\": null},\n" +
+                "  {\"pom\": \"a/pom.xml\", \"property\": \"name\", \"value\": \"\\\"quoted\\\" \\u00e9\"}\n" +
+                "]\n");
+
+        List<EditManifest.Entry> entries = read(manifest);
+
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).getDependency()).isEqualTo(Dependency.ofGav("junit:junit:4.13").withType("jar").build());
+        assertThat(entries.get(1).getLine()).isEqualTo(3);
+        assertThat(entries.get(1).getProperty()).isEqualTo(Property.of("name", "\"quoted\" \u00e9").build());
+    }
+
+    @Test
+    void shouldReadAJsonLinesManifest() throws IOException {
+        Path manifest = Files.writeString(tempDir.resolve("edits.jsonl"),
+                "{\"pom\": \"a/pom.xml\", \"gav\": \"junit:junit:4.13\"}\n" +
+                        "{\"pom\": \"b/pom.xml\", \"property\": \"java.version\", \"value\": \"17\"}\n");
+
+        assertThat(read(manifest))
+                .extracting(EditManifest.Entry::getPom)
+                .containsExactly(tempDir.resolve("a/pom.xml"), tempDir.resolve("b/pom.xml"));
+    }
+
+    @Test
+    void shouldResolveTheRelativePomsAgainstTheManifestDirectory() throws IOException {
+        Path other = Files.createDirectories(tempDir.resolve("other"));
+        Path manifest = Files.writeString(Files.createDirectories(tempDir.resolve("manifests")).resolve("edits.jsonl"),
+                "{\"pom\": \"../a/pom.xml\", \"property\": \"java.version\", \"value\": \"17\"}\n" +
+                        "{\"pom\": \"" + other.resolve("pom.xml") + "\", \"property\": \"java.version\", \"value\": \"17\"}\n");
+
+        assertThat(read(manifest))
+                .extracting(entry -> entry.getPom().normalize())
+                .containsExactly(tempDir.resolve("a/pom.xml"), other.resolve("pom.xml"));
+    }
+
+    @Test
+    void shouldReportTheLineOfAnInvalidEntry() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("edits.csv"), "pom,gav\na/pom.xml,junit:junit:4.13\nb/pom.xml,junit\n");
+        Path json = Files.writeString(tempDir.resolve("edits.json"), "{\"pom\": \"a/pom.xml\", \"gav\": \"junit:junit:4.13\"}\n" +
+                "{\"pom\": \"a/pom.xml\"}\n");
+        List<EditManifest.Entry> entries = new ArrayList<>();
+
+        assertThatThrownBy(() -> EditManifest.read(csv, entries::add))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith(csv + ":3: ");
+        assertThatThrownBy(() -> EditManifest.read(json, entries::add))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(json + ":2: either gav or property is required");
+        assertThat(entries).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectUnknownFields() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("edits.csv"), "pom,version\n");
+
+        assertThatThrownBy(() -> EditManifest.read(csv, entry -> {
+        }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown column 'version'");
+    }
+
+    private List<EditManifest.Entry> read(Path manifest) {
+        List<EditManifest.Entry> entries = new ArrayList<>();
+        EditManifest.read(manifest, entries::add);
+        return entries;
+    }
+}
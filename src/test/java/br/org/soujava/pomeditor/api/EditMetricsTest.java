@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EditMetricsTest extends BaseTest {
+
+    EditMetrics metrics = new EditMetrics();
+
+    @BeforeEach
+    void writePom() throws IOException {
+        modifyPom("<project>\n" +
+                "    <modelVersion>4.0.0</modelVersion>\n" +
+                "    <properties>\n" +
+                "        <java.version>11</java.version>\n" +
+                "    </properties>\n" +
+                "</project>\n");
+    }
+
+    @ParameterizedTest
+    @EnumSource(EditEngine.class)
+    void shouldMeasureTheChange(EditEngine engine) throws Throwable {
+
+        newPomChangeBuilder()
+                .withMetrics(metrics)
+                .build()
+                .execute(() -> AddDependency.execute(pom, Dependency.ofGav("junit:junit:4.13").build(), engine));
+
+        assertThat(metrics.getPoms()).singleElement().satisfies(measured -> {
+            assertThat(measured.getPom()).isEqualTo(pom.toAbsolutePath().normalize());
+            assertThat(measured.getEdits()).isEqualTo(1);
+            assertThat(measured.getBytesWritten()).isEqualTo(Files.size(pom));
+            assertThat(measured.getNanos(EditMetrics.Phase.PARSE)).isPositive();
+            assertThat(measured.getNanos(EditMetrics.Phase.TRANSFORM)).isPositive();
+            assertThat(measured.getNanos(EditMetrics.Phase.WRITE)).isPositive();
+            assertThat(measured.getNanos(EditMetrics.Phase.BACKUP)).isPositive();
+            assertThat(measured.getNanos(EditMetrics.Phase.ROLLBACK)).isZero();
+            assertThat(measured.getTotalNanos()).isGreaterThanOrEqualTo(measured.getNanos(EditMetrics.Phase.PARSE)
+                    + measured.getNanos(EditMetrics.Phase.TRANSFORM)
+                    + measured.getNanos(EditMetrics.Phase.WRITE));
+        });
+        assertThat(metrics.summary()).startsWith("1 POM file(s) edited in ");
+    }
+
+    @Test
+    void shouldMeasureTheRollback() {
+
+        assertThatThrownBy(() -> newPomChangeBuilder()
+                .withMetrics(metrics)
+                .build()
+                .execute(() -> {
+                    ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("java.version", "17").build());
+                    throw new IllegalStateException("failed");
+                }))
+                .hasMessage("failed");
+
+        assertThat(metrics.getPoms()).singleElement().satisfies(measured -> {
+            assertThat(measured.getNanos(EditMetrics.Phase.ROLLBACK)).isPositive();
+            assertThat(measured.getBytesWritten()).isPositive();
+        });
+        assertThat(pom).content().contains("<java.version>11</java.version>");
+    }
+
+    @Test
+    void shouldNotMeasureOutsideOfAScope() {
+
+        ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("java.version", "17").build());
+
+        assertThat(metrics.isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldWriteTheMetricsAsJsonOrCsv() throws Throwable {
+        newPomChangeBuilder()
+                .withMetrics(metrics)
+                .build()
+                .execute(() -> ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("java.version", "17").build()));
+        Path json = tempDir.resolve("metrics.json");
+        Path csv = tempDir.resolve("metrics.csv");
+
+        metrics.writeTo(json);
+        metrics.writeTo(csv);
+
+        assertThat(json).content()
+                .startsWith("{\n  \"poms\": [\n    {\"pom\": \"")
+                .contains("\"parseNanos\": ", "\"bytesWritten\": " + Files.size(pom))
+                .endsWith("}\n  ]\n}\n");
+        List<String> lines = Files.readAllLines(csv);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).isEqualTo("pom,edits,total_ns,parse_ns,transform_ns,serialize_ns,write_ns,backup_ns,rollback_ns,bytes_written,allocated_bytes");
+        assertThat(lines.get(1)).startsWith(pom.toAbsolutePath().normalize() + ",1,").endsWith("," + Files.size(pom) + "," + metrics.getPoms().get(0).getAllocatedBytes());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import br.org.soujava.pomeditor.InvalidGroupIdArtifactIdArgs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PluginTest {
+
+    @DisplayName("should return error when")
+    @ParameterizedTest(name = "groupId={0}, artifactId={1}")
+    @ArgumentsSource(InvalidGroupIdArtifactIdArgs.class)
+    void shouldReturnErrorsForInvalidRequiredParameters(final String groupId,
+                                                        final String artifactId) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            var gav = Arrays.stream(new String[]{groupId, artifactId})
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.joining(":"));
+            Plugin.ofGav(gav).build();
+        });
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            Plugin.builder()
+                    .withGroupId(groupId)
+                    .withArtifactId(artifactId).build();
+        });
+    }
+
+    @Test
+    void shouldParseTheGav() {
+        Plugin plugin = Plugin.ofGav("org.apache.maven.plugins:maven-compiler-plugin:3.11.0").build();
+
+        assertThat(plugin.getGroupId()).isEqualTo("org.apache.maven.plugins");
+        assertThat(plugin.getArtifactId()).isEqualTo("maven-compiler-plugin");
+        assertThat(plugin.getVersion()).isEqualTo("3.11.0");
+        assertThat(Plugin.ofGav("org.apache.maven.plugins:maven-compiler-plugin").build().getVersion()).isNull();
+    }
+}
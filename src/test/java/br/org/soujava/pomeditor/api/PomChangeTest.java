@@ -29,6 +29,7 @@ import static br.org.soujava.pomeditor.CheckSum.checksum;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -53,7 +54,7 @@ class PomChangeTest extends BaseTest {
 
             newPomChangeBuilder().build()
                     .execute(() -> {
-                        // do something here
+                        modifyPomRandomly();
                     });
             assertTrue(backupPom.toFile().exists());
             assertEquals(expectedCheckSum, checksum(backupPom));
@@ -120,5 +121,122 @@ class PomChangeTest extends BaseTest {
 
     }
 
+    @Nested
+    class WithLinkBackupStrategy {
+
+        Path backupPom;
+        String expectedCheckSum;
+
+        @BeforeEach
+        void setup() throws IOException, NoSuchAlgorithmException {
+            createTempDirAndPom();
+            modifyPom("<project>\n    <modelVersion>4.0.0</modelVersion>\n</project>\n");
+            this.backupPom = PomChange.backupFileOf(pom);
+            this.expectedCheckSum = checksum(pom);
+        }
+
+        @Test
+        void shouldKeepTheOriginalContentAsBackup() throws Throwable {
+
+            newPomChangeBuilder()
+                    .withBackupStrategy(PomChange.BackupStrategy.link())
+                    .build()
+                    .execute(() -> AddDependency.execute(pom, Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").build()));
+
+            assertTrue(backupPom.toFile().exists());
+            assertEquals(expectedCheckSum, checksum(backupPom));
+            assertNotEquals(expectedCheckSum, checksum(pom));
+        }
+
+        @Test
+        void shouldRollbackOnErrors() throws IOException, NoSuchAlgorithmException {
+
+            assertThrows(Throwable.class, () -> {
+                newPomChangeBuilder()
+                        .withBackupStrategy(PomChange.BackupStrategy.link())
+                        .build().execute(() -> {
+                            AddDependency.execute(pom, Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").build());
+                            throw new RuntimeException("forced error");
+                        });
+            });
+
+            assertFalse(backupPom.toFile().exists());
+            assertEquals(expectedCheckSum, checksum(pom));
+        }
+
+        @Test
+        void shouldRemoveTheBackupOnRollbackOfAnUntouchedPom() throws IOException, NoSuchAlgorithmException {
+
+            assertThrows(Throwable.class, () -> {
+                newPomChangeBuilder()
+                        .withBackupStrategy(PomChange.BackupStrategy.link())
+                        .build().execute(() -> {
+                            throw new RuntimeException("forced error");
+                        });
+            });
+
+            assertFalse(backupPom.toFile().exists());
+            assertEquals(expectedCheckSum, checksum(pom));
+        }
+    }
+
+    @Nested
+    class WithInMemoryBackupStrategy {
+
+        Path backupPom;
+
+        @BeforeEach
+        void setup() throws IOException {
+            createTempDirAndPom();
+            this.backupPom = PomChange.backupFileOf(pom);
+        }
+
+        @Test
+        void shouldNotCreateBackupFile() throws Throwable {
+
+            newPomChangeBuilder()
+                    .withBackupStrategy(PomChange.BackupStrategy.inMemory())
+                    .build()
+                    .execute(() -> modifyPomRandomly());
+
+            assertFalse(backupPom.toFile().exists());
+        }
+
+        @Test
+        void shouldRollbackOnErrors() throws IOException, NoSuchAlgorithmException {
+            var expectedCheckSum = checksum(pom);
+
+            assertThrows(Throwable.class, () -> {
+                newPomChangeBuilder()
+                        .withBackupStrategy(PomChange.BackupStrategy.inMemory())
+                        .build().execute(() -> {
+                            modifyPomRandomly();
+                            throw new RuntimeException("forced error");
+                        });
+            });
+
+            assertFalse(backupPom.toFile().exists());
+            assertEquals(expectedCheckSum, checksum(pom));
+        }
+
+        @Test
+        void shouldReleaseTheBackupOnceTheChangeSucceeds() throws Throwable {
+            var expectedCheckSum = checksum(pom);
+
+            newPomChangeBuilder()
+                    .withBackupStrategy(PomChange.BackupStrategy.inMemory())
+                    .build()
+                    .execute(() -> modifyPomRandomly());
+            PomChange.BackupStrategy.of("memory").rollback(pom);
+
+            assertSame(PomChange.BackupStrategy.inMemory(), PomChange.BackupStrategy.of("memory"));
+            assertNotEquals(expectedCheckSum, checksum(pom));
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownBackupStrategies() {
+        assertThrows(IllegalArgumentException.class, () -> PomChange.BackupStrategy.of("zip"));
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PomEditBatchTest extends BaseTest {
+
+    @Test
+    void shouldApplyEveryEditInOnePass() throws IOException {
+
+        modifyPom("<project>\n" +
+                "    <modelVersion>4.0.0</modelVersion>\n" +
+                "    <properties>\n" +
+                "        <disappear>true</disappear>\n" +
+                "    </properties>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>5.9.0</version>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+
+        PomEditBatch.builder()
+                .withDependency(Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").build())
+                .withDependency(Dependency.ofGav("org.assertj:assertj-core:3.24.2").withScope("test").build())
+                .withProperty(Property.of("vanilla", "sky").build())
+                .withProperty(Property.of("disappear", null).build())
+                .build()
+                .execute(new SystemStreamLog(), pom);
+
+        String content = Files.readString(pom);
+        assertThat(content)
+                .contains("<version>5.9.2</version>")
+                .doesNotContain("<version>5.9.0</version>")
+                .contains("<artifactId>assertj-core</artifactId>")
+                .contains("<vanilla>sky</vanilla>")
+                .doesNotContain("<disappear>");
+    }
+
+    @Test
+    void shouldNotTouchThePomWhenThereIsNoEdit() throws IOException {
+
+        String expected = Files.readString(pom);
+
+        PomEditBatch batch = PomEditBatch.builder().build();
+        batch.execute(new SystemStreamLog(), pom);
+
+        assertThat(batch.isEmpty()).isTrue();
+        assertThat(Files.readString(pom)).isEqualTo(expected);
+    }
+
+}
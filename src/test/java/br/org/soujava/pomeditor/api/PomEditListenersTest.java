@@ -0,0 +1,321 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PomEditListenersTest extends BaseTest {
+
+    private static final String POM = "<project>\n" +
+            "    <modelVersion>4.0.0</modelVersion>\n" +
+            "    <properties>\n" +
+            "        <java.version>11</java.version>\n" +
+            "    </properties>\n" +
+            "</project>\n";
+
+    @Test
+    void shouldNotifyEveryStepOfAChange() throws Throwable {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            newPomChangeBuilder()
+                    .build()
+                    .execute(() -> {
+                        ChangeProperty.execute(mock(Log.class), pom, Property.of("java.version", "17").build());
+                        ChangeProperty.execute(mock(Log.class), pom, Property.of("skipTests", "true").build());
+                        ChangeProperty.execute(mock(Log.class), pom, Property.of("java.version", null).build());
+                    });
+        }
+
+        assertThat(recorder.events).containsExactly(
+                "updated " + pom + " /project/properties/java.version=17",
+                "backup " + pom,
+                "written " + pom,
+                "added " + pom + " /project/properties/skipTests=true",
+                "written " + pom,
+                "removed " + pom + " /project/properties/java.version",
+                "written " + pom);
+    }
+
+    @Test
+    void shouldNotifyTheStreamedEditsOnce() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+        Dependency junit = Dependency.ofGav("junit:junit:4.13").build();
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            ChangeProperty.execute(mock(Log.class), pom, Property.of("java.version", "17").build(), EditEngine.STREAM);
+            // there's no dependencies element to splice the dependency into, so it falls back to the DOM engine
+            AddDependency.execute(pom, junit, EditEngine.STREAM);
+            AddDependency.execute(pom, Dependency.ofGav("junit:junit:4.13.2").build(), EditEngine.STREAM);
+        }
+
+        String declaration = " /project/dependencies/dependency[junit:junit]";
+        assertThat(recorder.events).containsExactly(
+                "updated " + pom + " /project/properties/java.version=17",
+                "written " + pom,
+                "added " + pom + " /project/dependencies/dependency[junit:junit]=null",
+                "added " + pom + declaration + "/groupId=junit",
+                "added " + pom + declaration + "/artifactId=junit",
+                "added " + pom + declaration + "/version=4.13",
+                "written " + pom,
+                "updated " + pom + declaration + "/version=4.13.2",
+                "written " + pom);
+    }
+
+    @Test
+    void shouldNotifyThePluginAndDependencyEdits() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+        Plugin jar = Plugin.ofGav("org.apache.maven.plugins:maven-jar-plugin:3.3.0").build();
+        Dependency junit = Dependency.ofGav("junit:junit:4.13").build();
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            AddPlugin.execute(pom, jar, PomSection.PLUGINS);
+            RemovePlugin.execute(pom, jar, PomSection.PLUGINS);
+            AddDependency.execute(pom, junit, PomSection.DEPENDENCY_MANAGEMENT, EditEngine.DOM);
+            RemoveDependency.execute(pom, junit, PomSection.DEPENDENCY_MANAGEMENT);
+        }
+
+        String plugin = " /project/build/plugins/plugin[org.apache.maven.plugins:maven-jar-plugin]";
+        String dependency = " /project/dependencyManagement/dependencies/dependency[junit:junit]";
+        assertThat(recorder.events).containsExactly(
+                "added " + pom + plugin + "=null",
+                "added " + pom + plugin + "/groupId=org.apache.maven.plugins",
+                "added " + pom + plugin + "/artifactId=maven-jar-plugin",
+                "added " + pom + plugin + "/version=3.3.0",
+                "written " + pom,
+                "removed " + pom + plugin,
+                "written " + pom,
+                "added " + pom + dependency + "=null",
+                "added " + pom + dependency + "/groupId=junit",
+                "added " + pom + dependency + "/artifactId=junit",
+                "added " + pom + dependency + "/version=4.13",
+                "written " + pom,
+                "removed " + pom + dependency,
+                "written " + pom);
+    }
+
+    @Test
+    void shouldNotNotifyThePreviewedEdits() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            PomEditBatch.builder()
+                    .withProperty(Property.of("java.version", "17").build())
+                    .build()
+                    .preview(mock(Log.class), pom, POM.getBytes(StandardCharsets.UTF_8), EditEngine.STREAM);
+        }
+
+        assertThat(recorder.events).isEmpty();
+    }
+
+    @Test
+    void shouldNotifyTheRollbackOfAFailedChange() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            assertThrows(IllegalStateException.class, () -> newPomChangeBuilder()
+                    .build()
+                    .execute(() -> {
+                        modifyPom("changed");
+                        throw new IllegalStateException("failed");
+                    }));
+        }
+
+        assertThat(recorder.events).containsExactly("backup " + pom, "rolled back " + pom);
+        assertThat(pom).hasContent(POM);
+    }
+
+    @Test
+    void shouldNotifyOnlyTheValuesThatChange() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+        Dependency junit = Dependency.ofGav("junit:junit:4.13").build();
+        AddDependency.execute(pom, junit, EditEngine.DOM);
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            ChangeProperty.execute(mock(Log.class), pom, Property.of("java.version", "11").build(), EditEngine.DOM);
+            ChangeProperty.execute(mock(Log.class), pom, Property.of("java.version", "11").build(), EditEngine.STREAM);
+            AddDependency.execute(pom, junit, EditEngine.STREAM);
+        }
+
+        assertThat(recorder.events).isEmpty();
+    }
+
+    @Test
+    void shouldNotNotifyTheDeclarationsAlreadyUpToDate() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+        Dependency junit = Dependency.ofGav("junit:junit:4.13").withScope("test").build();
+        Plugin jar = Plugin.ofGav("org.apache.maven.plugins:maven-jar-plugin:3.3.0").build();
+        AddDependency.execute(pom, junit, EditEngine.DOM);
+        AddPlugin.execute(pom, jar, PomSection.PLUGINS);
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            AddDependency.execute(pom, junit, EditEngine.DOM);
+            AddPlugin.execute(pom, jar, PomSection.PLUGINS);
+            AddDependency.execute(pom, Dependency.ofGav("junit:junit:4.13.2").withScope("test").build(), EditEngine.DOM);
+        }
+
+        assertThat(recorder.events).containsExactly(
+                "updated " + pom + " /project/dependencies/dependency[junit:junit]/version=4.13.2",
+                "written " + pom);
+    }
+
+    @Test
+    void shouldNotifyOnlyTheWriteOfACachedEdit() throws Throwable {
+        modifyPom(POM);
+        Path other = newDummyPom();
+        Files.writeString(other, POM);
+        TransformationCache cache = new TransformationCache(tempDir.resolve("cache"), 1024 * 1024, "1.0.0");
+        Recorder recorder = new Recorder();
+
+        try (PomEditListeners.Registration registration = PomEditListeners.register(recorder)) {
+            for (Path target : new Path[]{pom, other}) {
+                cache.lookup(target, "java.version=17")
+                        .apply(() -> ChangeProperty.execute(mock(Log.class), target, Property.of("java.version", "17").build()));
+            }
+        }
+
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(recorder.events).containsExactly(
+                "updated " + pom + " /project/properties/java.version=17",
+                "written " + pom,
+                "written " + other);
+    }
+
+    @Test
+    void shouldRollBackAndNotifyTheOtherListenersIfAListenerThrows() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+        PomEditListener failing = new PomEditListener() {
+            @Override
+            public void rolledBack(Path pom) {
+                throw new IllegalStateException("failed to listen");
+            }
+        };
+
+        try (PomEditListeners.Registration first = PomEditListeners.register(failing);
+             PomEditListeners.Registration second = PomEditListeners.register(recorder)) {
+            assertThrows(IllegalStateException.class, () -> newPomChangeBuilder()
+                    .build()
+                    .execute(() -> {
+                        modifyPom("changed");
+                        throw new IllegalStateException("failed");
+                    }));
+        }
+
+        assertThat(recorder.events).containsExactly("backup " + pom, "rolled back " + pom);
+        assertThat(pom).hasContent(POM);
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldStopNotifyingOnceUnregistered() throws IOException {
+        modifyPom(POM);
+        Recorder recorder = new Recorder();
+
+        PomEditListeners.register(recorder).close();
+        ChangeProperty.execute(mock(Log.class), pom, Property.of("java.version", "17").build());
+
+        assertThat(recorder.events).isEmpty();
+        assertThat(PomEditListeners.current()).isSameAs(PomEditListeners.none());
+    }
+
+    @Test
+    void shouldFormatTheDebugMessagesOnlyIfTheyAreEnabled() throws IOException {
+        modifyPom(POM);
+        Log disabled = mock(Log.class);
+        Log enabled = mock(Log.class);
+        when(enabled.isDebugEnabled()).thenReturn(true);
+
+        ChangeProperty.execute(disabled, pom, Property.of("java.version", "17").build());
+        ChangeProperty.execute(enabled, pom, Property.of("java.version", "21").build());
+
+        verify(disabled, never()).debug(anyString());
+        verify(enabled).debug("updated /project/properties/java.version: 21");
+    }
+
+    @Test
+    void shouldFormatTheDebugMessagesOfTheStreamedEdits() throws IOException {
+        modifyPom(POM);
+        Log enabled = mock(Log.class);
+        when(enabled.isDebugEnabled()).thenReturn(true);
+
+        ChangeProperty.execute(enabled, pom, Property.of("java.version", "21").build(), EditEngine.STREAM);
+        ChangeProperty.execute(enabled, pom, Property.of("skipTests", "true").build(), EditEngine.STREAM);
+
+        verify(enabled).debug("updated /project/properties/java.version: 21");
+        verify(enabled).debug("added /project/properties/skipTests: true");
+    }
+
+    private static final class Recorder implements PomEditListener {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void backupCreated(Path pom) {
+            events.add("backup " + pom);
+        }
+
+        @Override
+        public void nodeAdded(Path pom, String parent, String name, String value) {
+            events.add("added " + pom + " " + parent + "/" + name + "=" + value);
+        }
+
+        @Override
+        public void nodeUpdated(Path pom, String parent, String name, String value) {
+            events.add("updated " + pom + " " + parent + "/" + name + "=" + value);
+        }
+
+        @Override
+        public void nodeRemoved(Path pom, String parent, String name) {
+            events.add("removed " + pom + " " + parent + "/" + name);
+        }
+
+        @Override
+        public void writeCompleted(Path pom, long size) {
+            events.add("written " + pom);
+        }
+
+        @Override
+        public void rolledBack(Path pom) {
+            events.add("rolled back " + pom);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PomLockTest extends BaseTest {
+
+    @Test
+    void shouldRemoveTheLockFileWhenReleased() {
+
+        try (PomLock lock = PomLock.acquire(pom, message -> {
+        })) {
+            assertThat(PomLock.lockFileOf(pom)).exists();
+            assertThat(PomLock.metrics().getHolders()).containsValue(Thread.currentThread().getName());
+        }
+
+        assertThat(PomLock.lockFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldBeReentrant() {
+
+        try (PomLock outer = PomLock.acquire(pom, message -> {
+        })) {
+            try (PomLock inner = PomLock.acquire(pom, message -> {
+            })) {
+                assertThat(inner).isSameAs(outer);
+            }
+            assertThat(PomLock.lockFileOf(pom)).exists();
+        }
+
+        assertThat(PomLock.lockFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldRecoverAStaleLockFile() throws Exception {
+        Files.write(PomLock.lockFileOf(pom), new byte[]{1});
+
+        try (PomLock lock = PomLock.acquire(pom, message -> {
+        })) {
+            assertThat(PomLock.lockFileOf(pom)).isEmptyFile();
+        }
+
+        assertThat(PomLock.lockFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldSerializeConcurrentChangesOfTheSamePom() throws Exception {
+        modifyPom("0");
+        long contendedBefore = PomLock.metrics().getContended();
+        int changes = 20;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < changes; i++) {
+                futures.add(executor.submit(() -> increment(pom)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(Files.readString(pom)).isEqualTo(String.valueOf(changes));
+        assertThat(PomLock.metrics().getContended()).isGreaterThan(contendedBefore);
+        assertThat(PomLock.lockFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldWaitForTheLockHeldByAnotherProcess() throws Exception {
+        Process holder = hold(pom);
+        try {
+            List<String> messages = new ArrayList<>();
+
+            try (PomLock lock = PomLock.acquire(pom, messages::add)) {
+                assertThat(holder.waitFor(30, TimeUnit.SECONDS)).isTrue();
+            }
+
+            assertThat(messages).singleElement().asString().startsWith("Lock for '");
+        } finally {
+            holder.destroyForcibly();
+        }
+    }
+
+    @Test
+    void shouldNotHoldUpThePomsOfTheSameStripeWhileWaitingForAnotherProcess() throws Exception {
+        Path other = pomOfTheSameStripe(pom);
+        Process holder = hold(pom);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> waiting = executor.submit(() -> PomLock.acquire(pom, message -> {
+            }).close());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!PomLock.metrics().getHolders().containsKey(pom.toRealPath()) && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            try (PomLock lock = PomLock.acquire(other, message -> {
+            })) {
+                assertThat(holder.isAlive()).isTrue();
+            }
+
+            waiting.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            holder.destroyForcibly();
+        }
+    }
+
+    @Test
+    void shouldNotHoldUpThePomsOfTheSameStripeWhileLocked() throws Exception {
+        Path other = pomOfTheSameStripe(pom);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (PomLock lock = PomLock.acquire(pom, message -> {
+        })) {
+            Future<?> locking = executor.submit(() -> PomLock.acquire(other, message -> {
+            }).close());
+
+            locking.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Process hold(Path pom) throws Exception {
+        Process holder = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                Holder.class.getName(),
+                pom.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        BufferedReader output = new BufferedReader(new InputStreamReader(holder.getInputStream(), StandardCharsets.UTF_8));
+        assertThat(output.readLine()).isEqualTo("locked");
+        return holder;
+    }
+
+    private Path pomOfTheSameStripe(Path pom) throws Exception {
+        int stripe = Math.floorMod(pom.toRealPath().hashCode(), 64);
+        for (int i = 0; ; i++) {
+            Path other = tempDir.toRealPath().resolve("pom-" + i + ".xml");
+            if (Math.floorMod(other.toAbsolutePath().hashCode(), 64) == stripe) {
+                return Files.writeString(other, "other");
+            }
+        }
+    }
+
+    private Void increment(Path pom) throws Exception {
+        try {
+            newPomChangeBuilder().build().execute(() -> {
+                int value = Integer.parseInt(Files.readString(pom));
+                Thread.sleep(5);
+                modifyPom(String.valueOf(value + 1));
+            });
+            return null;
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Holds the lock of the given POM for a while, as another process would
+     */
+    static final class Holder {
+
+        public static void main(String[] args) throws Exception {
+            try (PomLock lock = PomLock.acquire(Path.of(args[0]), message -> {
+            })) {
+                System.out.println("locked");
+                System.out.flush();
+                Thread.sleep(500);
+            }
+        }
+    }
+}
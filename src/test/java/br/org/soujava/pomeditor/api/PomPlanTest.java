@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PomPlanTest extends BaseTest {
+
+    static final String POM = "<project>\n" +
+            "    <modelVersion>4.0.0</modelVersion>\n" +
+            "    <properties>\n" +
+            "        <java.version>11</java.version>\n" +
+            "    </properties>\n" +
+            "    <dependencies>\n" +
+            "        <dependency>\n" +
+            "            <groupId>junit</groupId>\n" +
+            "            <artifactId>junit</artifactId>\n" +
+            "            <version>4.12</version>\n" +
+            "        </dependency>\n" +
+            "    </dependencies>\n" +
+            "</project>\n";
+
+    PomEditBatch batch = PomEditBatch.builder()
+            .withDependency(Dependency.ofGav("junit:junit:4.13").build())
+            .withProperty(Property.of("java.version", "17").build())
+            .build();
+
+    @BeforeEach
+    void writePom() throws IOException {
+        modifyPom(POM);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EditEngine.class)
+    void shouldPlanWithoutWritingAndApplyTheSameChange(EditEngine engine) throws IOException {
+        Path expected = newDummyPom();
+        Files.writeString(expected, POM);
+        batch.execute(new SystemStreamLog(), expected, engine);
+
+        PomPlan.Entry entry = PomPlan.plan(new SystemStreamLog(), pom, batch, engine).orElseThrow();
+
+        assertThat(pom).hasContent(POM);
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+        assertThat(entry.getDiff()).contains("-            <version>4.12</version>\n", "+            <version>4.13</version>\n");
+        assertThat(entry.getAddedLines()).isEqualTo(2);
+        assertThat(entry.getRemovedLines()).isEqualTo(2);
+        assertThat(entry.isStale()).isFalse();
+
+        entry.apply();
+
+        assertThat(pom).hasSameTextualContentAs(expected);
+        assertThat(PomPlan.sha256(Files.readAllBytes(pom))).isEqualTo(entry.getOutputHash());
+        assertThat(entry.isStale()).isTrue();
+    }
+
+    @Test
+    void shouldPlanNextToThePomWithoutLeavingAnyFile() throws IOException {
+        PomPlan.plan(new SystemStreamLog(), pom, batch, EditEngine.DOM).orElseThrow();
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(pom);
+        }
+    }
+
+    @Test
+    void shouldNotPlanAnUpToDatePom() {
+        PomEditBatch upToDate = PomEditBatch.builder()
+                .withProperty(Property.of("java.version", "11").build())
+                .build();
+
+        assertThat(PomPlan.plan(new SystemStreamLog(), pom, upToDate, EditEngine.DOM)).isEmpty();
+    }
+
+    @Test
+    void shouldWriteAndReadThePlanFile() throws IOException {
+        Path otherPom = newDummyPom();
+        Files.writeString(otherPom, POM.replace("\n", "\r\n"));
+        PomPlan plan = new PomPlan(List.of(
+                PomPlan.plan(new SystemStreamLog(), pom, batch, EditEngine.DOM).orElseThrow(),
+                PomPlan.plan(new SystemStreamLog(), otherPom, batch, EditEngine.DOM).orElseThrow()));
+        Path file = tempDir.resolve("plans").resolve("pom-editor.plan");
+
+        plan.writeTo(file);
+        PomPlan read = PomPlan.read(file);
+
+        assertThat(file).content().startsWith("# pom-editor plan: 2 POM file(s) to be changed\nIndex: " + pom + "\nSHA-256: ");
+        assertThat(read.getEntries()).hasSize(2);
+        for (int i = 0; i < 2; i++) {
+            PomPlan.Entry entry = read.getEntries().get(i);
+            assertThat(entry.getPom()).isEqualTo(plan.getEntries().get(i).getPom());
+            assertThat(entry.getInputHash()).isEqualTo(plan.getEntries().get(i).getInputHash());
+            assertThat(entry.getOutputHash()).isEqualTo(plan.getEntries().get(i).getOutputHash());
+            assertThat(entry.getDiff()).isEqualTo(plan.getEntries().get(i).getDiff());
+            entry.apply();
+        }
+        assertThat(otherPom).content().contains("<version>4.13</version>\r\n");
+    }
+
+    @Test
+    void shouldNotApplyToAChangedPom() throws IOException {
+        PomPlan.Entry entry = PomPlan.plan(new SystemStreamLog(), pom, batch, EditEngine.DOM).orElseThrow();
+        modifyPom(POM.replace("4.0.0", "4.1.0"));
+
+        assertThat(entry.isStale()).isTrue();
+        assertThatThrownBy(entry::apply)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("has changed since it was planned");
+        assertThat(pom).content().contains("4.1.0");
+    }
+
+    @Test
+    void shouldRejectAnInvalidPlanFile() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("pom-editor.plan"), "Index: pom.xml\n--- pom.xml\n");
+
+        assertThatThrownBy(() -> PomPlan.read(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing hashes");
+    }
+}
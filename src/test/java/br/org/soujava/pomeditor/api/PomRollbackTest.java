@@ -20,14 +20,20 @@ package br.org.soujava.pomeditor.api;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.security.NoSuchAlgorithmException;
+import java.util.Set;
 
 import static br.org.soujava.pomeditor.CheckSum.checksum;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class PomRollbackTest extends BaseTest{
 
@@ -49,4 +55,17 @@ class PomRollbackTest extends BaseTest{
 
     }
 
+    @Test
+    void shouldKeepThePermissionsOfThePom() throws Throwable {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwxr-x---");
+        Files.setPosixFilePermissions(pom, permissions);
+
+        newPomChangeBuilder().build().execute(this::modifyPomRandomly);
+        assertEquals(permissions, Files.getPosixFilePermissions(PomChange.backupFileOf(pom)));
+        PomRollback.execute(pom);
+
+        assertEquals(permissions, Files.getPosixFilePermissions(pom));
+    }
+
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyIndexTest extends BaseTest {
+
+    Path module;
+
+    @BeforeEach
+    void setup() throws IOException {
+        modifyPom("<project>\n" +
+                "    <groupId>org.example</groupId>\n" +
+                "    <artifactId>root</artifactId>\n" +
+                "    <version>5.9.0</version>\n" +
+                "    <properties>\n" +
+                "        <junit.version>5.9.0</junit.version>\n" +
+                "        <assertj.version>3.24.2</assertj.version>\n" +
+                "    </properties>\n" +
+                "    <dependencyManagement>\n" +
+                "        <dependencies>\n" +
+                "            <dependency>\n" +
+                "                <groupId>org.junit.jupiter</groupId>\n" +
+                "                <artifactId>junit-jupiter</artifactId>\n" +
+                "                <version>${junit.version}</version>\n" +
+                "            </dependency>\n" +
+                "        </dependencies>\n" +
+                "    </dependencyManagement>\n" +
+                "</project>\n");
+        module = tempDir.resolve("module").resolve("pom.xml");
+        Files.createDirectories(module.getParent());
+        Files.writeString(module, "<project>\n" +
+                "    <parent>\n" +
+                "        <groupId>org.example</groupId>\n" +
+                "        <artifactId>root</artifactId>\n" +
+                "    </parent>\n" +
+                "    <artifactId>module</artifactId>\n" +
+                "    <dependencies>\n" +
+                "        <!-- <dependency><version>5.9.0</version></dependency> ${junit.version} -->\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <exclusions>\n" +
+                "                <exclusion>\n" +
+                "                    <groupId>org.apiguardian</groupId>\n" +
+                "                    <artifactId>apiguardian-api</artifactId>\n" +
+                "                </exclusion>\n" +
+                "            </exclusions>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>5.9.0</version>\n" +
+                "        </dependency>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter-params</artifactId>\n" +
+                "            <version>5.9.0</version>\n" +
+                "        </dependency>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.assertj</groupId>\n" +
+                "            <artifactId>assertj-core</artifactId>\n" +
+                "            <version>${assertj.version}</version>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+    }
+
+    @Test
+    void shouldIndexTheDefinitionsReferencesAndHardCodedValues() {
+        PropertyIndex index = PropertyIndex.of(List.of(pom, module));
+
+        assertThat(index.getProperties()).containsExactly("assertj.version", "junit.version");
+        assertThat(index.getUsages("junit.version")).extracting(PropertyIndex.Usage::toString).containsExactly(
+                String.format("\"%s\":6 5.9.0", pom),
+                String.format("\"%s\":14 ${junit.version}", pom),
+                String.format("\"%s\":18 5.9.0", module));
+        assertThat(index.getUsages("junit.version", PropertyIndex.Usage.Kind.HARD_CODED))
+                .extracting(PropertyIndex.Usage::getArtifact)
+                .containsExactly("org.junit.jupiter:junit-jupiter");
+        assertThat(index.getPoms("assertj.version", PropertyIndex.Usage.Kind.REFERENCE)).containsExactly(module);
+        assertThat(index.getUsages("undefined")).isEmpty();
+    }
+
+    @Test
+    void shouldResolveTheParents() {
+        PropertyIndex index = PropertyIndex.of(List.of(pom, module));
+
+        assertThat(index.getParent(module)).contains(pom);
+        assertThat(index.getParent(pom)).isEmpty();
+        assertThat(index.isDefinedFor(module, "junit.version")).isTrue();
+        assertThat(index.isDefinedFor(module, "undefined")).isFalse();
+        assertThat(PropertyIndex.of(List.of(module)).isDefinedFor(module, "junit.version")).isFalse();
+    }
+
+    @Test
+    void shouldReferenceTheHardCodedValues() throws IOException {
+        Set<String> artifacts = Set.of("org.junit.jupiter:junit-jupiter");
+
+        boolean changed = PropertyIndex.referenceHardCodedValues(module, "junit.version", List.of("5.9.0"), artifacts);
+
+        assertThat(changed).isTrue();
+        assertThat(Files.readString(module))
+                .contains("<!-- <dependency><version>5.9.0</version></dependency> ${junit.version} -->")
+                .contains("<artifactId>junit-jupiter</artifactId>\n            <version>${junit.version}</version>")
+                .contains("<artifactId>junit-jupiter-params</artifactId>\n            <version>5.9.0</version>");
+        assertThat(PropertyIndex.referenceHardCodedValues(module, "junit.version", List.of("5.9.0"), artifacts)).isFalse();
+        assertThat(PropertyIndex.referenceHardCodedValues(pom, "junit.version", List.of("5.9.0"), artifacts)).isFalse();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemoveDependencyTest extends BaseTest {
+
+    @BeforeEach
+    void setup() throws IOException {
+        modifyPom("<project>\n" +
+                "    <dependencyManagement>\n" +
+                "        <dependencies>\n" +
+                "            <dependency>\n" +
+                "                <groupId>org.junit</groupId>\n" +
+                "                <artifactId>junit-bom</artifactId>\n" +
+                "                <version>5.9.0</version>\n" +
+                "                <type>pom</type>\n" +
+                "                <scope>import</scope>\n" +
+                "            </dependency>\n" +
+                "            <dependency>\n" +
+                "                <groupId>org.assertj</groupId>\n" +
+                "                <artifactId>assertj-core</artifactId>\n" +
+                "                <version>3.24.2</version>\n" +
+                "            </dependency>\n" +
+                "        </dependencies>\n" +
+                "    </dependencyManagement>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.assertj</groupId>\n" +
+                "            <artifactId>assertj-core</artifactId>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+    }
+
+    @Test
+    void shouldRemoveTheManagedDependencyOnly() throws Throwable {
+        Dependency assertj = Dependency.ofGav("org.assertj:assertj-core").build();
+
+        assertThat(isChangedBy(() -> RemoveDependency.execute(pom, assertj, PomSection.DEPENDENCY_MANAGEMENT))).isTrue();
+
+        assertThat(Files.readString(pom))
+                .containsOnlyOnce("<artifactId>assertj-core</artifactId>")
+                .doesNotContain("3.24.2")
+                .contains("<artifactId>junit-bom</artifactId>");
+        assertThat(isChangedBy(() -> RemoveDependency.execute(pom, assertj, PomSection.DEPENDENCY_MANAGEMENT))).isFalse();
+    }
+
+    @Test
+    void shouldNotChangeThePomWhenTheDependencyIsNotDeclared() throws Throwable {
+        Dependency absent = Dependency.ofGav("org.mockito:mockito-core").build();
+        String before = Files.readString(pom);
+
+        assertThat(isChangedBy(() -> RemoveDependency.execute(pom, absent, PomSection.DEPENDENCIES))).isFalse();
+
+        assertThat(Files.readString(pom)).isEqualTo(before);
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+}
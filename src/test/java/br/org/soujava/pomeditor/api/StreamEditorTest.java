@@ -0,0 +1,231 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamEditorTest extends BaseTest {
+
+    private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<!-- the stream engine keeps   this comment as it is -->\n" +
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+            "    <modelVersion>4.0.0</modelVersion>\n" +
+            "    <properties>\n" +
+            "        <java.version>11</java.version>\n" +
+            "        <obsolete>true</obsolete>\n" +
+            "    </properties>\n" +
+            "    <dependencies>\n" +
+            "        <dependency>\n" +
+            "            <groupId>org.junit.jupiter</groupId>\n" +
+            "            <artifactId>junit-jupiter</artifactId>\n" +
+            "            <version>5.9.0</version>\n" +
+            "            <scope>test</scope>\n" +
+            "        </dependency>\n" +
+            "        <dependency>\n" +
+            "            <groupId>org.slf4j</groupId>\n" +
+            "            <artifactId>slf4j-api</artifactId>\n" +
+            "            <version>2.0.7</version>\n" +
+            "        </dependency>\n" +
+            "    </dependencies>\n" +
+            "</project>\n";
+
+    private Path domPom;
+
+    @BeforeEach
+    void setup() throws IOException {
+        modifyPom(POM);
+        domPom = Files.writeString(tempDir.resolve("dom-pom.xml"), POM);
+    }
+
+    @Test
+    void shouldUpdateADependencyAsTheDomEngineDoes() throws IOException {
+        Dependency dependency = Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").build();
+
+        AddDependency.execute(pom, dependency, EditEngine.STREAM);
+        AddDependency.execute(domPom, dependency, EditEngine.DOM);
+
+        assertThat(Files.readString(pom)).isEqualTo(Files.readString(domPom));
+    }
+
+    @Test
+    void shouldAddADependencyAsTheDomEngineDoes() throws IOException {
+        Dependency compile = Dependency.ofGav("org.apache.commons:commons-lang3:3.12.0").build();
+        Dependency test = Dependency.ofGav("org.assertj:assertj-core:3.24.2").withScope("test").withType("test-jar").build();
+
+        AddDependency.execute(pom, compile, EditEngine.STREAM);
+        AddDependency.execute(pom, test, EditEngine.STREAM);
+        AddDependency.execute(domPom, compile, EditEngine.DOM);
+        AddDependency.execute(domPom, test, EditEngine.DOM);
+
+        assertThat(Files.readString(pom)).isEqualTo(Files.readString(domPom));
+    }
+
+    @Test
+    void shouldChangePropertiesAsTheDomEngineDoes() throws IOException {
+        Property changed = Property.of("java.version", "17").build();
+        Property added = Property.of("maven.compiler.release", "17").build();
+
+        ChangeProperty.execute(new SystemStreamLog(), pom, changed, EditEngine.STREAM);
+        ChangeProperty.execute(new SystemStreamLog(), pom, added, EditEngine.STREAM);
+        ChangeProperty.execute(new SystemStreamLog(), domPom, changed, EditEngine.DOM);
+        ChangeProperty.execute(new SystemStreamLog(), domPom, added, EditEngine.DOM);
+
+        assertThat(Files.readString(pom)).isEqualTo(Files.readString(domPom));
+    }
+
+    @Test
+    void shouldRemoveAProperty() throws IOException {
+
+        ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("obsolete", null).build(), EditEngine.STREAM);
+
+        assertThat(Files.readString(pom)).isEqualTo(POM.replace("<obsolete>true</obsolete>", ""));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("propertiesToRemove")
+    void shouldRemoveAPropertyAsTheDomEngineDoes(String description, String content, String name) throws IOException {
+        modifyPom(content);
+        Files.writeString(domPom, content);
+        Property removed = Property.of(name, null).build();
+
+        ChangeProperty.execute(new SystemStreamLog(), pom, removed, EditEngine.STREAM);
+        ChangeProperty.execute(new SystemStreamLog(), domPom, removed, EditEngine.DOM);
+
+        assertThat(Files.readAllBytes(pom)).isEqualTo(Files.readAllBytes(domPom));
+    }
+
+    static Stream<Arguments> propertiesToRemove() {
+        String properties = "<project>\n" +
+                "    <properties>\n" +
+                "        <first>1</first>\n" +
+                "        <!-- the second one -->\n" +
+                "        <second>2</second> <!-- trailing -->\n" +
+                "        <third>3</third>\n" +
+                "    </properties>\n" +
+                "</project>\n";
+        return Stream.of(
+                Arguments.of("the first property", properties, "first"),
+                Arguments.of("a property after a comment", properties, "second"),
+                Arguments.of("the last property", properties, "third"),
+                Arguments.of("the only property", "<project>\n    <properties>\n        <only>1</only>\n    </properties>\n</project>\n", "only"),
+                Arguments.of("a property of the same line",
+                        "<project>\n    <properties><a>1</a><b>2</b></properties>\n</project>\n", "b"),
+                Arguments.of("a property indented by tabs",
+                        "<project>\n\t<properties>\n\t\t<a>1</a>\n\t\t<b>2</b>\n\t</properties>\n</project>\n", "a"),
+                Arguments.of("a property of a CRLF POM",
+                        "<project>\r\n    <properties>\r\n        <a>1</a>\r\n        <b>2</b>\r\n    </properties>\r\n</project>\r\n", "b"),
+                Arguments.of("an empty property", properties.replace("<third>3</third>", "<third/>"), "third"));
+    }
+
+    @Test
+    void shouldCopyTheRestOfThePomByteForByte() throws IOException {
+        String pomWithQuirks = POM
+                .replace("\n", "\r\n")
+                .replace("<modelVersion>4.0.0</modelVersion>", "<modelVersion >4.0.0</modelVersion><!--x-->")
+                .replace("xmlns=\"http://maven.apache.org/POM/4.0.0\"", "xmlns='http://maven.apache.org/POM/4.0.0'  ");
+        modifyPom(pomWithQuirks);
+
+        PomEditBatch.builder()
+                .withDependency(Dependency.ofGav("org.slf4j:slf4j-api:2.0.9").build())
+                .withProperty(Property.of("java.version", "17 & <beyond>").build())
+                .build()
+                .execute(new SystemStreamLog(), pom, EditEngine.STREAM);
+
+        assertThat(Files.readString(pom)).isEqualTo(pomWithQuirks
+                .replace("<version>2.0.7</version>", "<version>2.0.9</version>")
+                .replace("<java.version>11</java.version>", "<java.version>17 &amp; &lt;beyond&gt;</java.version>"));
+    }
+
+    @Test
+    void shouldNotRewriteAnUnchangedPom() throws IOException {
+        FileTime timestamp = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(pom, timestamp);
+
+        AddDependency.execute(pom, Dependency.ofGav("org.slf4j:slf4j-api:2.0.7").build(), EditEngine.STREAM);
+        ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("java.version", "11").build(), EditEngine.STREAM);
+        ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("missing", null).build(), EditEngine.STREAM);
+
+        assertThat(Files.getLastModifiedTime(pom)).isEqualTo(timestamp);
+        assertThat(Files.readString(pom)).isEqualTo(POM);
+    }
+
+    @Test
+    void shouldFallBackToTheDomEngineWhenTheContainerIsMissing() throws IOException {
+        modifyPom("<project>\n" +
+                "    <modelVersion>4.0.0</modelVersion>\n" +
+                "</project>\n");
+
+        AddDependency.execute(pom, Dependency.ofGav("org.slf4j:slf4j-api:2.0.7").build(), EditEngine.STREAM);
+        ChangeProperty.execute(new SystemStreamLog(), pom, Property.of("java.version", "17").build(), EditEngine.STREAM);
+
+        assertThat(Files.readString(pom))
+                .contains("<artifactId>slf4j-api</artifactId>")
+                .contains("<java.version>17</java.version>");
+    }
+
+    @Test
+    void shouldRejectAMalformedPom() throws IOException {
+        modifyPom("<project>\n    <properties>\n");
+
+        assertThatThrownBy(() -> ChangeProperty.execute(new SystemStreamLog(), pom,
+                Property.of("java.version", "17").build(), EditEngine.STREAM))
+                .hasMessageContaining("cannot read the");
+    }
+
+    @Test
+    void shouldRejectAPomWhoseElementsAreNotClosedInOrder() throws IOException {
+        modifyPom("<project>\n    <properties>\n    </dependencies>\n    </properties>\n</project>\n");
+
+        assertThatThrownBy(() -> ChangeProperty.execute(new SystemStreamLog(), pom,
+                Property.of("java.version", "17").build(), EditEngine.STREAM))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(pom.toString())
+                .hasMessageContaining("</dependencies> at offset 31 doesn't close <properties>");
+    }
+
+    @Test
+    void shouldRejectAPomClosingAnElementNeverOpened() throws IOException {
+        modifyPom("<project/>\n</project>\n");
+
+        assertThatThrownBy(() -> AddDependency.execute(pom, Dependency.ofGav("org.slf4j:slf4j-api:2.0.7").build(), EditEngine.STREAM))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unexpected </project> at offset 11");
+    }
+
+    @Test
+    void shouldResolveTheEngineByName() {
+        assertThat(EditEngine.of(null)).isEqualTo(EditEngine.DOM);
+        assertThat(EditEngine.of("dom")).isEqualTo(EditEngine.DOM);
+        assertThat(EditEngine.of("STREAM")).isEqualTo(EditEngine.STREAM);
+        assertThatThrownBy(() -> EditEngine.of("sax")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransformationCacheTest extends BaseTest {
+
+    private static final String POM = "<project>\n" +
+            "    <properties>\n" +
+            "        <java.version>11</java.version>\n" +
+            "    </properties>\n" +
+            "</project>\n";
+
+    @Test
+    void shouldSkipTheEditOfAnIdenticalPom() throws Throwable {
+        TransformationCache cache = new TransformationCache(tempDir.resolve("cache"), 1024 * 1024, "1.0.0");
+        Path other = newDummyPom();
+        modifyPom(POM);
+        Files.writeString(other, POM);
+        AtomicInteger edits = new AtomicInteger();
+
+        for (Path target : new Path[]{pom, other}) {
+            TransformationCache.Lookup lookup = cache.lookup(target, "java.version=17");
+            lookup.apply(() -> {
+                edits.incrementAndGet();
+                Files.writeString(target, POM.replace("11", "17"));
+            });
+        }
+
+        assertThat(edits).hasValue(1);
+        assertThat(Files.readString(other)).isEqualTo(Files.readString(pom)).contains("17");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.lookup(other, "java.version=17").isUnchanged()).isFalse();
+    }
+
+    @Test
+    void shouldKeyTheEntriesByTheEditsAndTheVersion() throws IOException {
+        modifyPom(POM);
+        TransformationCache cache = new TransformationCache(tempDir.resolve("cache"), 1024 * 1024, "1.0.0");
+        cache.lookup(pom, "java.version=11").unchanged();
+
+        assertThat(cache.lookup(pom, "java.version=11").isUnchanged()).isTrue();
+        assertThat(cache.lookup(pom, "java.version=17").isHit()).isFalse();
+        assertThat(new TransformationCache(tempDir.resolve("cache"), 1024 * 1024, "1.0.1")
+                .lookup(pom, "java.version=11").isHit()).isFalse();
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedEntries() throws IOException {
+        TransformationCache cache = new TransformationCache(tempDir.resolve("cache"), 2 * POM.length() + 1, "1.0.0");
+        modifyPom(POM);
+
+        cache.lookup(pom, "first").unchanged();
+        cache.lookup(pom, "second").unchanged();
+        cache.lookup(pom, "first");
+        cache.lookup(pom, "third").unchanged();
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.lookup(pom, "first").isHit()).isTrue();
+        assertThat(cache.lookup(pom, "second").isHit()).isFalse();
+        assertThat(cache.lookup(pom, "third").isHit()).isTrue();
+        assertThat(cache.summary()).startsWith("3 hit(s), 4 miss(es), 1 eviction(s), 2 entries");
+    }
+
+    @Test
+    void shouldEditThePomWhenTheEntryCannotBeWritten() throws Throwable {
+        Path notADirectory = Files.writeString(tempDir.resolve("cache"), "not a directory");
+        List<String> warnings = new ArrayList<>();
+        TransformationCache cache = new TransformationCache(notADirectory, 1024 * 1024, "1.0.0", warnings::add);
+        modifyPom(POM);
+
+        cache.lookup(pom, "java.version=17").apply(() -> modifyPom(POM.replace("11", "17")));
+        cache.lookup(pom, "java.version=17").unchanged();
+
+        assertThat(Files.readString(pom)).contains("<java.version>17</java.version>");
+        assertThat(cache.getWriteFailures()).isEqualTo(2);
+        assertThat(warnings).singleElement().asString().startsWith("cannot write the ");
+        assertThat(cache.summary()).endsWith("2 write failure(s)");
+    }
+
+    @Test
+    void shouldNotUseTheCacheIfThePomChangedSinceTheLookup() throws Throwable {
+        TransformationCache cache = new TransformationCache(tempDir.resolve("cache"), 1024 * 1024, "1.0.0");
+        modifyPom(POM);
+        cache.lookup(pom, "java.version=17").apply(() -> modifyPom(POM.replace("11", "17")));
+        modifyPom(POM);
+        TransformationCache.Lookup lookup = cache.lookup(pom, "java.version=17");
+        modifyPom(POM.replace("11", "8"));
+        AtomicInteger edits = new AtomicInteger();
+
+        lookup.apply(edits::incrementAndGet);
+
+        assertThat(edits).hasValue(1);
+        assertThat(Files.readString(pom)).contains("<java.version>8</java.version>");
+    }
+}
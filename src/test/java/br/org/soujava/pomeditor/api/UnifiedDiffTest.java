@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UnifiedDiffTest {
+
+    @Test
+    void shouldComputeAUnifiedDiff() {
+        String original = "a\nb\nc\nd\ne\nf\ng\nh\ni\nj\n";
+        String revised = "a\nb\nc\nd\nE\nf\ng\nh\ni\nj\nk\n";
+
+        assertThat(UnifiedDiff.diff("pom.xml", original, revised)).isEqualTo("--- pom.xml\n" +
+                "+++ pom.xml\n" +
+                "@@ -2,9 +2,10 @@\n" +
+                " b\n" +
+                " c\n" +
+                " d\n" +
+                "-e\n" +
+                "+E\n" +
+                " f\n" +
+                " g\n" +
+                " h\n" +
+                " i\n" +
+                " j\n" +
+                "+k\n");
+    }
+
+    @Test
+    void shouldSplitDistantChangesIntoHunks() {
+        StringBuilder original = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            original.append("line ").append(i).append('\n');
+        }
+        String revised = original.toString().replace("line 2\n", "line two\n").replace("line 25\n", "");
+
+        String diff = UnifiedDiff.diff("pom.xml", original.toString(), revised);
+
+        assertThat(diff).contains("@@ -1,6 +1,6 @@\n", "@@ -23,7 +23,6 @@\n");
+        assertThat(UnifiedDiff.patch(original.toString(), diff)).isEqualTo(revised);
+    }
+
+    @Test
+    void shouldKeepLineEndingsAndMissingLastNewline() {
+        String original = "<project>\r\n  <a/>\r\n</project>";
+        String revised = "<project>\r\n  <a/>\r\n  <b/>\r\n</project>";
+
+        String diff = UnifiedDiff.diff("pom.xml", original, revised);
+
+        assertThat(diff).endsWith(" </project>\n\\ No newline at end of file\n");
+        assertThat(UnifiedDiff.patch(original, diff)).isEqualTo(revised);
+    }
+
+    @Test
+    void shouldBeEmptyForEqualTexts() {
+        assertThat(UnifiedDiff.diff("pom.xml", "a\n", "a\n")).isEmpty();
+        assertThat(UnifiedDiff.patch("a\n", "")).isEqualTo("a\n");
+    }
+
+    @Test
+    void shouldRejectADiffOfAnotherText() {
+        String diff = UnifiedDiff.diff("pom.xml", "a\nb\nc\n", "a\nB\nc\n");
+
+        assertThatThrownBy(() -> UnifiedDiff.patch("a\nx\nc\n", diff))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("doesn't match");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
+    void shouldPatchBackRandomChanges(long seed) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add("line " + random.nextInt(20) + "\n");
+        }
+        String original = String.join("", lines);
+        for (int i = 0; i < 15; i++) {
+            int index = random.nextInt(lines.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    lines.remove(index);
+                    break;
+                case 1:
+                    lines.add(index, "added " + i + "\n");
+                    break;
+                default:
+                    lines.set(index, "changed " + i + "\n");
+            }
+        }
+        String revised = String.join("", lines);
+
+        assertThat(UnifiedDiff.patch(original, UnifiedDiff.diff("pom.xml", original, revised))).isEqualTo(revised);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
+    void shouldFindTheShortestEditScript(long seed) {
+        Random random = new Random(seed);
+        List<String> original = randomLines(random, random.nextInt(40));
+        List<String> revised = randomLines(random, random.nextInt(40));
+
+        String[] diff = UnifiedDiff.diff("pom.xml", String.join("", original), String.join("", revised)).split("\n");
+
+        long changes = Arrays.stream(diff).skip(2).filter(line -> line.startsWith("+") || line.startsWith("-")).count();
+        assertThat(changes).isEqualTo(original.size() + revised.size() - 2L * longestCommonSubsequence(original, revised));
+    }
+
+    @Test
+    void shouldDiffACompletelyRewrittenText() {
+        StringBuilder original = new StringBuilder();
+        StringBuilder revised = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            original.append("original ").append(i).append('\n');
+            revised.append("revised ").append(i).append('\n');
+        }
+
+        String diff = UnifiedDiff.diff("pom.xml", original.toString(), revised.toString());
+
+        assertThat(diff).contains("@@ -1,5000 +1,5000 @@");
+        assertThat(UnifiedDiff.patch(original.toString(), diff)).isEqualTo(revised.toString());
+    }
+
+    private static List<String> randomLines(Random random, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add((char) ('a' + random.nextInt(3)) + "\n");
+        }
+        return lines;
+    }
+
+    private static int longestCommonSubsequence(List<String> a, List<String> b) {
+        int[][] lengths = new int[a.size() + 1][b.size() + 1];
+        for (int i = 1; i <= a.size(); i++) {
+            for (int j = 1; j <= b.size(); j++) {
+                lengths[i][j] = a.get(i - 1).equals(b.get(j - 1))
+                        ? lengths[i - 1][j - 1] + 1
+                        : Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+            }
+        }
+        return lengths[a.size()][b.size()];
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+import org.l2x6.pom.tuner.PomTransformer.SimpleElementWhitespace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WhitespaceProfileTest extends BaseTest {
+
+    private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+            "  <modelVersion>4.0.0</modelVersion>\n" +
+            "  <properties>\n" +
+            "    <skipTests/>\n" +
+            "  </properties>\n" +
+            "  <dependencies>\n" +
+            "    <dependency>\n" +
+            "      <groupId>org.slf4j</groupId>\n" +
+            "      <artifactId>slf4j-api</artifactId>\n" +
+            "      <version>2.0.7</version>\n" +
+            "    </dependency>\n" +
+            "  </dependencies>\n" +
+            "</project>\n";
+
+    @Test
+    void shouldDetectTheStyleAsThePomTransformerDoes() {
+        WhitespaceProfile profile = WhitespaceProfile.detect(POM.getBytes());
+        assertThat(profile.getIndentation()).contains("  ");
+        assertThat(profile.getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.EMPTY);
+
+        profile = WhitespaceProfile.detect(POM.replace("  <", "\t<").replace("<skipTests/>", "<skipTests />").getBytes());
+        assertThat(profile.getIndentation()).contains("\t");
+        assertThat(profile.getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.SPACE);
+
+        profile = WhitespaceProfile.detect("<project><modelVersion>4.0.0</modelVersion></project>".getBytes());
+        assertThat(profile.getIndentation()).isEmpty();
+        assertThat(profile.getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.SPACE);
+    }
+
+    @Test
+    void shouldFindTheIndentationByItsName() {
+        assertThat(WhitespaceProfile.indentationOf("2")).isEqualTo("  ");
+        assertThat(WhitespaceProfile.indentationOf(" 4 ")).isEqualTo("    ");
+        assertThat(WhitespaceProfile.indentationOf("TAB")).isEqualTo("\t");
+        assertThat(WhitespaceProfile.indentationOf(null)).isNull();
+        assertThrows(IllegalArgumentException.class, () -> WhitespaceProfile.indentationOf("0"));
+        assertThrows(IllegalArgumentException.class, () -> WhitespaceProfile.indentationOf("wide"));
+    }
+
+    @Test
+    void shouldDetectTheProfileOfAPomOnlyOnceUntilItChanges() throws IOException {
+        modifyPom(POM);
+        FileTime timestamp = Files.getLastModifiedTime(pom);
+        assertThat(WhitespaceProfile.of(pom).getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.EMPTY);
+
+        // same size and modification time: the cached profile is still used
+        modifyPom(POM.replace("<skipTests/>", "<skipTest />"));
+        Files.setLastModifiedTime(pom, timestamp);
+        assertThat(WhitespaceProfile.of(pom).getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.EMPTY);
+
+        modifyPom(POM.replace("<skipTests/>", "<skipTests />"));
+        assertThat(WhitespaceProfile.of(pom).getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.SPACE);
+    }
+
+    @Test
+    void shouldFollowTheStyleOfTheRepository() throws IOException {
+        Path repository = Files.createDirectories(tempDir.resolve("repository"));
+        Files.createDirectory(repository.resolve(".git"));
+        Path styled = Files.writeString(Files.createDirectory(repository.resolve("styled")).resolve("pom.xml"), POM);
+        Path bare = Files.writeString(Files.createDirectory(repository.resolve("bare")).resolve("pom.xml"),
+                "<project><modelVersion>4.0.0</modelVersion></project>\n");
+
+        assertThat(WhitespaceProfile.of(styled).getIndentation()).contains("  ");
+
+        WhitespaceProfile profile = WhitespaceProfile.of(bare);
+        assertThat(profile.getIndentation()).contains("  ");
+        assertThat(profile.getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.EMPTY);
+    }
+
+    @Test
+    void shouldIndentTheAddedElementsAsRequested() throws Throwable {
+        modifyPom(POM);
+
+        newPomChangeBuilder()
+                .withBackupStrategy(PomChange.BackupStrategy.inMemory())
+                .withIndentation(WhitespaceProfile.indentationOf("tab"))
+                .build()
+                .execute(() -> AddDependency.execute(pom, Dependency.ofGav("org.junit:junit-bom:5.9.2").build(), EditEngine.STREAM));
+
+        assertThat(Files.readString(pom)).contains("    <dependency>\n" +
+                "    \t<groupId>org.junit</groupId>\n" +
+                "    \t<artifactId>junit-bom</artifactId>\n" +
+                "    \t<version>5.9.2</version>\n" +
+                "    </dependency>\n");
+    }
+
+    @Test
+    void shouldKeepTheSimpleElementsOfThePom() throws IOException {
+        modifyPom(POM);
+
+        AddDependency.execute(pom, Dependency.ofGav("org.junit:junit-bom:5.9.2").build(), EditEngine.DOM);
+
+        assertThat(Files.readString(pom)).contains("<skipTests/>").contains("<artifactId>junit-bom</artifactId>");
+        assertThat(WhitespaceProfile.of(pom).getSimpleElementWhitespace()).isEqualTo(SimpleElementWhitespace.EMPTY);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XmlContextTest extends BaseTest {
+
+    @Test
+    void shouldReuseTheParsersGivenBackToThePool() {
+        AtomicInteger created = new AtomicInteger();
+        List<Object> reset = new ArrayList<>();
+        XmlContext.Pool<Object> pool = new XmlContext.Pool<>(1, () -> {
+            created.incrementAndGet();
+            return new Object();
+        }, reset::add);
+
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        pool.giveBack(first);
+        pool.giveBack(second);
+
+        assertThat(created).hasValue(2);
+        assertThat(reset).containsExactly(first, second);
+        assertThat(pool.idle()).isEqualTo(1);
+        assertThat(pool.borrow()).isSameAs(first);
+        assertThat(pool.idle()).isZero();
+    }
+
+    @Test
+    void shouldParseFromManyThreads() throws Exception {
+        Files.writeString(pom, "<project>\n    <properties>\n        <a>1</a>\n    </properties>\n</project>\n");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> parsed = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                parsed.add(executor.submit(() -> XmlContext.parse(pom).getDocumentElement().getTextContent().trim()));
+            }
+            for (Future<String> text : parsed) {
+                assertThat(text.get()).isEqualTo("1");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.cli;
+
+import br.org.soujava.pomeditor.api.PomChange;
+import br.org.soujava.pomeditor.mojo.AddDependencyMojo;
+import br.org.soujava.pomeditor.mojo.ApplyManifestMojo;
+import br.org.soujava.pomeditor.mojo.BatchMojo;
+import br.org.soujava.pomeditor.mojo.RemoveDependencyMojo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PomEditorCliTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path pom;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setup() throws Exception {
+        pom = Files.writeString(tempDir.resolve("pom.xml"), "<project>\n" +
+                "    <modelVersion>4.0.0</modelVersion>\n" +
+                "    <properties>\n" +
+                "        <java.version>11</java.version>\n" +
+                "    </properties>\n" +
+                "</project>\n");
+    }
+
+    int run(String... args) {
+        return PomEditorCli.run(args,
+                new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldAddADependencyAndCommit() throws Exception {
+
+        assertThat(run("add-dep", "pom=" + pom, "gav=junit:junit:4.13", "-Dscope=test")).isZero();
+        assertThat(run("add-dep", "pom=" + pom, "gav=junit:junit:4.13", "-Dscope=test")).isZero();
+
+        assertThat(Files.readString(pom)).contains("<artifactId>junit</artifactId>", "<scope>test</scope>");
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("[INFO] added the dependency", "unchanged");
+        assertThat(PomChange.backupFileOf(pom)).exists();
+
+        assertThat(run("commit", "pom=" + pom)).isZero();
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldApplyABatchAndRollback() throws Exception {
+        String original = Files.readString(pom);
+
+        assertThat(run("batch", "pom=" + pom, "gavs=junit:junit:4.13, org.mockito:mockito-core:5.0.0", "properties=java.version=17",
+                "managed", "engine=stream")).isEqualTo(PomEditorCli.INVALID);
+        assertThat(run("batch", "pom=" + pom, "gavs=junit:junit:4.13, org.mockito:mockito-core:5.0.0", "properties=java.version=17",
+                "engine=stream")).isZero();
+
+        assertThat(Files.readString(pom)).contains("<artifactId>junit</artifactId>", "<artifactId>mockito-core</artifactId>",
+                "<java.version>17</java.version>");
+
+        assertThat(run("rollback", "pom=" + pom)).isZero();
+        assertThat(Files.readString(pom)).isEqualTo(original);
+    }
+
+    @Test
+    void shouldRejectInvalidCommandLines() throws Exception {
+        String original = Files.readString(pom);
+
+        assertThat(run()).isEqualTo(PomEditorCli.INVALID);
+        assertThat(run("plan", "pom=" + pom)).isEqualTo(PomEditorCli.INVALID);
+        assertThat(run("add-dep", "pom=" + pom, "gav=junit:junit:4.13", "scpe=test")).isEqualTo(PomEditorCli.INVALID);
+        assertThat(run("add-dep", "pom=" + pom, "gav=junit:junit:4.13", "managed=maybe")).isEqualTo(PomEditorCli.INVALID);
+        assertThat(run("add-dep", "pom=" + pom, "gav")).isEqualTo(PomEditorCli.INVALID);
+        assertThat(run("add-dep", "pom=" + pom, "gav=junit:junit:4.13", "pluginVersion=0")).isEqualTo(PomEditorCli.INVALID);
+
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains(
+                "usage: pom-editor",
+                "unknown goal \"plan\"",
+                "unknown parameter \"scpe\" of the \"add-dep\" goal",
+                "the \"managed\" parameter must be true or false",
+                "the \"gav\" parameter requires a value");
+        assertThat(Files.readString(pom)).isEqualTo(original);
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldFailIfTheGoalFails() {
+
+        assertThat(run("add-dep", "pom=" + tempDir.resolve("missing.xml"), "gav=junit:junit:4.13")).isEqualTo(PomEditorCli.FAILED);
+        assertThat(run("commit", "changeset=missing", "journalDirectory=" + tempDir.resolve("journal"))).isEqualTo(PomEditorCli.FAILED);
+        // the goals validate the values of their parameters themselves, as they fail under Maven
+        assertThat(run("add-dep", "pom=" + pom, "gav=junit")).isEqualTo(PomEditorCli.FAILED);
+
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("[ERROR] cannot add the dependency", "there's no \"missing\" changeset");
+    }
+
+    @Test
+    void shouldPrintTheDebugMessagesOnlyIfAsked() {
+
+        assertThat(run("change-prop", "pom=" + pom, "property=java.version", "value=17")).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).doesNotContain("[DEBUG]");
+
+        assertThat(run("--debug", "change-prop", "pom=" + pom, "property=java.version", "value=21")).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("[DEBUG]");
+    }
+
+    @Test
+    void shouldTakeTheParametersOfTheGoals() {
+
+        assertThat(PomEditorCli.parameters(AddDependencyMojo.class)).containsKeys(
+                "pom", "gav", "type", "classifier", "scope", "managed",
+                "backup", "engine", "durability", "metricsFile", "cacheDirectory", "cacheSize", "changeset", "journalDirectory");
+        assertThat(PomEditorCli.parameters(AddDependencyMojo.class)).doesNotContainKeys(
+                "addDependencyCommand", "backupFunction", "metrics", "pluginVersion");
+        assertThat(PomEditorCli.parameters(BatchMojo.class)).containsKeys("gavs", "managedGavs", "plugins", "managedPlugins", "properties");
+    }
+
+    @Test
+    void shouldTakeTheParametersInheritedByTheGoals() {
+
+        assertThat(PomEditorCli.parameters(RemoveDependencyMojo.class)).containsKeys("pom", "gav", "managed");
+        assertThat(PomEditorCli.parameters(ApplyManifestMojo.class)).containsKeys("pom", "manifest", "threads");
+    }
+
+    @Test
+    void shouldApplyTheDefaultValuesOfTheParameters() {
+
+        assertThat(PomEditorCli.defaults(ApplyManifestMojo.class))
+                .containsEntry("threads", "0")
+                .containsEntry("backup", "copy")
+                .containsEntry("cacheSize", "256")
+                .doesNotContainKeys("manifest", "projectFile", "pluginVersion");
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.daemon;
+
+import br.org.soujava.pomeditor.api.PomChange;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class EditDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path pom;
+    EditDaemon daemon;
+    EditClient client;
+
+    @BeforeEach
+    void setup() throws Exception {
+        pom = Files.writeString(tempDir.resolve("pom.xml"), "<project>\n" +
+                "    <modelVersion>4.0.0</modelVersion>\n" +
+                "    <properties>\n" +
+                "        <java.version>11</java.version>\n" +
+                "    </properties>\n" +
+                "</project>\n");
+        daemon = EditDaemon.start(0, 4, tempDir.resolve("daemon.token"), new SystemStreamLog());
+        client = new EditClient(daemon.getPort(), daemon.getTokenFile());
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemon.close();
+    }
+
+    @Test
+    void shouldAddADependencyAndCommit() throws Exception {
+
+        EditClient.Response added = client.send("add-dep", Map.of("pom", pom.toString(), "gav", "junit:junit:4.13"));
+        EditClient.Response again = client.send("add-dep", Map.of("pom", pom.toString(), "gav", "junit:junit:4.13"));
+
+        assertThat(added.getBody()).isEqualTo("changed");
+        assertThat(again.getBody()).isEqualTo("unchanged");
+        assertThat(Files.readString(pom)).contains("<artifactId>junit</artifactId>");
+        assertThat(PomChange.backupFileOf(pom)).exists();
+
+        assertThat(client.send("commit", Map.of("pom", pom.toString())).getBody()).isEqualTo("committed");
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldChangeAPropertyAndRollback() throws Exception {
+        String original = Files.readString(pom);
+
+        EditClient.Response changed = client.send("change-prop",
+                Map.of("pom", pom.toString(), "property", "java.version", "value", "17", "engine", "stream"));
+
+        assertThat(changed.getBody()).isEqualTo("changed");
+        assertThat(Files.readString(pom)).contains("<java.version>17</java.version>");
+
+        assertThat(client.send("rollback", Map.of("pom", pom.toString())).getBody()).isEqualTo("rolled back");
+        assertThat(Files.readString(pom)).isEqualTo(original);
+    }
+
+    @Test
+    void shouldSerializeConcurrentEditsOfTheSamePom() throws Exception {
+        int edits = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(edits);
+        try {
+            List<Future<EditClient.Response>> responses = new ArrayList<>();
+            for (int i = 0; i < edits; i++) {
+                Map<String, String> params = Map.of("pom", pom.toString(), "property", "property." + i, "value", "" + i);
+                responses.add(executor.submit(() -> client.send("change-prop", params)));
+            }
+            for (Future<EditClient.Response> response : responses) {
+                assertThat(response.get(30, TimeUnit.SECONDS).getBody()).isEqualTo("changed");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String content = Files.readString(pom);
+        for (int i = 0; i < edits; i++) {
+            assertThat(content).contains(String.format("<property.%d>%d</property.%d>", i, i, i));
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidRequests() throws Exception {
+
+        assertThat(client.send("add-dep", Map.of("pom", pom.toString())).getStatus()).isEqualTo(400);
+        assertThat(client.send("add-dep", Map.of("pom", pom.toString(), "gav", "junit:junit:4.13", "engine", "sax")).getStatus()).isEqualTo(400);
+        assertThat(client.send("remove-dep", Map.of("pom", pom.toString())).getStatus()).isEqualTo(404);
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+    }
+
+    @Test
+    void shouldRejectTheRelativePaths() throws Exception {
+        String token = Files.readString(daemon.getTokenFile());
+        String absolute = URLEncoder.encode(pom.toString(), StandardCharsets.UTF_8);
+
+        assertThat(send("change-prop?pom=pom.xml&property=a&value=1", Map.of(EditDaemon.TOKEN_HEADER, token))).isEqualTo(400);
+        assertThat(send("change-prop?pom=" + absolute + "&property=a&value=1&backup=store&backupDirectory=backups",
+                Map.of(EditDaemon.TOKEN_HEADER, token))).isEqualTo(400);
+        assertThat(pom).content().doesNotContain("<a>1</a>");
+    }
+
+    @Test
+    void shouldSendTheAbsolutePathsOfTheClient() throws Exception {
+        Path relative = Path.of("").toAbsolutePath().relativize(pom);
+
+        EditClient.Response changed = client.send("change-prop", Map.of("pom", relative.toString(), "property", "a", "value", "1"));
+
+        assertThat(changed.getBody()).isEqualTo("changed");
+        assertThat(pom).content().contains("<a>1</a>");
+    }
+
+    @Test
+    void shouldStopOnShutdownRequests() throws Exception {
+
+        assertThat(client.send("shutdown", Map.of()).getBody()).isEqualTo("stopping");
+
+        daemon.awaitShutdown();
+        assertThat(daemon.getTokenFile()).doesNotExist();
+    }
+
+    @Test
+    void shouldKeepTheTokenToItsOwner() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        assertThat(Files.getPosixFilePermissions(daemon.getTokenFile())).isEqualTo(PosixFilePermissions.fromString("rw-------"));
+        assertThat(Files.readString(daemon.getTokenFile())).hasSizeGreaterThanOrEqualTo(43);
+    }
+
+    @Test
+    void shouldRejectTheRequestsWithoutTheToken() throws Exception {
+        Path wrongToken = Files.writeString(tempDir.resolve("wrong.token"), "wrong");
+
+        assertThat(send("commit", Map.of())).isEqualTo(401);
+        assertThat(new EditClient(daemon.getPort(), wrongToken).send("shutdown", Map.of()).getStatus()).isEqualTo(401);
+        assertThat(send("status", Map.of())).isEqualTo(401);
+    }
+
+    @Test
+    void shouldRejectTheRequestsOfTheBrowsers() throws Exception {
+        String token = Files.readString(daemon.getTokenFile());
+
+        assertThat(send("shutdown", Map.of("Origin", "https://example.com", EditDaemon.TOKEN_HEADER, token))).isEqualTo(403);
+        assertThat(send("shutdown", Map.of("Origin", "null", EditDaemon.TOKEN_HEADER, token))).isEqualTo(403);
+        assertThat(client.send("status", Map.of()).getStatus()).isEqualTo(200);
+    }
+
+    private int send(String request, Map<String, String> headers) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(String.format("http://127.0.0.1:%d/%s", daemon.getPort(), request)))
+                .POST(HttpRequest.BodyPublishers.noBody());
+        headers.forEach(builder::header);
+        return HttpClient.newHttpClient().send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -57,10 +57,21 @@ public class AddDependencyMojoIT extends EditingMojoIT {
         shouldAddDependency(result);
     }
 
+    @MavenTest
+    @SystemProperty(value = "engine", content = "stream")
+    @DisplayName("adding given a dependency into a POM with other dependencies using the stream engine")
+    void with_other_dependencies_streamed(MavenExecutionResult result) throws Exception {
+        shouldAddDependency(result);
+    }
+
     @MavenTest
     @DisplayName("adding given a dependency into a POM that has the dependency already")
     void has_dependency_already(MavenExecutionResult result) throws Exception {
-        shouldAddDependency(result);
+        assertThat(result)
+                .isSuccessful();
+        Path baseDir = result.getMavenProjectResult().getTargetProjectDirectory();
+        shouldNotHaveGeneratedBackFile(baseDir);
+        shouldAddDependency(baseDir, orgJunitJupiterGroupId, junitJupiterArtifactId, version5_9_0);
     }
 
     @MavenTest
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.org.soujava.pomeditor.it;
+
+import com.soebes.itf.jupiter.extension.MavenGoal;
+import com.soebes.itf.jupiter.extension.MavenJupiterExtension;
+import com.soebes.itf.jupiter.extension.MavenTest;
+import com.soebes.itf.jupiter.extension.SystemProperty;
+import com.soebes.itf.jupiter.maven.MavenExecutionResult;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.w3c.dom.Document;
+
+import java.nio.file.Path;
+
+import static com.soebes.itf.extension.assertj.MavenExecutionResultAssert.assertThat;
+
+@MavenJupiterExtension
+@MavenGoal("${project.groupId}:${project.artifactId}:${project.version}:apply-manifest")
+@SystemProperty(value = "manifest", content = "edits.csv")
+public class ApplyManifestMojoIT extends EditingMojoIT {
+
+    @MavenTest
+    @DisplayName("applying the dependencies and properties edits of a manifest")
+    void with_dependencies_and_properties(MavenExecutionResult result) throws Exception {
+        assertThat(result)
+                .isSuccessful();
+        Path baseDir = result.getMavenProjectResult().getTargetProjectDirectory();
+        shouldHaveGeneratedBackFile(baseDir);
+
+        Document doc = getDoc(Path.of(baseDir.toString(), "pom.xml"));
+
+        Assertions.assertThat(findByXPath(doc,
+                "/project/dependencies/dependency[artifactId=\"junit-jupiter\" and version=\"5.9.2\" and scope=\"test\"]").getLength()).isEqualTo(1);
+        Assertions.assertThat(findByXPath(doc,
+                "/project/dependencies/dependency[artifactId=\"assertj-core\" and version=\"3.24.2\"]").getLength()).isEqualTo(1);
+        Assertions.assertThat(findByXPath(doc, "/project/properties/uncertainty").item(0).getTextContent()).isEqualTo("principal");
+        Assertions.assertThat(findByXPath(doc, "/project/properties/groot").getLength()).isEqualTo(0);
+    }
+
+}
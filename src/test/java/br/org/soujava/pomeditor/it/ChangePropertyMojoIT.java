@@ -44,32 +44,36 @@ public class ChangePropertyMojoIT extends EditingMojoIT {
     @MavenTest
     @DisplayName("property added when there were no properties")
     void had_no_properties(MavenExecutionResult result) throws Exception {
-        validateProperty(result, 1);
+        validateProperty(result, true, 1);
     }
 
     @MavenTest
     @DisplayName("property added when there was no property")
     void had_no_property(MavenExecutionResult result) throws Exception {
-        validateProperty(result, 2);
+        validateProperty(result, true, 2);
     }
 
     @MavenTest
     @DisplayName("property unchanged when it was set to the same value")
     void had_same_property(MavenExecutionResult result) throws Exception {
-        validateProperty(result, 2);
+        validateProperty(result, false, 2);
     }
 
     @MavenTest
     @DisplayName("property changed when it was set to a different value")
     void had_different_property(MavenExecutionResult result) throws Exception {
-        validateProperty(result, 2);
+        validateProperty(result, true, 2);
     }
 
-    private static void validateProperty(MavenExecutionResult result, int totalProps) throws XPathExpressionException {
+    private static void validateProperty(MavenExecutionResult result, boolean changed, int totalProps) throws XPathExpressionException {
         assertThat(result)
                 .isSuccessful();
         Path baseDir = result.getMavenProjectResult().getTargetProjectDirectory();
-        shouldHaveGeneratedBackFile(baseDir);
+        if (changed) {
+            shouldHaveGeneratedBackFile(baseDir);
+        } else {
+            shouldNotHaveGeneratedBackFile(baseDir);
+        }
         shouldHaveProperty(baseDir, totalProps, propName, value);
     }
 
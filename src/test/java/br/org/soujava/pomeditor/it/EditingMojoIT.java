@@ -39,6 +39,11 @@ public abstract class EditingMojoIT {
         Assertions.assertThat(backup).exists();
     }
 
+    static void shouldNotHaveGeneratedBackFile(Path baseDir) {
+        Path backup = Path.of(baseDir.toString(), "pom.xml.backup");
+        Assertions.assertThat(backup).doesNotExist();
+    }
+
     static final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 
     static {
@@ -43,32 +43,36 @@ public class RemovePropertyMojoIT extends EditingMojoIT {
     @MavenTest
     @DisplayName("no changes to pom if no <properties>")
     void had_no_properties(MavenExecutionResult result) throws Exception {
-        validateProperty(result, false, 0);
+        validateProperty(result, false, false, 0);
     }
 
     @MavenTest
     @DisplayName("no changes to pom if no specific property")
     void had_no_property(MavenExecutionResult result) throws Exception {
-        validateProperty(result, true, 1);
+        validateProperty(result, false, true, 1);
     }
 
     @MavenTest
     @DisplayName("property removed")
     void property_removed(MavenExecutionResult result) throws Exception {
-        validateProperty(result, true, 1);
+        validateProperty(result, true, true, 1);
     }
 
     @MavenTest
     @DisplayName("the only property removed")
     void the_only_property_removed(MavenExecutionResult result) throws Exception {
-        validateProperty(result, true, 0);
+        validateProperty(result, true, true, 0);
     }
 
-    private static void validateProperty(MavenExecutionResult result, boolean propertiesNode, int propsLeft) throws XPathExpressionException {
+    private static void validateProperty(MavenExecutionResult result, boolean changed, boolean propertiesNode, int propsLeft) throws XPathExpressionException {
         assertThat(result)
                 .isSuccessful();
         Path baseDir = result.getMavenProjectResult().getTargetProjectDirectory();
-        shouldHaveGeneratedBackFile(baseDir);
+        if (changed) {
+            shouldHaveGeneratedBackFile(baseDir);
+        } else {
+            shouldNotHaveGeneratedBackFile(baseDir);
+        }
         shouldNotHaveProperty(baseDir, propName, propertiesNode, propsLeft);
     }
 
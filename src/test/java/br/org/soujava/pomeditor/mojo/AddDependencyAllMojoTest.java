@@ -0,0 +1,262 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+
+import br.org.soujava.pomeditor.api.Changeset;
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.PomChange;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AddDependencyAllMojoTest extends EditingMojoTest {
+
+    @Mock
+    BiConsumer<Path, Dependency> addDependencyCommand;
+
+    Path rootPom;
+    Path moduleAPom;
+    Path moduleBPom;
+
+    @BeforeEach
+    void createModules() throws IOException {
+        rootPom = newModulePom(tempDir);
+        moduleAPom = newModulePom(tempDir.resolve("module-a"));
+        moduleBPom = newModulePom(tempDir.resolve("module-b"));
+        newModulePom(tempDir.resolve("module-b").resolve("target"));
+        newModulePom(tempDir.resolve(".git"));
+    }
+
+    @Test
+    void shouldFindEveryPomUnderRootExceptPrunedDirectories() throws MojoFailureException {
+        AddDependencyAllMojo mojo = newMojo();
+
+        assertThat(mojo.targetPoms()).containsExactly(rootPom, moduleAPom, moduleBPom);
+    }
+
+    @Test
+    void shouldAddDependencyToEveryPom() throws MojoExecutionException, MojoFailureException {
+
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.scope = "test";
+
+        mojo.execute();
+
+        Dependency expected = Dependency.ofGav(mojo.gav).withScope(mojo.scope).build();
+        verify(addDependencyCommand, times(1)).accept(rootPom, expected);
+        verify(addDependencyCommand, times(1)).accept(moduleAPom, expected);
+        verify(addDependencyCommand, times(1)).accept(moduleBPom, expected);
+        verify(backupFunction, times(3)).apply(any(Path.class));
+        verify(rollbackFunction, never()).accept(any());
+        verify(log, atLeastOnce()).info(anyString());
+    }
+
+    @Test
+    void shouldReportEveryFailedPom() {
+
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        doThrow(new RuntimeException("forced error")).when(addDependencyCommand).accept(eq(moduleAPom), any());
+        when(backupFunction.apply(any())).thenReturn(true);
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains(moduleAPom.toString()).doesNotContain(moduleBPom.toString());
+        verify(addDependencyCommand, times(1)).accept(eq(moduleBPom), any());
+        verify(rollbackFunction, times(1)).accept(moduleAPom);
+        verify(log, times(1)).error(anyString());
+    }
+
+    @Test
+    void shouldReportTheTimedOutEdits() {
+
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.editTimeout = 1;
+        mojo.addDependencyCommand = (path, dep) -> {
+            written(path);
+            if (path.equals(moduleAPom)) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException("interrupted", ex);
+                }
+            }
+            addDependencyCommand.accept(path, dep);
+        };
+        when(backupFunction.apply(any())).thenReturn(true);
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains(moduleAPom.toString()).doesNotContain(moduleBPom.toString());
+        verify(addDependencyCommand, never()).accept(eq(moduleAPom), any());
+        verify(addDependencyCommand, times(1)).accept(eq(moduleBPom), any());
+        verify(rollbackFunction, times(1)).accept(moduleAPom);
+        verify(log, times(1)).error(contains("timed out after 1000 ms"));
+    }
+
+    @Test
+    void shouldRejectAnUnknownExecutor() {
+
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.executor = "green";
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains("unknown threads 'green'");
+        verify(addDependencyCommand, never()).accept(any(), any());
+    }
+
+    @Test
+    void shouldRecordTheEditsInTheChangeset() throws Exception {
+
+        String original = Files.readString(moduleAPom);
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.changeset = "add-artifact";
+        mojo.journalDirectory = tempDir.resolve("journal").toString();
+        mojo.backupFunction = null;
+        mojo.rollbackFunction = null;
+        mojo.addDependencyCommand = (path, dep) -> {
+            written(path);
+            try {
+                Files.writeString(path, "edited");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+
+        mojo.execute();
+
+        assertThat(moduleAPom).hasContent("edited");
+        assertThat(PomChange.backupFileOf(moduleAPom)).doesNotExist();
+        assertThat(Changeset.exists(tempDir.resolve("journal"), "add-artifact")).isTrue();
+
+        RollbackMojo rollback = new RollbackMojo();
+        rollback.setLog(log);
+        rollback.changeset = mojo.changeset;
+        rollback.journalDirectory = mojo.journalDirectory;
+        rollback.execute();
+
+        assertThat(moduleAPom).hasContent(original);
+        assertThat(Changeset.exists(tempDir.resolve("journal"), "add-artifact")).isFalse();
+    }
+
+    @Test
+    void shouldRecordOnlyTheChangedPomsInTheChangeset() throws Exception {
+
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.changeset = "add-artifact";
+        mojo.journalDirectory = tempDir.resolve("journal").toString();
+        mojo.backupFunction = null;
+        mojo.rollbackFunction = null;
+        mojo.addDependencyCommand = (path, dep) -> {
+            if (!path.equals(moduleAPom)) {
+                return;
+            }
+            written(path);
+            try {
+                Files.writeString(path, "edited");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+
+        mojo.execute();
+
+        try (Changeset changeset = Changeset.open(tempDir.resolve("journal"), "add-artifact")) {
+            assertThat(changeset.getPoms()).containsExactly(moduleAPom.toAbsolutePath().normalize());
+        }
+    }
+
+    @Test
+    void shouldEndTheChangesetWhenInterrupted() throws Exception {
+
+        Thread caller = Thread.currentThread();
+        AddDependencyAllMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.changeset = "add-artifact";
+        mojo.journalDirectory = tempDir.resolve("journal").toString();
+        mojo.addDependencyCommand = (path, dep) -> {
+            caller.interrupt();
+            try {
+                // the caller is interrupted while it waits for the edits
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try {
+            Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+        } finally {
+            Thread.interrupted();
+        }
+
+        try (Changeset changeset = Changeset.open(tempDir.resolve("journal"), "add-artifact")) {
+            assertThat(changeset.getState()).isEqualTo(Changeset.State.OPEN);
+        }
+    }
+
+    private Path newModulePom(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        return Files.copy(pom, dir.resolve("pom.xml"));
+    }
+
+    private AddDependencyAllMojo newMojo() {
+        AddDependencyAllMojo mojo = new AddDependencyAllMojo();
+        mojo.root = tempDir.toString();
+        mojo.threads = 2;
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.addDependencyCommand = (path, dep) -> {
+            written(path);
+            addDependencyCommand.accept(path, dep);
+        };
+        return mojo;
+    }
+
+}
@@ -19,7 +19,10 @@ package br.org.soujava.pomeditor.mojo;
 
 
 import br.org.soujava.pomeditor.InvalidGroupIdArtifactIdArgs;
+import br.org.soujava.pomeditor.api.AddDependency;
 import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.PomSection;
+import br.org.soujava.pomeditor.api.WhitespaceProfile;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.junit.jupiter.api.Assertions;
@@ -33,6 +36,8 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Objects;
@@ -42,8 +47,11 @@ import java.util.stream.Collectors;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -107,14 +115,147 @@ class AddDependencyMojoTest extends EditingMojoTest {
 
     }
 
+    @Test
+    void shouldNotChangeAnUpToDatePom() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        AddDependencyMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.addDependencyCommand = addDependencyCommand;
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(addDependencyCommand, atLeastOnce()).accept(any(), any());
+        verify(backupFunction, never()).apply(any());
+        verify(rollbackFunction, never()).accept(any());
+        verify(log, atLeastOnce()).info(contains("unchanged"));
+
+    }
+
+    @Test
+    void shouldReportTheEditMetrics() throws Exception {
+
+        //Given
+        AddDependencyMojo mojo = newMojo();
+        mojo.gav = "groupId:artifactId:222";
+        mojo.metricsFile = tempDir.resolve("metrics").resolve("edits.csv").toString();
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(log, atLeastOnce()).info(contains("edit metrics: 1 POM file(s) edited"));
+        assertThat(Files.readAllLines(Path.of(mojo.metricsFile)))
+                .hasSize(2)
+                .first().asString().startsWith("pom,edits,total_ns,parse_ns");
+    }
+
+    @Test
+    void shouldAddTheManagedDependency() throws Exception {
+
+        //Given
+        AddDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit:junit-bom:5.9.2";
+        mojo.type = "pom";
+        mojo.scope = "import";
+        mojo.managed = true;
+        mojo.addDependencyCommand = null;
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(pom))
+                .containsOnlyOnce("<artifactId>junit-bom</artifactId>")
+                .contains("<scope>import</scope>");
+        mojo.execute();
+        verify(log).info(contains("is already declared"));
+    }
+
+    @Test
+    void shouldReuseTheCachedTransformationOfAnIdenticalPom() throws Exception {
+
+        //Given
+        Path identicalPom = tempDir.resolve("identical").resolve("pom.xml");
+        Files.createDirectories(identicalPom.getParent());
+        Files.copy(pom, identicalPom);
+        AddDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit:junit-bom:5.9.2";
+        mojo.cacheDirectory = tempDir.resolve("cache").toString();
+        mojo.addDependencyCommand = (path, dependency) -> {
+            addDependencyCommand.accept(path, dependency);
+            AddDependency.execute(path, dependency);
+        };
+
+        //When
+        mojo.execute();
+        mojo.pom = identicalPom.toString();
+        mojo.execute();
+
+        //Then
+        verify(addDependencyCommand, times(1)).accept(any(), any());
+        assertThat(Files.readString(identicalPom)).isEqualTo(Files.readString(pom)).contains("<artifactId>junit-bom</artifactId>");
+        verify(log).info(startsWith("transformation cache: 1 hit(s), 1 miss(es), 0 eviction(s), 1 entries"));
+    }
+
+    @Test
+    void shouldNotReuseTheCachedTransformationOfAPomFollowingAnotherRepositoryStyle() throws Exception {
+
+        //Given
+        String unstyled = "<project>\n<modelVersion>4.0.0</modelVersion>\n</project>\n";
+        Path spacesPom = newRepositoryPom("spaces", "  ", unstyled);
+        Path tabsPom = newRepositoryPom("tabs", "\t", unstyled);
+        AddDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit:junit-bom:5.9.2";
+        mojo.cacheDirectory = tempDir.resolve("cache").toString();
+
+        //When
+        mojo.pom = spacesPom.toString();
+        mojo.execute();
+        mojo.pom = tabsPom.toString();
+        mojo.execute();
+
+        //Then
+        verify(log).info(startsWith("transformation cache: 0 hit(s), 2 miss(es)"));
+    }
+
+    private Path newRepositoryPom(String repository, String indentation, String content) throws IOException {
+        Path root = tempDir.resolve(repository);
+        Files.createDirectories(root.resolve(".git"));
+        Path styled = root.resolve("styled").resolve("pom.xml");
+        Files.createDirectories(styled.getParent());
+        Files.writeString(styled, "<project>\n" + indentation + "<modelVersion>4.0.0</modelVersion>\n</project>\n");
+        WhitespaceProfile.of(styled);
+        Path target = root.resolve("pom.xml");
+        Files.writeString(target, content);
+        return target;
+    }
+
+    @Test
+    void shouldRejectAnUnknownDurability() {
+
+        AddDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit:junit-bom:5.9.2";
+        mojo.durability = "eventually";
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains("unknown durability 'eventually'");
+        verify(addDependencyCommand, never()).accept(any(), any());
+    }
+
     private AddDependencyMojo newMojo() {
         AddDependencyMojo mojo = new AddDependencyMojo();
         mojo.pom = this.pom.toString();
         mojo.setLog(log);
         mojo.backupFunction = backupFunction;
         mojo.rollbackFunction = rollbackFunction;
-        mojo.addDependencyCommand =
-                (path, dep) -> addDependencyCommand.accept(path, dep);
+        mojo.addDependencyCommand = (path, dep) -> {
+            written(path);
+            addDependencyCommand.accept(path, dep);
+        };
         return mojo;
     }
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Plugin;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AddPluginMojoTest extends EditingMojoTest {
+
+    @Mock
+    BiConsumer<Path, Plugin> addPluginCommand;
+
+    @Captor
+    ArgumentCaptor<Plugin> pluginToBeAdded;
+
+    @Test
+    void shouldReturnErrorWhenTheArtifactIdIsMissing() {
+        Assertions.assertThrows(MojoExecutionException.class, () -> {
+            AddPluginMojo mojo = newMojo();
+            mojo.gav = "groupId";
+            mojo.execute();
+        });
+
+        verify(backupFunction, never()).apply(any());
+    }
+
+    @Test
+    void shouldAddPluginProperly() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        AddPluginMojo mojo = newMojo();
+        mojo.gav = "org.apache.maven.plugins:maven-jar-plugin:3.3.0";
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(addPluginCommand, atLeastOnce()).accept(targetPom.capture(), pluginToBeAdded.capture());
+        verify(backupFunction, atLeastOnce()).apply(any(Path.class));
+        verify(rollbackFunction, never()).accept(any());
+
+        assertThat(targetPom.getValue()).isEqualTo(Path.of(mojo.pom));
+        assertThat(pluginToBeAdded.getValue()).isEqualTo(Plugin.ofGav("org.apache.maven.plugins:maven-jar-plugin:3.3.0").build());
+    }
+
+    @Test
+    void shouldNotChangeAnUpToDatePom() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        AddPluginMojo mojo = newMojo();
+        mojo.gav = "org.apache.maven.plugins:maven-jar-plugin:3.3.0";
+        mojo.addPluginCommand = addPluginCommand;
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(addPluginCommand, atLeastOnce()).accept(any(), any());
+        verify(backupFunction, never()).apply(any());
+        verify(log, atLeastOnce()).info(contains("unchanged"));
+    }
+
+    @Test
+    void shouldAddTheManagedPlugin() throws Exception {
+
+        //Given
+        AddPluginMojo mojo = newMojo();
+        mojo.gav = "org.codehaus.mojo:versions-maven-plugin:2.16.0";
+        mojo.managed = true;
+        mojo.addPluginCommand = null;
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(pom))
+                .contains("<groupId>org.codehaus.mojo</groupId>\n                    <artifactId>versions-maven-plugin</artifactId>\n                    <version>2.16.0</version>");
+    }
+
+    private AddPluginMojo newMojo() {
+        AddPluginMojo mojo = new AddPluginMojo();
+        mojo.pom = this.pom.toString();
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.addPluginCommand = (path, item) -> {
+            written(path);
+            addPluginCommand.accept(path, item);
+        };
+        return mojo;
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.PomEditBatch;
+import br.org.soujava.pomeditor.api.Property;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ApplyManifestMojoTest extends EditingMojoTest {
+
+    List<Map.Entry<Path, PomEditBatch>> applied = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void shouldApplyTheEditsOfEachPomAsASingleBatch() throws IOException, MojoExecutionException, MojoFailureException {
+        Path otherPom = Files.copy(pom, tempDir.resolve("other-pom.xml"));
+        Path manifest = Files.writeString(tempDir.resolve("edits.csv"), "pom,gav,property,value\n" +
+                pom + ",junit:junit:4.13,,\n" +
+                otherPom + ",,java.version,17\n" +
+                pom + ",,java.version,17\n");
+
+        ApplyManifestMojo mojo = newMojo(manifest);
+        mojo.execute();
+
+        assertThat(applied).containsExactlyInAnyOrder(
+                Map.entry(pom, PomEditBatch.builder()
+                        .withDependency(Dependency.ofGav("junit:junit:4.13").build())
+                        .withProperty(Property.of("java.version", "17").build())
+                        .build()),
+                Map.entry(otherPom, PomEditBatch.builder()
+                        .withProperty(Property.of("java.version", "17").build())
+                        .build()));
+        verify(backupFunction, times(2)).apply(any(Path.class));
+        verify(log).info(contains("3 edit(s) applied to 2 POM file(s): 2 changed, 0 unchanged, 0 failed."));
+    }
+
+    @Test
+    void shouldApplyTheGroupsOfTheSamePomInOrder() throws IOException, MojoExecutionException, MojoFailureException {
+        StringBuilder manifest = new StringBuilder("{\"pom\": \"" + pom + "\", \"property\": \"step\", \"value\": \"1\"}\n");
+        for (int i = 0; i < 10; i++) {
+            manifest.append("{\"pom\": \"").append(tempDir.resolve("pom-" + i + ".xml")).append("\", \"property\": \"other\"}\n");
+        }
+        manifest.append("{\"pom\": \"").append(pom).append("\", \"property\": \"step\", \"value\": \"2\"}\n");
+
+        ApplyManifestMojo mojo = newMojo(Files.writeString(tempDir.resolve("edits.jsonl"), manifest));
+        mojo.threads = 1;
+        mojo.execute();
+
+        assertThat(applied).hasSize(12);
+        assertThat(applied.stream()
+                .filter(group -> group.getKey().equals(pom))
+                .map(group -> group.getValue().getProperties().get(0).getValue())
+                .collect(Collectors.toList()))
+                .containsExactly("1", "2");
+        verify(log).info(contains("12 edit(s) applied to 11 POM file(s): 11 changed, 0 unchanged, 0 failed."));
+    }
+
+    @Test
+    void shouldReportEveryFailedPom() throws IOException {
+        Path otherPom = Files.copy(pom, tempDir.resolve("other-pom.xml"));
+        Path manifest = Files.writeString(tempDir.resolve("edits.csv"), "pom,gav\n" +
+                pom + ",junit:junit:4.13\n" +
+                otherPom + ",junit:junit:4.13\n");
+        when(backupFunction.apply(any())).thenReturn(true);
+
+        ApplyManifestMojo mojo = newMojo(manifest);
+        mojo.batchCommand = (path, batch) -> {
+            written(path);
+            if (path.equals(otherPom)) {
+                throw new IllegalStateException("forced error");
+            }
+        };
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains(otherPom.toString()).doesNotContain(pom.toString() + ",");
+        verify(rollbackFunction, times(1)).accept(otherPom);
+    }
+
+    @Test
+    void shouldCancelTheWaitingPomsAndWaitForTheRunningOneOnceInterrupted() throws Exception {
+        Path manifest = Files.writeString(tempDir.resolve("edits.csv"), "pom,property\n" +
+                pom + ",first\n" +
+                tempDir.resolve("second-pom.xml") + ",second\n" +
+                tempDir.resolve("third-pom.xml") + ",third\n");
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean();
+        ApplyManifestMojo mojo = newMojo(manifest);
+        mojo.threads = 1;
+        mojo.batchCommand = (path, batch) -> {
+            running.set(true);
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("interrupted");
+            } finally {
+                running.set(false);
+            }
+        };
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean runningOnReturn = new AtomicBoolean(true);
+        Thread build = new Thread(() -> {
+            try {
+                mojo.execute();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+            runningOnReturn.set(running.get());
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+
+        build.start();
+        assertThat(started.await(1, TimeUnit.MINUTES)).isTrue();
+        build.interrupt();
+        build.join(TimeUnit.MINUTES.toMillis(1));
+
+        assertThat(runningOnReturn).isFalse();
+        assertThat(interrupted).isTrue();
+        assertThat(failure.get()).isInstanceOf(MojoFailureException.class)
+                .hasMessageContaining("to 3 POM file(s)")
+                .hasMessageContaining("second-pom.xml")
+                .hasMessageContaining("third-pom.xml");
+        verify(log, times(2)).error(contains("[CANCELLED]"));
+    }
+
+    @Test
+    void shouldRejectAnInvalidManifest() throws IOException {
+        Path manifest = Files.writeString(tempDir.resolve("edits.csv"), "pom,gav\n" + pom + ",junit\n");
+
+        ApplyManifestMojo mojo = newMojo(manifest);
+
+        MojoExecutionException ex = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        assertThat(ex.getMessage()).contains("edits.csv:2: ");
+        assertThat(applied).isEmpty();
+    }
+
+    private ApplyManifestMojo newMojo(Path manifest) {
+        ApplyManifestMojo mojo = new ApplyManifestMojo();
+        mojo.manifest = manifest.toString();
+        mojo.threads = 2;
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.batchCommand = (path, batch) -> {
+            written(path);
+            applied.add(Map.entry(path, batch));
+        };
+        return mojo;
+    }
+
+}
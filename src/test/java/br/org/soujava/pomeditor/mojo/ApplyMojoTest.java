@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.PomEditBatch;
+import br.org.soujava.pomeditor.api.PomPlan;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ApplyMojoTest extends EditingMojoTest {
+
+    Path otherPom;
+    Path planFile;
+
+    @BeforeEach
+    void createPlan() throws IOException {
+        otherPom = Files.copy(pom, tempDir.resolve("other-pom.xml"));
+        planFile = tempDir.resolve("pom-editor.plan");
+        PomEditBatch batch = PomEditBatch.builder()
+                .withDependency(Dependency.ofGav("groupId:artifactId:222").build())
+                .build();
+        new PomPlan(List.of(
+                PomPlan.plan(log, pom, batch, EditEngine.DOM).orElseThrow(),
+                PomPlan.plan(log, otherPom, batch, EditEngine.DOM).orElseThrow()))
+                .writeTo(planFile);
+    }
+
+    @Test
+    void shouldApplyThePlan() throws MojoExecutionException, MojoFailureException {
+
+        ApplyMojo mojo = newMojo();
+        mojo.execute();
+
+        assertThat(pom).content().contains("<artifactId>artifactId</artifactId>");
+        assertThat(otherPom).content().contains("<artifactId>artifactId</artifactId>");
+        verify(backupFunction, times(2)).apply(any(Path.class));
+        verify(rollbackFunction, never()).accept(any());
+    }
+
+    @Test
+    void shouldSkipThePomsChangedSinceTheyWerePlanned() throws MojoExecutionException, MojoFailureException, IOException {
+        Files.writeString(otherPom, "<project/>");
+
+        ApplyMojo mojo = newMojo();
+        mojo.execute();
+
+        assertThat(pom).content().contains("<artifactId>artifactId</artifactId>");
+        assertThat(otherPom).hasContent("<project/>");
+        verify(backupFunction, times(1)).apply(pom);
+        verify(log, times(1)).warn(contains("[STALE]"));
+    }
+
+    @Test
+    void shouldRollBackAFailedPom() {
+
+        ApplyMojo mojo = newMojo();
+        mojo.applyCommand = entry -> {
+            written(entry.getPom());
+            throw new IllegalStateException("forced error");
+        };
+        when(backupFunction.apply(any())).thenReturn(true);
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains(pom.toString(), otherPom.toString());
+        verify(rollbackFunction, times(1)).accept(pom);
+        verify(rollbackFunction, times(1)).accept(otherPom);
+    }
+
+    @Test
+    void shouldRejectAMissingPlanFile() {
+
+        ApplyMojo mojo = newMojo();
+        mojo.planFile = tempDir.resolve("missing.plan").toString();
+
+        Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+    }
+
+    private ApplyMojo newMojo() {
+        ApplyMojo mojo = new ApplyMojo();
+        mojo.planFile = planFile.toString();
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        return mojo;
+    }
+
+}
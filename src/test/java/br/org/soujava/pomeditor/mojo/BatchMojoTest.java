@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.Plugin;
+import br.org.soujava.pomeditor.api.PomEditBatch;
+import br.org.soujava.pomeditor.api.Property;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BatchMojoTest extends EditingMojoTest {
+
+    @Mock
+    BiConsumer<Path, PomEditBatch> batchCommand;
+
+    @Captor
+    ArgumentCaptor<PomEditBatch> batchToBeApplied;
+
+    @Test
+    void shouldReturnErrorWhenThereIsNoEdit() {
+        Assertions.assertThrows(MojoExecutionException.class, () -> newMojo().execute());
+
+        verify(backupFunction, never()).apply(any());
+        verify(rollbackFunction, never()).accept(any());
+    }
+
+    @Test
+    void shouldApplyEveryEditInOnePass() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        BatchMojo mojo = newMojo();
+        mojo.gavs = List.of("org.junit.jupiter:junit-jupiter:5.9.2", "org.assertj:assertj-core:3.24.2");
+        mojo.properties = List.of("vanilla=sky", "disappear");
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(batchCommand, times(1)).accept(targetPom.capture(), batchToBeApplied.capture());
+        verify(backupFunction, times(1)).apply(any(Path.class));
+        verify(rollbackFunction, never()).accept(any());
+        verify(log, atLeastOnce()).info(anyString());
+
+        var batch = this.batchToBeApplied.getValue();
+        assertThat(targetPom.getValue()).isEqualTo(Path.of(mojo.pom));
+        assertThat(batch.getDependencies()).containsExactly(
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").build(),
+                Dependency.ofGav("org.assertj:assertj-core:3.24.2").build());
+        assertThat(batch.getProperties()).containsExactly(
+                Property.of("vanilla", "sky").build(),
+                Property.of("disappear", null).build());
+    }
+
+    @Test
+    void shouldApplyTheManagedAndPluginEdits() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        BatchMojo mojo = newMojo();
+        mojo.managedGavs = List.of("org.junit.jupiter:junit-jupiter:5.9.2");
+        mojo.plugins = List.of("org.apache.maven.plugins:maven-checkstyle-plugin:3.2.2");
+        mojo.managedPlugins = List.of("org.apache.maven.plugins:maven-surefire-plugin:3.0.0");
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(batchCommand, atLeastOnce()).accept(targetPom.capture(), batchToBeApplied.capture());
+
+        var batch = this.batchToBeApplied.getValue();
+        assertThat(batch.getDependencies()).isEmpty();
+        assertThat(batch.getManagedDependencies()).containsExactly(
+                Dependency.ofGav("org.junit.jupiter:junit-jupiter:5.9.2").build());
+        assertThat(batch.getPlugins()).containsExactly(
+                Plugin.ofGav("org.apache.maven.plugins:maven-checkstyle-plugin:3.2.2").build());
+        assertThat(batch.getManagedPlugins()).containsExactly(
+                Plugin.ofGav("org.apache.maven.plugins:maven-surefire-plugin:3.0.0").build());
+    }
+
+    private BatchMojo newMojo() {
+        BatchMojo mojo = new BatchMojo();
+        mojo.pom = this.pom.toString();
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.batchCommand = (path, batch) -> {
+            written(path);
+            batchCommand.accept(path, batch);
+        };
+        return mojo;
+    }
+
+}
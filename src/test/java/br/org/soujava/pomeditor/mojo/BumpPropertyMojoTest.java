@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BumpPropertyMojoTest extends EditingMojoTest {
+
+    Path rootPom;
+    Path moduleAPom;
+    Path moduleBPom;
+
+    @BeforeEach
+    void createModules() throws IOException {
+        rootPom = tempDir.resolve("pom.xml");
+        Files.writeString(rootPom, "<project>\n" +
+                "    <groupId>org.example</groupId>\n" +
+                "    <artifactId>root</artifactId>\n" +
+                "    <properties>\n" +
+                "        <junit.version>5.9.0</junit.version>\n" +
+                "    </properties>\n" +
+                "</project>\n");
+        moduleAPom = newModulePom("module-a", "${junit.version}", "5.9.0");
+        moduleBPom = newModulePom("module-b", "5.9.0", "5.9.0");
+    }
+
+    private Path newModulePom(String module, String jupiterVersion, String paramsVersion) throws IOException {
+        Path modulePom = tempDir.resolve(module).resolve("pom.xml");
+        Files.createDirectories(modulePom.getParent());
+        Files.writeString(modulePom, "<project>\n" +
+                "    <parent>\n" +
+                "        <groupId>org.example</groupId>\n" +
+                "        <artifactId>root</artifactId>\n" +
+                "    </parent>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>" + jupiterVersion + "</version>\n" +
+                "        </dependency>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter-params</artifactId>\n" +
+                "            <version>" + paramsVersion + "</version>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+        return modulePom;
+    }
+
+    @Test
+    void shouldChangeThePropertyWhereItIsDefinedOnly() throws Exception {
+
+        //Given
+        BumpPropertyMojo mojo = newMojo();
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(rootPom)).contains("<junit.version>5.9.2</junit.version>");
+        assertThat(Files.readString(moduleAPom)).doesNotContain("<properties>").contains("<version>5.9.0</version>");
+        verify(backupFunction, times(1)).apply(any(Path.class));
+        verify(log).info(contains("3 POM file(s) processed: 1 changed, 2 unchanged, 0 failed."));
+    }
+
+    @Test
+    void shouldReferenceTheHardCodedVersionsOfTheArtifactsUsingTheProperty() throws Exception {
+
+        //Given
+        BumpPropertyMojo mojo = newMojo();
+        mojo.referenceHardCoded = true;
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(rootPom)).contains("<junit.version>5.9.2</junit.version>");
+        assertThat(Files.readString(moduleAPom))
+                .contains("<artifactId>junit-jupiter-params</artifactId>\n            <version>5.9.0</version>");
+        assertThat(Files.readString(moduleBPom))
+                .contains("<artifactId>junit-jupiter</artifactId>\n            <version>${junit.version}</version>")
+                .contains("<artifactId>junit-jupiter-params</artifactId>\n            <version>5.9.0</version>");
+        verify(backupFunction, times(2)).apply(any(Path.class));
+    }
+
+    @Test
+    void shouldNotReferenceThePropertyWhereItIsNotInherited() throws Exception {
+
+        //Given
+        Files.writeString(moduleBPom, Files.readString(moduleBPom).replaceAll("(?s)    <parent>.*</parent>\n", ""));
+        BumpPropertyMojo mojo = newMojo();
+        mojo.referenceHardCoded = true;
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(moduleBPom)).doesNotContain("${junit.version}");
+        verify(backupFunction, times(1)).apply(any(Path.class));
+    }
+
+    @Test
+    void shouldReturnErrorWhenThePropertyIsNotDefined() {
+        BumpPropertyMojo mojo = newMojo();
+        mojo.property = "assertj.version";
+
+        Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        verify(backupFunction, never()).apply(any());
+    }
+
+    private BumpPropertyMojo newMojo() {
+        BumpPropertyMojo mojo = new BumpPropertyMojo();
+        mojo.pom = this.pom.toString();
+        mojo.root = tempDir.toString();
+        mojo.property = "junit.version";
+        mojo.value = "5.9.2";
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        return mojo;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+
+import br.org.soujava.pomeditor.api.Property;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChangePropertyAllMojoTest extends EditingMojoTest {
+
+    @Mock
+    BiConsumer<Path, Property> changePropertyCommand;
+
+    @Test
+    void shouldFallbackToTheGivenPomWhenThereIsNoReactor() throws MojoExecutionException, MojoFailureException {
+
+        ChangePropertyAllMojo mojo = new ChangePropertyAllMojo();
+        mojo.pom = this.pom.toString();
+        mojo.property = "vanilla";
+        mojo.value = "sky";
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.changePropertyCommand = (path, prop) -> {
+            written(path);
+            changePropertyCommand.accept(path, prop);
+        };
+
+        mojo.execute();
+
+        verify(changePropertyCommand, times(1)).accept(pom, Property.of("vanilla", "sky").build());
+        verify(backupFunction, times(1)).apply(pom);
+        verify(rollbackFunction, never()).accept(any());
+    }
+
+}
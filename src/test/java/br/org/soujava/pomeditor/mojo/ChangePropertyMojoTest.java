@@ -39,6 +39,7 @@ import java.util.function.BiConsumer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -96,14 +97,52 @@ class ChangePropertyMojoTest extends EditingMojoTest {
 
     }
 
+    @Test
+    void shouldNotChangeAnUpToDatePom() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        ChangePropertyMojo mojo = newMojo();
+        mojo.property = "vanilla";
+        mojo.value = "sky";
+        mojo.changePropertyCommand = changePropertyCommand;
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(changePropertyCommand, atLeastOnce()).accept(any(), any());
+        verify(backupFunction, never()).apply(any());
+        verify(rollbackFunction, never()).accept(any());
+        verify(log, atLeastOnce()).info(contains("unchanged"));
+
+    }
+
+    @Test
+    void shouldRejectAnUnknownEngineBeforeChangingThePom() {
+
+        ChangePropertyMojo mojo = newMojo();
+        mojo.property = "vanilla";
+        mojo.value = "sky";
+        mojo.engine = "sax";
+
+        MojoExecutionException ex = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains("sax");
+        verify(changePropertyCommand, never()).accept(any(), any());
+        verify(backupFunction, never()).apply(any());
+        verify(rollbackFunction, never()).accept(any());
+    }
+
     private ChangePropertyMojo newMojo() {
         ChangePropertyMojo mojo = new ChangePropertyMojo();
         mojo.pom = this.pom.toString();
         mojo.setLog(log);
         mojo.backupFunction = backupFunction;
         mojo.rollbackFunction = rollbackFunction;
-        mojo.changePropertyCommand =
-                (path, dep) -> changePropertyCommand.accept(path, dep);
+        mojo.changePropertyCommand = (path, dep) -> {
+            written(path);
+            changePropertyCommand.accept(path, dep);
+        };
         return mojo;
     }
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PomChange;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CommitAllMojoTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    Log log;
+
+    @Test
+    void shouldCommitTheIncludedBackupsOnly() throws Exception {
+        Path pom = Files.writeString(root.resolve("pom.xml"), "changed");
+        Files.writeString(PomChange.backupFileOf(pom), "original");
+        Path module = Files.writeString(Files.createDirectories(root.resolve("modules/a")).resolve("pom.xml"), "changed");
+        Files.writeString(PomChange.backupFileOf(module), "original");
+
+        var mojo = new CommitAllMojo();
+        mojo.setLog(log);
+        mojo.root = root.toString();
+        mojo.includes = "modules/**/pom.xml";
+        mojo.execute();
+
+        assertThat(module).hasContent("changed");
+        assertThat(PomChange.backupFileOf(module)).doesNotExist();
+        assertThat(PomChange.backupFileOf(pom)).hasContent("original");
+        verify(log).info(String.format("1 backup POM file(s) found under \"%s\": 1 committed, 0 failed.", root));
+    }
+}
@@ -25,13 +25,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,4 +56,16 @@ class CommitMojoTest {
         verify(log, atLeast(2)).info(anyString());
         verify(commitFunction, atLeastOnce()).accept(any(Path.class));
     }
+
+    @Test
+    void shouldFailIfTheChangesetDoesNotExist() throws IOException {
+        var mojo = new CommitMojo();
+        mojo.setLog(log);
+        mojo.commitFunction = this.commitFunction;
+        mojo.changeset = "missing";
+        mojo.journalDirectory = Files.createTempDirectory(null).toString();
+
+        assertThrows(MojoFailureException.class, mojo::execute);
+        verify(commitFunction, never()).accept(any(Path.class));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class DaemonMojoTest {
+
+    @Mock
+    Log log;
+
+    @Test
+    void shouldRejectInvalidThreads() {
+        DaemonMojo mojo = newMojo();
+        mojo.port = 0;
+        mojo.threads = 0;
+
+        assertThrows(MojoExecutionException.class, mojo::execute);
+    }
+
+    @Test
+    void shouldFailWhenThePortIsTaken() throws IOException {
+        try (ServerSocket taken = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            DaemonMojo mojo = newMojo();
+            mojo.port = taken.getLocalPort();
+
+            assertThrows(MojoExecutionException.class, mojo::execute);
+        }
+    }
+
+    private DaemonMojo newMojo() {
+        DaemonMojo mojo = new DaemonMojo();
+        mojo.setLog(log);
+        return mojo;
+    }
+}
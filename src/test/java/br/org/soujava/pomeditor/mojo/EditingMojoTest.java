@@ -18,6 +18,7 @@
 package br.org.soujava.pomeditor.mojo;
 
 
+import br.org.soujava.pomeditor.api.PomChange;
 import org.apache.maven.plugin.logging.Log;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -75,6 +76,14 @@ abstract class EditingMojoTest {
         Optional.ofNullable(tempDir).ifPresent(tempDir -> delete(tempDir.toFile()));
     }
 
+    /**
+     * Reports the write of the given POM to the change running it, as the edits replaced by the mocked commands do,
+     * so its backup is created
+     */
+    static void written(Path pom) {
+        PomChange.beforeWrite(pom);
+    }
+
     void delete(File file) {
         if (file.isDirectory()) {
             Arrays.stream(file.listFiles()).forEach(this::delete);
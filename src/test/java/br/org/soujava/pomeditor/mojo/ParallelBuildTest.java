@@ -0,0 +1,190 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package br.org.soujava.pomeditor.mojo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the editing goals the way {@code mvn -T} does: a new mojo instance for every execution,
+ * many executions at once, several of them editing the same POM
+ */
+@ExtendWith(MockitoExtension.class)
+class ParallelBuildTest extends EditingMojoTest {
+
+    private static final int MODULES = 8;
+    private static final int ROUNDS = 6;
+    private static final int THREADS = 16;
+
+    List<Path> modulePoms;
+
+    @BeforeEach
+    void createModules() throws IOException {
+        modulePoms = new ArrayList<>();
+        for (int i = 0; i < MODULES; i++) {
+            Path module = tempDir.resolve("module-" + i);
+            Files.createDirectories(module);
+            modulePoms.add(Files.copy(pom, module.resolve("pom.xml")));
+        }
+    }
+
+    @Test
+    void shouldApplyEveryConcurrentEdit() throws Exception {
+
+        List<Callable<Void>> edits = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Path modulePom : modulePoms) {
+                edits.add(addDependency(modulePom, "org.example:dep-" + round + ":1." + round));
+                edits.add(changeProperty(modulePom, "round." + round, "value-" + round));
+            }
+            // every module edits the aggregator POM as well, as a goal with a relative pom parameter would do
+            edits.add(addDependency(pom, "org.example:dep-" + round + ":1." + round));
+        }
+        runAll(edits);
+
+        List<Callable<Void>> commits = new ArrayList<>();
+        modulePoms.forEach(modulePom -> commits.add(commit(modulePom)));
+        commits.add(commit(pom));
+        runAll(commits);
+
+        for (Path modulePom : modulePoms) {
+            Document document = parse(modulePom);
+            for (int round = 0; round < ROUNDS; round++) {
+                assertThat(artifactIds(document)).contains("dep-" + round);
+                assertThat(document.getElementsByTagName("round." + round).item(0).getTextContent()).isEqualTo("value-" + round);
+            }
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            assertThat(artifactIds(parse(pom))).containsOnlyOnce("dep-" + round);
+        }
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .noneMatch(name -> name.endsWith(".backup") || name.endsWith(".lock") || name.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    void shouldEditTheModulePomOnlyWhenAskedTo() throws Exception {
+        Path modulePom = modulePoms.get(0);
+
+        AddDependencyMojo mojo = new AddDependencyMojo();
+        mojo.pom = pom.toString();
+        mojo.projectFile = modulePom.toFile();
+        mojo.gav = "org.example:dep-root:1.0";
+        mojo.setLog(log);
+        mojo.execute();
+
+        mojo.gav = "org.example:dep-module:1.0";
+        mojo.perModule = true;
+        mojo.execute();
+
+        assertThat(artifactIds(parse(pom))).containsExactly("dep-root");
+        assertThat(artifactIds(parse(modulePom))).containsExactly("dep-module");
+    }
+
+    @Test
+    void shouldDeclareEveryGoalThreadSafe() throws Exception {
+        Document descriptor = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(Path.of("target", "classes", "META-INF", "maven", "plugin.xml").toFile());
+        NodeList mojos = descriptor.getElementsByTagName("mojo");
+
+        assertThat(mojos.getLength()).isPositive();
+        for (int i = 0; i < mojos.getLength(); i++) {
+            Element mojo = (Element) mojos.item(i);
+            assertThat(mojo.getElementsByTagName("threadSafe").item(0).getTextContent())
+                    .as(mojo.getElementsByTagName("goal").item(0).getTextContent())
+                    .isEqualTo("true");
+        }
+    }
+
+    private Callable<Void> addDependency(Path target, String gav) {
+        return () -> {
+            AddDependencyMojo mojo = new AddDependencyMojo();
+            mojo.pom = target.toString();
+            mojo.gav = gav;
+            mojo.setLog(log);
+            mojo.execute();
+            return null;
+        };
+    }
+
+    private Callable<Void> changeProperty(Path target, String property, String value) {
+        return () -> {
+            ChangePropertyMojo mojo = new ChangePropertyMojo();
+            mojo.pom = target.toString();
+            mojo.property = property;
+            mojo.value = value;
+            mojo.setLog(log);
+            mojo.execute();
+            return null;
+        };
+    }
+
+    private Callable<Void> commit(Path target) {
+        return () -> {
+            CommitMojo mojo = new CommitMojo();
+            mojo.pom = target.toString();
+            mojo.setLog(log);
+            mojo.execute();
+            return null;
+        };
+    }
+
+    private static void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Document parse(Path file) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+    }
+
+    private static List<String> artifactIds(Document document) {
+        NodeList artifactIds = document.getElementsByTagName("artifactId");
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < artifactIds.getLength(); i++) {
+            values.add(artifactIds.item(i).getTextContent());
+        }
+        return values.stream().filter(value -> value.startsWith("dep-")).collect(Collectors.toList());
+    }
+}
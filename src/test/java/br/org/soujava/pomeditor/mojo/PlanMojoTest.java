@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+
+import br.org.soujava.pomeditor.api.EditEngine;
+import br.org.soujava.pomeditor.api.PomChange;
+import br.org.soujava.pomeditor.api.PomPlan;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PlanMojoTest extends EditingMojoTest {
+
+    Path rootPom;
+    Path modulePom;
+    Path planFile;
+
+    @BeforeEach
+    void createModules() throws IOException {
+        rootPom = pom.resolveSibling("pom.xml");
+        Files.copy(pom, rootPom);
+        modulePom = Files.createDirectories(tempDir.resolve("module")).resolve("pom.xml");
+        Files.copy(pom, modulePom);
+        planFile = tempDir.resolve("target").resolve("pom-editor.plan");
+    }
+
+    @Test
+    void shouldPlanEveryPomWithoutWritingAny() throws MojoExecutionException, MojoFailureException, IOException {
+        String original = Files.readString(rootPom);
+
+        PlanMojo mojo = newMojo();
+        mojo.execute();
+
+        PomPlan plan = PomPlan.read(planFile);
+        assertThat(plan.getEntries())
+                .extracting(PomPlan.Entry::getPom)
+                .containsExactly(rootPom.toAbsolutePath(), modulePom.toAbsolutePath());
+        assertThat(plan.getEntries().get(0).getDiff()).contains("+            <artifactId>artifactId</artifactId>\n");
+        assertThat(rootPom).hasContent(original);
+        assertThat(modulePom).hasContent(original);
+        assertThat(PomChange.backupFileOf(rootPom)).doesNotExist();
+        verify(backupFunction, never()).apply(any());
+        verify(log, times(2)).info(contains("[CHANGE]"));
+    }
+
+    @Test
+    void shouldWriteThePlanOfTheOtherPomsWhenOneFails() {
+
+        PlanMojo mojo = newMojo();
+        mojo.planCommand = (path, batch) -> {
+            if (path.equals(modulePom.toAbsolutePath())) {
+                throw new IllegalStateException("forced error");
+            }
+            return PomPlan.plan(log, path, batch, EditEngine.DOM);
+        };
+
+        MojoFailureException ex = Assertions.assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(ex.getMessage()).contains(modulePom.toString()).doesNotContain(rootPom.toString());
+        assertThat(PomPlan.read(planFile).getEntries())
+                .extracting(PomPlan.Entry::getPom)
+                .containsExactly(rootPom.toAbsolutePath());
+    }
+
+    @Test
+    void shouldNotPlanUpToDatePoms() throws MojoExecutionException, MojoFailureException {
+
+        PlanMojo mojo = newMojo();
+        mojo.planCommand = (path, batch) -> Optional.empty();
+        mojo.execute();
+
+        assertThat(PomPlan.read(planFile).getEntries()).isEmpty();
+        verify(log, times(2)).info(contains("[UNCHANGED]"));
+    }
+
+    private PlanMojo newMojo() {
+        PlanMojo mojo = new PlanMojo();
+        mojo.root = tempDir.toString();
+        mojo.includes = "{pom.xml,*/pom.xml}";
+        mojo.threads = 2;
+        mojo.gavs = List.of("groupId:artifactId:222");
+        mojo.planFile = planFile.toString();
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        return mojo;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyUsagesMojoTest extends EditingMojoTest {
+
+    Path rootPom;
+    Path moduleAPom;
+    Path moduleBPom;
+
+    @BeforeEach
+    void createModules() throws IOException {
+        rootPom = tempDir.resolve("pom.xml");
+        Files.writeString(rootPom, "<project>\n" +
+                "    <groupId>org.example</groupId>\n" +
+                "    <artifactId>root</artifactId>\n" +
+                "    <properties>\n" +
+                "        <junit.version>5.9.0</junit.version>\n" +
+                "    </properties>\n" +
+                "</project>\n");
+        moduleAPom = newModulePom("module-a", "${junit.version}");
+        moduleBPom = newModulePom("module-b", "5.9.0");
+    }
+
+    private Path newModulePom(String module, String jupiterVersion) throws IOException {
+        Path modulePom = tempDir.resolve(module).resolve("pom.xml");
+        Files.createDirectories(modulePom.getParent());
+        Files.writeString(modulePom, "<project>\n" +
+                "    <parent>\n" +
+                "        <groupId>org.example</groupId>\n" +
+                "        <artifactId>root</artifactId>\n" +
+                "    </parent>\n" +
+                "    <properties>\n" +
+                "        <" + module + ".skip>true</" + module + ".skip>\n" +
+                "    </properties>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.junit.jupiter</groupId>\n" +
+                "            <artifactId>junit-jupiter</artifactId>\n" +
+                "            <version>" + jupiterVersion + "</version>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n");
+        return modulePom;
+    }
+
+    @Test
+    void shouldReportTheUsagesOfEveryPropertyAcrossTheModules() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        PropertyUsagesMojo mojo = newMojo();
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(log).info("3 properties defined in 3 POM file(s).");
+        verify(log).info("junit.version: 1 definition(s), 1 reference(s), 1 hard-coded value(s)");
+        verify(log).info(String.format("  [DEFINITION] \"%s\":5 5.9.0", rootPom));
+        verify(log).info(String.format("  [REFERENCE] \"%s\":13 ${junit.version}", moduleAPom));
+        verify(log).info(String.format("  [HARD-CODED] \"%s\":13 5.9.0", moduleBPom));
+        verify(log).info("module-a.skip: 1 definition(s), 0 reference(s), 0 hard-coded value(s)");
+        verify(log).info(String.format("  [DEFINITION] \"%s\":7 true", moduleAPom));
+        verify(log).info("module-b.skip: 1 definition(s), 0 reference(s), 0 hard-coded value(s)");
+        verify(log).info(String.format("  [DEFINITION] \"%s\":7 true", moduleBPom));
+    }
+
+    @Test
+    void shouldReportTheUsagesOfTheGivenPropertyOnly() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        PropertyUsagesMojo mojo = newMojo();
+        mojo.property = " junit.version ";
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(log).info("3 properties defined in 3 POM file(s).");
+        verify(log).info("junit.version: 1 definition(s), 1 reference(s), 1 hard-coded value(s)");
+        verify(log).info(String.format("  [HARD-CODED] \"%s\":13 5.9.0", moduleBPom));
+        verify(log, never()).info(startsWith("module-a.skip"));
+        verify(log, never()).info(startsWith("module-b.skip"));
+    }
+
+    @Test
+    void shouldReportTheUsagesOfTheModulesUnderTheRootOnly() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        PropertyUsagesMojo mojo = newMojo();
+        mojo.root = moduleBPom.getParent().toString();
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(log).info("1 properties defined in 1 POM file(s).");
+        verify(log).info("module-b.skip: 1 definition(s), 0 reference(s), 0 hard-coded value(s)");
+        verify(log, never()).info(startsWith("junit.version"));
+    }
+
+    @Test
+    void shouldReportAnUndefinedProperty() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        PropertyUsagesMojo mojo = newMojo();
+        mojo.property = "mockito.version";
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(log).info("mockito.version: 0 definition(s), 0 reference(s), 0 hard-coded value(s)");
+    }
+
+    private PropertyUsagesMojo newMojo() {
+        PropertyUsagesMojo mojo = new PropertyUsagesMojo();
+        mojo.root = tempDir.toString();
+        mojo.setLog(log);
+        return mojo;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Changeset;
+import br.org.soujava.pomeditor.api.PomChange;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RecoverMojoTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    Log log;
+
+    private RecoverMojo mojo;
+    private Path journalDirectory;
+
+    @BeforeEach
+    void setup() {
+        journalDirectory = root.resolve("journal");
+        mojo = new RecoverMojo();
+        mojo.setLog(log);
+        mojo.journalDirectory = journalDirectory.toString();
+    }
+
+    @Test
+    void shouldRollBackAnInterruptedRun() throws Throwable {
+        Path pom = Files.writeString(root.resolve("pom.xml"), "original");
+        try (Changeset changeset = Changeset.open(journalDirectory, "bump")) {
+            changeset.begin();
+            edit(changeset, pom, "edited");
+            // the run dies before it ends
+        }
+
+        mojo.execute();
+
+        assertThat(pom).hasContent("original");
+        assertThat(Changeset.exists(journalDirectory, "bump")).isFalse();
+        verify(log).info("  [ROLLED BACK] \"bump\": it was interrupted while running");
+        verify(log).info("1 changeset(s) recovered.");
+    }
+
+    @Test
+    void shouldKeepTheChangesetsWaitingToBeCommitted() throws Throwable {
+        Path pom = Files.writeString(root.resolve("pom.xml"), "original");
+        try (Changeset changeset = Changeset.open(journalDirectory, "bump")) {
+            changeset.begin();
+            edit(changeset, pom, "edited");
+            changeset.end();
+        }
+
+        mojo.execute();
+
+        assertThat(pom).hasContent("edited");
+        assertThat(Changeset.exists(journalDirectory, "bump")).isTrue();
+        verify(log).info("0 changeset(s) recovered.");
+    }
+
+    @Test
+    void shouldRecoverNothingWithoutJournals() throws Exception {
+
+        mojo.execute();
+
+        verify(log).info("0 changeset(s) recovered.");
+    }
+
+    @Test
+    void shouldFailIfAChangesetIsUsedByAnotherProcess() throws Exception {
+        Path journal = Files.createDirectories(journalDirectory.resolve("bump")).resolve("journal");
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+
+            MojoFailureException error = assertThrows(MojoFailureException.class, mojo::execute);
+
+            assertThat(error.getMessage()).contains("bump");
+        }
+    }
+
+    private static void edit(Changeset changeset, Path pom, String content) throws Throwable {
+        PomChange.builder()
+                .withPom(pom)
+                .withBackupStrategy(changeset)
+                .build()
+                .execute(() -> {
+                    PomChange.beforeWrite(pom);
+                    Files.writeString(pom, content);
+                });
+    }
+}
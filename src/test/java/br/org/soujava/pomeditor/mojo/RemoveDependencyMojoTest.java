@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Dependency;
+import br.org.soujava.pomeditor.api.PomSection;
+import br.org.soujava.pomeditor.api.RemoveDependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RemoveDependencyMojoTest extends EditingMojoTest {
+
+    @Mock
+    BiConsumer<Path, Dependency> removeDependencyCommand;
+
+    @Captor
+    ArgumentCaptor<Dependency> dependencyToBeRemoved;
+
+    @Test
+    void shouldReturnErrorWhenTheArtifactIdIsMissing() {
+        Assertions.assertThrows(MojoExecutionException.class, () -> {
+            RemoveDependencyMojo mojo = newMojo();
+            mojo.gav = "groupId";
+            mojo.execute();
+        });
+
+        verify(backupFunction, never()).apply(any());
+    }
+
+    @Test
+    void shouldRemoveDependencyProperly() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        RemoveDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit.jupiter:junit-jupiter";
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(removeDependencyCommand, atLeastOnce()).accept(targetPom.capture(), dependencyToBeRemoved.capture());
+        verify(backupFunction, atLeastOnce()).apply(any(Path.class));
+        verify(rollbackFunction, never()).accept(any());
+
+        assertThat(targetPom.getValue()).isEqualTo(Path.of(mojo.pom));
+        assertThat(dependencyToBeRemoved.getValue()).isEqualTo(Dependency.ofGav("org.junit.jupiter:junit-jupiter").build());
+    }
+
+    @Test
+    void shouldNotChangeAnUpToDatePom() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        RemoveDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit.jupiter:junit-jupiter";
+        mojo.removeDependencyCommand = removeDependencyCommand;
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(removeDependencyCommand, atLeastOnce()).accept(any(), any());
+        verify(backupFunction, never()).apply(any());
+        verify(log, atLeastOnce()).info(contains("unchanged"));
+    }
+
+    @Test
+    void shouldRemoveTheManagedDependencyOnly() throws Exception {
+
+        //Given
+        RemoveDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit.jupiter:junit-jupiter";
+        mojo.managed = true;
+        mojo.removeDependencyCommand = null;
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(pom)).containsOnlyOnce("<artifactId>junit-jupiter</artifactId>");
+    }
+
+    @Test
+    void shouldReuseTheCachedTransformationOfAnIdenticalPom() throws Exception {
+
+        //Given
+        Path identicalPom = tempDir.resolve("identical").resolve("pom.xml");
+        Files.createDirectories(identicalPom.getParent());
+        Files.copy(pom, identicalPom);
+        RemoveDependencyMojo mojo = newMojo();
+        mojo.gav = "org.junit.jupiter:junit-jupiter";
+        mojo.cacheDirectory = tempDir.resolve("cache").toString();
+        mojo.removeDependencyCommand = (path, dependency) -> {
+            removeDependencyCommand.accept(path, dependency);
+            RemoveDependency.execute(path, dependency, PomSection.dependencies(false));
+        };
+
+        //When
+        mojo.execute();
+        mojo.pom = identicalPom.toString();
+        mojo.execute();
+
+        //Then
+        verify(removeDependencyCommand, times(1)).accept(any(), any());
+        assertThat(Files.readString(identicalPom)).isEqualTo(Files.readString(pom));
+        verify(log).info(startsWith("transformation cache: 1 hit(s), 1 miss(es), 0 eviction(s), 1 entries"));
+    }
+
+    private RemoveDependencyMojo newMojo() {
+        RemoveDependencyMojo mojo = new RemoveDependencyMojo();
+        mojo.pom = this.pom.toString();
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.removeDependencyCommand = (path, item) -> {
+            written(path);
+            removeDependencyCommand.accept(path, item);
+        };
+        return mojo;
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.Plugin;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RemovePluginMojoTest extends EditingMojoTest {
+
+    @Mock
+    BiConsumer<Path, Plugin> removePluginCommand;
+
+    @Captor
+    ArgumentCaptor<Plugin> pluginToBeRemoved;
+
+    @Test
+    void shouldReturnErrorWhenTheArtifactIdIsMissing() {
+        Assertions.assertThrows(MojoExecutionException.class, () -> {
+            RemovePluginMojo mojo = newMojo();
+            mojo.gav = "groupId";
+            mojo.execute();
+        });
+
+        verify(backupFunction, never()).apply(any());
+    }
+
+    @Test
+    void shouldRemovePluginProperly() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        RemovePluginMojo mojo = newMojo();
+        mojo.gav = "org.apache.maven.plugins:maven-jar-plugin";
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(removePluginCommand, atLeastOnce()).accept(targetPom.capture(), pluginToBeRemoved.capture());
+        verify(backupFunction, atLeastOnce()).apply(any(Path.class));
+        verify(rollbackFunction, never()).accept(any());
+
+        assertThat(targetPom.getValue()).isEqualTo(Path.of(mojo.pom));
+        assertThat(pluginToBeRemoved.getValue()).isEqualTo(Plugin.ofGav("org.apache.maven.plugins:maven-jar-plugin").build());
+    }
+
+    @Test
+    void shouldNotChangeAnUpToDatePom() throws MojoExecutionException, MojoFailureException {
+
+        //Given
+        RemovePluginMojo mojo = newMojo();
+        mojo.gav = "org.apache.maven.plugins:maven-jar-plugin";
+        mojo.removePluginCommand = removePluginCommand;
+
+        //When
+        mojo.execute();
+
+        //Then
+        verify(removePluginCommand, atLeastOnce()).accept(any(), any());
+        verify(backupFunction, never()).apply(any());
+        verify(log, atLeastOnce()).info(contains("unchanged"));
+    }
+
+    @Test
+    void shouldRemoveTheManagedPluginOnly() throws Exception {
+
+        //Given
+        RemovePluginMojo mojo = newMojo();
+        mojo.gav = "org.apache.maven.plugins:maven-surefire-plugin";
+        mojo.managed = true;
+        mojo.removePluginCommand = null;
+
+        //When
+        mojo.execute();
+
+        //Then
+        assertThat(Files.readString(pom)).doesNotContain("<artifactId>maven-surefire-plugin</artifactId>");
+    }
+
+    private RemovePluginMojo newMojo() {
+        RemovePluginMojo mojo = new RemovePluginMojo();
+        mojo.pom = this.pom.toString();
+        mojo.setLog(log);
+        mojo.backupFunction = backupFunction;
+        mojo.rollbackFunction = rollbackFunction;
+        mojo.removePluginCommand = (path, item) -> {
+            written(path);
+            removePluginCommand.accept(path, item);
+        };
+        return mojo;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package br.org.soujava.pomeditor.mojo;
+
+import br.org.soujava.pomeditor.api.PomChange;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RollbackAllMojoTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    Log log;
+
+    private RollbackAllMojo mojo;
+
+    @BeforeEach
+    void setup() {
+        mojo = new RollbackAllMojo();
+        mojo.setLog(log);
+        mojo.root = root.toString();
+        mojo.threads = 2;
+    }
+
+    @Test
+    void shouldRollBackEveryBackupOfTheTree() throws Exception {
+        Path pom = changedPom(root);
+        Path module = changedPom(Files.createDirectories(root.resolve("a/b")));
+        Path built = changedPom(Files.createDirectories(root.resolve("a/target")));
+        Path hidden = changedPom(Files.createDirectories(root.resolve(".git")));
+        Path settings = Files.writeString(root.resolve("settings.xml"), "changed");
+        Files.writeString(PomChange.backupFileOf(settings), "original");
+
+        mojo.execute();
+
+        assertThat(pom).hasContent("original");
+        assertThat(module).hasContent("original");
+        assertThat(PomChange.backupFileOf(pom)).doesNotExist();
+        assertThat(PomChange.backupFileOf(module)).doesNotExist();
+        assertThat(built).hasContent("changed");
+        assertThat(hidden).hasContent("changed");
+        assertThat(settings).hasContent("changed");
+        verify(log).info(String.format("2 backup POM file(s) found under \"%s\": 2 rolled back, 0 failed.", root));
+    }
+
+    @Test
+    void shouldReportEveryFailure() throws IOException {
+        changedPom(root);
+        changedPom(Files.createDirectories(root.resolve("a")));
+        changedPom(Files.createDirectories(root.resolve("b")));
+        mojo.rollbackFunction = pom -> {
+            if (!pom.getParent().equals(root)) {
+                throw new IllegalStateException("failed");
+            }
+        };
+
+        MojoFailureException error = assertThrows(MojoFailureException.class, mojo::execute);
+
+        assertThat(error.getMessage()).startsWith("cannot roll back 2 POM file(s)");
+        verify(log, times(2)).error(anyString());
+        verify(log).info(String.format("3 backup POM file(s) found under \"%s\": 1 rolled back, 2 failed.", root));
+    }
+
+    @Test
+    void shouldFailIfTheRootIsNotADirectory() {
+        mojo.root = root.resolve("missing").toString();
+
+        assertThrows(MojoFailureException.class, mojo::execute);
+    }
+
+    private static Path changedPom(Path directory) throws IOException {
+        Path pom = Files.writeString(directory.resolve("pom.xml"), "changed");
+        Files.writeString(PomChange.backupFileOf(pom), "original");
+        return pom;
+    }
+}
@@ -17,6 +17,7 @@
 
 package br.org.soujava.pomeditor.mojo;
 
+import br.org.soujava.pomeditor.api.BackupStore;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
@@ -25,12 +26,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,4 +57,45 @@ class RollbackMojoTest {
         verify(log,atLeast(2)).info(anyString());
         verify(rollbackFunction, atLeast(1)).accept(any(Path.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRollBackEveryPomOfTheBackupStore() throws Exception {
+        Path directory = Files.createTempDirectory(null);
+        Path pom = Files.writeString(directory.resolve("pom.xml"), "original");
+        Path backupDirectory = directory.resolve("backups");
+        BackupStore.of(backupDirectory).backup(pom, message -> { });
+        Files.writeString(pom, "changed");
+
+        var mojo = new RollbackMojo();
+        mojo.setLog(log);
+        mojo.rollbackFunction = this.rollbackFunction;
+        mojo.backup = "store";
+        mojo.backupDirectory = backupDirectory.toString();
+        mojo.execute();
+
+        assertThat(pom).hasContent("original");
+        assertThat(BackupStore.of(backupDirectory).getPoms()).isEmpty();
+        verify(rollbackFunction, never()).accept(any(Path.class));
+    }
+
+    @Test
+    void shouldFailIfTheBackupStoreDoesNotExist() throws IOException {
+        var mojo = new RollbackMojo();
+        mojo.setLog(log);
+        mojo.backup = "store";
+        mojo.backupDirectory = Files.createTempDirectory(null).resolve("backups").toString();
+
+        assertThrows(MojoFailureException.class, mojo::execute);
+    }
+
+    @Test
+    void shouldRejectTheMemoryBackup() {
+        var mojo = new RollbackMojo();
+        mojo.setLog(log);
+        mojo.rollbackFunction = this.rollbackFunction;
+        mojo.backup = "memory";
+
+        assertThrows(MojoFailureException.class, mojo::execute);
+        verify(rollbackFunction, never()).accept(any(Path.class));
+    }
+}